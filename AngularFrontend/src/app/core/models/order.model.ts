@@ -45,4 +45,21 @@ export interface OrderResponse {
   configuration: OrderConfiguration;
   schedule: OrderSchedule;
   createdAt: string;
+  updatedAt: string;
+  seriesId: string | null;
+}
+
+export interface OrderPage {
+  orders: OrderResponse[];
+  nextCursor: string | null;
+}
+
+export interface OrderListQuery {
+  status?: string;
+  familyId?: string;
+  tierId?: string;
+  createdFrom?: string;
+  createdTo?: string;
+  cursor?: string;
+  limit?: number;
 }
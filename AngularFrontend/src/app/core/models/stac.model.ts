@@ -42,11 +42,25 @@ export interface CatalogSearchRequest {
   datetime?: string;
   limit?: number;
   offset?: number;
+  cursor?: string;
+  fields?: CatalogSearchFields;
+  gridCells?: boolean;
+  simplifyTolerance?: number;
+  zoom?: number;
+}
+
+export interface CatalogSearchFields {
+  include?: string[];
+  exclude?: string[];
 }
 
 export interface CatalogSearchResponse {
   type: string;
   features: StacItem[];
-  numberMatched: number;
+  /** Null when the backend cannot tell the total (grid cell searches with more pages). */
+  numberMatched: number | null;
   numberReturned: number;
+  partial?: boolean;
+  failedProviders?: string[];
+  nextCursor?: string;
 }
@@ -1,7 +1,7 @@
 import { Injectable, inject } from '@angular/core';
-import { HttpClient } from '@angular/common/http';
+import { HttpClient, HttpParams } from '@angular/common/http';
 import { Observable } from 'rxjs';
-import { OrderRequest, OrderResponse } from '../models/order.model';
+import { OrderListQuery, OrderPage, OrderRequest, OrderResponse } from '../models/order.model';
 
 @Injectable({ providedIn: 'root' })
 export class OrderApiService {
@@ -11,11 +11,21 @@ export class OrderApiService {
     return this.http.post<OrderResponse>('/orders', order);
   }
 
-  getOrders(): Observable<OrderResponse[]> {
-    return this.http.get<OrderResponse[]>('/orders');
+  getOrders(query: OrderListQuery = {}): Observable<OrderPage> {
+    let params = new HttpParams();
+    for (const [key, value] of Object.entries(query)) {
+      if (value !== undefined && value !== null && value !== '') {
+        params = params.set(key, String(value));
+      }
+    }
+    return this.http.get<OrderPage>('/orders', { params });
   }
 
   getOrder(id: string): Observable<OrderResponse> {
     return this.http.get<OrderResponse>(`/orders/${id}`);
   }
+
+  cancelOrder(id: string): Observable<OrderResponse> {
+    return this.http.post<OrderResponse>(`/orders/${id}/cancel`, null);
+  }
 }
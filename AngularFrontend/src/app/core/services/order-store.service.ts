@@ -50,7 +50,7 @@ export class OrderStoreService {
   readonly areaOfInterest = signal<AreaOfInterest | null>(null);
   readonly stacSearchParams = signal<StacSearchParams>({ ...defaultStacSearchParams });
   readonly stacResults = signal<StacItem[]>([]);
-  readonly stacTotalMatched = signal<number>(0);
+  readonly stacTotalMatched = signal<number | null>(0);
   readonly selectedScenes = signal<StacItem[]>([]);
 
   // Computed current step
@@ -126,7 +126,7 @@ export class OrderStoreService {
     this.stacSearchParams.update(current => ({ ...current, ...params }));
   }
 
-  setStacResults(results: StacItem[], totalMatched: number): void {
+  setStacResults(results: StacItem[], totalMatched: number | null): void {
     this.stacResults.set(results);
     this.stacTotalMatched.set(totalMatched);
   }
@@ -138,6 +138,8 @@ export class BrowseImageryComponent {
       datetime,
       collections: this.IMAGERY_COLLECTIONS,
       limit: 20,
+      gridCells: true,
+      zoom: this.mapRef()?.currentZoom(),
     }).subscribe({
       next: (response) => {
         this.store.setStacResults(response.features, response.numberMatched);
@@ -148,7 +150,11 @@ export class BrowseImageryComponent {
         console.error('Search failed:', err);
         this.isSearching.set(false);
         this.hasSearched.set(true);
-        this.searchError.set('Search failed. Make sure the backend is running.');
+        this.searchError.set(err?.status === 429
+          ? 'The imagery catalog is busy. Please try again in a moment.'
+          : err?.status === 503
+            ? 'The imagery catalog is temporarily unavailable. Please try again shortly.'
+            : 'Search failed. Make sure the backend is running.');
       },
     });
   }
@@ -183,6 +189,7 @@ export class BrowseImageryComponent {
       collections: this.IMAGERY_COLLECTIONS,
       limit: 20,
       offset: currentResults.length,
+      zoom: this.mapRef()?.currentZoom(),
     }).subscribe({
       next: (response) => {
         this.store.setStacResults(
@@ -112,6 +112,10 @@ export class ImageryMapComponent {
     });
   }
 
+  currentZoom(): number | undefined {
+    return this.map ? Math.round(this.map.getZoom()) : undefined;
+  }
+
   updateFootprints(results: StacItem[], selectedIds: string[]): void {
     if (!this.map) return;
     this.ngZone.runOutsideAngular(() => {
@@ -58,7 +58,11 @@ import { SceneCardComponent } from '../scene-card/scene-card.component';
         <!-- Header: count + sort controls -->
         <div class="mb-3 flex items-center justify-between">
           <p class="text-sm text-muted-foreground">
-            Showing {{ scenes().length }} of {{ totalMatched() }} results
+            @if (totalMatched() !== null) {
+              Showing {{ scenes().length }} of {{ totalMatched() }} results
+            } @else {
+              Showing {{ scenes().length }} results
+            }
             @if (selectedCount() > 0) {
               <span class="ml-2 inline-flex items-center rounded-full px-2 py-0.5 text-xs font-medium text-white"
                     [style.background-color]="accentColor()">
@@ -88,7 +92,7 @@ import { SceneCardComponent } from '../scene-card/scene-card.component';
         </div>
 
         <!-- Load more -->
-        @if (scenes().length < totalMatched()) {
+        @if (hasMore()) {
           <div class="mt-4 text-center">
             <button class="rounded-lg border border-border bg-secondary px-4 py-2 text-sm font-medium text-secondary-foreground hover:bg-secondary/80"
                     (click)="loadMore.emit()">
@@ -102,7 +106,7 @@ import { SceneCardComponent } from '../scene-card/scene-card.component';
 })
 export class SceneGridComponent {
   scenes = input.required<StacItem[]>();
-  totalMatched = input<number>(0);
+  totalMatched = input<number | null>(0);
   selectedIds = input<string[]>([]);
   accentColor = input<string>('#3B82F6');
   isLoading = input<boolean>(false);
@@ -121,6 +125,12 @@ export class SceneGridComponent {
     return this.scenes().filter(s => ids.includes(s.id)).length;
   };
 
+  // an unknown total means the search has further pages
+  hasMore = (): boolean => {
+    const total = this.totalMatched();
+    return total === null || this.scenes().length < total;
+  };
+
   sortedScenes = (): StacItem[] => {
     const items = [...this.scenes()];
     if (this.sortBy() === 'date') {
@@ -1,29 +1,82 @@
 package com.gdmp.api;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.gdmp.model.dto.CatalogSearchRequest;
 import com.gdmp.model.dto.CatalogSearchResponse;
+import com.gdmp.service.CatalogOverloadedException;
 import com.gdmp.service.CatalogService;
+import com.gdmp.service.CatalogTileService;
+import com.gdmp.service.CatalogUnavailableException;
+import com.gdmp.service.CollectionsSnapshot;
+import com.gdmp.service.SearchCache;
+import com.gdmp.service.SingleFlight;
+import com.gdmp.service.StacItemIndex;
+import com.gdmp.service.TileCache;
+import com.gdmp.service.VectorTile;
+import com.gdmp.stac.StacItem;
+import com.gdmp.stac.StacProviderStats;
+import com.gdmp.stac.StacSearchRelay;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.media.Content;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
 import org.eclipse.microprofile.openapi.annotations.parameters.RequestBody;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+import org.jboss.logging.Logger;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * REST resource for STAC catalog search and collection discovery.
  * Provides endpoints to search across configured STAC providers
  * and list available satellite imagery collections.
+ * Catalog endpoints return a CompletionStage and never block on the upstream providers.
+ * Search responses are serialized here rather than by the JSON provider, so serialization
+ * time and response size are recorded as metrics.
+ * A search sent with {@code Accept: application/geo+json} that needs nothing done to the
+ * provider's results is relayed: the provider's FeatureCollection is streamed to the client
+ * as received, compressed as the client accepts it.
+ * Item footprints are also served as Mapbox Vector Tiles built from the same cached searches.
  */
 @Path("/api/catalog")
 @Produces(MediaType.APPLICATION_JSON)
@@ -31,21 +84,74 @@ import java.util.List;
 @Tag(name = "Catalog", description = "STAC catalog search and collection discovery")
 public class CatalogResource {
 
+    private static final Logger LOG = Logger.getLogger(CatalogResource.class);
+
+    static final String APPLICATION_NDJSON = "application/x-ndjson";
+    static final String APPLICATION_GEO_JSON = "application/geo+json";
+    static final String APPLICATION_MVT = "application/vnd.mapbox-vector-tile";
+
     @Inject
     CatalogService catalogService;
 
+    @Inject
+    CatalogTileService tileService;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "catalog.relay.compress", defaultValue = "true")
+    boolean relayCompress;
+
+    @ConfigProperty(name = "catalog.tiles.max-age", defaultValue = "60s")
+    Duration tileMaxAge;
+
+    private Timer serializeTimer;
+    private DistributionSummary responseBytes;
+
+    @PostConstruct
+    void init() {
+        this.serializeTimer = Timer.builder("catalog.search.stage")
+                .tag("stage", "serialize")
+                .tag("provider", "all")
+                .description("Time spent in each stage of a catalog search")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.responseBytes = DistributionSummary.builder("catalog.search.response.size")
+                .description("Serialized catalog search response size")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
     /**
      * Searches the STAC catalog with spatial, temporal, and collection filters.
+     * Pass the {@code nextCursor} of a response as {@code cursor} to fetch the next page.
+     * Clients accepting {@code application/geo+json} may get the provider's FeatureCollection
+     * relayed instead (see {@link CatalogService#relay}); it carries the provider's own links
+     * rather than a {@code nextCursor}.
      *
-     * @param request search parameters including bbox, datetime, collections, and limit
-     * @return matching STAC items with result counts
+     * @param request search parameters including bbox, datetime, collections, limit, and cursor
+     * @param headers request headers, for the Accept and Accept-Encoding negotiation of relayed searches
+     * @return matching STAC items with result counts, 400 for a malformed or expired cursor, 429 if every
+     *         provider is at its concurrent search limit, or 503 if every provider failed
      */
     @POST
     @Path("/search")
+    @Produces({MediaType.APPLICATION_JSON, APPLICATION_GEO_JSON})
     @Operation(
             summary = "Search STAC catalog",
             description = "Searches the configured STAC providers using bounding box, datetime range, "
-                    + "collection filters, and result limit. Returns GeoJSON FeatureCollection-style results."
+                    + "collection filters, and result limit. Returns GeoJSON FeatureCollection-style results "
+                    + "with a nextCursor while more pages are available. An optional fields projection "
+                    + "(include/exclude, STAC fields extension) trims the returned items. With gridCells set, "
+                    + "the bbox is searched as fixed grid cells that are cached and reused across overlapping searches. "
+                    + "A zoom (or simplifyTolerance in degrees) simplifies item geometries to about one pixel at "
+                    + "that web map zoom and rounds their coordinates. "
+                    + "Clients that accept application/geo+json get a plain search (no fields, gridCells, or cursor) "
+                    + "against a single provider relayed as the provider's own STAC FeatureCollection, unparsed."
     )
     @RequestBody(
             description = "STAC search parameters",
@@ -54,17 +160,109 @@ public class CatalogResource {
     @APIResponse(
             responseCode = "200",
             description = "Search results with matched STAC items",
-            content = @Content(schema = @Schema(implementation = CatalogSearchResponse.class))
+            content = {
+                    @Content(mediaType = MediaType.APPLICATION_JSON,
+                             schema = @Schema(implementation = CatalogSearchResponse.class)),
+                    @Content(mediaType = APPLICATION_GEO_JSON)
+            }
+    )
+    @APIResponse(
+            responseCode = "400",
+            description = "Malformed or expired search cursor"
     )
-    public Response search(CatalogSearchRequest request) {
-        CatalogSearchResponse response = catalogService.search(request);
-        return Response.ok(response).build();
+    @APIResponse(
+            responseCode = "429",
+            description = "Every catalog provider already has its maximum of searches running and queued; "
+                    + "retry after the Retry-After delay"
+    )
+    @APIResponse(
+            responseCode = "503",
+            description = "Every catalog provider failed; results that only some providers could deliver "
+                    + "are returned with 200 and marked partial"
+    )
+    public CompletionStage<Response> search(CatalogSearchRequest request, @Context HttpHeaders headers) {
+        try {
+            CompletionStage<StacSearchRelay> relay = acceptsGeoJson(headers) ? catalogService.relay(request) : null;
+            if (relay != null) {
+                Set<String> encodings = acceptedEncodings(headers.getHeaderString(HttpHeaders.ACCEPT_ENCODING));
+                return relay.thenApply(upstream -> relayResponse(upstream, encodings))
+                        .exceptionally(CatalogResource::unavailable);
+            }
+            return catalogService.search(request)
+                    .thenApply(response -> Response.ok(serialize(response), MediaType.APPLICATION_JSON_TYPE).build())
+                    .exceptionally(CatalogResource::unavailable);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(badRequest(e));
+        }
+    }
+
+    /**
+     * Streams every item matching the search as newline-delimited JSON, following the
+     * upstream pages until the last one. The next page is fetched while the current one
+     * is written, and at most two pages are held in memory regardless of result size.
+     *
+     * The status is sent only once the first page has arrived, so a search that fails
+     * outright gets a proper error status. Once streaming, a failed page can no longer change
+     * the status: the stream instead ends with an {@link ExportError} line carrying the cursor
+     * that resumes the export at the failed page.
+     *
+     * @param request search parameters; a cursor starts the export from that page
+     * @return NDJSON stream of STAC items, 400 for a malformed or expired cursor, 429 if every
+     *         provider is at its concurrent search limit, or 503 if every provider failed
+     */
+    @POST
+    @Path("/search/export")
+    @Produces(APPLICATION_NDJSON)
+    @Operation(
+            summary = "Export all STAC search results",
+            description = "Walks every result page of the search and streams the items as "
+                    + "newline-delimited JSON (one STAC item per line)."
+    )
+    @RequestBody(
+            description = "STAC search parameters",
+            content = @Content(schema = @Schema(implementation = CatalogSearchRequest.class))
+    )
+    @APIResponse(
+            responseCode = "200",
+            description = "NDJSON stream of matching STAC items. If a later page fails, the stream ends with "
+                    + "a line {\"type\": \"error\", \"message\": ..., \"cursor\": ...} instead of the "
+                    + "remaining items; posting the search again with that cursor resumes the export. "
+                    + "A stream without such a line is complete.",
+            content = @Content(mediaType = APPLICATION_NDJSON, schema = @Schema(implementation = StacItem.class))
+    )
+    @APIResponse(
+            responseCode = "400",
+            description = "Malformed or expired search cursor"
+    )
+    @APIResponse(
+            responseCode = "429",
+            description = "Every catalog provider already has its maximum of searches running and queued; "
+                    + "retry after the Retry-After delay"
+    )
+    @APIResponse(
+            responseCode = "503",
+            description = "Every catalog provider failed the first page"
+    )
+    public Response export(CatalogSearchRequest request) {
+        CatalogSearchResponse firstPage;
+        try {
+            firstPage = catalogService.searchPage(request).toCompletableFuture().join();
+        } catch (IllegalArgumentException e) {
+            return badRequest(e);
+        } catch (CompletionException e) {
+            return unavailable(e);
+        }
+        StreamingOutput stream = output -> writePages(request, firstPage, output);
+        return Response.ok(stream, APPLICATION_NDJSON).build();
     }
 
     /**
      * Lists all available STAC collections from configured providers.
+     * The list is served from the cached snapshot with an ETag, so clients revalidating
+     * with If-None-Match receive 304 Not Modified while the list is unchanged.
      *
-     * @return list of collection identifier strings
+     * @param request the HTTP request, used to evaluate If-None-Match
+     * @return list of collection identifier strings, or 304 if the client copy is current
      */
     @GET
     @Path("/collections")
@@ -78,8 +276,392 @@ public class CatalogResource {
             description = "List of available collection IDs",
             content = @Content(schema = @Schema(implementation = String[].class))
     )
-    public Response getCollections() {
-        List<String> collections = catalogService.getCollections();
-        return Response.ok(collections).build();
+    @APIResponse(
+            responseCode = "304",
+            description = "Collection list unchanged since the ETag sent in If-None-Match"
+    )
+    public CompletionStage<Response> getCollections(@Context Request request) {
+        return catalogService.getCollectionsSnapshot()
+                .thenApply(snapshot -> collectionsResponse(request, snapshot));
+    }
+
+    /**
+     * Returns search result cache counters.
+     *
+     * @return hit, miss, eviction, and refresh counts for the search cache
+     */
+    @GET
+    @Path("/cache/stats")
+    @Operation(
+            summary = "Search cache statistics",
+            description = "Returns hit, stale-hit, miss, eviction, and background refresh counters "
+                    + "for the catalog search result cache."
+    )
+    @APIResponse(
+            responseCode = "200",
+            description = "Current search cache statistics",
+            content = @Content(schema = @Schema(implementation = SearchCache.Stats.class))
+    )
+    public Response getSearchCacheStats() {
+        return Response.ok(catalogService.getSearchCacheStats()).build();
+    }
+
+    private static Response collectionsResponse(Request request, CollectionsSnapshot snapshot) {
+        EntityTag etag = new EntityTag(snapshot.etag());
+
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setNoCache(true);
+
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+        if (notModified != null) {
+            return notModified.cacheControl(cacheControl).build();
+        }
+
+        return Response.ok(snapshot.collections())
+                .tag(etag)
+                .cacheControl(cacheControl)
+                .build();
+    }
+
+    /**
+     * Returns counters for coalesced concurrent provider searches.
+     *
+     * @return leader, coalesced, and abandoned call counts
+     */
+    @GET
+    @Path("/coalescing/stats")
+    @Operation(
+            summary = "Search coalescing statistics",
+            description = "Returns how many provider searches started an upstream call, how many joined "
+                    + "an identical call already in flight, and how many were abandoned by all callers."
+    )
+    @APIResponse(
+            responseCode = "200",
+            description = "Current search coalescing statistics",
+            content = @Content(schema = @Schema(implementation = SingleFlight.Stats.class))
+    )
+    public Response getSearchCoalescingStats() {
+        return Response.ok(catalogService.getSearchCoalescingStats()).build();
+    }
+
+    /**
+     * Returns health counters for each catalog provider.
+     *
+     * @return circuit breaker state, hedging, and failure counts by provider ID
+     */
+    @GET
+    @Path("/providers/stats")
+    @Operation(
+            summary = "Catalog provider statistics",
+            description = "Returns, per provider, the circuit breaker state, the latency after which searches "
+                    + "are hedged, and counters for attempts, failures, hedges, and searches rejected while "
+                    + "the circuit was open."
+    )
+    @APIResponse(
+            responseCode = "200",
+            description = "Current statistics by provider ID",
+            content = @Content(schema = @Schema(implementation = StacProviderStats.class))
+    )
+    public Response getProviderStats() {
+        Map<String, StacProviderStats> stats = catalogService.getProviderStats();
+        return Response.ok(stats).build();
+    }
+
+    /**
+     * Returns counters for the local STAC item index.
+     *
+     * @return indexed item, coverage region, and lookup counts
+     */
+    @GET
+    @Path("/index/stats")
+    @Operation(
+            summary = "Item index statistics",
+            description = "Returns how many STAC items and covered search regions the local item index holds, "
+                    + "how many lookups it served, and how many fell inside a covered region."
+    )
+    @APIResponse(
+            responseCode = "200",
+            description = "Current item index statistics",
+            content = @Content(schema = @Schema(implementation = StacItemIndex.Stats.class))
+    )
+    public Response getItemIndexStats() {
+        return Response.ok(catalogService.getItemIndexStats()).build();
+    }
+
+    /**
+     * Returns a Mapbox Vector Tile of the footprints of the items matching the filter.
+     * Tiles carry a strong ETag, so clients revalidating with If-None-Match receive
+     * 304 Not Modified while the tile is unchanged.
+     *
+     * @param z           zoom level
+     * @param x           tile column
+     * @param y           tile row, counted from the north
+     * @param collections STAC collection IDs, repeated or comma-separated; all if absent
+     * @param datetime    ISO 8601 datetime range; any time if absent
+     * @param request     the HTTP request, used to evaluate If-None-Match
+     * @return the encoded tile (empty if no footprint falls in it), 304 if the client copy is
+     *         current, 400 for a tile outside the zoom level, 429 or 503 if the providers cannot search
+     */
+    @GET
+    @Path("/tiles/{z}/{x}/{y}.mvt")
+    @Produces(APPLICATION_MVT)
+    @Operation(
+            summary = "Catalog footprint vector tile",
+            description = "Returns the footprints of the STAC items matching the collection and datetime filter "
+                    + "as a Mapbox Vector Tile (web mercator XYZ addressing) with one layer, \"footprints\", "
+                    + "whose features carry id, datetime, cloud_cover, and collection. Each tile holds the newest "
+                    + "items up to a configured maximum, and tiles below the configured minimum zoom are empty."
+    )
+    @APIResponse(
+            responseCode = "200",
+            description = "Encoded vector tile; zero bytes if no footprint falls in the tile",
+            content = @Content(mediaType = APPLICATION_MVT)
+    )
+    @APIResponse(
+            responseCode = "304",
+            description = "Tile unchanged since the ETag sent in If-None-Match"
+    )
+    @APIResponse(
+            responseCode = "400",
+            description = "Tile coordinates outside the zoom level"
+    )
+    @APIResponse(
+            responseCode = "429",
+            description = "Every catalog provider already has its maximum of searches running and queued; "
+                    + "retry after the Retry-After delay"
+    )
+    @APIResponse(
+            responseCode = "503",
+            description = "Every catalog provider failed"
+    )
+    public CompletionStage<Response> getTile(@PathParam("z") int z, @PathParam("x") int x, @PathParam("y") int y,
+                                             @QueryParam("collections") List<String> collections,
+                                             @QueryParam("datetime") String datetime,
+                                             @Context Request request) {
+        List<String> collectionIds = collections == null ? null : collections.stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .toList();
+        try {
+            return tileService.getTile(z, x, y, collectionIds, datetime)
+                    .thenApply(tile -> tileResponse(request, tile))
+                    .exceptionally(CatalogResource::unavailable);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(badRequest(e));
+        }
     }
+
+    /**
+     * Returns vector tile cache counters.
+     *
+     * @return size, hit, miss, and eviction counts for the tile cache
+     */
+    @GET
+    @Path("/tiles/stats")
+    @Operation(
+            summary = "Vector tile cache statistics",
+            description = "Returns the number and encoded size of cached footprint tiles and the hit, miss, "
+                    + "and eviction counters of the tile cache."
+    )
+    @APIResponse(
+            responseCode = "200",
+            description = "Current tile cache statistics",
+            content = @Content(schema = @Schema(implementation = TileCache.Stats.class))
+    )
+    public Response getTileCacheStats() {
+        return Response.ok(tileService.getTileCacheStats()).build();
+    }
+
+    /**
+     * Builds the tile response. Complete tiles may be cached by clients for
+     * {@code catalog.tiles.max-age}; partial tiles are not cached and carry no ETag.
+     */
+    private Response tileResponse(Request request, VectorTile tile) {
+        CacheControl cacheControl = new CacheControl();
+        if (tile.partial()) {
+            cacheControl.setNoStore(true);
+            return Response.ok(tile.data(), APPLICATION_MVT).cacheControl(cacheControl).build();
+        }
+        cacheControl.setMaxAge((int) tileMaxAge.toSeconds());
+
+        EntityTag etag = new EntityTag(tile.etag());
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+        if (notModified != null) {
+            return notModified.cacheControl(cacheControl).build();
+        }
+        return Response.ok(tile.data(), APPLICATION_MVT)
+                .tag(etag)
+                .cacheControl(cacheControl)
+                .build();
+    }
+
+    /**
+     * Writes the pages of an export, ending with an {@link ExportError} line if a page fails.
+     */
+    private void writePages(CatalogSearchRequest request, CatalogSearchResponse firstPage,
+                            OutputStream output) throws IOException {
+        ObjectWriter itemWriter = objectMapper.writerFor(StacItem.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            CatalogSearchResponse page = firstPage;
+            while (page != null) {
+                // prefetch the next page while this one is written out
+                String cursor = page.nextCursor();
+                CompletableFuture<CatalogSearchResponse> pending = cursor != null
+                        ? searchPage(request.withCursor(cursor))
+                        : null;
+                for (StacItem item : page.features()) {
+                    itemWriter.writeValue(generator, item);
+                    generator.writeRaw('\n');
+                }
+                generator.flush();
+                try {
+                    page = pending != null ? pending.join() : null;
+                } catch (CompletionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    LOG.warnf("Catalog export stopped at cursor %s: %s", cursor, cause.getMessage());
+                    objectMapper.writeValue(generator, new ExportError("error", exportErrorMessage(cause), cursor));
+                    generator.writeRaw('\n');
+                    return;
+                }
+            }
+        }
+    }
+
+    private CompletableFuture<CatalogSearchResponse> searchPage(CatalogSearchRequest request) {
+        try {
+            return catalogService.searchPage(request).toCompletableFuture();
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static String exportErrorMessage(Throwable cause) {
+        return cause instanceof CatalogUnavailableException || cause instanceof IllegalArgumentException
+                ? cause.getMessage()
+                : "Catalog search failed";
+    }
+
+    /**
+     * Streams a relayed upstream body to the client. A body in an encoding the client accepts
+     * is passed through still encoded; otherwise it is decoded, and then gzip compressed if
+     * the client accepts gzip and {@code catalog.relay.compress} is set.
+     */
+    private Response relayResponse(StacSearchRelay upstream, Set<String> acceptedEncodings) {
+        String upstreamEncoding = upstream.contentEncoding() != null
+                ? upstream.contentEncoding().toLowerCase(Locale.ROOT) : null;
+        boolean passThrough = upstreamEncoding == null || acceptedEncodings.contains(upstreamEncoding);
+        boolean compress = relayCompress && acceptedEncodings.contains("gzip")
+                && (upstreamEncoding == null || !passThrough);
+        StreamingOutput stream = output -> {
+            try (InputStream body = passThrough ? upstream.body() : upstream.decodedBody()) {
+                if (compress) {
+                    GZIPOutputStream gzip = new GZIPOutputStream(output, 16 * 1024);
+                    body.transferTo(gzip);
+                    gzip.finish();
+                } else {
+                    body.transferTo(output);
+                }
+            }
+        };
+        Response.ResponseBuilder response = Response.ok(stream, upstream.contentType())
+                .header(HttpHeaders.VARY, "Accept, Accept-Encoding");
+        if (compress) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        } else if (passThrough && upstreamEncoding != null) {
+            response.header(HttpHeaders.CONTENT_ENCODING, upstreamEncoding);
+        }
+        return response.build();
+    }
+
+    private static boolean acceptsGeoJson(HttpHeaders headers) {
+        for (MediaType type : headers.getAcceptableMediaTypes()) {
+            // a wildcard does not ask for relaying; only an explicit geo+json does
+            if ("application".equals(type.getType()) && "geo+json".equals(type.getSubtype())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses Accept-Encoding into the codings the client accepts; codings with q=0 are refused.
+     */
+    private static Set<String> acceptedEncodings(String header) {
+        Set<String> encodings = new HashSet<>();
+        if (header == null) {
+            return encodings;
+        }
+        for (String part : header.split(",")) {
+            String[] params = part.split(";");
+            String coding = params[0].trim().toLowerCase(Locale.ROOT);
+            boolean refused = false;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        refused = Double.parseDouble(param.substring(2)) == 0;
+                    } catch (NumberFormatException e) {
+                        refused = true;
+                    }
+                }
+            }
+            if (!coding.isEmpty() && !refused) {
+                encodings.add(coding);
+            }
+        }
+        return encodings;
+    }
+
+    private byte[] serialize(CatalogSearchResponse response) {
+        long start = System.nanoTime();
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(response);
+            serializeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            responseBytes.record(body.length);
+            return body;
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Maps a search every provider shed to 429 and one every provider failed to 503, with
+     * Retry-After when it is known when the providers take searches again, and a page token
+     * a provider rejected to 400. Other errors propagate.
+     */
+    private static Response unavailable(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof IllegalArgumentException malformed) {
+            return badRequest(malformed);
+        }
+        if (!(cause instanceof CatalogUnavailableException unavailable)) {
+            throw error instanceof CompletionException completion ? completion : new CompletionException(error);
+        }
+        Response.Status status = unavailable instanceof CatalogOverloadedException
+                ? Response.Status.TOO_MANY_REQUESTS : Response.Status.SERVICE_UNAVAILABLE;
+        Response.ResponseBuilder response = Response.status(status)
+                .entity(new ErrorMessage(unavailable.getMessage()));
+        if (unavailable.getRetryAfter() != null) {
+            response.header("Retry-After", Math.max(1, (unavailable.getRetryAfter().toMillis() + 999) / 1000));
+        }
+        return response.build();
+    }
+
+    private static Response badRequest(IllegalArgumentException e) {
+        return Response.status(Response.Status.BAD_REQUEST)
+                .entity(new ErrorMessage(e.getMessage()))
+                .build();
+    }
+
+    record ErrorMessage(String message) {}
+
+    /**
+     * Last line of an export that stopped early.
+     *
+     * @param type   always {@code error}, which no STAC item has
+     * @param cursor cursor of the page that failed; exporting with it resumes there
+     */
+    record ExportError(String type, String message, String cursor) {}
 }
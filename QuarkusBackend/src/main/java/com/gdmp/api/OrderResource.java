@@ -1,13 +1,23 @@
 package com.gdmp.api;
 
+import com.gdmp.model.dto.OrderPage;
 import com.gdmp.model.dto.OrderRequest;
 import com.gdmp.model.dto.OrderResponse;
+import com.gdmp.model.dto.OrderStatus;
+import com.gdmp.service.IdGenerator;
+import com.gdmp.service.OrderLifecycle;
+import com.gdmp.service.OrderQuery;
+import com.gdmp.service.OrderStore;
+import com.gdmp.service.RecurringOrderScheduler;
+import jakarta.inject.Inject;
 import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import org.eclipse.microprofile.openapi.annotations.Operation;
@@ -20,15 +30,15 @@ import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 import org.jboss.logging.Logger;
 
 import java.time.Instant;
-import java.util.List;
-import java.util.Map;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 /**
  * REST resource for order management.
- * Provides endpoints to create, list, and retrieve orders.
- * Uses an in-memory store as a stub implementation.
+ * Provides endpoints to create, list (paged and filtered), retrieve, and cancel orders.
+ * Orders are kept in the durable {@link OrderStore}; an order is returned only once it is stored.
+ * Status changes after creation are driven by the {@link OrderLifecycle}.
  */
 @Path("/api/orders")
 @Produces(MediaType.APPLICATION_JSON)
@@ -38,15 +48,29 @@ public class OrderResource {
 
     private static final Logger LOG = Logger.getLogger(OrderResource.class);
 
-    /** In-memory order store keyed by order ID. */
-    private final Map<String, OrderResponse> orders = new ConcurrentHashMap<>();
+    static final int DEFAULT_LIMIT = 50;
+    static final int MAX_LIMIT = 500;
+
+    @Inject
+    IdGenerator idGenerator;
+
+    @Inject
+    OrderStore orderStore;
+
+    @Inject
+    OrderLifecycle orderLifecycle;
+
+    @Inject
+    RecurringOrderScheduler recurringOrderScheduler;
 
     /**
      * Creates a new order from the given request.
-     * Assigns a unique order ID, sets status to "Submitted", and stores it in memory.
+     * Assigns a unique order ID, sets status to "Submitted", stores it durably, and schedules
+     * its lifecycle transitions. A recurring order also schedules the creation of its occurrences.
      *
      * @param request order creation parameters
-     * @return the created order with assigned ID and timestamps
+     * @return the created order with assigned ID and timestamps, 400 if its recurrence is not
+     *         understood, or 503 if it could not be stored
      */
     @POST
     @Operation(
@@ -63,46 +87,97 @@ public class OrderResource {
             description = "Order created successfully",
             content = @Content(schema = @Schema(implementation = OrderResponse.class))
     )
-    public Response createOrder(OrderRequest request) {
-        String orderId = "ORD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        String createdAt = Instant.now().toString();
+    @APIResponse(
+            responseCode = "400",
+            description = "Unknown recurrence frequency or day of week"
+    )
+    @APIResponse(
+            responseCode = "503",
+            description = "The order could not be stored"
+    )
+    public CompletionStage<Response> createOrder(OrderRequest request) {
+        try {
+            RecurringOrderScheduler.validate(request.schedule());
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorMessage(e.getMessage()))
+                    .build());
+        }
+        String orderId = idGenerator.next("ORD-");
+        // the ID's timestamp, so ID order and createdAt order agree
+        String createdAt = IdGenerator.timestampOf(orderId).toString();
 
         OrderResponse order = new OrderResponse(
                 orderId,
-                "Submitted",
+                OrderStatus.SUBMITTED.label(),
                 request.familyId(),
                 request.productTypeId(),
                 request.tierId(),
                 request.configuration(),
                 request.schedule(),
-                createdAt
+                createdAt,
+                createdAt,
+                null
         );
 
-        orders.put(orderId, order);
-        LOG.infof("Order created: %s (family=%s, type=%s, tier=%s)",
-                orderId, request.familyId(), request.productTypeId(), request.tierId());
-
-        return Response.status(Response.Status.CREATED).entity(order).build();
+        return orderLifecycle.submit(order)
+                .thenApply(saved -> {
+                    recurringOrderScheduler.schedule(saved);
+                    LOG.infof("Order created: %s (family=%s, type=%s, tier=%s)",
+                            orderId, request.familyId(), request.productTypeId(), request.tierId());
+                    return Response.status(Response.Status.CREATED).entity(saved).build();
+                })
+                .exceptionally(error -> notStored(orderId, error));
     }
 
     /**
-     * Lists all orders in the in-memory store.
+     * Lists stored orders newest first, one page at a time, optionally filtered.
+     * Pass the {@code nextCursor} of a page as {@code cursor} to fetch the next one.
      *
-     * @return list of all orders
+     * @return one page of matching orders, or 400 for a malformed filter, limit, or cursor
      */
     @GET
     @Operation(
-            summary = "List all orders",
-            description = "Returns all orders currently stored in the system."
+            summary = "List orders",
+            description = "Returns one page of orders, newest first, filtered by status, family, tier, and "
+                    + "creation time. The response carries a nextCursor while more orders match."
     )
     @APIResponse(
             responseCode = "200",
-            description = "List of all orders",
-            content = @Content(schema = @Schema(implementation = OrderResponse[].class))
+            description = "One page of matching orders",
+            content = @Content(schema = @Schema(implementation = OrderPage.class))
+    )
+    @APIResponse(
+            responseCode = "400",
+            description = "Malformed creation time, limit, or cursor"
     )
-    public Response listOrders() {
-        List<OrderResponse> orderList = List.copyOf(orders.values());
-        return Response.ok(orderList).build();
+    public Response listOrders(
+            @Parameter(description = "Exact order status, e.g. Submitted")
+            @QueryParam("status") String status,
+            @Parameter(description = "Product family identifier")
+            @QueryParam("familyId") String familyId,
+            @Parameter(description = "Product tier identifier")
+            @QueryParam("tierId") String tierId,
+            @Parameter(description = "Earliest creation time (ISO 8601 instant), inclusive")
+            @QueryParam("createdFrom") String createdFrom,
+            @Parameter(description = "Latest creation time (ISO 8601 instant), exclusive")
+            @QueryParam("createdTo") String createdTo,
+            @Parameter(description = "nextCursor of the previous page")
+            @QueryParam("cursor") String cursor,
+            @Parameter(description = "Orders per page, 1 to " + MAX_LIMIT)
+            @QueryParam("limit") @DefaultValue("" + DEFAULT_LIMIT) int limit) {
+        try {
+            if (limit < 1 || limit > MAX_LIMIT) {
+                throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+            }
+            OrderQuery query = new OrderQuery(status, familyId, tierId,
+                    instant("createdFrom", createdFrom), instant("createdTo", createdTo), cursor, limit);
+            return Response.ok(orderStore.list(query)).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorMessage(e.getMessage()))
+                    .build();
+        }
     }
 
     /**
@@ -119,7 +194,7 @@ public class OrderResource {
     )
     @Parameter(
             name = "id",
-            description = "Unique order identifier (e.g., ORD-A1B2C3D4)",
+            description = "Unique order identifier (e.g., ORD-0A8HJSHW80W00)",
             required = true
     )
     @APIResponse(
@@ -132,7 +207,7 @@ public class OrderResource {
             description = "Order not found"
     )
     public Response getOrder(@PathParam("id") String id) {
-        OrderResponse order = orders.get(id);
+        OrderResponse order = orderStore.get(id);
 
         if (order == null) {
             return Response.status(Response.Status.NOT_FOUND)
@@ -143,5 +218,77 @@ public class OrderResource {
         return Response.ok(order).build();
     }
 
+    /**
+     * Cancels an order that is not yet Completed, Cancelled, or Expired.
+     *
+     * @param id the order identifier
+     * @return the cancelled order, 404 if there is no such order, 409 if it is already final,
+     *         or 503 if the change could not be stored
+     */
+    @POST
+    @Path("/{id}/cancel")
+    @Operation(
+            summary = "Cancel an order",
+            description = "Moves a Submitted or Processing order to Cancelled and stops its scheduled transitions."
+    )
+    @Parameter(
+            name = "id",
+            description = "Unique order identifier (e.g., ORD-0A8HJSHW80W00)",
+            required = true
+    )
+    @APIResponse(
+            responseCode = "200",
+            description = "The cancelled order",
+            content = @Content(schema = @Schema(implementation = OrderResponse.class))
+    )
+    @APIResponse(
+            responseCode = "404",
+            description = "Order not found"
+    )
+    @APIResponse(
+            responseCode = "409",
+            description = "The order is already Completed, Cancelled, or Expired"
+    )
+    @APIResponse(
+            responseCode = "503",
+            description = "The cancellation could not be stored"
+    )
+    public CompletionStage<Response> cancelOrder(@PathParam("id") String id) {
+        CompletionStage<OrderResponse> cancelled;
+        try {
+            cancelled = orderLifecycle.cancel(id);
+        } catch (IllegalStateException e) {
+            return CompletableFuture.completedFuture(Response.status(Response.Status.CONFLICT)
+                    .entity(new ErrorMessage(e.getMessage()))
+                    .build());
+        }
+        if (cancelled == null) {
+            return CompletableFuture.completedFuture(Response.status(Response.Status.NOT_FOUND)
+                    .entity(new ErrorMessage("Order not found: " + id))
+                    .build());
+        }
+        return cancelled
+                .thenApply(order -> Response.ok(order).build())
+                .exceptionally(error -> notStored(id, error));
+    }
+
+    private static Response notStored(String orderId, Throwable error) {
+        LOG.errorf(error, "Order %s could not be stored", orderId);
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .entity(new ErrorMessage("Order could not be stored"))
+                .build();
+    }
+
+    private static Instant instant(String name, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Instant.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(name + " must be an ISO 8601 instant, e.g. 2024-01-01T00:00:00Z");
+        }
+    }
+
     record ErrorMessage(String message) {}
 }
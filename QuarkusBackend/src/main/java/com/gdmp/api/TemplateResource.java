@@ -1,6 +1,10 @@
 package com.gdmp.api;
 
 import com.gdmp.model.dto.OrderRequest;
+import com.gdmp.model.dto.TemplateResponse;
+import com.gdmp.service.IdGenerator;
+import com.gdmp.service.TemplateStore;
+import jakarta.inject.Inject;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
@@ -16,17 +20,14 @@ import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 import org.jboss.logging.Logger;
 
-import java.time.Instant;
 import java.util.List;
-import java.util.Map;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionStage;
 
 /**
  * REST resource for order template management.
  * Templates are saved order configurations that can be reused to quickly
  * create new orders with pre-filled product selection, configuration, and schedule.
- * Uses an in-memory store as a stub implementation.
+ * Templates are kept in the durable {@link TemplateStore}.
  */
 @Path("/api/templates")
 @Produces(MediaType.APPLICATION_JSON)
@@ -36,14 +37,17 @@ public class TemplateResource {
 
     private static final Logger LOG = Logger.getLogger(TemplateResource.class);
 
-    /** In-memory template store keyed by template ID. */
-    private final Map<String, TemplateResponse> templates = new ConcurrentHashMap<>();
+    @Inject
+    IdGenerator idGenerator;
+
+    @Inject
+    TemplateStore templateStore;
 
     /**
      * Saves a new order template from an order request.
      *
      * @param request order configuration to save as a template
-     * @return the saved template with assigned ID and timestamps
+     * @return the saved template with assigned ID and timestamps, or 503 if it could not be stored
      */
     @POST
     @Operation(
@@ -60,9 +64,14 @@ public class TemplateResource {
             description = "Template saved successfully",
             content = @Content(schema = @Schema(implementation = TemplateResponse.class))
     )
-    public Response saveTemplate(OrderRequest request) {
-        String templateId = "TPL-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        String createdAt = Instant.now().toString();
+    @APIResponse(
+            responseCode = "503",
+            description = "The template could not be stored"
+    )
+    public CompletionStage<Response> saveTemplate(OrderRequest request) {
+        String templateId = idGenerator.next("TPL-");
+        // the ID's timestamp, so ID order and createdAt order agree
+        String createdAt = IdGenerator.timestampOf(templateId).toString();
 
         // Derive a template name from the schedule order name, or generate one
         String templateName = (request.schedule() != null && request.schedule().orderName() != null)
@@ -77,10 +86,17 @@ public class TemplateResource {
                 createdAt
         );
 
-        templates.put(templateId, template);
-        LOG.infof("Template saved: %s (%s)", templateId, templateName);
-
-        return Response.status(Response.Status.CREATED).entity(template).build();
+        return templateStore.save(template)
+                .thenApply(saved -> {
+                    LOG.infof("Template saved: %s (%s)", templateId, templateName);
+                    return Response.status(Response.Status.CREATED).entity(saved).build();
+                })
+                .exceptionally(error -> {
+                    LOG.errorf(error, "Template %s could not be stored", templateId);
+                    return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                            .entity(new ErrorMessage("Template could not be stored"))
+                            .build();
+                });
     }
 
     /**
@@ -99,27 +115,9 @@ public class TemplateResource {
             content = @Content(schema = @Schema(implementation = TemplateResponse[].class))
     )
     public Response listTemplates() {
-        List<TemplateResponse> templateList = List.copyOf(templates.values());
+        List<TemplateResponse> templateList = templateStore.list();
         return Response.ok(templateList).build();
     }
 
-    /**
-     * Response DTO for saved order templates.
-     */
-    public record TemplateResponse(
-            /** Server-assigned template identifier */
-            String templateId,
-
-            /** Human-readable template name */
-            String name,
-
-            /** The saved order configuration */
-            OrderRequest orderRequest,
-
-            /** ISO 8601 creation timestamp */
-            String createdAt,
-
-            /** ISO 8601 last-modified timestamp */
-            String updatedAt
-    ) {}
+    record ErrorMessage(String message) {}
 }
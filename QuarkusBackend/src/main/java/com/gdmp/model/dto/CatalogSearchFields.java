@@ -0,0 +1,20 @@
+package com.gdmp.model.dto;
+
+/**
+ * Field projection for catalog searches, following the STAC API fields extension.
+ * Paths use dot notation into the item, e.g. "properties.eo:cloud_cover" or "assets.thumbnail".
+ */
+public record CatalogSearchFields(
+        /** Item fields to return; when non-empty, fields not listed (or under a listed path) are dropped */
+        String[] include,
+
+        /** Item fields to drop */
+        String[] exclude
+) {
+    /**
+     * Returns true if neither include nor exclude lists any field.
+     */
+    public boolean isEmpty() {
+        return (include == null || include.length == 0) && (exclude == null || exclude.length == 0);
+    }
+}
@@ -3,6 +3,10 @@ package com.gdmp.model.dto;
 /**
  * Request DTO for STAC catalog searches.
  * Supports spatial (bbox), temporal (datetime), and collection-based filtering.
+ * Further pages are requested by repeating the search with the {@code nextCursor}
+ * of the previous response as {@code cursor}. An optional {@code fields} projection
+ * trims the returned items to the fields the caller needs, and {@code zoom} or
+ * {@code simplifyTolerance} reduces item geometries to the detail a map can show.
  */
 public record CatalogSearchRequest(
         /** Bounding box [west, south, east, north] in WGS84 degrees */
@@ -15,7 +19,31 @@ public record CatalogSearchRequest(
         String[] collections,
 
         /** Maximum number of results to return (default 10) */
-        int limit
+        int limit,
+
+        /** Opaque cursor from a previous response's nextCursor; null for the first page */
+        String cursor,
+
+        /** Optional include/exclude field projection (STAC fields extension); null returns full items */
+        CatalogSearchFields fields,
+
+        /**
+         * Search the fixed grid cells covering the bbox instead of the bbox itself, so results
+         * are cached per cell and reused by overlapping searches (e.g. map pans)
+         */
+        boolean gridCells,
+
+        /**
+         * Optional tolerance in degrees to simplify item geometries to for display; snapped to the
+         * nearest zoom level's tolerance. Ignored if zoom is given
+         */
+        Double simplifyTolerance,
+
+        /**
+         * Optional web map zoom level (0-24) the results are shown at; item geometries are
+         * simplified to about one pixel at that zoom and their coordinates rounded
+         */
+        Integer zoom
 ) {
     public CatalogSearchRequest {
         if (limit <= 0) {
@@ -29,4 +57,19 @@ public record CatalogSearchRequest(
     public CatalogSearchRequest(double[] bbox, String datetime, String[] collections) {
         this(bbox, datetime, collections, 10);
     }
+
+    /**
+     * Convenience constructor for a first-page search.
+     */
+    public CatalogSearchRequest(double[] bbox, String datetime, String[] collections, int limit) {
+        this(bbox, datetime, collections, limit, null, null, false, null, null);
+    }
+
+    /**
+     * Returns a copy of this request that resumes from the given cursor.
+     */
+    public CatalogSearchRequest withCursor(String cursor) {
+        return new CatalogSearchRequest(bbox, datetime, collections, limit, cursor, fields, gridCells,
+                simplifyTolerance, zoom);
+    }
 }
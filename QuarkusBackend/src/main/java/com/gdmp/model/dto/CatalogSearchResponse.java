@@ -6,21 +6,51 @@ import java.util.List;
 
 /**
  * Response DTO wrapping STAC search results with match counts.
+ * When several providers are searched, a provider that fails or misses its deadline
+ * is listed in {@code failedProviders} and the response is marked {@code partial}.
+ * {@code nextCursor} is set while more pages are available.
  */
 public record CatalogSearchResponse(
         /** The list of STAC items matching the search criteria */
         List<StacItem> features,
 
-        /** Total number of items matching the query (may exceed numberReturned) */
-        int numberMatched,
+        /** Total number of items matching the query (may exceed numberReturned), or null if unknown */
+        Integer numberMatched,
 
         /** Number of items actually returned in this response */
-        int numberReturned
+        int numberReturned,
+
+        /** True if one or more providers did not contribute results */
+        boolean partial,
+
+        /** IDs of providers that failed or timed out */
+        List<String> failedProviders,
+
+        /** Opaque cursor for the next page, or null if this is the last page */
+        String nextCursor
 ) {
     /**
      * Factory method to create a response from a list of items and a total match count.
      */
-    public static CatalogSearchResponse of(List<StacItem> features, int numberMatched) {
-        return new CatalogSearchResponse(features, numberMatched, features.size());
+    public static CatalogSearchResponse of(List<StacItem> features, Integer numberMatched) {
+        return new CatalogSearchResponse(features, numberMatched, features.size(), false, List.of(), null);
+    }
+
+    /**
+     * Returns a copy of this response pointing at the given next page.
+     */
+    public CatalogSearchResponse withNextCursor(String cursor) {
+        return new CatalogSearchResponse(features, numberMatched, numberReturned, partial, failedProviders, cursor);
+    }
+
+    /**
+     * Returns a copy of this response marked partial because the given providers failed.
+     */
+    public CatalogSearchResponse withFailedProviders(List<String> providers) {
+        if (providers.isEmpty()) {
+            return this;
+        }
+        return new CatalogSearchResponse(features, numberMatched, numberReturned, true,
+                List.copyOf(providers), nextCursor);
     }
 }
@@ -0,0 +1,15 @@
+package com.gdmp.model.dto;
+
+import java.util.List;
+
+/**
+ * One page of an order listing, newest order first.
+ * {@code nextCursor} is set while more orders match.
+ */
+public record OrderPage(
+        /** Orders on this page */
+        List<OrderResponse> orders,
+
+        /** Opaque cursor for the next page, or null if this is the last page */
+        String nextCursor
+) {}
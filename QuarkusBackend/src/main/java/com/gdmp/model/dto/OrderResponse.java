@@ -8,7 +8,7 @@ public record OrderResponse(
         /** Server-assigned unique order identifier */
         String orderId,
 
-        /** Current order status: "Submitted", "Processing", "Completed", "Cancelled" */
+        /** Current order status: "Submitted", "Processing", "Completed", "Cancelled", "Expired" (see {@link OrderStatus}) */
         String status,
 
         /** Product family identifier */
@@ -27,5 +27,20 @@ public record OrderResponse(
         OrderSchedule schedule,
 
         /** ISO 8601 timestamp of order creation */
-        String createdAt
-) {}
+        String createdAt,
+
+        /** ISO 8601 timestamp of the last status change */
+        String updatedAt,
+
+        /** ID of the recurring order this order is an occurrence of; null for other orders */
+        String seriesId
+) {
+
+    /**
+     * Returns a copy of this order with the given status, changed at the given time.
+     */
+    public OrderResponse withStatus(OrderStatus status, String changedAt) {
+        return new OrderResponse(orderId, status.label(), familyId, productTypeId, tierId,
+                configuration, schedule, createdAt, changedAt, seriesId);
+    }
+}
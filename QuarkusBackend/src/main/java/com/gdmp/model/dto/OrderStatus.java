@@ -0,0 +1,61 @@
+package com.gdmp.model.dto;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Order lifecycle states and the transitions allowed between them.
+ *
+ * Submitted orders start Processing at their schedule's start date and are Completed when
+ * the tier's delivery time has passed. Until then an order can be Cancelled, or becomes
+ * Expired at its schedule's expiration date. Completed, Cancelled, and Expired are final.
+ */
+public enum OrderStatus {
+
+    SUBMITTED("Submitted"),
+    PROCESSING("Processing"),
+    COMPLETED("Completed"),
+    CANCELLED("Cancelled"),
+    EXPIRED("Expired");
+
+    private final String label;
+
+    OrderStatus(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Returns the name used in {@link OrderResponse#status()}.
+     */
+    public String label() {
+        return label;
+    }
+
+    /**
+     * Returns the status with the given label, or null if there is none.
+     */
+    public static OrderStatus fromLabel(String label) {
+        for (OrderStatus status : values()) {
+            if (status.label.equals(label)) {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    public boolean isFinal() {
+        return successors().isEmpty();
+    }
+
+    public boolean canTransitionTo(OrderStatus next) {
+        return successors().contains(next);
+    }
+
+    private Set<OrderStatus> successors() {
+        return switch (this) {
+            case SUBMITTED -> EnumSet.of(PROCESSING, CANCELLED, EXPIRED);
+            case PROCESSING -> EnumSet.of(COMPLETED, CANCELLED, EXPIRED);
+            case COMPLETED, CANCELLED, EXPIRED -> EnumSet.noneOf(OrderStatus.class);
+        };
+    }
+}
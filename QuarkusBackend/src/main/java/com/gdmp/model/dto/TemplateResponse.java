@@ -0,0 +1,21 @@
+package com.gdmp.model.dto;
+
+/**
+ * Response DTO for saved order templates.
+ */
+public record TemplateResponse(
+        /** Server-assigned template identifier */
+        String templateId,
+
+        /** Human-readable template name */
+        String name,
+
+        /** The saved order configuration */
+        OrderRequest orderRequest,
+
+        /** ISO 8601 creation timestamp */
+        String createdAt,
+
+        /** ISO 8601 last-modified timestamp */
+        String updatedAt
+) {}
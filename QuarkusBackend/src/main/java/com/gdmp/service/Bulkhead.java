@@ -0,0 +1,137 @@
+package com.gdmp.service;
+
+import com.gdmp.stac.UpstreamCall;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Caps the number of concurrent asynchronous calls to one upstream.
+ *
+ * Up to {@code maxConcurrent} calls run at once; further calls wait in a FIFO queue of at
+ * most {@code maxQueued} entries and start as running calls complete. A call arriving at a
+ * full queue is rejected at once with {@link BulkheadFullException} rather than waiting.
+ * Cancelling the returned future removes a queued call from the queue, or cancels the
+ * running one. A running call keeps its slot until it has settled: for an {@link UpstreamCall}
+ * that is once its upstream exchanges have finished, not when its cancelled future completes,
+ * so abandoned calls cannot push the number of exchanges in flight past the limit.
+ */
+final class Bulkhead {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueued;
+
+    private final ArrayDeque<Waiter<?>> queue = new ArrayDeque<>();
+    private int running;
+    private final LongAdder rejected = new LongAdder();
+
+    Bulkhead(String name, int maxConcurrent, int maxQueued) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+    }
+
+    /**
+     * Runs the call now if a slot is free, queues it if the queue has room, and otherwise
+     * returns a future failed with {@link BulkheadFullException}.
+     *
+     * @param call starts the underlying call
+     * @return future completing with the call's result
+     */
+    <T> CompletableFuture<T> execute(Supplier<CompletionStage<T>> call) {
+        Waiter<T> waiter = new Waiter<>(call, new CompletableFuture<>());
+        synchronized (this) {
+            if (running >= maxConcurrent) {
+                if (queue.size() >= maxQueued) {
+                    rejected.increment();
+                    return CompletableFuture.failedFuture(new BulkheadFullException(name, maxConcurrent, maxQueued));
+                }
+                queue.add(waiter);
+                waiter.result().whenComplete((value, error) -> dequeue(waiter));
+                return waiter.result();
+            }
+            running++;
+        }
+        start(waiter);
+        return waiter.result();
+    }
+
+    synchronized int running() {
+        return running;
+    }
+
+    synchronized int queued() {
+        return queue.size();
+    }
+
+    long rejected() {
+        return rejected.sum();
+    }
+
+    private <T> void start(Waiter<T> waiter) {
+        CompletableFuture<T> result = waiter.result();
+        if (result.isDone()) {
+            // cancelled while being handed a slot
+            release();
+            return;
+        }
+        CompletableFuture<T> upstream;
+        try {
+            upstream = waiter.call().get().toCompletableFuture();
+        } catch (RuntimeException e) {
+            upstream = CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<T> call = upstream;
+        CompletionStage<?> settled = call instanceof UpstreamCall<T> upstreamCall ? upstreamCall.settled() : call;
+        settled.whenComplete((value, error) -> release());
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                call.cancel(true);
+            }
+        });
+        call.whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+            }
+        });
+    }
+
+    /**
+     * Hands the slot of a completed call to the next queued call, or frees it.
+     */
+    private void release() {
+        Waiter<?> next;
+        synchronized (this) {
+            next = queue.poll();
+            if (next == null) {
+                running--;
+                return;
+            }
+        }
+        start(next);
+    }
+
+    private synchronized void dequeue(Waiter<?> waiter) {
+        queue.remove(waiter);
+    }
+
+    private record Waiter<T>(Supplier<CompletionStage<T>> call, CompletableFuture<T> result) {}
+
+    /**
+     * Thrown when a call is rejected because every slot is busy and the queue is full.
+     */
+    static final class BulkheadFullException extends RuntimeException {
+
+        BulkheadFullException(String name, int maxConcurrent, int maxQueued) {
+            super(String.format("%s has %d searches running and %d queued", name, maxConcurrent, maxQueued));
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.gdmp.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Encodes the per-provider page tokens of a multi-provider search into the single
+ * opaque {@code cursor} handed to clients, and decodes it again.
+ *
+ * The cursor is the URL-safe Base64 form of {@code providerId:token} pairs joined by
+ * commas. Provider tokens are themselves opaque to this class; merged searches store a
+ * {@link Resume} in them, plus a {@link LastReturned} under the reserved {@link #LAST_RETURNED_KEY},
+ * which no provider or cell may use as its ID.
+ */
+final class CatalogCursor {
+
+    /** Key of the merge position of the last item returned among the page tokens. */
+    static final String LAST_RETURNED_KEY = "last";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private CatalogCursor() {
+    }
+
+    /**
+     * @param tokens next-page token per provider ID; providers without more pages are absent
+     * @return the client cursor, or null if no provider has another page
+     */
+    static String encode(Map<String, String> tokens) {
+        if (tokens.isEmpty()) {
+            return null;
+        }
+        StringBuilder joined = new StringBuilder();
+        tokens.forEach((providerId, token) -> {
+            if (!joined.isEmpty()) {
+                joined.append(',');
+            }
+            joined.append(providerId).append(':').append(token);
+        });
+        return ENCODER.encodeToString(joined.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor client cursor from a previous response
+     * @return provider ID to provider token, in cursor order
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    static Map<String, String> decode(String cursor) {
+        String joined;
+        try {
+            joined = new String(DECODER.decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed search cursor", e);
+        }
+        Map<String, String> tokens = new LinkedHashMap<>();
+        for (String pair : joined.split(",")) {
+            int separator = pair.indexOf(':');
+            if (separator <= 0 || separator == pair.length() - 1) {
+                throw new IllegalArgumentException("Malformed search cursor");
+            }
+            tokens.put(pair.substring(0, separator), pair.substring(separator + 1));
+        }
+        return tokens;
+    }
+
+    /**
+     * Where a source of a merged search resumes: the token of the page to fetch (null for
+     * the first page) and how many items of that page were already returned. Encoded as
+     * {@code skip.token}; page tokens are URL-safe Base64 and never contain a dot.
+     */
+    record Resume(String pageToken, int skip) {
+
+        static final Resume FIRST_PAGE = new Resume(null, 0);
+
+        String encode() {
+            return skip + "." + (pageToken != null ? pageToken : "");
+        }
+
+        /**
+         * @throws IllegalArgumentException if the value is malformed
+         */
+        static Resume decode(String value) {
+            int separator = value.indexOf('.');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Malformed search cursor");
+            }
+            int skip;
+            try {
+                skip = Integer.parseInt(value.substring(0, separator));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Malformed search cursor", e);
+            }
+            if (skip < 0) {
+                throw new IllegalArgumentException("Malformed search cursor");
+            }
+            String pageToken = value.substring(separator + 1);
+            return new Resume(pageToken.isEmpty() ? null : pageToken, skip);
+        }
+    }
+
+    /**
+     * Merge position of the last item a merged page returned: its datetime (null if it had
+     * none) and the IDs of the items returned at that datetime. Sources sorted newest first
+     * can only hold items already returned at that datetime, so the next page skips these IDs.
+     * Encoded as URL-safe Base64 of the ISO instant and the IDs on separate lines.
+     */
+    record LastReturned(Instant datetime, Set<String> ids) {
+
+        String encode() {
+            StringBuilder lines = new StringBuilder(datetime != null ? datetime.toString() : "");
+            for (String id : ids) {
+                lines.append('\n').append(id);
+            }
+            return ENCODER.encodeToString(lines.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * @throws IllegalArgumentException if the value is malformed
+         */
+        static LastReturned decode(String value) {
+            try {
+                String[] lines = new String(DECODER.decode(value), StandardCharsets.UTF_8).split("\n", -1);
+                Instant datetime = lines[0].isEmpty() ? null : Instant.parse(lines[0]);
+                return new LastReturned(datetime, new LinkedHashSet<>(Arrays.asList(lines).subList(1, lines.length)));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Malformed search cursor", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package com.gdmp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gdmp.model.dto.CatalogSearchRequest;
+import com.gdmp.model.dto.CatalogSearchResponse;
+import com.gdmp.stac.CopernicusStacProvider;
+import com.gdmp.stac.StacItem;
+import com.gdmp.stac.StacProviderException;
+import com.gdmp.store.StacItemStore;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Background harvester that copies the most used Copernicus collections into a local
+ * {@link StacItemStore} and the catalog's {@link StacItemIndex}.
+ *
+ * Each run walks every configured collection in consecutive datetime windows from where
+ * the previous run stopped (initially {@code lookback} ago) up to now, following every
+ * result page. After each window the new items are appended to the store and a checkpoint
+ * records how far the collection is harvested, so a restart resumes there instead of
+ * starting over. The checkpoint trails now by {@code lag}, so recent windows are walked
+ * again on the next run and pick up items published late.
+ *
+ * Items are kept for {@code lookback}: older items are dropped after each run, and once the
+ * store holds more dropped or superseded records than live ones (and at least
+ * {@value #COMPACTION_MIN_DEAD_RECORDS}), it is compacted.
+ *
+ * On the first run the store is replayed into the item index. Each harvested window is
+ * recorded as covered for twice the harvest interval, so catalog searches inside it are
+ * answered locally. Later, a search the index cannot answer completely that lies inside the
+ * harvested span (from the latest collection start to the earliest checkpoint) reads its
+ * items back from the store, so buckets the index evicted are reloaded on demand. Those reads
+ * run on a reader thread of their own, since they wait for appends and compactions and
+ * searches run on the event loop.
+ */
+@ApplicationScoped
+public class CatalogHarvester {
+
+    private static final Logger LOG = Logger.getLogger(CatalogHarvester.class);
+
+    private static final String FROM_SUFFIX = ".from";
+    private static final String THROUGH_SUFFIX = ".through";
+    private static final int COMPACTION_MIN_DEAD_RECORDS = 10_000;
+    private static final List<double[]> WORLD = List.of(new double[] {-180, -90, 180, 90});
+
+    @Inject
+    CopernicusStacProvider provider;
+
+    @Inject
+    CatalogService catalogService;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "catalog.harvester.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "catalog.harvester.collections", defaultValue = "sentinel-1-grd,sentinel-2-l2a")
+    List<String> collections;
+
+    @ConfigProperty(name = "catalog.harvester.interval", defaultValue = "15m")
+    Duration interval;
+
+    @ConfigProperty(name = "catalog.harvester.lookback", defaultValue = "7d")
+    Duration lookback;
+
+    @ConfigProperty(name = "catalog.harvester.window", defaultValue = "6h")
+    Duration window;
+
+    @ConfigProperty(name = "catalog.harvester.lag", defaultValue = "2h")
+    Duration lag;
+
+    @ConfigProperty(name = "catalog.harvester.page-limit", defaultValue = "100")
+    int pageLimit;
+
+    @ConfigProperty(name = "catalog.harvester.store-dir", defaultValue = "data/catalog-store")
+    String storeDir;
+
+    @ConfigProperty(name = "catalog.harvester.segment-size", defaultValue = "67108864")
+    int segmentSize;
+
+    private StacItemStore store;
+    private final ExecutorService reader = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().daemon().name("catalog-store-reader").factory());
+    /** Harvest state saved with each checkpoint: per collection, the harvested from/through instants. */
+    private final Map<String, String> state = new HashMap<>();
+    /** Latest record of every item within the lookback, by item ID. Guarded by this harvester's monitor. */
+    private final Map<String, StoredItem> stored = new HashMap<>();
+    /** Records in the store, including dropped and superseded ones. Guarded by this harvester's monitor. */
+    private int storeRecords;
+    /** Region whose every item is in the store; null until a collection has been checkpointed. */
+    private volatile StacItemIndex.Query harvestedSpan;
+
+    /**
+     * Where an item's latest record is stored, with what {@code storedItems} filters on.
+     *
+     * @param version {@code updated} (or ""), to avoid re-appending unchanged items
+     */
+    private record StoredItem(long position, String version, String collection, Instant datetime) {}
+
+    /**
+     * Harvests every configured collection up to now. Does nothing unless
+     * {@code catalog.harvester.enabled} is set.
+     */
+    @Scheduled(every = "{catalog.harvester.interval}",
+               concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void harvest() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (store == null) {
+                openStore();
+            }
+            Instant runStart = Instant.now();
+            for (String collection : collections) {
+                harvestCollection(collection, runStart);
+            }
+            retain(runStart.minus(lookback));
+            updateHarvestedSpan(runStart.minus(lookback));
+        } catch (IOException e) {
+            LOG.errorf(e, "Catalog harvest failed");
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        reader.shutdownNow();
+        synchronized (this) {
+            if (store != null) {
+                store.close();
+            }
+        }
+    }
+
+    /**
+     * Walks one collection window by window from its checkpoint (or the start of the
+     * lookback, if later) to {@code runStart}, stopping at the first window that fails.
+     */
+    private void harvestCollection(String collection, Instant runStart) throws IOException {
+        Instant retainFrom = runStart.minus(lookback);
+        Instant from = instant(collection + FROM_SUFFIX, retainFrom);
+        if (from.isBefore(retainFrom)) {
+            from = retainFrom;
+        }
+        Instant through = instant(collection + THROUGH_SUFFIX, from);
+        if (through.isBefore(from)) {
+            through = from;
+        }
+        state.put(collection + FROM_SUFFIX, from.toString());
+        Instant checkpointLimit = runStart.minus(lag);
+
+        int harvested = 0;
+        for (Instant start = through; start.isBefore(runStart); ) {
+            Instant end = start.plus(window).isBefore(runStart) ? start.plus(window) : runStart;
+            List<StacItem> items;
+            try {
+                items = fetchWindow(collection, start, end);
+            } catch (StacProviderException e) {
+                LOG.warnf(e, "Harvest of %s stopped at %s", collection, start);
+                return;
+            }
+
+            storeItems(items);
+            Instant checkpointed = end.isBefore(checkpointLimit) ? end : checkpointLimit;
+            if (checkpointed.isAfter(through)) {
+                through = checkpointed;
+                state.put(collection + THROUGH_SUFFIX, through.toString());
+            }
+            store.checkpoint(state);
+
+            StacItemIndex.Query coverage = new StacItemIndex.Query(WORLD, start, end, Set.of(collection));
+            catalogService.addHarvestedItems(items, coverage, interval.multipliedBy(2));
+            harvested += items.size();
+            start = end;
+        }
+        LOG.infof("Harvested %d %s items; checkpoint at %s", harvested, collection, through);
+    }
+
+    /**
+     * Appends the new and changed items of a window to the store. Items without an ID or a
+     * parseable datetime are skipped, as the item index could not hold them either.
+     */
+    private synchronized void storeItems(List<StacItem> items) throws IOException {
+        for (StacItem item : items) {
+            Instant datetime = StacItemIndex.datetimeOf(item);
+            if (item.getId() == null || datetime == null) {
+                continue;
+            }
+            String version = versionOf(item);
+            StoredItem previous = stored.get(item.getId());
+            if (previous == null || !version.equals(previous.version())) {
+                long position = store.append(item);
+                storeRecords++;
+                stored.put(item.getId(), new StoredItem(position, version, collectionOf(item), datetime));
+            }
+        }
+    }
+
+    /**
+     * Forgets the items older than {@code retainFrom}, and compacts the store once most of
+     * its records are forgotten or superseded.
+     */
+    private synchronized void retain(Instant retainFrom) throws IOException {
+        stored.values().removeIf(item -> item.datetime().isBefore(retainFrom));
+        int dead = storeRecords - stored.size();
+        if (dead < COMPACTION_MIN_DEAD_RECORDS || dead <= stored.size()) {
+            return;
+        }
+        // the compacted store is checkpointed with the current state, including the advanced starts
+        store.checkpoint(state);
+        List<Map.Entry<String, StoredItem>> live = new ArrayList<>(stored.entrySet());
+        live.sort(Comparator.comparingLong(entry -> entry.getValue().position()));
+        long[] positions = live.stream().mapToLong(entry -> entry.getValue().position()).toArray();
+        long[] moved = store.compact(positions);
+        for (int i = 0; i < moved.length; i++) {
+            StoredItem item = live.get(i).getValue();
+            live.get(i).setValue(new StoredItem(moved[i], item.version(), item.collection(), item.datetime()));
+        }
+        storeRecords = moved.length;
+        LOG.infof("Compacted catalog store %s, dropping %d records", storeDir, dead);
+    }
+
+    /**
+     * Reads back the stored items inside a query's datetime interval and collection filter.
+     * Used by the catalog service on item index misses; the store is read on the reader thread.
+     *
+     * @return stage completing with the items, or with null if the query reaches outside the
+     *         harvested span, more than {@code maxItems} items match, or the store cannot be read
+     */
+    CompletionStage<List<StacItem>> storedItems(StacItemIndex.Query query, int maxItems) {
+        StacItemIndex.Query span = harvestedSpan;
+        if (span == null || !span.contains(query)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.supplyAsync(() -> readStoredItems(query, maxItems), reader);
+    }
+
+    private synchronized List<StacItem> readStoredItems(StacItemIndex.Query query, int maxItems) {
+        long[] positions = stored.values().stream()
+                .filter(item -> query.matches(item.datetime(), item.collection()))
+                .mapToLong(StoredItem::position)
+                .limit(maxItems + 1L)
+                .sorted()
+                .toArray();
+        if (positions.length > maxItems) {
+            return null;
+        }
+        List<StacItem> items = new ArrayList<>(positions.length);
+        try {
+            for (long position : positions) {
+                items.add(store.read(position));
+            }
+        } catch (IOException e) {
+            LOG.warnf(e, "Cannot read harvested items back from %s", storeDir);
+            return null;
+        }
+        return items;
+    }
+
+    /**
+     * Fetches every page of one collection window.
+     */
+    private List<StacItem> fetchWindow(String collection, Instant start, Instant end) {
+        CatalogSearchRequest request = new CatalogSearchRequest(
+                null, start + "/" + end, new String[] {collection}, pageLimit);
+        List<StacItem> items = new ArrayList<>();
+        String cursor = null;
+        do {
+            CatalogSearchResponse page = provider.search(cursor == null ? request : request.withCursor(cursor));
+            items.addAll(page.features());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return items;
+    }
+
+    /**
+     * Sets the harvested span to the checkpointed datetimes of every collection: from the
+     * latest start, but not before the retained items, to the earliest checkpoint.
+     */
+    private void updateHarvestedSpan(Instant retainFrom) {
+        Instant from = retainFrom;
+        Instant through = Instant.MAX;
+        for (String collection : collections) {
+            Instant collectionFrom = instant(collection + FROM_SUFFIX, null);
+            Instant collectionThrough = instant(collection + THROUGH_SUFFIX, null);
+            if (collectionFrom == null || collectionThrough == null) {
+                harvestedSpan = null;
+                return;
+            }
+            from = collectionFrom.isAfter(from) ? collectionFrom : from;
+            through = collectionThrough.isBefore(through) ? collectionThrough : through;
+        }
+        harvestedSpan = from.isBefore(through)
+                ? new StacItemIndex.Query(WORLD, from, through, Set.copyOf(collections))
+                : null;
+    }
+
+    /**
+     * Opens the store, restores the harvest state, replays stored items within the lookback
+     * into the index, and starts serving index misses from the store.
+     */
+    private void openStore() throws IOException {
+        store = StacItemStore.open(Path.of(storeDir), segmentSize, objectMapper);
+        state.putAll(store.checkpointState());
+
+        Instant retainFrom = Instant.now().minus(lookback);
+        Map<String, StacItem> latest = new HashMap<>();
+        int records;
+        synchronized (this) {
+            records = store.forEach((item, position) -> {
+                Instant datetime = StacItemIndex.datetimeOf(item);
+                if (item.getId() == null || datetime == null) {
+                    return;
+                }
+                if (datetime.isBefore(retainFrom)) {
+                    latest.remove(item.getId());
+                    stored.remove(item.getId());
+                    return;
+                }
+                latest.put(item.getId(), item);
+                stored.put(item.getId(), new StoredItem(position, versionOf(item), collectionOf(item), datetime));
+            });
+            storeRecords = records;
+        }
+        catalogService.addHarvestedItems(latest.values(), null, Duration.ZERO);
+        updateHarvestedSpan(retainFrom);
+        catalogService.setHarvestedItemSource(this::storedItems);
+        LOG.infof("Replayed %d stored items (%d records) from %s", latest.size(), records, storeDir);
+    }
+
+    private Instant instant(String key, Instant fallback) {
+        String value = state.get(key);
+        if (value == null) {
+            return fallback;
+        }
+        try {
+            return Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            LOG.warnf("Ignoring malformed harvest checkpoint value %s=%s", key, value);
+            return fallback;
+        }
+    }
+
+    private static String collectionOf(StacItem item) {
+        return Objects.toString(item.getCollection(), "");
+    }
+
+    private static String versionOf(StacItem item) {
+        Object updated = item.getProperties() != null ? item.getProperties().get("updated") : null;
+        return Objects.toString(updated, "");
+    }
+}
@@ -0,0 +1,16 @@
+package com.gdmp.service;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Thrown when a catalog search is shed because every provider it was sent to already has
+ * its maximum of searches running and queued.
+ */
+public class CatalogOverloadedException extends CatalogUnavailableException {
+
+    public CatalogOverloadedException(List<String> failedProviders, Duration retryAfter) {
+        super("Too many concurrent catalog searches for: " + String.join(", ", failedProviders),
+                failedProviders, retryAfter);
+    }
+}
@@ -2,53 +2,743 @@ package com.gdmp.service;
 
 import com.gdmp.model.dto.CatalogSearchRequest;
 import com.gdmp.model.dto.CatalogSearchResponse;
-import com.gdmp.stac.CopernicusStacProvider;
+import com.gdmp.service.SearchResultMerger.ProviderResult;
+import com.gdmp.stac.GeometrySimplifier;
+import com.gdmp.stac.StacItem;
+import com.gdmp.stac.StacProvider;
+import com.gdmp.stac.StacSearchRelay;
+import com.gdmp.stac.StacProviderStats;
+import com.gdmp.stac.StacProviderUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Instance;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Service layer for STAC catalog operations.
- * Delegates to configured StacProvider implementations for search and discovery.
- * Currently routes all requests to the Copernicus Data Space STAC provider.
+ * Delegates to every StacProvider bean for search and discovery: searches are sent to all
+ * providers in parallel, each bounded by its own deadline, and merged by {@link SearchResultMerger}.
+ * Search results are cached per normalized request (see {@link SearchKey}), and identical
+ * provider searches in flight at the same time share one upstream call; the collection
+ * list is held in a {@link CollectionsCache} that is revalidated on a schedule.
+ * Complete search results (and items from the {@link CatalogHarvester}) also feed a
+ * {@link StacItemIndex}; searches that fall inside an area whose complete results it holds
+ * are answered, and paged through, without any upstream call.
+ * Searches in grid cell mode are split into fixed {@link GridCell}s that are searched
+ * (and cached) one by one, then clipped to the requested bbox and merged.
+ * A search that some providers failed is answered with the others' results and marked
+ * partial; one that every provider failed fails with {@link CatalogUnavailableException}.
+ * Upstream searches to each provider pass through a {@link Bulkhead} that caps how many run
+ * at once and how many wait; a search every provider shed that way fails with
+ * {@link CatalogOverloadedException}.
+ * Searches asking for a zoom level or simplification tolerance get item geometries simplified
+ * for display (see {@link GeometrySimplifier}); the simplified geometries are kept with the
+ * cached and indexed items, so each is computed once per item and level.
+ * A search that needs nothing done to the provider's results can instead be relayed: the
+ * upstream response body is handed back unparsed (see {@link #relay}).
  */
 @ApplicationScoped
 public class CatalogService {
 
     private static final Logger LOG = Logger.getLogger(CatalogService.class);
 
+    /** Key of the item index's own offset among the page tokens of a {@link CatalogCursor}. */
+    private static final String INDEX_PAGE_TOKEN = "index";
+    /** Prefix of grid cell quadkeys among the page tokens of a {@link CatalogCursor}. */
+    private static final String CELL_PAGE_TOKEN_PREFIX = "cell";
+
+    @Inject
+    @Any
+    Instance<StacProvider> stacProviders;
+
     @Inject
-    CopernicusStacProvider copernicusProvider;
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "catalog.bulkhead.retry-after", defaultValue = "1s")
+    Duration bulkheadRetryAfter;
+
+    @ConfigProperty(name = "catalog.relay.enabled", defaultValue = "true")
+    boolean relayEnabled;
+
+    @ConfigProperty(name = "catalog.search-cache.max-entries", defaultValue = "1000")
+    int cacheMaxEntries;
+
+    @ConfigProperty(name = "catalog.search-cache.ttl", defaultValue = "2m")
+    Duration cacheTtl;
+
+    @ConfigProperty(name = "catalog.search-cache.max-stale", defaultValue = "10m")
+    Duration cacheMaxStale;
+
+    @ConfigProperty(name = "catalog.search-cache.bbox-precision", defaultValue = "3")
+    int bboxPrecision;
+
+    @ConfigProperty(name = "catalog.grid-search.min-level", defaultValue = "2")
+    int gridMinLevel;
+
+    @ConfigProperty(name = "catalog.grid-search.max-level", defaultValue = "14")
+    int gridMaxLevel;
+
+    @ConfigProperty(name = "catalog.item-index.enabled", defaultValue = "true")
+    boolean itemIndexEnabled;
+
+    @ConfigProperty(name = "catalog.item-index.max-items", defaultValue = "50000")
+    int itemIndexMaxItems;
+
+    @ConfigProperty(name = "catalog.item-index.time-bucket", defaultValue = "1d")
+    Duration itemIndexTimeBucket;
+
+    @ConfigProperty(name = "catalog.item-index.coverage-ttl", defaultValue = "5m")
+    Duration itemIndexCoverageTtl;
+
+    private List<StacProvider> providers;
+    private SearchCache searchCache;
+    private final SingleFlight<ProviderSearchKey, CatalogSearchResponse> providerSearches = new SingleFlight<>();
+    private List<CollectionsCache> collectionsCaches;
+    private StacItemIndex itemIndex;
+    private volatile HarvestedItemSource harvestedItems;
+    private Map<String, Bulkhead> bulkheads;
+    private Timer mergeTimer;
+    private Timer simplifyTimer;
+    private Counter relays;
+
+    @PostConstruct
+    void init() {
+        this.providers = stacProviders.stream()
+                .sorted(Comparator.comparing(StacProvider::getProviderId))
+                .toList();
+        this.searchCache = new SearchCache(cacheMaxEntries, cacheTtl, cacheMaxStale);
+        this.collectionsCaches = providers.stream().map(CollectionsCache::new).toList();
+        this.itemIndex = new StacItemIndex(itemIndexMaxItems, itemIndexTimeBucket, itemIndexCoverageTtl);
+        this.mergeTimer = Timer.builder("catalog.search.stage")
+                .tag("stage", "merge")
+                .tag("provider", "all")
+                .description("Time spent in each stage of a catalog search")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.simplifyTimer = Timer.builder("catalog.search.stage")
+                .tag("stage", "simplify")
+                .tag("provider", "all")
+                .description("Time spent in each stage of a catalog search")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.relays = Counter.builder("catalog.search.relayed")
+                .description("Catalog searches relayed from the provider without parsing")
+                .register(meterRegistry);
+        this.bulkheads = new LinkedHashMap<>();
+        for (StacProvider provider : providers) {
+            Bulkhead bulkhead = new Bulkhead(provider.getProviderId(),
+                    provider.getMaxConcurrentSearches(), provider.getMaxQueuedSearches());
+            bulkheads.put(provider.getProviderId(), bulkhead);
+            registerBulkheadMetrics(provider.getProviderId(), bulkhead);
+        }
+        LOG.infof("Catalog providers: %s", providers.stream().map(StacProvider::getProviderId).toList());
+    }
 
     /**
      * Searches the STAC catalog using the given parameters.
-     * Delegates to the Copernicus STAC provider.
+     * Serves from the item index or the search cache when possible, otherwise searches all
+     * providers in parallel.
+     * Providers that fail or miss their deadline are left out and the response is marked partial.
+     * If every provider fails, the stage fails with {@link CatalogUnavailableException}, or with
+     * {@link CatalogOverloadedException} if every provider's bulkhead was full.
+     * A request carrying a cursor only queries the providers that still have pages left.
+     * In grid cell mode each covering cell is searched and cached as its own search.
      *
-     * @param request search parameters including bbox, datetime, collections, and limit
-     * @return search results with matched STAC items
+     * @param request search parameters including bbox, datetime, collections, limit, and cursor
+     * @return stage completing with search results with matched STAC items
+     * @throws IllegalArgumentException if the request cursor is malformed or has expired
      */
-    public CatalogSearchResponse search(CatalogSearchRequest request) {
+    public CompletionStage<CatalogSearchResponse> search(CatalogSearchRequest request) {
         LOG.infof("Catalog search request: bbox=%s, datetime=%s, collections=%s, limit=%d",
                 request.bbox() != null ? formatBbox(request.bbox()) : "null",
                 request.datetime(),
                 request.collections() != null ? String.join(", ", request.collections()) : "null",
                 request.limit());
 
-        return copernicusProvider.search(request);
+        return search(request, true).thenApply(response -> simplify(response, request));
+    }
+
+    /**
+     * Fetches one page of results directly from the providers, bypassing the search cache.
+     * Used to walk all pages of a search for export without flooding the cache.
+     *
+     * @param request search parameters, with the cursor of the page to fetch
+     * @return stage completing with the page of results
+     * @throws IllegalArgumentException if the request cursor is malformed or has expired
+     */
+    public CompletionStage<CatalogSearchResponse> searchPage(CatalogSearchRequest request) {
+        return search(request, false).thenApply(response -> simplify(response, request));
+    }
+
+    /**
+     * Relays a search to the provider and hands back the provider's response body unparsed,
+     * if the search needs nothing done to the results: relaying is enabled, exactly one
+     * provider is configured (so nothing is merged) and it supports relaying, and the search
+     * has no field projection, grid cells, cursor, or geometry simplification. A relayed search takes a slot in the
+     * provider's bulkhead until the response headers arrive, but it bypasses the search cache,
+     * coalescing, and the item index, and its results are not indexed.
+     * If the provider fails, the stage fails with {@link CatalogUnavailableException}, or with
+     * {@link CatalogOverloadedException} if its bulkhead was full.
+     *
+     * @param request search parameters
+     * @return stage completing with the upstream response, or null if the search must go
+     *         through {@link #search(CatalogSearchRequest)} instead
+     */
+    public CompletionStage<StacSearchRelay> relay(CatalogSearchRequest request) {
+        if (!relayEnabled || providers.size() != 1 || request.cursor() != null || request.gridCells()
+                || hasProjection(request) || simplificationLevel(request) >= 0
+                || !providers.get(0).supportsRelay()) {
+            return null;
+        }
+        StacProvider provider = providers.get(0);
+        String providerId = provider.getProviderId();
+        LOG.debugf("Relaying catalog search to %s", providerId);
+        relays.increment();
+        return bulkheads.get(providerId).execute(() -> provider.relaySearchAsync(request))
+                .exceptionally(error -> {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    LOG.warnf("Provider %s relayed search failed: %s", providerId, cause.getMessage());
+                    throw unavailable(List.of(ProviderResult.failure(providerId, cause)));
+                });
+    }
+
+    /**
+     * Returns hit/miss and eviction counters for the search result cache.
+     *
+     * @return current cache statistics
+     */
+    public SearchCache.Stats getSearchCacheStats() {
+        return searchCache.stats();
+    }
+
+    /**
+     * Returns leader/coalesced counters for concurrent identical provider searches.
+     *
+     * @return current single-flight statistics
+     */
+    public SingleFlight.Stats getSearchCoalescingStats() {
+        return providerSearches.stats();
+    }
+
+    /**
+     * Returns circuit breaker, hedging, and failure counters per provider.
+     *
+     * @return statistics by provider ID, for providers that keep them
+     */
+    public Map<String, StacProviderStats> getProviderStats() {
+        Map<String, StacProviderStats> stats = new LinkedHashMap<>();
+        for (StacProvider provider : providers) {
+            StacProviderStats providerStats = provider.getStats();
+            if (providerStats != null) {
+                stats.put(provider.getProviderId(), providerStats);
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Returns size, coverage, and lookup counters for the local item index.
+     *
+     * @return current item index statistics
+     */
+    public StacItemIndex.Stats getItemIndexStats() {
+        return itemIndex.stats();
+    }
+
+    /**
+     * Adds harvested items to the item index.
+     *
+     * @param items       items from a harvest window
+     * @param coverage    the region those items are the complete contents of, or null
+     * @param coverageTtl how long the region is treated as complete
+     * @return true if the region was recorded as covered
+     */
+    public boolean addHarvestedItems(Collection<StacItem> items, StacItemIndex.Query coverage, Duration coverageTtl) {
+        return itemIndexEnabled && itemIndex.addAll(items, coverage, coverageTtl);
+    }
+
+    /**
+     * Sets where first-page searches the item index cannot answer completely look for
+     * harvested items before asking the providers. The source reads them off the calling
+     * thread, so searches on the event loop never wait for the harvest store.
+     *
+     * @param source reads harvested items back from the harvest store
+     */
+    public void setHarvestedItemSource(HarvestedItemSource source) {
+        this.harvestedItems = source;
+    }
+
+    /**
+     * Reads harvested items back for searches the item index cannot answer completely.
+     */
+    @FunctionalInterface
+    public interface HarvestedItemSource {
+
+        /**
+         * Reads back every harvested item inside the query's datetime interval and collection
+         * filter, regardless of its bbox, without blocking the calling thread.
+         *
+         * @param query    the search
+         * @param maxItems most items worth returning
+         * @return stage completing with the items, or with null if the harvest does not hold
+         *         every match of the query, more than {@code maxItems} items would be
+         *         returned, or the store cannot be read
+         */
+        CompletionStage<List<StacItem>> itemsFor(StacItemIndex.Query query, int maxItems);
     }
 
     /**
      * Returns the list of available STAC collections from all configured providers.
      *
-     * @return list of collection IDs
+     * @return stage completing with the list of collection IDs
+     */
+    public CompletionStage<List<String>> getCollections() {
+        return getCollectionsSnapshot().thenApply(CollectionsSnapshot::collections);
+    }
+
+    /**
+     * Returns the last good collection snapshot together with its entity tag.
+     *
+     * @return stage completing with the cached collection snapshot
+     */
+    public CompletionStage<CollectionsSnapshot> getCollectionsSnapshot() {
+        if (collectionsCaches.size() == 1) {
+            return collectionsCaches.get(0).get();
+        }
+        List<CompletableFuture<CollectionsSnapshot>> snapshots = collectionsCaches.stream()
+                .map(cache -> cache.get().toCompletableFuture())
+                .toList();
+        return CompletableFuture.allOf(snapshots.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> mergeSnapshots(snapshots.stream().map(CompletableFuture::join).toList()));
+    }
+
+    /**
+     * Revalidates the cached collection list against the upstream provider.
+     * Runs once shortly after startup and then every {@code catalog.collections.refresh-interval}.
+     */
+    @Scheduled(every = "{catalog.collections.refresh-interval}",
+               concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    CompletionStage<Void> refreshCollections() {
+        LOG.debug("Refreshing available STAC collections");
+        return CompletableFuture.allOf(collectionsCaches.stream()
+                .map(cache -> cache.refresh().toCompletableFuture())
+                .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Answers a search from the item index if possible, reloading a first page's items from
+     * the harvest store if needed, splits grid cell searches into per-cell searches, and
+     * otherwise asks the providers, through the search cache if {@code cached} is set.
+     */
+    private CompletionStage<CatalogSearchResponse> search(CatalogSearchRequest request, boolean cached) {
+        Map<String, String> pageTokens = pageTokens(request);
+        CatalogSearchResponse local = searchItemIndex(request, pageTokens);
+        if (local != null) {
+            return CompletableFuture.completedFuture(local);
+        }
+        if (pageTokens == null) {
+            CompletionStage<CatalogSearchResponse> harvested = searchHarvestedItems(request);
+            if (harvested != null) {
+                return harvested.thenCompose(response -> response != null
+                        ? CompletableFuture.completedFuture(response)
+                        : searchProviders(request, null, cached));
+            }
+        }
+        return searchProviders(request, pageTokens, cached);
+    }
+
+    /**
+     * Splits grid cell searches into per-cell searches, and otherwise asks the providers,
+     * through the search cache if {@code cached} is set.
+     */
+    private CompletionStage<CatalogSearchResponse> searchProviders(CatalogSearchRequest request,
+                                                                   Map<String, String> pageTokens, boolean cached) {
+        if (isGridSearch(request, pageTokens)) {
+            return searchGrid(request, pageTokens, cached);
+        }
+        Map<String, CatalogCursor.Resume> resumes = resumes(pageTokens);
+        CatalogCursor.LastReturned lastReturned = lastReturned(pageTokens);
+        if (!cached) {
+            return scatterGather(request, resumes, lastReturned);
+        }
+        SearchKey key = SearchKey.of(request, bboxPrecision);
+        return searchCache.get(key, () -> scatterGather(request, resumes, lastReturned));
+    }
+
+    /**
+     * A grid cell search needs a bbox that does not cross the antimeridian; when resuming,
+     * the cursor must hold cell tokens.
+     */
+    private static boolean isGridSearch(CatalogSearchRequest request, Map<String, String> pageTokens) {
+        double[] bbox = request.bbox();
+        if (!request.gridCells() || bbox == null || bbox.length != 4 || bbox[0] > bbox[2]) {
+            return false;
+        }
+        return pageTokens == null || pageTokens.keySet().stream().allMatch(key ->
+                key.startsWith(CELL_PAGE_TOKEN_PREFIX) || key.equals(CatalogCursor.LAST_RETURNED_KEY));
+    }
+
+    /**
+     * Searches each grid cell covering the request bbox as a search of its own (so every cell
+     * is cached and coalesced independently), then merges the newest {@code limit} items
+     * intersecting the bbox. Each cell's resume position is carried in the merged cursor under
+     * its quadkey. {@code numberMatched} is known only if the first page holds every match;
+     * otherwise it is null, since the cells' own counts include items outside the bbox and
+     * items shared with neighbouring cells.
+     */
+    private CompletionStage<CatalogSearchResponse> searchGrid(CatalogSearchRequest request,
+                                                              Map<String, String> pageTokens, boolean cached) {
+        Map<GridCell, CatalogCursor.Resume> cells = new LinkedHashMap<>();
+        if (pageTokens == null) {
+            for (GridCell cell : GridCell.covering(request.bbox(), gridMinLevel, gridMaxLevel)) {
+                cells.put(cell, CatalogCursor.Resume.FIRST_PAGE);
+            }
+        } else {
+            pageTokens.forEach((key, token) -> {
+                if (!key.equals(CatalogCursor.LAST_RETURNED_KEY)) {
+                    cells.put(GridCell.fromQuadkey(key.substring(CELL_PAGE_TOKEN_PREFIX.length())),
+                            CatalogCursor.Resume.decode(token));
+                }
+            });
+        }
+        CatalogCursor.LastReturned lastReturned = lastReturned(pageTokens);
+        LOG.debugf("Grid search over %d cells at level %d", cells.size(), cells.keySet().iterator().next().level());
+
+        List<String> cellIds = new ArrayList<>(cells.size());
+        List<CatalogCursor.Resume> cellResumes = new ArrayList<>(cells.size());
+        List<CompletableFuture<CatalogSearchResponse>> calls = new ArrayList<>(cells.size());
+        cells.forEach((cell, resume) -> {
+            CatalogSearchRequest cellRequest = new CatalogSearchRequest(cell.bbox(), request.datetime(),
+                    request.collections(), request.limit(), resume.pageToken(), request.fields(), false, null, null);
+            cellResumes.add(resume);
+            cellIds.add(CELL_PAGE_TOKEN_PREFIX + cell.quadkey());
+            calls.add(search(cellRequest, cached).toCompletableFuture());
+        });
+
+        return CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    List<ProviderResult> results = new ArrayList<>(calls.size());
+                    Set<String> failedProviders = new LinkedHashSet<>();
+                    for (int i = 0; i < calls.size(); i++) {
+                        CatalogSearchResponse cell = calls.get(i).join();
+                        failedProviders.addAll(cell.failedProviders());
+                        results.add(ProviderResult.success(cellIds.get(i), cell, cellResumes.get(i)));
+                    }
+                    CatalogSearchResponse merged = SearchResultMerger.merge(results, lastReturned, request.limit(),
+                            item -> ItemBounds.intersects(item, request.bbox()));
+                    Integer matched = pageTokens == null && merged.nextCursor() == null
+                            ? Integer.valueOf(merged.features().size()) : null;
+                    return CatalogSearchResponse.of(merged.features(), matched)
+                            .withNextCursor(merged.nextCursor())
+                            .withFailedProviders(List.copyOf(failedProviders));
+                });
+    }
+
+    /**
+     * Sends the search to every provider at once and merges whatever arrives before
+     * each provider's deadline into one page of at most {@code limit} items. When resuming
+     * from a cursor, only providers with a resume position are queried, each for the page
+     * it resumes in; a provider part of whose page was returned fetches that page again.
+     * If a provider rejects its page token, the search fails with {@link IllegalArgumentException}.
+     */
+    private CompletionStage<CatalogSearchResponse> scatterGather(CatalogSearchRequest request,
+                                                                 Map<String, CatalogCursor.Resume> resumes,
+                                                                 CatalogCursor.LastReturned lastReturned) {
+        List<CompletableFuture<ProviderResult>> calls = new ArrayList<>(providers.size());
+        for (StacProvider provider : providers) {
+            if (resumes == null) {
+                calls.add(searchProvider(provider, request, CatalogCursor.Resume.FIRST_PAGE));
+            } else if (resumes.containsKey(provider.getProviderId())) {
+                calls.add(searchProvider(provider, request, resumes.get(provider.getProviderId())));
+            }
+        }
+        return CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    List<ProviderResult> results = calls.stream().map(CompletableFuture::join).toList();
+                    for (ProviderResult result : results) {
+                        if (result.error() instanceof IllegalArgumentException malformed) {
+                            throw malformed;
+                        }
+                    }
+                    if (!results.isEmpty() && results.stream().allMatch(ProviderResult::failed)) {
+                        throw unavailable(results);
+                    }
+                    long mergeStart = System.nanoTime();
+                    CatalogSearchResponse response = SearchResultMerger.merge(results, lastReturned, request.limit(),
+                            item -> true);
+                    mergeTimer.record(System.nanoTime() - mergeStart, TimeUnit.NANOSECONDS);
+                    indexResponse(request, resumes == null, response);
+                    return response;
+                });
+    }
+
+    /**
+     * Builds the error for a search every provider failed. A retry time is known only if
+     * every provider rejected the search with an open circuit breaker, or shed it.
+     */
+    private CatalogUnavailableException unavailable(List<ProviderResult> results) {
+        List<String> providerIds = results.stream().map(ProviderResult::providerId).toList();
+        if (results.stream().allMatch(result -> result.error() instanceof Bulkhead.BulkheadFullException)) {
+            return new CatalogOverloadedException(providerIds, bulkheadRetryAfter);
+        }
+        Duration retryAfter = null;
+        for (ProviderResult result : results) {
+            if (!(result.error() instanceof StacProviderUnavailableException rejected)) {
+                retryAfter = null;
+                break;
+            }
+            if (retryAfter == null || rejected.getRetryAfter().compareTo(retryAfter) < 0) {
+                retryAfter = rejected.getRetryAfter();
+            }
+        }
+        return new CatalogUnavailableException(providerIds, retryAfter);
+    }
+
+    /**
+     * Answers a search from the item index if the index holds its complete results, or
+     * continues paging through such an answer; returns null if the harvest store or the
+     * providers must be asked.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed, or continues an answer
+     *         the index no longer holds complete
      */
-    public List<String> getCollections() {
-        LOG.info("Fetching available STAC collections");
-        return copernicusProvider.getCollections();
+    private CatalogSearchResponse searchItemIndex(CatalogSearchRequest request, Map<String, String> pageTokens) {
+        if (!itemIndexEnabled || hasProjection(request)) {
+            return null;
+        }
+        int offset = 0;
+        if (pageTokens != null) {
+            String token = pageTokens.get(INDEX_PAGE_TOKEN);
+            if (token == null) {
+                return null;
+            }
+            try {
+                offset = Integer.parseInt(token);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Malformed search cursor", e);
+            }
+        }
+        StacItemIndex.Query query = StacItemIndex.Query.of(request);
+        if (query == null) {
+            return null;
+        }
+        StacItemIndex.Result result = itemIndex.query(query);
+        if (!result.complete()) {
+            if (pageTokens == null) {
+                return null;
+            }
+            // the covered search was evicted or expired since the first page; the offset means nothing upstream
+            throw new IllegalArgumentException("Search cursor has expired; repeat the search from the first page");
+        }
+
+        return indexPage(request, result.items(), offset);
     }
 
+    /**
+     * Returns the page of a complete index answer starting at {@code offset}.
+     */
+    private static CatalogSearchResponse indexPage(CatalogSearchRequest request, List<StacItem> items, int offset) {
+        int from = Math.min(offset, items.size());
+        int to = Math.min(from + request.limit(), items.size());
+        LOG.debugf("Catalog search answered from item index with items %d-%d of %d", from, to, items.size());
+        return CatalogSearchResponse.of(List.copyOf(items.subList(from, to)), items.size())
+                .withNextCursor(to < items.size()
+                        ? CatalogCursor.encode(Map.of(INDEX_PAGE_TOKEN, Integer.toString(to)))
+                        : null);
+    }
+
+    /**
+     * Reloads the harvested items a first-page search needs into the item index, and records
+     * the search as covered, if the harvest holds all of them and they fit in half the index;
+     * then answers the search from the index.
+     *
+     * @return stage completing with the first page, or with null if the providers must be
+     *         asked (also if the reload was evicted again); null if there is no harvest to read
+     */
+    private CompletionStage<CatalogSearchResponse> searchHarvestedItems(CatalogSearchRequest request) {
+        HarvestedItemSource source = harvestedItems;
+        if (source == null || !itemIndexEnabled || hasProjection(request)) {
+            return null;
+        }
+        StacItemIndex.Query query = StacItemIndex.Query.of(request);
+        if (query == null) {
+            return null;
+        }
+        return source.itemsFor(query, itemIndexMaxItems / 2).handle((items, error) -> {
+            if (error != null) {
+                LOG.warnf(error, "Cannot reload harvested items");
+                return null;
+            }
+            if (items == null || !itemIndex.addAll(items, query)) {
+                return null;
+            }
+            LOG.debugf("Reloaded %d harvested items into the item index", items.size());
+            StacItemIndex.Result result = itemIndex.query(query);
+            return result.complete() ? indexPage(request, result.items(), 0) : null;
+        });
+    }
+
+    /**
+     * Adds the items of a complete (non-partial, unprojected) response to the item index.
+     * A first page without a next cursor holds every match, so its search is recorded as covered.
+     */
+    private void indexResponse(CatalogSearchRequest request, boolean firstPage, CatalogSearchResponse response) {
+        if (!itemIndexEnabled || response.partial() || hasProjection(request)) {
+            return;
+        }
+        boolean exhaustive = firstPage
+                && response.nextCursor() == null
+                && response.numberMatched() != null
+                && response.numberMatched() <= response.numberReturned();
+        itemIndex.addAll(response.features(), exhaustive ? StacItemIndex.Query.of(request) : null);
+    }
+
+    /**
+     * Replaces item geometries with their versions simplified for the requested level. Items
+     * are copied rather than changed, since the search cache and item index share them.
+     */
+    private CatalogSearchResponse simplify(CatalogSearchResponse response, CatalogSearchRequest request) {
+        int level = simplificationLevel(request);
+        if (level < 0) {
+            return response;
+        }
+        long start = System.nanoTime();
+        List<StacItem> items = new ArrayList<>(response.features().size());
+        for (StacItem item : response.features()) {
+            items.add(item.getGeometry() != null ? item.withGeometry(item.getGeometry().simplified(level)) : item);
+        }
+        simplifyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return new CatalogSearchResponse(items, response.numberMatched(), response.numberReturned(),
+                response.partial(), response.failedProviders(), response.nextCursor());
+    }
+
+    private static int simplificationLevel(CatalogSearchRequest request) {
+        return GeometrySimplifier.level(request.simplifyTolerance(), request.zoom());
+    }
+
+    private static boolean hasProjection(CatalogSearchRequest request) {
+        return request.fields() != null && !request.fields().isEmpty();
+    }
+
+    /**
+     * Splits the request cursor into per-provider page tokens; null for a first-page search.
+     */
+    private static Map<String, String> pageTokens(CatalogSearchRequest request) {
+        return request.cursor() != null ? CatalogCursor.decode(request.cursor()) : null;
+    }
+
+    /**
+     * Decodes the per-provider page tokens into resume positions; null for a first-page search.
+     */
+    private static Map<String, CatalogCursor.Resume> resumes(Map<String, String> pageTokens) {
+        if (pageTokens == null) {
+            return null;
+        }
+        Map<String, CatalogCursor.Resume> resumes = new LinkedHashMap<>();
+        pageTokens.forEach((providerId, token) -> {
+            if (!providerId.equals(CatalogCursor.LAST_RETURNED_KEY)) {
+                resumes.put(providerId, CatalogCursor.Resume.decode(token));
+            }
+        });
+        return resumes;
+    }
+
+    /**
+     * Decodes the last items returned by the previous page; null for a first-page search or
+     * if the previous page returned none.
+     */
+    private static CatalogCursor.LastReturned lastReturned(Map<String, String> pageTokens) {
+        String token = pageTokens != null ? pageTokens.get(CatalogCursor.LAST_RETURNED_KEY) : null;
+        return token != null ? CatalogCursor.LastReturned.decode(token) : null;
+    }
+
+    /**
+     * Searches one provider for the page it resumes in, joining an identical search already
+     * in flight if there is one. Only a new upstream search takes a slot in the provider's bulkhead.
+     * The deadline runs from this caller's start, and giving up does not affect other callers.
+     */
+    private CompletableFuture<ProviderResult> searchProvider(StacProvider provider, CatalogSearchRequest search,
+                                                             CatalogCursor.Resume resume) {
+        String providerId = provider.getProviderId();
+        CatalogSearchRequest request = search.withCursor(resume.pageToken());
+        ProviderSearchKey key = new ProviderSearchKey(providerId, SearchKey.of(request, bboxPrecision));
+        Bulkhead bulkhead = bulkheads.get(providerId);
+        return providerSearches.execute(key, () -> bulkhead.execute(() -> provider.searchAsync(request)))
+                .orTimeout(provider.getSearchDeadline().toMillis(), TimeUnit.MILLISECONDS)
+                .handle((response, error) -> {
+                    if (error == null) {
+                        return ProviderResult.success(providerId, response, resume);
+                    }
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    if (cause instanceof IllegalArgumentException) {
+                        LOG.debugf("Provider %s rejected its page token: %s", providerId, cause.getMessage());
+                    } else if (cause instanceof TimeoutException) {
+                        LOG.warnf("Provider %s missed its %s search deadline", providerId, provider.getSearchDeadline());
+                    } else if (cause instanceof Bulkhead.BulkheadFullException) {
+                        LOG.warnf("Provider %s search shed: %s", providerId, cause.getMessage());
+                    } else {
+                        LOG.warnf(cause, "Provider %s search failed", providerId);
+                    }
+                    return ProviderResult.failure(providerId, cause);
+                });
+    }
+
+    private void registerBulkheadMetrics(String providerId, Bulkhead bulkhead) {
+        Gauge.builder("catalog.provider.searches.running", bulkhead, Bulkhead::running)
+                .tag("provider", providerId)
+                .description("Upstream searches in flight")
+                .register(meterRegistry);
+        Gauge.builder("catalog.provider.searches.queued", bulkhead, Bulkhead::queued)
+                .tag("provider", providerId)
+                .description("Upstream searches waiting for a free slot")
+                .register(meterRegistry);
+        FunctionCounter.builder("catalog.provider.searches.rejected", bulkhead, Bulkhead::rejected)
+                .tag("provider", providerId)
+                .description("Upstream searches rejected because the queue was full")
+                .register(meterRegistry);
+    }
+
+    private static CollectionsSnapshot mergeSnapshots(List<CollectionsSnapshot> snapshots) {
+        Set<String> collections = new LinkedHashSet<>();
+        Instant refreshedAt = Instant.MAX;
+        for (CollectionsSnapshot snapshot : snapshots) {
+            collections.addAll(snapshot.collections());
+            if (snapshot.refreshedAt().isBefore(refreshedAt)) {
+                refreshedAt = snapshot.refreshedAt();
+            }
+        }
+        return CollectionsSnapshot.of(List.copyOf(collections), refreshedAt);
+    }
+
+    private record ProviderSearchKey(String providerId, SearchKey search) {}
+
     private String formatBbox(double[] bbox) {
         if (bbox.length != 4) return "invalid";
         return String.format("[%.4f, %.4f, %.4f, %.4f]", bbox[0], bbox[1], bbox[2], bbox[3]);
@@ -0,0 +1,151 @@
+package com.gdmp.service;
+
+import com.gdmp.model.dto.CatalogSearchRequest;
+import com.gdmp.stac.GeometrySimplifier;
+import com.gdmp.stac.StacItem;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * Builds Mapbox Vector Tiles of catalog item footprints.
+ *
+ * A tile is built from a grid cell catalog search over the tile's bounds, so its items come
+ * from the search cache (and item index) shared with regular map searches, and neighbouring
+ * tiles reuse the same cells. Footprints are simplified to the tile's resolution and encoded
+ * by {@link VectorTileEncoder}. Encoded tiles are cached per tile and filter in a
+ * {@link TileCache}, and concurrent requests for the same tile build it once.
+ */
+@ApplicationScoped
+public class CatalogTileService {
+
+    private static final Logger LOG = Logger.getLogger(CatalogTileService.class);
+
+    /** Finest zoom level a tile can be requested at. */
+    public static final int MAX_ZOOM = 24;
+    /**
+     * Simplification levels are 256 pixel tile zooms; a 4096 unit tile at zoom z has the
+     * resolution of zoom z + 4, so footprints keep detail down to one tile unit.
+     */
+    private static final int SIMPLIFY_LEVEL_OFFSET = 4;
+
+    @Inject
+    CatalogService catalogService;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "catalog.tiles.max-items", defaultValue = "500")
+    int maxItems;
+
+    @ConfigProperty(name = "catalog.tiles.min-zoom", defaultValue = "3")
+    int minZoom;
+
+    @ConfigProperty(name = "catalog.tiles.cache.max-entries", defaultValue = "5000")
+    int cacheMaxEntries;
+
+    @ConfigProperty(name = "catalog.tiles.cache.ttl", defaultValue = "2m")
+    Duration cacheTtl;
+
+    private final SingleFlight<TileKey, VectorTile> builds = new SingleFlight<>();
+    private TileCache tileCache;
+    private Timer encodeTimer;
+
+    /**
+     * Tile address and normalized filter; collections are sorted and deduplicated.
+     */
+    public record TileKey(int z, int x, int y, List<String> collections, String datetime) {}
+
+    @PostConstruct
+    void init() {
+        this.tileCache = new TileCache(cacheMaxEntries, cacheTtl);
+        this.encodeTimer = Timer.builder("catalog.search.stage")
+                .tag("stage", "tile-encode")
+                .tag("provider", "all")
+                .description("Time spent in each stage of a catalog search")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the vector tile of footprints of the items matching the filter.
+     * Each tile holds at most {@code catalog.tiles.max-items} items, newest first; tiles
+     * coarser than {@code catalog.tiles.min-zoom} are always empty.
+     * If every provider fails, the stage fails with {@link CatalogUnavailableException}.
+     *
+     * @param z           zoom level, 0 to {@link #MAX_ZOOM}
+     * @param x           tile column, 0 to {@code 2^z - 1}
+     * @param y           tile row from the north, 0 to {@code 2^z - 1}
+     * @param collections STAC collection IDs to include; null or empty for all
+     * @param datetime    ISO 8601 datetime range; null for any time
+     * @return stage completing with the encoded tile
+     * @throws IllegalArgumentException if the tile address is out of range
+     */
+    public CompletionStage<VectorTile> getTile(int z, int x, int y, List<String> collections, String datetime) {
+        if (z < 0 || z > MAX_ZOOM || x < 0 || y < 0 || x >= 1 << z || y >= 1 << z) {
+            throw new IllegalArgumentException("Tile " + z + "/" + x + "/" + y + " does not exist");
+        }
+        List<String> normalizedCollections = collections == null ? List.of() : collections.stream()
+                .map(String::trim)
+                .filter(collection -> !collection.isEmpty())
+                .distinct()
+                .sorted()
+                .toList();
+        String normalizedDatetime = datetime == null || datetime.isBlank() ? null : datetime.trim();
+        TileKey key = new TileKey(z, x, y, normalizedCollections, normalizedDatetime);
+        if (z < minZoom) {
+            return CompletableFuture.completedFuture(encode(key, List.of(), false));
+        }
+        return tileCache.get(key, () -> builds.execute(key, () -> build(key)));
+    }
+
+    /**
+     * Returns tile cache counters.
+     *
+     * @return current tile cache statistics
+     */
+    public TileCache.Stats getTileCacheStats() {
+        return tileCache.stats();
+    }
+
+    private CompletionStage<VectorTile> build(TileKey key) {
+        CatalogSearchRequest request = new CatalogSearchRequest(
+                VectorTileEncoder.bounds(key.z(), key.x(), key.y()),
+                key.datetime(),
+                key.collections().isEmpty() ? null : key.collections().toArray(String[]::new),
+                maxItems, null, null, true, null, null);
+        return catalogService.search(request)
+                .thenApply(response -> encode(key, response.features(), response.partial()));
+    }
+
+    private VectorTile encode(TileKey key, List<StacItem> items, boolean partial) {
+        long start = System.nanoTime();
+        VectorTileEncoder encoder = new VectorTileEncoder(key.z(), key.x(), key.y());
+        int level = Math.min(key.z() + SIMPLIFY_LEVEL_OFFSET, GeometrySimplifier.MAX_LEVEL);
+        for (StacItem item : items) {
+            if (item.getGeometry() != null) {
+                encoder.add(item, item.getGeometry().simplified(level));
+            }
+        }
+        byte[] data = encoder.encode();
+        CRC32C crc = new CRC32C();
+        crc.update(data);
+        String etag = HexFormat.of().toHexDigits((int) crc.getValue()) + "-" + Integer.toHexString(data.length);
+        encodeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        LOG.debugf("Encoded tile %d/%d/%d with %d of %d items in %d bytes",
+                key.z(), key.x(), key.y(), encoder.featureCount(), items.size(), data.length);
+        return new VectorTile(data, etag, encoder.featureCount(), partial);
+    }
+}
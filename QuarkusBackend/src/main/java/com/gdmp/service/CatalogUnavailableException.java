@@ -0,0 +1,38 @@
+package com.gdmp.service;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Thrown when a catalog search cannot be answered because every provider it was sent to
+ * failed, timed out, or rejected it with an open circuit breaker.
+ */
+public class CatalogUnavailableException extends RuntimeException {
+
+    private final List<String> failedProviders;
+    private final Duration retryAfter;
+
+    public CatalogUnavailableException(List<String> failedProviders, Duration retryAfter) {
+        this("Catalog providers unavailable: " + String.join(", ", failedProviders), failedProviders, retryAfter);
+    }
+
+    protected CatalogUnavailableException(String message, List<String> failedProviders, Duration retryAfter) {
+        super(message);
+        this.failedProviders = List.copyOf(failedProviders);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Returns the IDs of the providers that failed.
+     */
+    public List<String> getFailedProviders() {
+        return failedProviders;
+    }
+
+    /**
+     * Returns how long until the providers will be tried again, or null if unknown.
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
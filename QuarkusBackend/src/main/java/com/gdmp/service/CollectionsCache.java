@@ -0,0 +1,106 @@
+package com.gdmp.service;
+
+import com.gdmp.stac.StacCollectionsResponse;
+import com.gdmp.stac.StacProvider;
+import org.jboss.logging.Logger;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Holds the last good collection list from a STAC provider.
+ *
+ * {@link #refresh()} revalidates the list with a conditional request using the
+ * upstream ETag/Last-Modified from the previous fetch. If the upstream fails, the
+ * previous snapshot is kept and served. Only the very first load is waited on by callers.
+ */
+public class CollectionsCache {
+
+    private static final Logger LOG = Logger.getLogger(CollectionsCache.class);
+
+    private final StacProvider provider;
+
+    private volatile CollectionsSnapshot snapshot;
+    private String upstreamEtag;
+    private String upstreamLastModified;
+    private CompletableFuture<Void> inFlight;
+
+    public CollectionsCache(StacProvider provider) {
+        this.provider = provider;
+    }
+
+    /**
+     * Returns the current snapshot, loading it first if none has been fetched yet.
+     * Before the first successful fetch an empty, uncached snapshot is returned.
+     *
+     * @return stage completing with the last good collection snapshot
+     */
+    public CompletionStage<CollectionsSnapshot> get() {
+        CollectionsSnapshot current = snapshot;
+        if (current != null) {
+            return CompletableFuture.completedFuture(current);
+        }
+        return refresh().thenApply(ignored -> {
+            CollectionsSnapshot loaded = snapshot;
+            return loaded != null ? loaded : CollectionsSnapshot.of(List.of(), Instant.now());
+        });
+    }
+
+    /**
+     * Revalidates the collection list against the provider. Concurrent callers share the
+     * refresh already in progress. Failures are logged and leave the current snapshot in place.
+     *
+     * @return stage completing once the refresh has finished, successfully or not
+     */
+    public synchronized CompletionStage<Void> refresh() {
+        if (inFlight != null) {
+            return inFlight;
+        }
+        CompletionStage<StacCollectionsResponse> request;
+        try {
+            request = provider.getCollectionsAsync(upstreamEtag, upstreamLastModified);
+        } catch (RuntimeException e) {
+            request = CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<Void> refresh = request
+                .handle((response, error) -> {
+                    apply(response, error);
+                    return (Void) null;
+                })
+                .toCompletableFuture();
+        inFlight = refresh;
+        refresh.whenComplete((ignored, error) -> clearInFlight(refresh));
+        return refresh;
+    }
+
+    private synchronized void clearInFlight(CompletableFuture<Void> refresh) {
+        if (inFlight == refresh) {
+            inFlight = null;
+        }
+    }
+
+    private synchronized void apply(StacCollectionsResponse response, Throwable error) {
+        if (error != null) {
+            LOG.warnf(error, "Collection refresh from %s failed, keeping last good snapshot",
+                    provider.getProviderName());
+            return;
+        }
+
+        CollectionsSnapshot current = snapshot;
+        if (response.notModified()) {
+            if (current != null) {
+                snapshot = new CollectionsSnapshot(current.collections(), current.etag(), Instant.now());
+            }
+            return;
+        }
+
+        upstreamEtag = response.etag();
+        upstreamLastModified = response.lastModified();
+        List<String> collections = List.copyOf(response.collections());
+        snapshot = CollectionsSnapshot.of(collections, Instant.now());
+        LOG.infof("Collection snapshot refreshed from %s: %d collections",
+                provider.getProviderName(), collections.size());
+    }
+}
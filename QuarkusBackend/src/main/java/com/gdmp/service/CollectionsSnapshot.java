@@ -0,0 +1,42 @@
+package com.gdmp.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Immutable snapshot of the available STAC collection IDs, as served to clients.
+ */
+public record CollectionsSnapshot(
+        /** Collection IDs in upstream order */
+        List<String> collections,
+
+        /** Strong entity tag derived from the collection list contents */
+        String etag,
+
+        /** When the upstream last confirmed this list (200 or 304) */
+        Instant refreshedAt
+) {
+    /**
+     * Creates a snapshot whose entity tag is a digest of the collection list.
+     */
+    public static CollectionsSnapshot of(List<String> collections, Instant refreshedAt) {
+        return new CollectionsSnapshot(collections, etagOf(collections), refreshedAt);
+    }
+
+    private static String etagOf(List<String> collections) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String collection : collections) {
+                digest.update(collection.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            return HexFormat.of().formatHex(digest.digest(), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.gdmp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gdmp.store.DurableStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+/**
+ * Opens the application's {@link DurableStore}s with the options from {@link StoreConfig}
+ * and registers their metrics.
+ */
+@ApplicationScoped
+public class DurableStores {
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    StoreConfig config;
+
+    /**
+     * Opens (and recovers) a store.
+     *
+     * @param name      store name, used in thread names, log messages and metric tags
+     * @param directory store directory
+     * @param type      value type
+     * @return the opened store
+     * @throws UncheckedIOException if the store cannot be opened
+     */
+    public <V> DurableStore<V> open(String name, String directory, Class<V> type) {
+        DurableStore<V> store;
+        try {
+            store = DurableStore.open(name, Path.of(directory), type, objectMapper, config.options());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open " + name + " store " + directory, e);
+        }
+        StoreMetrics.register(name, store, meterRegistry);
+        return store;
+    }
+}
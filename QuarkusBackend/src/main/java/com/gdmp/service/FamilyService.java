@@ -67,6 +67,22 @@ public class FamilyService {
         return family != null ? family.types() : List.of();
     }
 
+    /**
+     * Returns a tier of a product type.
+     *
+     * @param familyId      the family identifier
+     * @param productTypeId the product type identifier within the family
+     * @param tierId        the tier identifier within the product type
+     * @return the tier, or empty if any of the identifiers is unknown
+     */
+    public Optional<ProductTier> getTier(String familyId, String productTypeId, String tierId) {
+        return getProductTypes(familyId).stream()
+                .filter(type -> type.id().equals(productTypeId))
+                .flatMap(type -> type.tiers().stream())
+                .filter(tier -> tier.id().equals(tierId))
+                .findFirst();
+    }
+
     // ==================== Imagery Family ====================
 
     private void initImageryFamily() {
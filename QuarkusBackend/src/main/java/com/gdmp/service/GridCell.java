@@ -0,0 +1,101 @@
+package com.gdmp.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cell of a fixed quadtree grid over WGS84 longitude/latitude.
+ *
+ * Level {@code z} splits the world into {@code 2^z} columns of {@code 360 / 2^z} degrees
+ * and {@code 2^z} rows of {@code 180 / 2^z} degrees; column 0 starts at -180 and row 0 at
+ * the north pole. Cells are named by quadkey: one digit per level, each the quadrant
+ * (0 = north-west, 1 = north-east, 2 = south-west, 3 = south-east) within the parent cell.
+ *
+ * @param level quadtree level (1 or more)
+ * @param x     column, 0 to {@code 2^level - 1}
+ * @param y     row, 0 to {@code 2^level - 1}
+ */
+record GridCell(int level, int x, int y) {
+
+    static final int MAX_LEVEL = 24;
+
+    /**
+     * Returns the cells covering a bbox at the level chosen by {@link #levelFor}.
+     *
+     * @param bbox     [west, south, east, north], not crossing the antimeridian
+     * @param minLevel coarsest level to use
+     * @param maxLevel finest level to use
+     */
+    static List<GridCell> covering(double[] bbox, int minLevel, int maxLevel) {
+        int level = levelFor(bbox, minLevel, maxLevel);
+        int n = 1 << level;
+        // a bbox edge lying on a cell boundary does not pull in the cell beyond it
+        int minX = clamp((int) Math.floor((bbox[0] + 180) / 360 * n), n);
+        int maxX = Math.max(minX, clamp((int) Math.ceil((bbox[2] + 180) / 360 * n) - 1, n));
+        int minY = clamp((int) Math.floor((90 - bbox[3]) / 180 * n), n);
+        int maxY = Math.max(minY, clamp((int) Math.ceil((90 - bbox[1]) / 180 * n) - 1, n));
+        List<GridCell> cells = new ArrayList<>((maxX - minX + 1) * (maxY - minY + 1));
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) {
+                cells.add(new GridCell(level, x, y));
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Picks the finest level whose cells are at least as large as the bbox, so the bbox
+     * touches at most two cells per axis and small pans and zooms map to the same cells.
+     */
+    static int levelFor(double[] bbox, int minLevel, int maxLevel) {
+        // cells are twice as wide as they are high
+        double span = Math.max(bbox[2] - bbox[0], 2 * (bbox[3] - bbox[1]));
+        int level = span > 0 ? (int) Math.floor(Math.log(360 / span) / Math.log(2)) : maxLevel;
+        return Math.max(minLevel, Math.min(maxLevel, level));
+    }
+
+    /**
+     * Parses a quadkey.
+     *
+     * @throws IllegalArgumentException if the quadkey is empty, too long, or has digits other than 0-3
+     */
+    static GridCell fromQuadkey(String quadkey) {
+        if (quadkey.isEmpty() || quadkey.length() > MAX_LEVEL) {
+            throw new IllegalArgumentException("Malformed grid cell " + quadkey);
+        }
+        int x = 0;
+        int y = 0;
+        for (int i = 0; i < quadkey.length(); i++) {
+            int digit = quadkey.charAt(i) - '0';
+            if (digit < 0 || digit > 3) {
+                throw new IllegalArgumentException("Malformed grid cell " + quadkey);
+            }
+            x = x << 1 | (digit & 1);
+            y = y << 1 | (digit >> 1);
+        }
+        return new GridCell(quadkey.length(), x, y);
+    }
+
+    String quadkey() {
+        StringBuilder quadkey = new StringBuilder(level);
+        for (int i = level - 1; i >= 0; i--) {
+            quadkey.append((char) ('0' + ((x >> i) & 1) + 2 * ((y >> i) & 1)));
+        }
+        return quadkey.toString();
+    }
+
+    /**
+     * Returns the cell bounds as [west, south, east, north].
+     */
+    double[] bbox() {
+        double width = 360.0 / (1 << level);
+        double height = 180.0 / (1 << level);
+        double west = -180 + x * width;
+        double north = 90 - y * height;
+        return new double[] {west, north - height, west + width, north};
+    }
+
+    private static int clamp(int index, int n) {
+        return Math.max(0, Math.min(n - 1, index));
+    }
+}
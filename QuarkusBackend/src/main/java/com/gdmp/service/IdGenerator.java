@@ -0,0 +1,125 @@
+package com.gdmp.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free generator of unique, time-ordered IDs such as {@code ORD-0A8HJSHW80W00}.
+ *
+ * Each ID is a 64-bit Snowflake-style number: 42 bits of milliseconds since 2024-01-01,
+ * 10 bits of node ID ({@code ids.node-id}, unique per running instance), and a 12 bit
+ * sequence within the millisecond. It is written as 13 Crockford Base32 digits, so IDs
+ * with the same prefix sort as strings in creation order and can be range-scanned.
+ *
+ * The last issued timestamp and sequence live in one AtomicLong advanced by compare-and-set.
+ * When a millisecond's 4096 sequence numbers run out, or the clock steps back, the timestamp
+ * runs ahead of the clock instead of waiting, so IDs of one node are strictly increasing.
+ * Uniqueness across nodes holds as long as every node has its own node ID; uniqueness across
+ * restarts of one node assumes its clock did not step back by more than the downtime.
+ */
+@ApplicationScoped
+public class IdGenerator {
+
+    /** 2024-01-01T00:00:00Z; IDs run out 2^42 ms (about 139 years) after it. */
+    static final long EPOCH_MILLIS = 1_704_067_200_000L;
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int DIGITS = 13;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    @ConfigProperty(name = "ids.node-id", defaultValue = "0")
+    int nodeId;
+
+    /** Last issued (milliseconds since EPOCH_MILLIS) << SEQUENCE_BITS | sequence. */
+    private final AtomicLong last = new AtomicLong();
+
+    private final LongSupplier clock;
+
+    public IdGenerator() {
+        this(System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a generator reading milliseconds since the Unix epoch from {@code clock}; lets
+     * tests hold or step back the clock.
+     */
+    IdGenerator(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    void init() {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("ids.node-id must be between 0 and " + MAX_NODE_ID + " but is " + nodeId);
+        }
+    }
+
+    /**
+     * Returns a new ID with the given prefix, e.g. {@code next("ORD-")}.
+     */
+    public String next(String prefix) {
+        long now = clock.getAsLong() - EPOCH_MILLIS;
+        long current;
+        long next;
+        do {
+            current = last.get();
+            long candidate = now << SEQUENCE_BITS;
+            // same or earlier millisecond (or clock behind): take the next sequence number,
+            // which carries into the next millisecond when the sequence is used up
+            next = candidate > current ? candidate : current + 1;
+        } while (!last.compareAndSet(current, next));
+
+        long timestamp = next >>> SEQUENCE_BITS;
+        long id = timestamp << (NODE_BITS + SEQUENCE_BITS)
+                | (long) nodeId << SEQUENCE_BITS
+                | (next & SEQUENCE_MASK);
+        return encode(prefix, id);
+    }
+
+    /**
+     * Returns the creation time encoded in an ID from {@link #next}.
+     *
+     * @throws IllegalArgumentException if the ID does not end in 13 Crockford Base32 digits
+     */
+    public static Instant timestampOf(String id) {
+        if (id.length() < DIGITS) {
+            throw new IllegalArgumentException("Not a generated ID: " + id);
+        }
+        long value = 0;
+        for (int i = id.length() - DIGITS; i < id.length(); i++) {
+            int digit = digitValue(id.charAt(i));
+            if (digit < 0) {
+                throw new IllegalArgumentException("Not a generated ID: " + id);
+            }
+            value = value << 5 | digit;
+        }
+        return Instant.ofEpochMilli((value >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS);
+    }
+
+    private static String encode(String prefix, long id) {
+        char[] chars = new char[prefix.length() + DIGITS];
+        prefix.getChars(0, prefix.length(), chars, 0);
+        // 13 digits hold 65 bits; the first carries the top 4
+        for (int i = chars.length - 1; i >= prefix.length(); i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    private static int digitValue(char c) {
+        for (int i = 0; i < ALPHABET.length; i++) {
+            if (ALPHABET[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
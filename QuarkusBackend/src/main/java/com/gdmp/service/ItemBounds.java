@@ -0,0 +1,66 @@
+package com.gdmp.service;
+
+import com.gdmp.stac.StacGeometry;
+import com.gdmp.stac.StacItem;
+
+/**
+ * Computes 2D bounding boxes of STAC items for spatial filtering.
+ */
+final class ItemBounds {
+
+    private ItemBounds() {
+    }
+
+    /**
+     * Returns the item's 2D bbox (minX, minY, maxX, maxY), from {@code bbox} or else from its
+     * geometry. Boxes crossing the antimeridian are widened to the full longitude range.
+     */
+    static double[] of(StacItem item) {
+        double[] bbox = item.getBbox();
+        double[] bounds;
+        if (bbox != null && bbox.length == 4) {
+            bounds = bbox.clone();
+        } else if (bbox != null && bbox.length == 6) {
+            bounds = new double[] {bbox[0], bbox[1], bbox[3], bbox[4]};
+        } else if (item.getGeometry() != null) {
+            bounds = new double[] {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+                                   Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+            extend(bounds, item.getGeometry());
+            if (bounds[0] > bounds[2]) {
+                return null;
+            }
+        } else {
+            return null;
+        }
+        if (bounds[0] > bounds[2]) {
+            bounds[0] = -180;
+            bounds[2] = 180;
+        }
+        return bounds;
+    }
+
+    private static void extend(double[] bounds, StacGeometry geometry) {
+        if (geometry.getGeometries() != null) {
+            for (StacGeometry member : geometry.getGeometries()) {
+                extend(bounds, member);
+            }
+            return;
+        }
+        for (int position = 0; position < geometry.getPositionCount(); position++) {
+            bounds[0] = Math.min(bounds[0], geometry.getX(position));
+            bounds[1] = Math.min(bounds[1], geometry.getY(position));
+            bounds[2] = Math.max(bounds[2], geometry.getX(position));
+            bounds[3] = Math.max(bounds[3], geometry.getY(position));
+        }
+    }
+
+    /**
+     * Returns true if the item's bbox intersects the given (minX, minY, maxX, maxY) box.
+     * Items without any bbox or geometry are treated as intersecting.
+     */
+    static boolean intersects(StacItem item, double[] bbox) {
+        double[] bounds = of(item);
+        return bounds == null || (bounds[0] <= bbox[2] && bounds[2] >= bbox[0]
+                && bounds[1] <= bbox[3] && bounds[3] >= bbox[1]);
+    }
+}
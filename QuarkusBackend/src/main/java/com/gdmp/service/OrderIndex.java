@@ -0,0 +1,233 @@
+package com.gdmp.service;
+
+import com.gdmp.model.dto.OrderPage;
+import com.gdmp.model.dto.OrderResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Sorted secondary indexes over orders for paged, filtered listings.
+ *
+ * Every index is a concurrent skip list of (createdAt, orderId) keys ordered newest first:
+ * one over all orders and one per status, family, and tier value. A listing walks the
+ * smallest index its filters allow from the cursor position (a skip list seek), stops at the
+ * start of the createdAt range, and checks the remaining filters against the current order,
+ * so a page costs O(log n + page) however many orders are held, as long as the chosen index
+ * is not dominated by orders the other filters reject.
+ *
+ * Updates come from a single thread (the store's writer) while listings run concurrently;
+ * a listing racing an update sees the changing order as before or after the change, or not at all.
+ */
+final class OrderIndex {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    /**
+     * Index key; also the position a cursor points after.
+     */
+    record Key(Instant createdAt, String orderId) {}
+
+    /** Generated order IDs are time-ordered, so they break createdAt ties newest first too. */
+    static final Comparator<Key> NEWEST_FIRST = Comparator.comparing(Key::createdAt)
+            .thenComparing(Key::orderId)
+            .reversed();
+
+    private final ConcurrentSkipListSet<Key> all = new ConcurrentSkipListSet<>(NEWEST_FIRST);
+    private final AtomicInteger allSize = new AtomicInteger();
+    private final Map<String, Bucket> byStatus = new ConcurrentHashMap<>();
+    private final Map<String, Bucket> byFamily = new ConcurrentHashMap<>();
+    private final Map<String, Bucket> byTier = new ConcurrentHashMap<>();
+
+    /**
+     * Keys sharing one field value, with a size counter (a skip list's own size() is O(n)).
+     */
+    private static final class Bucket {
+        final ConcurrentSkipListSet<Key> keys = new ConcurrentSkipListSet<>(NEWEST_FIRST);
+        final AtomicInteger size = new AtomicInteger();
+    }
+
+    /**
+     * Moves an order's keys from its previous to its current field values.
+     *
+     * @param previous order before the change, or null if it is new
+     * @param current  order after the change, or null if it was removed
+     */
+    void update(OrderResponse previous, OrderResponse current) {
+        if (previous != null && current != null && keyOf(previous).equals(keyOf(current))) {
+            move(byStatus, previous.status(), current.status(), keyOf(current));
+            move(byFamily, previous.familyId(), current.familyId(), keyOf(current));
+            move(byTier, previous.tierId(), current.tierId(), keyOf(current));
+            return;
+        }
+        if (previous != null) {
+            Key key = keyOf(previous);
+            if (all.remove(key)) {
+                allSize.decrementAndGet();
+            }
+            remove(byStatus, previous.status(), key);
+            remove(byFamily, previous.familyId(), key);
+            remove(byTier, previous.tierId(), key);
+        }
+        if (current != null) {
+            Key key = keyOf(current);
+            if (all.add(key)) {
+                allSize.incrementAndGet();
+            }
+            add(byStatus, current.status(), key);
+            add(byFamily, current.familyId(), key);
+            add(byTier, current.tierId(), key);
+        }
+    }
+
+    /**
+     * Returns one page of the orders matching the query, newest first.
+     *
+     * @param query  filters, cursor, and limit
+     * @param orders looks up the current order by ID
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    OrderPage list(OrderQuery query, Function<String, OrderResponse> orders) {
+        NavigableSet<Key> index = chooseIndex(query);
+        if (index == null) {
+            return new OrderPage(List.of(), null);
+        }
+
+        // start after the cursor or at the end of the createdAt range, whichever comes later
+        Key start = null;
+        if (query.createdTo() != null) {
+            // the empty ID sorts after every real ID of the same instant
+            start = new Key(query.createdTo(), "");
+        }
+        if (query.cursor() != null) {
+            Key after = decodeCursor(query.cursor());
+            if (start == null || NEWEST_FIRST.compare(after, start) > 0) {
+                start = after;
+            }
+        }
+        NavigableSet<Key> tail = start != null ? index.tailSet(start, false) : index;
+
+        List<OrderResponse> page = new ArrayList<>(Math.min(query.limit(), 64));
+        Key last = null;
+        for (Key key : tail) {
+            if (query.createdFrom() != null && key.createdAt().isBefore(query.createdFrom())) {
+                break;
+            }
+            OrderResponse order = orders.apply(key.orderId());
+            if (order == null || !matches(order, query)) {
+                continue;
+            }
+            if (page.size() == query.limit()) {
+                return new OrderPage(page, encodeCursor(last));
+            }
+            page.add(order);
+            last = key;
+        }
+        return new OrderPage(page, null);
+    }
+
+    /**
+     * Picks the smallest index among those the query's equality filters allow, or null if a
+     * filter value has no orders at all.
+     */
+    private NavigableSet<Key> chooseIndex(OrderQuery query) {
+        NavigableSet<Key> chosen = all;
+        int chosenSize = allSize.get();
+        Bucket[] candidates = {
+                query.status() != null ? byStatus.get(query.status()) : null,
+                query.familyId() != null ? byFamily.get(query.familyId()) : null,
+                query.tierId() != null ? byTier.get(query.tierId()) : null
+        };
+        String[] values = {query.status(), query.familyId(), query.tierId()};
+        for (int i = 0; i < candidates.length; i++) {
+            if (values[i] == null) {
+                continue;
+            }
+            if (candidates[i] == null) {
+                return null;
+            }
+            int size = candidates[i].size.get();
+            if (size < chosenSize) {
+                chosen = candidates[i].keys;
+                chosenSize = size;
+            }
+        }
+        return chosen;
+    }
+
+    private static boolean matches(OrderResponse order, OrderQuery query) {
+        return (query.status() == null || query.status().equals(order.status()))
+                && (query.familyId() == null || query.familyId().equals(order.familyId()))
+                && (query.tierId() == null || query.tierId().equals(order.tierId()));
+    }
+
+    private static void move(Map<String, Bucket> buckets, String previous, String current, Key key) {
+        if (!Objects.equals(previous, current)) {
+            remove(buckets, previous, key);
+            add(buckets, current, key);
+        }
+    }
+
+    private static void add(Map<String, Bucket> buckets, String value, Key key) {
+        if (value != null) {
+            Bucket bucket = buckets.computeIfAbsent(value, v -> new Bucket());
+            if (bucket.keys.add(key)) {
+                bucket.size.incrementAndGet();
+            }
+        }
+    }
+
+    private static void remove(Map<String, Bucket> buckets, String value, Key key) {
+        Bucket bucket = value != null ? buckets.get(value) : null;
+        if (bucket != null && bucket.keys.remove(key)) {
+            bucket.size.decrementAndGet();
+        }
+    }
+
+    static Key keyOf(OrderResponse order) {
+        Instant createdAt;
+        try {
+            createdAt = order.createdAt() != null ? Instant.parse(order.createdAt()) : Instant.EPOCH;
+        } catch (DateTimeParseException e) {
+            createdAt = Instant.EPOCH;
+        }
+        return new Key(createdAt, order.orderId());
+    }
+
+    /**
+     * Encodes the position after {@code key} as the URL-safe Base64 form of {@code createdAt|orderId}.
+     */
+    static String encodeCursor(Key key) {
+        String position = key.createdAt() + "|" + key.orderId();
+        return ENCODER.encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    static Key decodeCursor(String cursor) {
+        try {
+            String position = new String(DECODER.decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.indexOf('|');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Malformed order cursor");
+            }
+            return new Key(Instant.parse(position.substring(0, separator)), position.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed order cursor", e);
+        }
+    }
+}
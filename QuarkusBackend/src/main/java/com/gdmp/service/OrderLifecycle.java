@@ -0,0 +1,335 @@
+package com.gdmp.service;
+
+import com.gdmp.model.dto.OrderResponse;
+import com.gdmp.model.dto.OrderSchedule;
+import com.gdmp.model.dto.OrderStatus;
+import com.gdmp.model.dto.ProductTier;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.Startup;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Drives orders through their {@link OrderStatus} lifecycle.
+ *
+ * Every order that is not final is tracked together with the timeouts of its timed
+ * transitions on a {@link TimingWheel}: a Submitted order starts Processing at its schedule's
+ * start date (at once without one), a Processing order is Completed when the upper bound of
+ * its tier's delivery time (e.g. 6h for "3-6 hours") has passed since it started, and either
+ * becomes Expired at the schedule's expiration date. There is no fulfilment system behind
+ * this service, so the delivery deadline stands in for delivery; tiers without a bounded
+ * delivery time ("Continuous") stay Processing until cancelled or expired. A recurring order
+ * is delivered by its occurrences (see {@link RecurringOrderScheduler}) and is Completed at the
+ * end of its schedule's end date instead.
+ *
+ * Transitions of one order are serialized by {@code compute} on the tracking map and written
+ * to the {@link OrderStore} in that order; a transition cancels the order's old timeouts in
+ * O(1). A transition whose store write fails is undone and its due timeouts are retried a
+ * minute later. Timeouts are not persisted but rebuilt from the stored orders at startup;
+ * deadlines missed while the service was down fire from the first tick on, at most
+ * {@code orders.lifecycle.catch-up-per-tick} per tick, so their writes do not flood the store.
+ */
+@Startup
+@ApplicationScoped
+public class OrderLifecycle {
+
+    private static final Logger LOG = Logger.getLogger(OrderLifecycle.class);
+
+    /** Delay before due timeouts are retried after a transition could not be stored. */
+    private static final Duration SAVE_RETRY_DELAY = Duration.ofMinutes(1);
+
+    /** "24 hours", "3-6 hours", "7 days": the upper bound and its unit. */
+    private static final Pattern DELIVERY_TIME =
+            Pattern.compile("(?:\\d+\\s*-\\s*)?(\\d+)\\s*(minute|hour|day|week)s?", Pattern.CASE_INSENSITIVE);
+
+    @Inject
+    OrderStore orderStore;
+
+    @Inject
+    FamilyService familyService;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "orders.lifecycle.tick", defaultValue = "1s")
+    Duration tick;
+
+    @ConfigProperty(name = "orders.lifecycle.catch-up-per-tick", defaultValue = "1000")
+    int catchUpPerTick;
+
+    private final ConcurrentHashMap<String, Tracked> tracked = new ConcurrentHashMap<>();
+    private TimingWheel wheel;
+
+    /**
+     * A pending order with the timeouts of its next timed transition and of its expiry.
+     */
+    private record Tracked(OrderResponse order, TimingWheel.Timeout next, TimingWheel.Timeout expiry) {
+
+        void cancelTimeouts() {
+            if (next != null) {
+                next.cancel();
+            }
+            if (expiry != null) {
+                expiry.cancel();
+            }
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        init(new TimingWheel("order-lifecycle", tick));
+    }
+
+    /**
+     * Starts tracking on the given wheel, whose clock every transition reads; tests pass a
+     * wheel they advance themselves.
+     */
+    void init(TimingWheel wheel) {
+        this.wheel = wheel;
+        CatchUp catchUp = new CatchUp(wheel.now());
+        orderStore.forEach(order -> {
+            OrderStatus status = OrderStatus.fromLabel(order.status());
+            if (status != null && !status.isFinal()) {
+                tracked.put(order.orderId(), track(order, status, catchUp));
+            }
+        });
+        Gauge.builder("orders.lifecycle.pending", tracked, ConcurrentHashMap::size)
+                .description("Orders not yet Completed, Cancelled, or Expired")
+                .register(meterRegistry);
+        Gauge.builder("orders.lifecycle.timeouts", wheel, TimingWheel::pending)
+                .description("Scheduled order transitions")
+                .register(meterRegistry);
+        LOG.infof("Tracking %d pending orders", tracked.size());
+    }
+
+    @PreDestroy
+    void close() {
+        wheel.close();
+    }
+
+    /**
+     * Stores a new Submitted order and, once it is stored, schedules its transitions.
+     *
+     * @return stage completing with the order once it is stored and tracked
+     */
+    public CompletionStage<OrderResponse> submit(OrderResponse order) {
+        // tracked only once stored: a due timeout could otherwise write Processing before the
+        // Submitted order is even queued, and a failed save would leave timeouts to undo
+        return orderStore.save(order).thenApply(saved -> {
+            tracked.put(saved.orderId(), track(saved, OrderStatus.SUBMITTED, UnaryOperator.identity()));
+            return saved;
+        });
+    }
+
+    /**
+     * Cancels an order and its scheduled transitions.
+     *
+     * @return stage completing with the cancelled order once it is stored, or null if there
+     *         is no such order
+     * @throws IllegalStateException if the order is already Completed, Cancelled, or Expired
+     */
+    public CompletionStage<OrderResponse> cancel(String orderId) {
+        CompletionStage<OrderResponse> cancelled = transition(orderId, null, OrderStatus.CANCELLED);
+        if (cancelled != null) {
+            return cancelled;
+        }
+        OrderResponse stored = orderStore.get(orderId);
+        if (stored == null) {
+            return null;
+        }
+        throw new IllegalStateException("Order " + orderId + " is " + stored.status() + " and cannot be cancelled");
+    }
+
+    /**
+     * Moves a pending order to {@code to} if it is in {@code from} (any status if null) and
+     * the transition is allowed, replacing its timeouts. If the change cannot be stored, the
+     * order goes back to its previous status.
+     *
+     * @return stage completing with the stored order, or null if nothing changed
+     */
+    private CompletionStage<OrderResponse> transition(String orderId, OrderStatus from, OrderStatus to) {
+        @SuppressWarnings("unchecked")
+        CompletableFuture<OrderResponse>[] saved = new CompletableFuture[1];
+        Tracked[] previous = new Tracked[1];
+        Tracked changedTo = tracked.computeIfPresent(orderId, (id, current) -> {
+            OrderStatus status = OrderStatus.fromLabel(current.order().status());
+            if ((from != null && status != from) || !status.canTransitionTo(to)) {
+                return current;
+            }
+            current.cancelTimeouts();
+            OrderResponse changed = current.order().withStatus(to, wheel.now().toString());
+            saved[0] = orderStore.save(changed).toCompletableFuture();
+            previous[0] = current;
+            LOG.infof("Order %s: %s -> %s", id, status.label(), to.label());
+            return to.isFinal() ? null : track(changed, to, UnaryOperator.identity());
+        });
+        if (saved[0] != null) {
+            saved[0].whenComplete((order, error) -> {
+                if (error != null) {
+                    LOG.errorf(error, "Order %s could not be stored as %s; it stays %s", orderId, to.label(),
+                            previous[0].order().status());
+                    restore(previous[0], changedTo);
+                }
+            });
+        }
+        return saved[0];
+    }
+
+    /**
+     * Puts back an order as it was before a transition that could not be stored, unless a later
+     * change has replaced the transition's result ({@code failed}, null if it was final) since.
+     * Its timeouts are rescheduled, those already due after {@link #SAVE_RETRY_DELAY}.
+     */
+    private void restore(Tracked previous, Tracked failed) {
+        Instant retryAt = wheel.now().plus(SAVE_RETRY_DELAY);
+        OrderStatus status = OrderStatus.fromLabel(previous.order().status());
+        tracked.compute(previous.order().orderId(), (id, current) -> {
+            if (current != failed) {
+                return current;
+            }
+            if (current != null) {
+                current.cancelTimeouts();
+            }
+            return track(previous.order(), status, deadline -> deadline.isBefore(retryAt) ? retryAt : deadline);
+        });
+    }
+
+    /**
+     * Tracks a pending order, scheduling each timeout at {@code due} applied to its deadline.
+     */
+    private Tracked track(OrderResponse order, OrderStatus status, UnaryOperator<Instant> due) {
+        String orderId = order.orderId();
+        TimingWheel.Timeout next = null;
+        if (status == OrderStatus.SUBMITTED) {
+            Instant start = parseDate(order.schedule() != null ? order.schedule().startDate() : null, false);
+            next = wheel.schedule(due.apply(start != null ? start : wheel.now()),
+                    () -> transition(orderId, OrderStatus.SUBMITTED, OrderStatus.PROCESSING));
+        } else if (status == OrderStatus.PROCESSING && order.schedule() != null && order.schedule().recurring()) {
+            // a series is delivered by its occurrences; it is done once the last one's date is over
+            Instant end = parseDate(order.schedule().endDate(), true);
+            if (end != null) {
+                next = wheel.schedule(due.apply(end), () -> transition(orderId, OrderStatus.PROCESSING, OrderStatus.COMPLETED));
+            }
+        } else if (status == OrderStatus.PROCESSING) {
+            Duration deliveryTime = deliveryTime(order);
+            if (deliveryTime != null) {
+                next = wheel.schedule(due.apply(changedAt(order).plus(deliveryTime)),
+                        () -> transition(orderId, OrderStatus.PROCESSING, OrderStatus.COMPLETED));
+            }
+        }
+        OrderSchedule schedule = order.schedule();
+        Instant expiration = parseDate(schedule != null ? schedule.expirationDate() : null, true);
+        TimingWheel.Timeout expiry = expiration != null
+                ? wheel.schedule(due.apply(expiration), () -> transition(orderId, null, OrderStatus.EXPIRED))
+                : null;
+        return new Tracked(order, next, expiry);
+    }
+
+    /**
+     * Spreads the deadlines that passed while the service was down over successive ticks,
+     * {@code catchUpPerTick} per tick from {@code now}; later deadlines are kept.
+     */
+    private final class CatchUp implements UnaryOperator<Instant> {
+
+        private final Instant now;
+        private long overdue;
+
+        CatchUp(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public Instant apply(Instant deadline) {
+            if (deadline.isAfter(now)) {
+                return deadline;
+            }
+            // batch k is due k + 1 ticks on: a deadline of now would share the first tick with batch 1
+            return now.plus(tick.multipliedBy(overdue++ / Math.max(catchUpPerTick, 1) + 1));
+        }
+    }
+
+    private Duration deliveryTime(OrderResponse order) {
+        Duration deliveryTime = familyService.getTier(order.familyId(), order.productTypeId(), order.tierId())
+                .map(ProductTier::deliveryTime)
+                .map(OrderLifecycle::parseDeliveryTime)
+                .orElse(null);
+        if (deliveryTime == null) {
+            LOG.debugf("Order %s has no bounded delivery time; it stays Processing", order.orderId());
+        }
+        return deliveryTime;
+    }
+
+    /**
+     * Parses a tier delivery time into its upper bound; null if it has none (e.g. "Continuous").
+     */
+    static Duration parseDeliveryTime(String deliveryTime) {
+        if (deliveryTime == null) {
+            return null;
+        }
+        String text = deliveryTime.trim();
+        Matcher matcher = DELIVERY_TIME.matcher(text);
+        if (matcher.matches()) {
+            long amount = Long.parseLong(matcher.group(1));
+            return switch (matcher.group(2).toLowerCase(Locale.ROOT)) {
+                case "minute" -> Duration.ofMinutes(amount);
+                case "hour" -> Duration.ofHours(amount);
+                case "day" -> Duration.ofDays(amount);
+                default -> Duration.ofDays(7 * amount);
+            };
+        }
+        return switch (text.toLowerCase(Locale.ROOT)) {
+            case "real-time" -> Duration.ZERO;
+            case "hourly" -> Duration.ofHours(1);
+            case "daily" -> Duration.ofDays(1);
+            default -> null;
+        };
+    }
+
+    /**
+     * When the order last changed status; its creation if it never did.
+     */
+    private Instant changedAt(OrderResponse order) {
+        Instant changedAt = parseDate(order.updatedAt() != null ? order.updatedAt() : order.createdAt(), false);
+        return changedAt != null ? changedAt : wheel.now();
+    }
+
+    /**
+     * Parses an ISO 8601 instant or date; a date means its start, or its end if {@code endOfDay}.
+     * Returns null for a missing or unreadable value.
+     */
+    static Instant parseDate(String value, boolean endOfDay) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Instant.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            // not an instant; try a plain date
+        }
+        try {
+            LocalDate date = LocalDate.parse(value.trim());
+            return (endOfDay ? date.plusDays(1) : date).atStartOfDay(ZoneOffset.UTC).toInstant();
+        } catch (DateTimeParseException e) {
+            LOG.debugf("Ignoring unreadable schedule date %s", value);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.gdmp.service;
+
+import java.time.Instant;
+
+/**
+ * Filters and page position of an order listing. Null filters match every order.
+ */
+public record OrderQuery(
+        /** Exact order status, e.g. "Submitted" */
+        String status,
+
+        /** Exact product family identifier */
+        String familyId,
+
+        /** Exact product tier identifier */
+        String tierId,
+
+        /** Earliest creation time, inclusive */
+        Instant createdFrom,
+
+        /** Latest creation time, exclusive */
+        Instant createdTo,
+
+        /** Opaque cursor from a previous page's nextCursor; null for the first page */
+        String cursor,
+
+        /** Maximum number of orders on the page */
+        int limit
+) {}
@@ -0,0 +1,79 @@
+package com.gdmp.service;
+
+import com.gdmp.model.dto.OrderPage;
+import com.gdmp.model.dto.OrderResponse;
+import com.gdmp.store.DurableStore;
+import io.quarkus.runtime.Startup;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.concurrent.CompletionStage;
+import java.util.function.Consumer;
+
+/**
+ * Durable store of orders keyed by order ID, kept in a {@link DurableStore} under
+ * {@code store.orders.dir}. Opened (and recovered) at startup.
+ * Listings are served from an {@link OrderIndex} that is rebuilt from the recovered orders
+ * and updated with every committed change.
+ */
+@Startup
+@ApplicationScoped
+public class OrderStore {
+
+    @Inject
+    DurableStores stores;
+
+    @Inject
+    StoreConfig config;
+
+    private DurableStore<OrderResponse> store;
+    private final OrderIndex index = new OrderIndex();
+
+    @PostConstruct
+    void init() {
+        this.store = stores.open("orders", config.orders().dir(), OrderResponse.class);
+        // nothing writes before init returns, so no change slips in between
+        store.values().forEach(order -> index.update(null, order));
+        store.setListener((orderId, previous, current) -> index.update(previous, current));
+    }
+
+    @PreDestroy
+    void close() {
+        store.close();
+    }
+
+    /**
+     * Saves an order, replacing any with the same ID.
+     *
+     * @return stage completing with the order once it is durable, or failing with an
+     *         IOException if it could not be stored
+     */
+    public CompletionStage<OrderResponse> save(OrderResponse order) {
+        return store.put(order.orderId(), order);
+    }
+
+    /**
+     * Returns the order with the given ID, or null.
+     */
+    public OrderResponse get(String id) {
+        return store.get(id);
+    }
+
+    /**
+     * Passes every stored order to the consumer, in no particular order.
+     */
+    public void forEach(Consumer<OrderResponse> consumer) {
+        store.values().forEach(consumer);
+    }
+
+    /**
+     * Returns one page of the orders matching the query, newest first.
+     *
+     * @throws IllegalArgumentException if the query cursor is malformed
+     */
+    public OrderPage list(OrderQuery query) {
+        return index.list(query, store::get);
+    }
+}
@@ -0,0 +1,141 @@
+package com.gdmp.service;
+
+import com.gdmp.model.dto.OrderSchedule;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Occurrence dates and collection windows of a recurring {@link OrderSchedule}.
+ *
+ * Occurrence {@code n} falls {@code n} periods after the first one, which is the schedule's
+ * start date, moved forward to {@code dayOfWeek} for weekly and biweekly schedules. Monthly
+ * occurrences keep the first one's day of month (clamped to shorter months). Each occurrence
+ * is computed on its own, so none need to be expanded to find another, and the last one is
+ * the last falling on or before the end date. An occurrence collects during the delivery
+ * window on its date ("0600-1800 UTC"; a window ending before it starts ends on the next day,
+ * and "2400" is the end of the day), or the whole UTC day without one.
+ *
+ * @param first       date of occurrence 0
+ * @param stepDays    days between occurrences; 0 for monthly
+ * @param last        last date an occurrence may fall on; null for an open series
+ * @param windowStart start of each occurrence's collection window, UTC
+ * @param window      length of each occurrence's collection window
+ */
+record Recurrence(LocalDate first, int stepDays, LocalDate last, LocalTime windowStart, Duration window) {
+
+    private static final Pattern DELIVERY_WINDOW =
+            Pattern.compile("(\\d{2}):?(\\d{2})\\s*-\\s*(\\d{2}):?(\\d{2})(?:\\s*UTC)?", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Reads the recurrence of a schedule.
+     *
+     * @param createdAt fallback start of a schedule without a start date
+     * @return the recurrence, or null if the schedule does not recur
+     * @throws IllegalArgumentException if the frequency or day of week is not understood, or
+     *         the delivery window is not a time of day
+     */
+    static Recurrence of(OrderSchedule schedule, Instant createdAt) {
+        if (schedule == null || !schedule.recurring()) {
+            return null;
+        }
+        Instant start = OrderLifecycle.parseDate(schedule.startDate(), false);
+        LocalDate first = LocalDate.ofInstant(start != null ? start : createdAt, ZoneOffset.UTC);
+        String frequency = schedule.frequency() != null ? schedule.frequency().trim().toLowerCase(Locale.ROOT) : "";
+        int stepDays = switch (frequency) {
+            case "daily" -> 1;
+            case "weekly" -> 7;
+            case "biweekly" -> 14;
+            case "monthly" -> 0;
+            default -> throw new IllegalArgumentException("Unknown recurrence frequency: " + schedule.frequency());
+        };
+        if ((stepDays == 7 || stepDays == 14) && schedule.dayOfWeek() != null && !schedule.dayOfWeek().isBlank()) {
+            DayOfWeek day;
+            try {
+                day = DayOfWeek.valueOf(schedule.dayOfWeek().trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown day of week: " + schedule.dayOfWeek());
+            }
+            first = first.with(TemporalAdjusters.nextOrSame(day));
+        }
+        Instant end = OrderLifecycle.parseDate(schedule.endDate(), false);
+        LocalDate last = end != null ? LocalDate.ofInstant(end, ZoneOffset.UTC) : null;
+
+        LocalTime windowStart = LocalTime.MIDNIGHT;
+        Duration window = Duration.ofDays(1);
+        Matcher matcher = schedule.deliveryWindow() != null
+                ? DELIVERY_WINDOW.matcher(schedule.deliveryWindow().trim())
+                : null;
+        if (matcher != null && matcher.matches()) {
+            windowStart = timeOfDay(matcher.group(1), matcher.group(2), false, schedule.deliveryWindow());
+            LocalTime windowEnd = timeOfDay(matcher.group(3), matcher.group(4), true, schedule.deliveryWindow());
+            window = Duration.between(windowStart, windowEnd);
+            if (!window.isPositive()) {
+                window = window.plusDays(1);
+            }
+        }
+        return new Recurrence(first, stepDays, last, windowStart, window);
+    }
+
+    /**
+     * Reads one end of a delivery window; only its end may be 2400.
+     *
+     * @throws IllegalArgumentException if the hour or minute is out of range
+     */
+    private static LocalTime timeOfDay(String hour, String minute, boolean end, String deliveryWindow) {
+        int h = Integer.parseInt(hour);
+        int m = Integer.parseInt(minute);
+        if (m > 59 || h > 24 || (h == 24 && (!end || m != 0))) {
+            throw new IllegalArgumentException("Invalid delivery window: " + deliveryWindow);
+        }
+        return LocalTime.of(h % 24, m);
+    }
+
+    /**
+     * Returns the date of occurrence {@code n}, or null if the series has ended by then.
+     */
+    LocalDate date(long n) {
+        LocalDate date = stepDays > 0 ? first.plusDays(n * stepDays) : first.plusMonths(n);
+        return last == null || !date.isAfter(last) ? date : null;
+    }
+
+    /**
+     * Returns the number of the first occurrence whose window ends after {@code instant}.
+     * The result may lie past the end of the series; {@link #date} then returns null.
+     */
+    long firstEndingAfter(Instant instant) {
+        LocalDate day = LocalDate.ofInstant(instant, ZoneOffset.UTC);
+        // an estimate at most one period early; windows are at most a day long plus a day of offset
+        long n = stepDays > 0
+                ? Math.floorDiv(ChronoUnit.DAYS.between(first, day.minusDays(2)), stepDays)
+                : ChronoUnit.MONTHS.between(first, day) - 1;
+        n = Math.max(0, n);
+        while (!end(stepDays > 0 ? first.plusDays(n * stepDays) : first.plusMonths(n)).isAfter(instant)) {
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * Returns when the collection window of the occurrence on {@code date} opens.
+     */
+    Instant start(LocalDate date) {
+        return date.atTime(windowStart).toInstant(ZoneOffset.UTC);
+    }
+
+    /**
+     * Returns when the collection window of the occurrence on {@code date} closes.
+     */
+    Instant end(LocalDate date) {
+        return start(date).plus(window);
+    }
+}
@@ -0,0 +1,251 @@
+package com.gdmp.service;
+
+import com.gdmp.model.dto.OrderResponse;
+import com.gdmp.model.dto.OrderSchedule;
+import com.gdmp.model.dto.OrderStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.Startup;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates the occurrences of recurring orders one at a time, shortly before each is due.
+ *
+ * A recurring order (the series) stands for all of its occurrences; each occurrence is a
+ * separate, non-recurring order covering one collection window of the {@link Recurrence},
+ * submitted to the {@link OrderLifecycle} {@code lead-time} before the window opens. One
+ * priority queue holds the next occurrence of every active series, ordered by creation time,
+ * so memory grows with the number of series rather than their occurrences; creating an
+ * occurrence queues the one after it. A series drops out of the queue once its last
+ * occurrence is created or it is Completed, Cancelled, or Expired.
+ *
+ * Occurrences get generated order IDs like any other order, so IDs keep sorting by creation
+ * time, and name their series in {@code seriesId}. At startup every active series is queued
+ * from its first occurrence whose window closed less than {@code catch-up} ago, so occurrences
+ * missed while the service was down are created; the stored occurrences of those recent
+ * windows are remembered by series and window start, so the ones created before the service
+ * stopped are not created again. After startup the queue only moves forward, so nothing else
+ * needs checking.
+ */
+@Startup
+@ApplicationScoped
+public class RecurringOrderScheduler {
+
+    private static final Logger LOG = Logger.getLogger(RecurringOrderScheduler.class);
+
+    @Inject
+    OrderStore orderStore;
+
+    @Inject
+    IdGenerator idGenerator;
+
+    @Inject
+    OrderLifecycle orderLifecycle;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "orders.recurring.lead-time", defaultValue = "1h")
+    Duration leadTime;
+
+    @ConfigProperty(name = "orders.recurring.catch-up", defaultValue = "1d")
+    Duration catchUp;
+
+    @ConfigProperty(name = "orders.recurring.max-per-run", defaultValue = "5000")
+    int maxPerRun;
+
+    /**
+     * The next occurrence of a series, due to be created at {@code createAt}.
+     */
+    private record Due(Instant createAt, String seriesId, long occurrence) {}
+
+    /** Next occurrence of every active series; guarded by itself. */
+    private final PriorityQueue<Due> queue = new PriorityQueue<>(Comparator.comparing(Due::createAt));
+
+    /** Series ID and window start of the stored occurrences the startup catch-up may reach again. */
+    private final Set<String> storedOccurrences = ConcurrentHashMap.newKeySet();
+
+    private Counter created;
+    private Counter skipped;
+
+    @PostConstruct
+    void init() {
+        Instant from = Instant.now().minus(catchUp);
+        orderStore.forEach(order -> {
+            if (order.seriesId() != null && order.schedule() != null) {
+                Instant end = OrderLifecycle.parseDate(order.schedule().endDate(), false);
+                if (end != null && end.isAfter(from)) {
+                    storedOccurrences.add(occurrenceKey(order.seriesId(), order.schedule().startDate()));
+                }
+            }
+        });
+        orderStore.forEach(order -> {
+            if (order.schedule() != null && order.schedule().recurring() && !isFinal(order)) {
+                try {
+                    add(order, from);
+                } catch (IllegalArgumentException e) {
+                    // logged by add; the rest of the series are still scheduled
+                }
+            }
+        });
+        Gauge.builder("orders.recurring.series", queue, RecurringOrderScheduler::size)
+                .description("Recurring orders with occurrences still to create")
+                .register(meterRegistry);
+        this.created = Counter.builder("orders.recurring.occurrences")
+                .tag("result", "created")
+                .description("Occurrences of recurring orders")
+                .register(meterRegistry);
+        this.skipped = Counter.builder("orders.recurring.occurrences")
+                .tag("result", "existing")
+                .description("Occurrences of recurring orders")
+                .register(meterRegistry);
+        LOG.infof("Scheduled %d recurring orders", size(queue));
+    }
+
+    /**
+     * Queues the first occurrence of a new recurring order whose window has not closed yet.
+     * Does nothing for an order that does not recur.
+     *
+     * @throws IllegalArgumentException if the recurrence is not understood
+     */
+    public void schedule(OrderResponse series) {
+        if (series.schedule() != null && series.schedule().recurring()) {
+            add(series, Instant.now());
+        }
+    }
+
+    /**
+     * Validates the recurrence of a schedule without queuing anything.
+     *
+     * @throws IllegalArgumentException if the schedule recurs and its recurrence is not understood
+     */
+    public static void validate(OrderSchedule schedule) {
+        Recurrence.of(schedule, Instant.EPOCH);
+    }
+
+    /**
+     * Creates every occurrence whose creation time has come, up to {@code max-per-run}.
+     */
+    @Scheduled(every = "{orders.recurring.poll-interval}",
+               concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void createDue() {
+        Instant now = Instant.now();
+        for (int i = 0; i < maxPerRun; i++) {
+            Due due;
+            synchronized (queue) {
+                due = queue.peek();
+                if (due == null || due.createAt().isAfter(now)) {
+                    return;
+                }
+                queue.poll();
+            }
+            OrderResponse series = orderStore.get(due.seriesId());
+            if (series == null || isFinal(series)) {
+                continue;
+            }
+            Recurrence recurrence = Recurrence.of(series.schedule(), Instant.parse(series.createdAt()));
+            LocalDate date = recurrence.date(due.occurrence());
+            if (date == null) {
+                continue;
+            }
+            createOccurrence(series, recurrence, date);
+            enqueue(series.orderId(), recurrence, due.occurrence() + 1);
+        }
+        LOG.debugf("Deferred the remaining due occurrences after %d", maxPerRun);
+    }
+
+    private void add(OrderResponse series, Instant from) {
+        Recurrence recurrence;
+        try {
+            recurrence = Recurrence.of(series.schedule(), Instant.parse(series.createdAt()));
+        } catch (IllegalArgumentException e) {
+            LOG.warnf("Recurring order %s is not scheduled: %s", series.orderId(), e.getMessage());
+            throw e;
+        }
+        enqueue(series.orderId(), recurrence, recurrence.firstEndingAfter(from));
+    }
+
+    private void enqueue(String seriesId, Recurrence recurrence, long occurrence) {
+        LocalDate date = recurrence.date(occurrence);
+        if (date == null) {
+            LOG.infof("Recurring order %s has no occurrences left", seriesId);
+            return;
+        }
+        synchronized (queue) {
+            queue.add(new Due(recurrence.start(date).minus(leadTime), seriesId, occurrence));
+        }
+    }
+
+    private void createOccurrence(OrderResponse series, Recurrence recurrence, LocalDate date) {
+        // each key is reached once more at most, by the catch-up
+        if (storedOccurrences.remove(occurrenceKey(series.orderId(), recurrence.start(date).toString()))) {
+            skipped.increment();
+            return;
+        }
+        OrderSchedule schedule = series.schedule();
+        OrderSchedule occurrenceSchedule = new OrderSchedule(
+                schedule.orderName() != null ? schedule.orderName() + " (" + date + ")" : null,
+                recurrence.start(date).toString(),
+                recurrence.end(date).toString(),
+                schedule.expirationDate(),
+                schedule.priority(),
+                false,
+                null,
+                null,
+                schedule.deliveryWindow()
+        );
+        String orderId = idGenerator.next("ORD-");
+        // the ID's timestamp, so ID order and createdAt order agree
+        String createdAt = IdGenerator.timestampOf(orderId).toString();
+        OrderResponse occurrence = new OrderResponse(
+                orderId,
+                OrderStatus.SUBMITTED.label(),
+                series.familyId(),
+                series.productTypeId(),
+                series.tierId(),
+                series.configuration(),
+                occurrenceSchedule,
+                createdAt,
+                createdAt,
+                series.orderId()
+        );
+        orderLifecycle.submit(occurrence).whenComplete((saved, error) -> {
+            if (error != null) {
+                // not retried here; the catch-up at the next startup creates it if still recent
+                LOG.errorf(error, "Occurrence %s of recurring order %s could not be stored", orderId, series.orderId());
+            } else {
+                LOG.infof("Created occurrence %s of recurring order %s", orderId, series.orderId());
+            }
+        });
+        created.increment();
+    }
+
+    private static String occurrenceKey(String seriesId, String windowStart) {
+        return seriesId + "|" + windowStart;
+    }
+
+    private static boolean isFinal(OrderResponse order) {
+        OrderStatus status = OrderStatus.fromLabel(order.status());
+        return status != null && status.isFinal();
+    }
+
+    private static int size(PriorityQueue<Due> queue) {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+}
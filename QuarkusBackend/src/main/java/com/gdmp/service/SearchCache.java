@@ -0,0 +1,197 @@
+package com.gdmp.service;
+
+import com.gdmp.model.dto.CatalogSearchResponse;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-memory cache of catalog search results keyed by {@link SearchKey}.
+ *
+ * Entries are evicted least-recently-used once {@code maxEntries} is exceeded.
+ * An entry is fresh for {@code ttl}; after that it is still served for up to
+ * {@code maxStale} while a single background refresh replaces it. Entries older
+ * than {@code ttl + maxStale} are treated as misses and reloaded before completing.
+ * Loaders are asynchronous, so neither hits nor misses block the calling thread.
+ * Partial responses (some provider failed) are returned but never cached.
+ */
+public class SearchCache {
+
+    private static final Logger LOG = Logger.getLogger(SearchCache.class);
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final long maxStaleNanos;
+    private final LongSupplier nanoClock;
+
+    /** Access-ordered map; every access must hold the map's monitor. */
+    private final LinkedHashMap<SearchKey, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+
+    public SearchCache(int maxEntries, Duration ttl, Duration maxStale) {
+        this(maxEntries, ttl, maxStale, System::nanoTime);
+    }
+
+    /**
+     * Creates a cache that ages entries by {@code nanoClock}, a {@link System#nanoTime}-like
+     * source; lets tests step through the fresh, stale and expired ages.
+     */
+    SearchCache(int maxEntries, Duration ttl, Duration maxStale, LongSupplier nanoClock) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.maxStaleNanos = maxStale.toNanos();
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<SearchKey, Entry> eldest) {
+                if (size() > SearchCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached response for the key, loading it with {@code loader} on a miss.
+     * A stale entry is returned as-is and refreshed in the background by at most one task.
+     *
+     * @param key    normalized search key
+     * @param loader starts the upstream search; invoked on a miss or stale hit
+     * @return stage completing with the cached or freshly loaded response
+     */
+    public CompletionStage<CatalogSearchResponse> get(SearchKey key,
+                                                      Supplier<CompletionStage<CatalogSearchResponse>> loader) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+
+        if (entry != null) {
+            long age = nanoClock.getAsLong() - entry.loadedAt;
+            if (age <= ttlNanos) {
+                hits.increment();
+                return CompletableFuture.completedFuture(entry.value);
+            }
+            if (age <= ttlNanos + maxStaleNanos) {
+                staleHits.increment();
+                refreshInBackground(key, entry, loader);
+                return CompletableFuture.completedFuture(entry.value);
+            }
+        }
+
+        misses.increment();
+        return loader.get().thenApply(value -> {
+            if (!value.partial()) {
+                put(key, value);
+            }
+            return value;
+        });
+    }
+
+    /**
+     * Removes all entries. Counters are left untouched.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Returns a point-in-time snapshot of the cache counters.
+     */
+    public Stats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new Stats(size, maxEntries, hits.sum(), staleHits.sum(), misses.sum(),
+                evictions.sum(), refreshes.sum(), refreshFailures.sum());
+    }
+
+    private void put(SearchKey key, CatalogSearchResponse value) {
+        synchronized (entries) {
+            entries.put(key, new Entry(value, nanoClock.getAsLong()));
+        }
+    }
+
+    private void refreshInBackground(SearchKey key, Entry stale,
+                                     Supplier<CompletionStage<CatalogSearchResponse>> loader) {
+        if (!stale.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        CompletionStage<CatalogSearchResponse> refresh;
+        try {
+            refresh = loader.get();
+        } catch (RuntimeException e) {
+            refresh = CompletableFuture.failedFuture(e);
+        }
+        refresh.whenComplete((value, error) -> {
+            if (error == null && !value.partial()) {
+                put(key, value);
+                refreshes.increment();
+            } else {
+                // keep serving the complete stale entry rather than a partial result
+                refreshFailures.increment();
+                LOG.warnf(error, "Background refresh failed for search key %s", key);
+            }
+            stale.refreshing.set(false);
+        });
+    }
+
+    private static final class Entry {
+        final CatalogSearchResponse value;
+        final long loadedAt;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Entry(CatalogSearchResponse value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    /**
+     * Snapshot of search cache counters.
+     */
+    public record Stats(
+            /** Current number of cached entries */
+            int size,
+
+            /** Configured maximum number of entries */
+            int maxEntries,
+
+            /** Requests served from a fresh entry */
+            long hits,
+
+            /** Requests served from a stale entry while it was refreshed */
+            long staleHits,
+
+            /** Requests that had to wait for an upstream search */
+            long misses,
+
+            /** Entries dropped because the cache was full */
+            long evictions,
+
+            /** Completed background refreshes */
+            long refreshes,
+
+            /** Background refreshes that failed */
+            long refreshFailures
+    ) {}
+}
@@ -0,0 +1,114 @@
+package com.gdmp.service;
+
+import com.gdmp.model.dto.CatalogSearchFields;
+import com.gdmp.model.dto.CatalogSearchRequest;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Normalized form of a {@link CatalogSearchRequest} used as a cache key.
+ * Requests that differ only in insignificant ways (bbox jitter below the configured
+ * precision, equivalent datetime notations, collection or field order) map to the same key.
+ */
+public record SearchKey(
+        /** Bbox rounded to the configured number of decimal places, or empty if absent */
+        List<Double> bbox,
+
+        /** Datetime interval with each endpoint rendered as a UTC instant, or null */
+        String datetime,
+
+        /** Sorted, de-duplicated collection IDs */
+        List<String> collections,
+
+        /** Result limit */
+        int limit,
+
+        /** Page cursor, or null for the first page */
+        String cursor,
+
+        /** Sorted, de-duplicated include paths of the field projection */
+        List<String> include,
+
+        /** Sorted, de-duplicated exclude paths of the field projection */
+        List<String> exclude
+) {
+
+    /**
+     * Builds the normalized key for a search request.
+     *
+     * @param request       the incoming search request
+     * @param bboxPrecision number of decimal places bbox coordinates are rounded to
+     * @return the normalized search key
+     */
+    public static SearchKey of(CatalogSearchRequest request, int bboxPrecision) {
+        CatalogSearchFields fields = request.fields();
+        return new SearchKey(
+                normalizeBbox(request.bbox(), bboxPrecision),
+                normalizeDatetime(request.datetime()),
+                normalizeIds(request.collections()),
+                request.limit(),
+                request.cursor(),
+                normalizeIds(fields != null ? fields.include() : null),
+                normalizeIds(fields != null ? fields.exclude() : null));
+    }
+
+    private static List<Double> normalizeBbox(double[] bbox, int precision) {
+        if (bbox == null || bbox.length != 4) {
+            return List.of();
+        }
+        double scale = Math.pow(10, precision);
+        return Arrays.stream(bbox)
+                .map(v -> Math.round(v * scale) / scale)
+                .boxed()
+                .toList();
+    }
+
+    /**
+     * Canonicalizes a STAC datetime (single instant or "start/end" interval with ".." for
+     * open ends) so that e.g. "2024-01-01T02:00:00+02:00" and "2024-01-01T00:00:00Z" match.
+     * Endpoints that are not full RFC 3339 date-times are kept as given.
+     */
+    static String normalizeDatetime(String datetime) {
+        if (datetime == null || datetime.isBlank()) {
+            return null;
+        }
+        String[] parts = datetime.trim().split("/", -1);
+        StringBuilder normalized = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                normalized.append('/');
+            }
+            normalized.append(normalizeInstant(parts[i].trim()));
+        }
+        return normalized.toString();
+    }
+
+    private static String normalizeInstant(String value) {
+        if (value.isEmpty() || value.equals("..")) {
+            return "..";
+        }
+        try {
+            return OffsetDateTime.parse(value.toUpperCase(Locale.ROOT)).toInstant().toString();
+        } catch (DateTimeParseException e) {
+            return value;
+        }
+    }
+
+    private static List<String> normalizeIds(String[] ids) {
+        if (ids == null) {
+            return List.of();
+        }
+        return Arrays.stream(ids)
+                .filter(Objects::nonNull)
+                .map(String::trim)
+                .filter(c -> !c.isEmpty())
+                .distinct()
+                .sorted()
+                .toList();
+    }
+}
@@ -0,0 +1,205 @@
+package com.gdmp.service;
+
+import com.gdmp.model.dto.CatalogSearchResponse;
+import com.gdmp.stac.StacItem;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Merges per-source search results (one per provider, or one per grid cell) into a single
+ * catalog response of at most {@code limit} items.
+ *
+ * The sources' pages are merged like sorted runs: the next item taken is always the newest
+ * of the items at the heads of the sources (by {@code properties.datetime}, falling back to
+ * {@code start_datetime}; items without a parseable timestamp sort last), so each source
+ * contributes a prefix of its page. Items whose ID was already taken, or that the filter
+ * rejects, are passed over. The merged page is sorted newest first.
+ *
+ * A source whose page was taken in full resumes at its own next-page token; one whose page
+ * was cut resumes at the token that fetched that page, skipping the items already taken
+ * (see {@link CatalogCursor.Resume}). The next-page tokens are combined into one
+ * {@link CatalogCursor}, together with the datetime and IDs of the last items returned
+ * (see {@link CatalogCursor.LastReturned}), so that a copy of one of them held by another
+ * source is passed over on the next page too. As long as each source's pages are sorted newest
+ * first, no item is returned twice or left out across pages. {@code numberMatched}
+ * is the sum over all sources that answered, or null if one of them did not know its count;
+ * sources that failed are reported in {@code failedProviders}.
+ */
+final class SearchResultMerger {
+
+    private static final Comparator<Ranked> NEWEST_FIRST = Comparator
+            .comparing(Ranked::datetime, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparingInt(Ranked::source);
+
+    private SearchResultMerger() {
+    }
+
+    /**
+     * Outcome of one source's search: either a response or the error it failed with. A
+     * resumed source also carries the position it resumed from.
+     */
+    record ProviderResult(String providerId, CatalogSearchResponse response, Throwable error,
+                          CatalogCursor.Resume resumedFrom) {
+
+        static ProviderResult success(String providerId, CatalogSearchResponse response,
+                                      CatalogCursor.Resume resumedFrom) {
+            return new ProviderResult(providerId, response, null, resumedFrom);
+        }
+
+        static ProviderResult failure(String providerId, Throwable error) {
+            return new ProviderResult(providerId, null, error, null);
+        }
+
+        boolean failed() {
+            return error != null;
+        }
+    }
+
+    /**
+     * Merges the results into one page.
+     *
+     * @param results      one result per source
+     * @param lastReturned the last items the previous page returned, or null for a first page
+     * @param limit        maximum number of items on the merged page
+     * @param filter       items to keep; others are passed over as if already returned
+     */
+    static CatalogSearchResponse merge(List<ProviderResult> results, CatalogCursor.LastReturned lastReturned,
+                                       int limit, Predicate<StacItem> filter) {
+        List<String> failedProviders = new ArrayList<>();
+        List<ProviderResult> answered = new ArrayList<>();
+        Long numberMatched = 0L;
+        for (ProviderResult result : results) {
+            if (result.failed()) {
+                failedProviders.add(result.providerId());
+            } else {
+                answered.add(result);
+                Integer matched = result.response().numberMatched();
+                numberMatched = numberMatched != null && matched != null ? numberMatched + matched : null;
+            }
+        }
+
+        // position in each source's page; starts past the items taken on earlier pages
+        int[] positions = new int[answered.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = Math.min(answered.get(i).resumedFrom().skip(),
+                    answered.get(i).response().features().size());
+        }
+        List<Ranked> taken = new ArrayList<>();
+        Set<String> seenIds = lastReturned != null ? new HashSet<>(lastReturned.ids()) : new HashSet<>();
+        while (taken.size() < limit) {
+            Ranked next = null;
+            for (int i = 0; i < positions.length; i++) {
+                List<StacItem> features = answered.get(i).response().features();
+                if (positions[i] < features.size()) {
+                    Ranked head = new Ranked(features.get(positions[i]), datetimeOf(features.get(positions[i])), i);
+                    if (next == null || NEWEST_FIRST.compare(head, next) < 0) {
+                        next = head;
+                    }
+                }
+            }
+            if (next == null) {
+                break;
+            }
+            positions[next.source()]++;
+            StacItem item = next.item();
+            if (isWanted(item, filter, seenIds)) {
+                taken.add(next);
+                if (item.getId() != null) {
+                    seenIds.add(item.getId());
+                }
+            }
+        }
+        // pass over the heads that would be dropped anyway, so the next page does not start with them
+        for (int i = 0; i < positions.length; i++) {
+            List<StacItem> features = answered.get(i).response().features();
+            while (positions[i] < features.size() && !isWanted(features.get(positions[i]), filter, seenIds)) {
+                positions[i]++;
+            }
+        }
+
+        taken.sort(NEWEST_FIRST);
+        List<StacItem> features = new ArrayList<>(taken.size());
+        for (Ranked entry : taken) {
+            features.add(entry.item());
+        }
+
+        Map<String, String> nextTokens = new LinkedHashMap<>();
+        for (int i = 0; i < positions.length; i++) {
+            ProviderResult result = answered.get(i);
+            if (positions[i] < result.response().features().size()) {
+                nextTokens.put(result.providerId(),
+                        new CatalogCursor.Resume(result.resumedFrom().pageToken(), positions[i]).encode());
+            } else if (result.response().nextCursor() != null) {
+                nextTokens.put(result.providerId(),
+                        new CatalogCursor.Resume(result.response().nextCursor(), 0).encode());
+            }
+        }
+        CatalogCursor.LastReturned last = lastReturned(taken, lastReturned);
+        if (!nextTokens.isEmpty() && last != null && !last.ids().isEmpty()) {
+            nextTokens.put(CatalogCursor.LAST_RETURNED_KEY, last.encode());
+        }
+
+        Integer matched = numberMatched != null ? (int) Math.min(Integer.MAX_VALUE, numberMatched) : null;
+        return CatalogSearchResponse.of(features, matched)
+                .withFailedProviders(failedProviders)
+                .withNextCursor(CatalogCursor.encode(nextTokens));
+    }
+
+    /**
+     * Returns the datetime of the oldest item taken and the IDs taken at it, including those
+     * the previous page returned at the same datetime; the previous position if nothing was taken.
+     */
+    private static CatalogCursor.LastReturned lastReturned(List<Ranked> taken, CatalogCursor.LastReturned previous) {
+        if (taken.isEmpty()) {
+            return previous;
+        }
+        Instant datetime = taken.get(taken.size() - 1).datetime();
+        Set<String> ids = new LinkedHashSet<>();
+        if (previous != null && Objects.equals(previous.datetime(), datetime)) {
+            ids.addAll(previous.ids());
+        }
+        for (Ranked entry : taken) {
+            if (Objects.equals(entry.datetime(), datetime) && entry.item().getId() != null) {
+                ids.add(entry.item().getId());
+            }
+        }
+        return new CatalogCursor.LastReturned(datetime, ids);
+    }
+
+    private static boolean isWanted(StacItem item, Predicate<StacItem> filter, Set<String> seenIds) {
+        return filter.test(item) && (item.getId() == null || !seenIds.contains(item.getId()));
+    }
+
+    private static Instant datetimeOf(StacItem item) {
+        Map<String, Object> properties = item.getProperties();
+        if (properties == null) {
+            return null;
+        }
+        Object value = properties.get("datetime");
+        if (value == null) {
+            value = properties.get("start_datetime");
+        }
+        if (!(value instanceof String text)) {
+            return null;
+        }
+        try {
+            return OffsetDateTime.parse(text).toInstant();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private record Ranked(StacItem item, Instant datetime, int source) {}
+}
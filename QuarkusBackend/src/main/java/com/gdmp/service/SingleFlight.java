@@ -0,0 +1,168 @@
+package com.gdmp.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls with the same key into one in-flight call.
+ *
+ * The first caller for a key (the leader) starts the call; callers arriving while it is
+ * in flight (followers) share its result. Every caller gets its own future, so a caller
+ * may time out or cancel without affecting the others. The shared call is cancelled only
+ * once every caller waiting on it has given up. That stops the upstream work only if the
+ * call's future passes cancellation on to it, as an {@link com.gdmp.stac.UpstreamCall} and a
+ * {@link Bulkhead} future do; a plain dependent stage ({@code thenApply} and the like) does not.
+ *
+ * @param <K> key type; must implement equals/hashCode
+ * @param <V> result type
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, Flight> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+
+    /**
+     * Joins the in-flight call for the key, or starts one with {@code call}.
+     *
+     * @param key  coalescing key
+     * @param call starts the underlying call; invoked only by the leader. Cancelling the
+     *             future it returns must cancel the underlying call
+     * @return a future private to this caller, completing with the shared result
+     */
+    public CompletableFuture<V> execute(K key, Supplier<CompletionStage<V>> call) {
+        while (true) {
+            Flight flight = inFlight.get(key);
+            if (flight == null) {
+                Flight created = new Flight(key);
+                flight = inFlight.putIfAbsent(key, created);
+                if (flight == null) {
+                    leaders.increment();
+                    CompletableFuture<V> leader = created.join();
+                    created.start(call);
+                    return leader;
+                }
+            }
+            CompletableFuture<V> follower = flight.join();
+            if (follower != null) {
+                coalesced.increment();
+                return follower;
+            }
+            // every caller of that flight gave up just now; start a new one
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Returns a point-in-time snapshot of the coalescing counters.
+     */
+    public Stats stats() {
+        return new Stats(inFlight.size(), leaders.sum(), coalesced.sum(), abandoned.sum());
+    }
+
+    /**
+     * One shared call and the callers waiting on it.
+     */
+    private final class Flight {
+        private final K key;
+        private final CompletableFuture<V> shared = new CompletableFuture<>();
+        private CompletableFuture<V> upstream;
+        private int waiters;
+        private boolean cancelled;
+
+        Flight(K key) {
+            this.key = key;
+        }
+
+        void start(Supplier<CompletionStage<V>> call) {
+            CompletableFuture<V> started;
+            try {
+                started = call.get().toCompletableFuture();
+            } catch (RuntimeException e) {
+                started = CompletableFuture.failedFuture(e);
+            }
+            boolean cancel;
+            synchronized (this) {
+                upstream = started;
+                cancel = cancelled;
+            }
+            started.whenComplete((value, error) -> {
+                inFlight.remove(key, this);
+                if (error == null) {
+                    shared.complete(value);
+                } else {
+                    shared.completeExceptionally(error);
+                }
+            });
+            if (cancel) {
+                started.cancel(true);
+            }
+        }
+
+        /**
+         * Registers a caller and returns its private future, or null if every earlier
+         * caller already gave up and the shared call is being cancelled.
+         */
+        CompletableFuture<V> join() {
+            synchronized (this) {
+                if (cancelled) {
+                    return null;
+                }
+                waiters++;
+            }
+            CompletableFuture<V> waiter = new CompletableFuture<>();
+            shared.whenComplete((value, error) -> {
+                if (error == null) {
+                    waiter.complete(value);
+                } else {
+                    waiter.completeExceptionally(error);
+                }
+            });
+            waiter.whenComplete((value, error) -> {
+                if (!shared.isDone()) {
+                    // completed from outside: this caller timed out or cancelled
+                    leave();
+                }
+            });
+            return waiter;
+        }
+
+        private void leave() {
+            CompletableFuture<V> toCancel;
+            synchronized (this) {
+                if (cancelled || --waiters > 0) {
+                    return;
+                }
+                cancelled = true;
+                toCancel = upstream;
+            }
+            abandoned.increment();
+            inFlight.remove(key, this);
+            if (toCancel != null) {
+                toCancel.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Snapshot of single-flight counters.
+     */
+    public record Stats(
+            /** Calls currently in flight */
+            int inFlight,
+
+            /** Calls that started an upstream request */
+            long leaders,
+
+            /** Calls that joined an upstream request already in flight */
+            long coalesced,
+
+            /** Upstream requests cancelled because every waiting caller gave up */
+            long abandoned
+    ) {}
+}
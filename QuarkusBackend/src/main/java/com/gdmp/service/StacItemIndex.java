@@ -0,0 +1,422 @@
+package com.gdmp.service;
+
+import com.gdmp.model.dto.CatalogSearchRequest;
+import com.gdmp.stac.StacItem;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded in-memory spatio-temporal index of STAC items seen in search results.
+ *
+ * Items are grouped into time buckets of {@code bucketWidth} by {@code properties.datetime};
+ * each bucket keeps a {@link StrTree} over item bboxes that is rebuilt lazily on the first
+ * query after the bucket changed. Once more than {@code maxItems} items are held, whole
+ * buckets are evicted, least recently used first.
+ *
+ * The index also remembers coverage: searches whose complete result set was indexed.
+ * A query inside one of those regions (bbox, datetime interval and collections all
+ * contained) that has not expired (after {@code coverageTtl} by default), and whose time buckets
+ * have not been evicted since, is answered completely by the index.
+ *
+ * Matching is on item bboxes rather than geometries, so a local answer may include
+ * items whose bbox intersects the query but whose footprint does not.
+ */
+public class StacItemIndex {
+
+    private static final int MAX_COVERAGE_REGIONS = 1024;
+    private static final Comparator<Indexed> NEWEST_FIRST = Comparator
+            .comparing(Indexed::datetime, Comparator.reverseOrder())
+            .thenComparing(indexed -> indexed.item().getId());
+
+    private final int maxItems;
+    private final long bucketMillis;
+    private final Duration coverageTtl;
+
+    /** Every access must hold this index's monitor. */
+    private final TreeMap<Long, Bucket> buckets = new TreeMap<>();
+    private final Map<String, Bucket> bucketOfItem = new HashMap<>();
+    /** Coverage regions, oldest first. */
+    private final ArrayDeque<Coverage> coverage = new ArrayDeque<>();
+    private long accessClock;
+
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder coveredQueries = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public StacItemIndex(int maxItems, Duration bucketWidth, Duration coverageTtl) {
+        this.maxItems = maxItems;
+        this.bucketMillis = bucketWidth.toMillis();
+        this.coverageTtl = coverageTtl;
+    }
+
+    /**
+     * Bbox, datetime interval and collection filter of a search, in index terms.
+     */
+    public record Query(
+            /** Query rectangles (minX, minY, maxX, maxY); two if the bbox crosses the antimeridian */
+            List<double[]> rectangles,
+
+            /** Inclusive interval start, or {@link Instant#MIN} if open */
+            Instant from,
+
+            /** Inclusive interval end, or {@link Instant#MAX} if open */
+            Instant to,
+
+            /** Collection IDs to match; empty matches every collection */
+            Set<String> collections
+    ) {
+
+        /**
+         * Builds the query for a search request, or returns null if its datetime cannot be parsed.
+         */
+        public static Query of(CatalogSearchRequest request) {
+            Instant from = Instant.MIN;
+            Instant to = Instant.MAX;
+            if (request.datetime() != null && !request.datetime().isBlank()) {
+                String[] parts = request.datetime().trim().split("/", -1);
+                if (parts.length > 2) {
+                    return null;
+                }
+                try {
+                    from = parseInstant(parts[0], Instant.MIN);
+                    to = parts.length == 2 ? parseInstant(parts[1], Instant.MAX) : from;
+                } catch (DateTimeParseException e) {
+                    return null;
+                }
+            }
+
+            Set<String> collections = request.collections() == null ? Set.of()
+                    : Arrays.stream(request.collections())
+                            .filter(Objects::nonNull)
+                            .map(String::trim)
+                            .filter(c -> !c.isEmpty())
+                            .collect(Collectors.toUnmodifiableSet());
+
+            return new Query(rectangles(request.bbox()), from, to, collections);
+        }
+
+        private static Instant parseInstant(String value, Instant open) {
+            String trimmed = value.trim();
+            if (trimmed.isEmpty() || trimmed.equals("..")) {
+                return open;
+            }
+            return OffsetDateTime.parse(trimmed.toUpperCase(Locale.ROOT)).toInstant();
+        }
+
+        private static List<double[]> rectangles(double[] bbox) {
+            if (bbox == null || bbox.length != 4) {
+                return List.of(new double[] {-180, -90, 180, 90});
+            }
+            if (bbox[0] > bbox[2]) {
+                return List.of(new double[] {bbox[0], bbox[1], 180, bbox[3]},
+                               new double[] {-180, bbox[1], bbox[2], bbox[3]});
+            }
+            return List.<double[]>of(bbox.clone());
+        }
+
+        boolean matches(Indexed indexed) {
+            return matches(indexed.datetime(), indexed.item().getCollection());
+        }
+
+        /**
+         * Returns whether an item with the given datetime and collection is inside this
+         * query's datetime interval and collection filter.
+         */
+        boolean matches(Instant datetime, String collection) {
+            return !datetime.isBefore(from) && !datetime.isAfter(to)
+                    && (collections.isEmpty() || collections.contains(collection));
+        }
+
+        /**
+         * Returns whether every item matching {@code other} also matches this query.
+         */
+        boolean contains(Query other) {
+            if (from.isAfter(other.from()) || to.isBefore(other.to())) {
+                return false;
+            }
+            if (!collections.isEmpty()
+                    && (other.collections().isEmpty() || !collections.containsAll(other.collections()))) {
+                return false;
+            }
+            for (double[] rect : other.rectangles()) {
+                boolean inside = rectangles.stream().anyMatch(outer ->
+                        outer[0] <= rect[0] && outer[1] <= rect[1] && outer[2] >= rect[2] && outer[3] >= rect[3]);
+                if (!inside) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Items matching a query, newest first.
+     *
+     * @param items    matching items held by the index
+     * @param complete true if the index holds every item the upstream providers would return
+     */
+    public record Result(List<StacItem> items, boolean complete) {}
+
+    /**
+     * Adds items to the index, replacing items with the same ID. Items without an ID,
+     * a parseable {@code properties.datetime}, or a bbox/geometry are skipped.
+     *
+     * @param items    items from a search response
+     * @param completeResultOf the search those items are the complete result of, or null;
+     *                         it is recorded as covered only if every item could be indexed
+     * @return true if coverage was recorded
+     */
+    public boolean addAll(Collection<StacItem> items, Query completeResultOf) {
+        return addAll(items, completeResultOf, coverageTtl);
+    }
+
+    /**
+     * Adds items to the index like {@link #addAll(Collection, Query)}, keeping the coverage
+     * region for the given time instead of the default coverage TTL.
+     */
+    public synchronized boolean addAll(Collection<StacItem> items, Query completeResultOf, Duration ttl) {
+        int indexed = 0;
+        for (StacItem item : items) {
+            if (add(item)) {
+                indexed++;
+            }
+        }
+        boolean covered = completeResultOf != null && indexed == items.size();
+        if (covered) {
+            expireCoverage();
+            coverage.addLast(new Coverage(completeResultOf, System.nanoTime() + ttl.toNanos()));
+            if (coverage.size() > MAX_COVERAGE_REGIONS) {
+                coverage.removeFirst();
+            }
+        }
+        while (bucketOfItem.size() > maxItems) {
+            evictLeastRecentlyUsed();
+        }
+        return covered;
+    }
+
+    /**
+     * Returns the indexed items matching the query and whether that answer is complete.
+     */
+    public synchronized Result query(Query query) {
+        queries.increment();
+        expireCoverage();
+        boolean complete = coverage.stream().anyMatch(region -> region.contains(query));
+        if (complete) {
+            coveredQueries.increment();
+        }
+
+        Map<String, Indexed> matches = new LinkedHashMap<>();
+        for (Bucket bucket : bucketsBetween(query.from(), query.to())) {
+            bucket.lastAccess = ++accessClock;
+            Indexed[] entries = bucket.entries();
+            for (double[] rect : query.rectangles()) {
+                bucket.tree.search(rect[0], rect[1], rect[2], rect[3], i -> {
+                    if (query.matches(entries[i])) {
+                        matches.putIfAbsent(entries[i].item().getId(), entries[i]);
+                    }
+                });
+            }
+        }
+
+        List<StacItem> items = matches.values().stream()
+                .sorted(NEWEST_FIRST)
+                .map(Indexed::item)
+                .toList();
+        return new Result(items, complete);
+    }
+
+    /**
+     * Removes all items and coverage. Counters are left untouched.
+     */
+    public synchronized void clear() {
+        buckets.clear();
+        bucketOfItem.clear();
+        coverage.clear();
+    }
+
+    /**
+     * Returns a point-in-time snapshot of the index counters.
+     */
+    public Stats stats() {
+        int items;
+        int bucketCount;
+        int regions;
+        synchronized (this) {
+            items = bucketOfItem.size();
+            bucketCount = buckets.size();
+            regions = coverage.size();
+        }
+        return new Stats(items, maxItems, bucketCount, regions, queries.sum(), coveredQueries.sum(), evictions.sum());
+    }
+
+    private boolean add(StacItem item) {
+        if (item.getId() == null) {
+            return false;
+        }
+        Instant datetime = datetimeOf(item);
+        double[] bounds = ItemBounds.of(item);
+        if (datetime == null || bounds == null) {
+            return false;
+        }
+
+        long bucketIndex = Math.floorDiv(datetime.toEpochMilli(), bucketMillis);
+        Bucket bucket = buckets.computeIfAbsent(bucketIndex, Bucket::new);
+        Bucket previous = bucketOfItem.put(item.getId(), bucket);
+        if (previous != null && previous != bucket) {
+            previous.remove(item.getId());
+            if (previous.items.isEmpty()) {
+                buckets.remove(previous.index);
+            }
+        }
+        bucket.put(new Indexed(item, datetime, bounds));
+        bucket.lastAccess = ++accessClock;
+        return true;
+    }
+
+    private Collection<Bucket> bucketsBetween(Instant from, Instant to) {
+        Long first = from.equals(Instant.MIN) ? null : Math.floorDiv(from.toEpochMilli(), bucketMillis);
+        Long last = to.equals(Instant.MAX) ? null : Math.floorDiv(to.toEpochMilli(), bucketMillis);
+        if (first == null && last == null) {
+            return buckets.values();
+        }
+        if (first == null) {
+            return buckets.headMap(last, true).values();
+        }
+        if (last == null) {
+            return buckets.tailMap(first, true).values();
+        }
+        return first <= last ? buckets.subMap(first, true, last, true).values() : List.of();
+    }
+
+    /**
+     * Drops the least recently used bucket along with every coverage region overlapping
+     * its time range, since those regions are no longer fully held.
+     */
+    private void evictLeastRecentlyUsed() {
+        Bucket victim = buckets.values().stream()
+                .min(Comparator.comparingLong(bucket -> bucket.lastAccess))
+                .orElseThrow();
+        buckets.remove(victim.index);
+        for (String id : victim.items.keySet()) {
+            bucketOfItem.remove(id);
+        }
+        evictions.add(victim.items.size());
+
+        Instant start = Instant.ofEpochMilli(victim.index * bucketMillis);
+        Instant end = Instant.ofEpochMilli((victim.index + 1) * bucketMillis);
+        coverage.removeIf(region -> region.query.from().isBefore(end) && !region.query.to().isBefore(start));
+    }
+
+    private void expireCoverage() {
+        long now = System.nanoTime();
+        coverage.removeIf(region -> now - region.expiresAt > 0);
+    }
+
+    /**
+     * Returns the item's {@code properties.datetime}, or null if it has none that parses.
+     */
+    static Instant datetimeOf(StacItem item) {
+        if (item.getProperties() == null || !(item.getProperties().get("datetime") instanceof String text)) {
+            return null;
+        }
+        try {
+            return OffsetDateTime.parse(text).toInstant();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private record Indexed(StacItem item, Instant datetime, double[] bounds) {}
+
+    /**
+     * One time bucket: its items by ID and the packed tree over them, rebuilt when stale.
+     */
+    private static final class Bucket {
+        final long index;
+        final Map<String, Indexed> items = new HashMap<>();
+        long lastAccess;
+        StrTree tree;
+        Indexed[] treeEntries;
+
+        Bucket(long index) {
+            this.index = index;
+        }
+
+        void put(Indexed indexed) {
+            items.put(indexed.item().getId(), indexed);
+            tree = null;
+        }
+
+        void remove(String id) {
+            items.remove(id);
+            tree = null;
+        }
+
+        /** Returns the entries in tree index order, rebuilding the tree if items changed. */
+        Indexed[] entries() {
+            if (tree == null) {
+                treeEntries = items.values().toArray(Indexed[]::new);
+                double[] bounds = new double[treeEntries.length * 4];
+                for (int i = 0; i < treeEntries.length; i++) {
+                    System.arraycopy(treeEntries[i].bounds(), 0, bounds, i * 4, 4);
+                }
+                tree = new StrTree(bounds);
+            }
+            return treeEntries;
+        }
+    }
+
+    /**
+     * A search whose complete result set was added to the index.
+     */
+    private record Coverage(Query query, long expiresAt) {
+
+        boolean contains(Query other) {
+            return query.contains(other);
+        }
+    }
+
+    /**
+     * Snapshot of item index counters.
+     */
+    public record Stats(
+            /** Items currently indexed */
+            int size,
+
+            /** Configured maximum number of items */
+            int maxItems,
+
+            /** Non-empty time buckets */
+            int buckets,
+
+            /** Searches whose complete results are held */
+            int coverageRegions,
+
+            /** Index lookups */
+            long queries,
+
+            /** Queries that fell inside a coverage region */
+            long coveredQueries,
+
+            /** Items dropped because the index was full */
+            long evictions
+    ) {}
+}
@@ -0,0 +1,62 @@
+package com.gdmp.service;
+
+import com.gdmp.store.DurableStore;
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the durable order and template stores ({@code store.*}). The tuning
+ * options are shared; each store has its own directory.
+ */
+@ConfigMapping(prefix = "store")
+public interface StoreConfig {
+
+    /** Log size in bytes after which a new segment and a snapshot are started; also bounds one value */
+    @WithDefault("67108864")
+    int segmentSize();
+
+    /** Start a new segment and a snapshot after this long even if the segment is not full; zero disables */
+    @WithDefault("10m")
+    Duration snapshotInterval();
+
+    /** Force each commit to disk */
+    @WithDefault("true")
+    boolean fsync();
+
+    /** Most writes committed together */
+    @WithDefault("1024")
+    int maxBatch();
+
+    /** Most writes waiting for a commit */
+    @WithDefault("65536")
+    int queueCapacity();
+
+    /** Order store settings */
+    Orders orders();
+
+    /** Template store settings */
+    Templates templates();
+
+    /**
+     * Returns the tuning options shared by every store.
+     */
+    default DurableStore.Options options() {
+        return new DurableStore.Options(segmentSize(), snapshotInterval(), fsync(), maxBatch(), queueCapacity());
+    }
+
+    interface Orders {
+
+        /** Directory of the order store */
+        @WithDefault("data/orders")
+        String dir();
+    }
+
+    interface Templates {
+
+        /** Directory of the template store */
+        @WithDefault("data/templates")
+        String dir();
+    }
+}
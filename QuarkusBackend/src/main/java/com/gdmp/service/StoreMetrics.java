@@ -0,0 +1,42 @@
+package com.gdmp.service;
+
+import com.gdmp.store.DurableStore;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Registers the meters of a {@link DurableStore}, tagged with the store name.
+ */
+final class StoreMetrics {
+
+    private StoreMetrics() {
+    }
+
+    static void register(String name, DurableStore<?> store, MeterRegistry meterRegistry) {
+        Gauge.builder("store.entries", store, DurableStore::size)
+                .tag("store", name)
+                .description("Committed entries held by the store")
+                .register(meterRegistry);
+        Gauge.builder("store.writes.queued", store, s -> s.stats().queued())
+                .tag("store", name)
+                .description("Writes waiting for a group commit")
+                .register(meterRegistry);
+        FunctionCounter.builder("store.writes", store, s -> s.stats().writes())
+                .tag("store", name)
+                .description("Committed writes")
+                .register(meterRegistry);
+        FunctionCounter.builder("store.commits", store, s -> s.stats().commits())
+                .tag("store", name)
+                .description("Group commits; writes per commit is the average batch size")
+                .register(meterRegistry);
+        FunctionCounter.builder("store.writes.rejected", store, s -> s.stats().rejected())
+                .tag("store", name)
+                .description("Writes rejected because the commit queue was full")
+                .register(meterRegistry);
+        FunctionCounter.builder("store.snapshots", store, s -> s.stats().snapshots())
+                .tag("store", name)
+                .description("Snapshots written")
+                .register(meterRegistry);
+    }
+}
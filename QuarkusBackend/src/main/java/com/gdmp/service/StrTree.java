@@ -0,0 +1,176 @@
+package com.gdmp.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Static R-tree over axis-aligned rectangles, bulk loaded with Sort-Tile-Recursive packing.
+ *
+ * Entries are sorted into vertical slices by centre x, each slice by centre y, and packed
+ * into full leaves of {@link #NODE_CAPACITY}; upper levels group consecutive nodes of the
+ * level below until one root is left. The children of node {@code i} are therefore the
+ * nodes (or entries) {@code i * NODE_CAPACITY} up to {@code (i + 1) * NODE_CAPACITY} of
+ * the level below, so no child pointers are stored.
+ * The tree is immutable; rebuild it to add or remove entries.
+ */
+final class StrTree {
+
+    static final int NODE_CAPACITY = 16;
+
+    /** Entry indices in packed order. */
+    private final int[] order;
+    /** Entry bounds by original index: minX, minY, maxX, maxY. */
+    private final double[] entryBounds;
+    /** Node bounds per level; level 0 holds the leaves, the last level the root. */
+    private final double[][] levels;
+
+    /**
+     * Packs the given rectangles.
+     *
+     * @param bounds four values (minX, minY, maxX, maxY) per entry; entry {@code i} is reported
+     *               as index {@code i} by {@link #search}
+     */
+    StrTree(double[] bounds) {
+        this.entryBounds = bounds;
+        int count = bounds.length / 4;
+        this.order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        pack(order, bounds);
+
+        List<double[]> built = new ArrayList<>();
+        double[] level = parentBounds(orderedBounds(bounds, order));
+        built.add(level);
+        while (level.length > 4) {
+            // leaves are already in STR order, so grouping consecutive nodes keeps parents compact
+            level = parentBounds(level);
+            built.add(level);
+        }
+        this.levels = built.toArray(double[][]::new);
+    }
+
+    int size() {
+        return order.length;
+    }
+
+    /**
+     * Reports the index of every entry whose rectangle intersects the query rectangle.
+     */
+    void search(double minX, double minY, double maxX, double maxY, IntConsumer consumer) {
+        if (order.length == 0) {
+            return;
+        }
+        int top = levels.length - 1;
+        for (int node = 0; node < levels[top].length / 4; node++) {
+            visit(top, node, minX, minY, maxX, maxY, consumer);
+        }
+    }
+
+    private void visit(int level, int node, double minX, double minY, double maxX, double maxY,
+                       IntConsumer consumer) {
+        if (!intersects(levels[level], node, minX, minY, maxX, maxY)) {
+            return;
+        }
+        int from = node * NODE_CAPACITY;
+        if (level == 0) {
+            int to = Math.min(from + NODE_CAPACITY, order.length);
+            for (int i = from; i < to; i++) {
+                int entry = order[i];
+                if (intersects(entryBounds, entry, minX, minY, maxX, maxY)) {
+                    consumer.accept(entry);
+                }
+            }
+            return;
+        }
+        int to = Math.min(from + NODE_CAPACITY, levels[level - 1].length / 4);
+        for (int child = from; child < to; child++) {
+            visit(level - 1, child, minX, minY, maxX, maxY, consumer);
+        }
+    }
+
+    private static boolean intersects(double[] bounds, int i, double minX, double minY, double maxX, double maxY) {
+        int at = i * 4;
+        return bounds[at] <= maxX && bounds[at + 2] >= minX
+                && bounds[at + 1] <= maxY && bounds[at + 3] >= minY;
+    }
+
+    /**
+     * Sorts {@code order} in place into STR order: slices by centre x, then by centre y within each slice.
+     */
+    private static void pack(int[] order, double[] bounds) {
+        int count = order.length;
+        if (count <= NODE_CAPACITY) {
+            return;
+        }
+        int leaves = (count + NODE_CAPACITY - 1) / NODE_CAPACITY;
+        int slices = (int) Math.ceil(Math.sqrt(leaves));
+        int sliceSize = slices * NODE_CAPACITY;
+
+        sortByCentre(order, 0, count, bounds, 0);
+        for (int from = 0; from < count; from += sliceSize) {
+            sortByCentre(order, from, Math.min(from + sliceSize, count), bounds, 1);
+        }
+    }
+
+    /**
+     * Sorts {@code order[from, to)} by rectangle centre on the given axis (0 = x, 1 = y).
+     * Centres are ranked first so that (rank, entry) pairs can be sorted as primitive longs.
+     */
+    private static void sortByCentre(int[] order, int from, int to, double[] bounds, int axis) {
+        int length = to - from;
+        double[] centres = new double[length];
+        for (int i = 0; i < length; i++) {
+            int entry = order[from + i];
+            centres[i] = bounds[entry * 4 + axis] + bounds[entry * 4 + axis + 2];
+        }
+        double[] sorted = centres.clone();
+        Arrays.sort(sorted);
+        long[] keyed = new long[length];
+        for (int i = 0; i < length; i++) {
+            long rank = Arrays.binarySearch(sorted, centres[i]);
+            keyed[i] = rank << 32 | order[from + i];
+        }
+        Arrays.sort(keyed);
+        for (int i = 0; i < length; i++) {
+            order[from + i] = (int) keyed[i];
+        }
+    }
+
+    private static double[] orderedBounds(double[] bounds, int[] order) {
+        double[] ordered = new double[order.length * 4];
+        for (int i = 0; i < order.length; i++) {
+            System.arraycopy(bounds, order[i] * 4, ordered, i * 4, 4);
+        }
+        return ordered;
+    }
+
+    /**
+     * Computes the bounds of each group of {@link #NODE_CAPACITY} consecutive rectangles.
+     */
+    private static double[] parentBounds(double[] children) {
+        int childCount = children.length / 4;
+        int parentCount = Math.max(1, (childCount + NODE_CAPACITY - 1) / NODE_CAPACITY);
+        double[] parents = new double[parentCount * 4];
+        for (int parent = 0; parent < parentCount; parent++) {
+            double minX = Double.POSITIVE_INFINITY;
+            double minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY;
+            double maxY = Double.NEGATIVE_INFINITY;
+            int to = Math.min((parent + 1) * NODE_CAPACITY, childCount);
+            for (int child = parent * NODE_CAPACITY; child < to; child++) {
+                minX = Math.min(minX, children[child * 4]);
+                minY = Math.min(minY, children[child * 4 + 1]);
+                maxX = Math.max(maxX, children[child * 4 + 2]);
+                maxY = Math.max(maxY, children[child * 4 + 3]);
+            }
+            parents[parent * 4] = minX;
+            parents[parent * 4 + 1] = minY;
+            parents[parent * 4 + 2] = maxX;
+            parents[parent * 4 + 3] = maxY;
+        }
+        return parents;
+    }
+}
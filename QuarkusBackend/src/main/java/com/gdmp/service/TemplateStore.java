@@ -0,0 +1,63 @@
+package com.gdmp.service;
+
+import com.gdmp.model.dto.TemplateResponse;
+import com.gdmp.store.DurableStore;
+import io.quarkus.runtime.Startup;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Durable store of templates keyed by template ID, kept in a {@link DurableStore} under
+ * {@code store.templates.dir}. Opened (and recovered) at startup.
+ */
+@Startup
+@ApplicationScoped
+public class TemplateStore {
+
+    @Inject
+    DurableStores stores;
+
+    @Inject
+    StoreConfig config;
+
+    private DurableStore<TemplateResponse> store;
+
+    @PostConstruct
+    void init() {
+        this.store = stores.open("templates", config.templates().dir(), TemplateResponse.class);
+    }
+
+    @PreDestroy
+    void close() {
+        store.close();
+    }
+
+    /**
+     * Saves a template, replacing any with the same ID.
+     *
+     * @return stage completing with the template once it is durable, or failing with an
+     *         IOException if it could not be stored
+     */
+    public CompletionStage<TemplateResponse> save(TemplateResponse template) {
+        return store.put(template.templateId(), template);
+    }
+
+    /**
+     * Returns the template with the given ID, or null.
+     */
+    public TemplateResponse get(String id) {
+        return store.get(id);
+    }
+
+    /**
+     * Returns every stored template, in no particular order.
+     */
+    public List<TemplateResponse> list() {
+        return List.copyOf(store.values());
+    }
+}
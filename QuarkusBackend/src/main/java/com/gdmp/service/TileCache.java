@@ -0,0 +1,120 @@
+package com.gdmp.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-memory cache of encoded vector tiles keyed by {@link CatalogTileService.TileKey}.
+ *
+ * Entries are evicted least-recently-used once {@code maxEntries} is exceeded and expire
+ * {@code ttl} after they were built. Unlike {@link SearchCache} there is no stale serving:
+ * an expired tile is rebuilt, which is cheap while the searches it is built from are cached.
+ * Partial tiles (some provider failed) are returned but never cached.
+ */
+public class TileCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    /** Access-ordered map; every access must hold the map's monitor. */
+    private final LinkedHashMap<CatalogTileService.TileKey, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+
+    public TileCache(int maxEntries, Duration ttl) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CatalogTileService.TileKey, Entry> eldest) {
+                if (size() > TileCache.this.maxEntries) {
+                    evictions.increment();
+                    bytes.add(-eldest.getValue().tile.data().length);
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached tile for the key, building it with {@code loader} on a miss or
+     * after the cached tile expired.
+     *
+     * @param key    normalized tile key
+     * @param loader builds the tile; invoked on a miss
+     * @return stage completing with the cached or freshly built tile
+     */
+    CompletionStage<VectorTile> get(CatalogTileService.TileKey key, Supplier<CompletionStage<VectorTile>> loader) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry != null && System.nanoTime() - entry.loadedAt <= ttlNanos) {
+            hits.increment();
+            return CompletableFuture.completedFuture(entry.tile);
+        }
+
+        misses.increment();
+        return loader.get().thenApply(tile -> {
+            if (!tile.partial()) {
+                put(key, tile);
+            }
+            return tile;
+        });
+    }
+
+    /**
+     * Returns a point-in-time snapshot of the cache counters.
+     */
+    public Stats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new Stats(size, maxEntries, bytes.sum(), hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    private void put(CatalogTileService.TileKey key, VectorTile tile) {
+        synchronized (entries) {
+            Entry previous = entries.put(key, new Entry(tile, System.nanoTime()));
+            if (previous != null) {
+                bytes.add(-previous.tile.data().length);
+            }
+            bytes.add(tile.data().length);
+        }
+    }
+
+    private record Entry(VectorTile tile, long loadedAt) {}
+
+    /**
+     * Snapshot of tile cache counters.
+     */
+    public record Stats(
+            /** Current number of cached tiles */
+            int size,
+
+            /** Configured maximum number of tiles */
+            int maxEntries,
+
+            /** Total encoded size of the cached tiles */
+            long bytes,
+
+            /** Requests served from a cached tile */
+            long hits,
+
+            /** Requests that had to build their tile */
+            long misses,
+
+            /** Tiles dropped because the cache was full */
+            long evictions
+    ) {}
+}
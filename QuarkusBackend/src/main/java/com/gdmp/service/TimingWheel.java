@@ -0,0 +1,263 @@
+package com.gdmp.service;
+
+import org.jboss.logging.Logger;
+
+import java.io.Closeable;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Hierarchical timing wheel for very many long-lived timeouts.
+ *
+ * Time advances in ticks. There are six wheels of 64 slots; a slot of wheel {@code l}
+ * spans {@code 64^l} ticks, so with one second ticks the wheels reach a minute, an hour,
+ * three days, half a year, and decades. A timeout is linked into the slot of the
+ * coarsest wheel it still needs, picked from its deadline's base-64 digits. When a wheel
+ * completes a turn, the next slot of the wheel above is emptied into the wheels below;
+ * each slot of the finest wheel fires when its tick comes. Scheduling and cancelling are
+ * O(1) (a doubly-linked list insert or unlink under the wheel's monitor), each timeout is
+ * moved at most once per wheel, and a tick with nothing due costs a few array reads.
+ *
+ * A single daemon thread advances the wheel and runs due tasks; tasks must be short and
+ * hand off anything slow. Deadlines are rounded up to the next tick.
+ */
+final class TimingWheel implements Closeable {
+
+    private static final Logger LOG = Logger.getLogger(TimingWheel.class);
+
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int SLOT_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 6;
+    /** Later deadlines are clamped; far beyond any deadline an order can have. */
+    private static final Duration MAX_DELAY = Duration.ofDays(365L * 100);
+
+    /**
+     * Handle of a scheduled task.
+     */
+    interface Timeout {
+
+        /**
+         * Cancels the task unless it already ran or was cancelled.
+         *
+         * @return true if this call cancelled it
+         */
+        boolean cancel();
+    }
+
+    private final long tickNanos;
+    private final Clock clock;
+    private final LongSupplier nanoTime;
+    private final long startNanos;
+    private final Slot[][] wheels = new Slot[LEVELS][WHEEL_SIZE];
+    private ScheduledExecutorService ticker;
+
+    // guarded by this
+    private long currentTick;
+    private int pending;
+
+    /**
+     * Creates the wheel and starts its ticker thread.
+     *
+     * @param name thread name
+     * @param tick tick length; the resolution of every deadline
+     */
+    TimingWheel(String name, Duration tick) {
+        this(tick, Clock.systemUTC(), System::nanoTime);
+        this.ticker = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name(name).factory());
+        ticker.scheduleAtFixedRate(this::advance, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Creates a wheel without a ticker thread, reading time from {@code clock}; tests move
+     * the clock and drive the wheel with {@link #advance}.
+     */
+    TimingWheel(Duration tick, Clock clock) {
+        this(tick, clock, () -> {
+            Instant now = clock.instant();
+            return now.getEpochSecond() * 1_000_000_000L + now.getNano();
+        });
+    }
+
+    private TimingWheel(Duration tick, Clock clock, LongSupplier nanoTime) {
+        this.tickNanos = tick.toNanos();
+        this.clock = clock;
+        this.nanoTime = nanoTime;
+        this.startNanos = nanoTime.getAsLong();
+        for (Slot[] wheel : wheels) {
+            for (int i = 0; i < WHEEL_SIZE; i++) {
+                wheel[i] = new Slot();
+            }
+        }
+    }
+
+    /**
+     * Runs the task on the ticker thread at the first tick at or after the deadline; a
+     * deadline in the past runs at the next tick.
+     */
+    Timeout schedule(Instant deadline, Runnable task) {
+        Instant now = clock.instant();
+        Duration delay = deadline.isAfter(now.plus(MAX_DELAY)) ? MAX_DELAY : Duration.between(now, deadline);
+        long deadlineNanos = nanoTime.getAsLong() - startNanos + Math.max(0, delay.toNanos());
+        long deadlineTick = (deadlineNanos + tickNanos - 1) / tickNanos;
+        synchronized (this) {
+            Node node = new Node(Math.max(deadlineTick, currentTick + 1), task);
+            insert(node);
+            pending++;
+            return node;
+        }
+    }
+
+    /**
+     * Returns the current time of the clock deadlines are measured on.
+     */
+    Instant now() {
+        return clock.instant();
+    }
+
+    /**
+     * Returns the number of scheduled tasks that have not run or been cancelled.
+     */
+    synchronized int pending() {
+        return pending;
+    }
+
+    @Override
+    public void close() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    /**
+     * Advances to the current tick, catching up on ticks missed while the thread was held
+     * up, and runs every task that came due.
+     */
+    void advance() {
+        long target = (nanoTime.getAsLong() - startNanos) / tickNanos;
+        List<Node> due = new ArrayList<>();
+        synchronized (this) {
+            while (currentTick < target) {
+                currentTick++;
+                // empty coarse slots first, so their timeouts can cascade further down this tick
+                for (int level = LEVELS - 1; level > 0; level--) {
+                    if ((currentTick & ((1L << (WHEEL_BITS * level)) - 1)) == 0) {
+                        Slot slot = wheels[level][slotIndex(currentTick, level)];
+                        for (Node node = slot.removeAll(); node != null; ) {
+                            Node next = node.next;
+                            insert(node);
+                            node = next;
+                        }
+                    }
+                }
+                Slot slot = wheels[0][slotIndex(currentTick, 0)];
+                for (Node node = slot.removeAll(); node != null; ) {
+                    Node next = node.next;
+                    node.next = null;
+                    due.add(node);
+                    node = next;
+                }
+            }
+            pending -= due.size();
+        }
+        for (Node node : due) {
+            try {
+                node.task.run();
+            } catch (RuntimeException e) {
+                LOG.errorf(e, "Timing wheel task failed");
+            }
+        }
+    }
+
+    /**
+     * Links a node into the slot of the coarsest wheel its deadline needs. Callers hold the monitor.
+     */
+    private void insert(Node node) {
+        long delta = Math.max(0, node.deadline - currentTick);
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (WHEEL_BITS * (level + 1))) {
+            level++;
+        }
+        wheels[level][slotIndex(node.deadline, level)].add(node);
+    }
+
+    private static int slotIndex(long tick, int level) {
+        return (int) (tick >>> (WHEEL_BITS * level)) & SLOT_MASK;
+    }
+
+    /**
+     * Circular doubly-linked list with a sentinel node.
+     */
+    private final class Slot {
+        final Node head = new Node(0, null);
+
+        Slot() {
+            head.prev = head;
+            head.next = head;
+        }
+
+        void add(Node node) {
+            node.slot = this;
+            node.prev = head.prev;
+            node.next = head;
+            head.prev.next = node;
+            head.prev = node;
+        }
+
+        /**
+         * Unlinks every node and returns them as a null-terminated list.
+         */
+        Node removeAll() {
+            if (head.next == head) {
+                return null;
+            }
+            Node first = head.next;
+            head.prev.next = null;
+            for (Node node = first; node != null; node = node.next) {
+                node.slot = null;
+                node.prev = null;
+            }
+            head.prev = head;
+            head.next = head;
+            return first;
+        }
+    }
+
+    private final class Node implements Timeout {
+        final long deadline;
+        final Runnable task;
+        Node prev;
+        Node next;
+        /** Slot holding the node; null once it is due or cancelled. */
+        Slot slot;
+
+        Node(long deadline, Runnable task) {
+            this.deadline = deadline;
+            this.task = task;
+        }
+
+        @Override
+        public boolean cancel() {
+            synchronized (TimingWheel.this) {
+                if (slot == null) {
+                    return false;
+                }
+                prev.next = next;
+                next.prev = prev;
+                prev = null;
+                next = null;
+                slot = null;
+                pending--;
+                return true;
+            }
+        }
+    }
+}
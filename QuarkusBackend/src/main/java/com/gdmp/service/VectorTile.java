@@ -0,0 +1,11 @@
+package com.gdmp.service;
+
+/**
+ * One encoded Mapbox Vector Tile of catalog footprints.
+ *
+ * @param data     protobuf-encoded tile; empty if no footprint falls in the tile
+ * @param etag     strong entity tag of {@code data}
+ * @param features number of features in the tile
+ * @param partial  true if some catalog provider failed, so footprints may be missing
+ */
+public record VectorTile(byte[] data, String etag, int features, boolean partial) {}
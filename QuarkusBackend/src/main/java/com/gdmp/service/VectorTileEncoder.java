@@ -0,0 +1,455 @@
+package com.gdmp.service;
+
+import com.gdmp.stac.StacGeometry;
+import com.gdmp.stac.StacItem;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes STAC item footprints as one Mapbox Vector Tile (MVT 2.1) with a single layer.
+ *
+ * Positions are projected to Web Mercator and scaled to the tile's {@link #EXTENT};
+ * polygons are clipped to the tile plus a {@link #BUFFER} so that no outline is drawn
+ * along tile edges, and rings are wound as the spec requires (exterior rings positive in
+ * tile coordinates, holes negative). Line strings are not encoded. Each feature carries
+ * the item ID, datetime, cloud cover, and collection as tags.
+ * The protobuf wire format is written directly, without a generated schema.
+ */
+final class VectorTileEncoder {
+
+    static final String LAYER = "footprints";
+    static final int EXTENT = 4096;
+    static final int BUFFER = 64;
+    /** Latitude limit of the Web Mercator projection. */
+    private static final double MAX_LATITUDE = 85.05112878;
+
+    private static final int GEOM_POINT = 1;
+    private static final int GEOM_POLYGON = 3;
+    private static final int MOVE_TO = 1;
+    private static final int LINE_TO = 2;
+    private static final int CLOSE_PATH = 7;
+
+    private final int z;
+    private final int x;
+    private final int y;
+    private final ProtoWriter features = new ProtoWriter();
+    private final Map<String, Integer> keys = new LinkedHashMap<>();
+    private final Map<Object, Integer> values = new LinkedHashMap<>();
+    private int featureCount;
+
+    VectorTileEncoder(int z, int x, int y) {
+        this.z = z;
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Returns the tile's bounds as [west, south, east, north] in degrees.
+     */
+    static double[] bounds(int z, int x, int y) {
+        double n = 1L << z;
+        return new double[] {
+                x / n * 360 - 180,
+                Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * (y + 1) / n)))),
+                (x + 1) / n * 360 - 180,
+                Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * y / n))))
+        };
+    }
+
+    int featureCount() {
+        return featureCount;
+    }
+
+    /**
+     * Adds an item with the given (possibly simplified) geometry; a geometry collection adds
+     * one feature per member. Parts of the geometry outside the buffered tile are dropped.
+     *
+     * @return true if anything of the item was added
+     */
+    boolean add(StacItem item, StacGeometry geometry) {
+        if (geometry == null) {
+            return false;
+        }
+        if (geometry.getGeometries() != null) {
+            boolean added = false;
+            for (StacGeometry member : geometry.getGeometries()) {
+                added |= add(item, member);
+            }
+            return added;
+        }
+        GeometryCommands commands = new GeometryCommands();
+        int type;
+        switch (geometry.getType()) {
+            case "Polygon" -> {
+                type = GEOM_POLYGON;
+                addPolygon(geometry, 0, geometry.getPartCount(), commands);
+            }
+            case "MultiPolygon" -> {
+                type = GEOM_POLYGON;
+                int[] polygons = geometry.getPolygonOffsets();
+                for (int polygon = 0; polygon < polygons.length - 1; polygon++) {
+                    addPolygon(geometry, polygons[polygon], polygons[polygon + 1], commands);
+                }
+            }
+            case "Point", "MultiPoint" -> {
+                type = GEOM_POINT;
+                addPoints(geometry, commands);
+            }
+            default -> {
+                return false;
+            }
+        }
+        if (commands.isEmpty()) {
+            return false;
+        }
+        writeFeature(item, type, commands);
+        return true;
+    }
+
+    /**
+     * Returns the encoded tile; empty (zero bytes) if no feature was added.
+     */
+    byte[] encode() {
+        if (featureCount == 0) {
+            return new byte[0];
+        }
+        ProtoWriter layer = new ProtoWriter();
+        layer.writeUInt32(15, 2);
+        layer.writeString(1, LAYER);
+        layer.writeRaw(features);
+        for (String key : keys.keySet()) {
+            layer.writeString(3, key);
+        }
+        for (Object value : values.keySet()) {
+            ProtoWriter encoded = new ProtoWriter();
+            if (value instanceof Double number) {
+                encoded.writeDouble(3, number);
+            } else {
+                encoded.writeString(1, (String) value);
+            }
+            layer.writeMessage(4, encoded);
+        }
+        layer.writeUInt32(5, EXTENT);
+
+        ProtoWriter tile = new ProtoWriter();
+        tile.writeMessage(3, layer);
+        return tile.toByteArray();
+    }
+
+    private void writeFeature(StacItem item, int type, GeometryCommands commands) {
+        List<Integer> tags = new ArrayList<>(8);
+        tag(tags, "id", item.getId());
+        tag(tags, "collection", item.getCollection());
+        Map<String, Object> properties = item.getProperties();
+        if (properties != null) {
+            Object datetime = properties.get("datetime") != null ? properties.get("datetime") : properties.get("start_datetime");
+            tag(tags, "datetime", datetime instanceof String text ? text : null);
+            tag(tags, "cloud_cover", properties.get("eo:cloud_cover") instanceof Number cover ? cover.doubleValue() : null);
+        }
+
+        ProtoWriter feature = new ProtoWriter();
+        feature.writeUInt64(1, ++featureCount);
+        feature.writePacked(2, tags.stream().mapToInt(Integer::intValue).toArray(), tags.size());
+        feature.writeUInt32(3, type);
+        feature.writePacked(4, commands.values, commands.size);
+        features.writeMessage(2, feature);
+    }
+
+    private void tag(List<Integer> tags, String key, Object value) {
+        if (value == null) {
+            return;
+        }
+        tags.add(keys.computeIfAbsent(key, k -> keys.size()));
+        tags.add(values.computeIfAbsent(value, v -> values.size()));
+    }
+
+    /**
+     * Adds the rings of one polygon; holes are kept only if the exterior ring is.
+     */
+    private void addPolygon(StacGeometry geometry, int fromPart, int toPart, GeometryCommands commands) {
+        for (int part = fromPart; part < toPart; part++) {
+            int[] ring = clippedRing(geometry, geometry.getPartStart(part), geometry.getPartEnd(part));
+            if (ring == null) {
+                if (part == fromPart) {
+                    return;
+                }
+                continue;
+            }
+            long area = twiceArea(ring);
+            boolean exterior = part == fromPart;
+            if (exterior != area > 0) {
+                reverse(ring);
+            }
+            commands.ring(ring);
+        }
+    }
+
+    private void addPoints(StacGeometry geometry, GeometryCommands commands) {
+        int[] points = new int[geometry.getPositionCount() * 2];
+        int count = 0;
+        for (int position = 0; position < geometry.getPositionCount(); position++) {
+            double px = projectX(geometry.getX(position));
+            double py = projectY(geometry.getY(position));
+            if (px >= 0 && px < EXTENT && py >= 0 && py < EXTENT) {
+                points[count * 2] = (int) Math.round(px);
+                points[count * 2 + 1] = (int) Math.round(py);
+                count++;
+            }
+        }
+        if (count > 0) {
+            commands.points(points, count);
+        }
+    }
+
+    /**
+     * Projects a ring to tile coordinates, clips it to the buffered tile (Sutherland-Hodgman),
+     * and rounds it to integers; returns its vertices without the closing one as x, y pairs,
+     * or null if fewer than three distinct vertices or no area remain.
+     */
+    private int[] clippedRing(StacGeometry geometry, int start, int end) {
+        int count = end - start;
+        if (count > 1 && geometry.getX(start) == geometry.getX(end - 1) && geometry.getY(start) == geometry.getY(end - 1)) {
+            count--;
+        }
+        if (count < 3) {
+            return null;
+        }
+        double[] ring = new double[count * 2];
+        for (int i = 0; i < count; i++) {
+            ring[i * 2] = projectX(geometry.getX(start + i));
+            ring[i * 2 + 1] = projectY(geometry.getY(start + i));
+        }
+        int length = count;
+        for (int edge = 0; edge < 4 && length > 0; edge++) {
+            double[] clipped = new double[(length * 2 + 2) * 2];
+            length = clipEdge(ring, length, edge, clipped);
+            ring = clipped;
+        }
+
+        int[] rounded = new int[length * 2];
+        int kept = 0;
+        for (int i = 0; i < length; i++) {
+            int px = (int) Math.round(ring[i * 2]);
+            int py = (int) Math.round(ring[i * 2 + 1]);
+            if (kept > 0 && rounded[(kept - 1) * 2] == px && rounded[(kept - 1) * 2 + 1] == py) {
+                continue;
+            }
+            rounded[kept * 2] = px;
+            rounded[kept * 2 + 1] = py;
+            kept++;
+        }
+        while (kept > 1 && rounded[0] == rounded[(kept - 1) * 2] && rounded[1] == rounded[(kept - 1) * 2 + 1]) {
+            kept--;
+        }
+        if (kept < 3) {
+            return null;
+        }
+        int[] result = Arrays.copyOf(rounded, kept * 2);
+        return twiceArea(result) != 0 ? result : null;
+    }
+
+    /**
+     * Clips a ring against one edge of the buffered tile (0 = left, 1 = right, 2 = top, 3 = bottom).
+     *
+     * @return number of vertices written to {@code out}
+     */
+    private static int clipEdge(double[] ring, int length, int edge, double[] out) {
+        double min = -BUFFER;
+        double max = EXTENT + BUFFER;
+        int written = 0;
+        for (int i = 0; i < length; i++) {
+            int j = (i + 1) % length;
+            double ax = ring[i * 2], ay = ring[i * 2 + 1];
+            double bx = ring[j * 2], by = ring[j * 2 + 1];
+            boolean aInside = inside(ax, ay, edge, min, max);
+            boolean bInside = inside(bx, by, edge, min, max);
+            if (aInside) {
+                out[written * 2] = ax;
+                out[written * 2 + 1] = ay;
+                written++;
+            }
+            if (aInside != bInside) {
+                double bound = edge == 0 || edge == 2 ? min : max;
+                double t = edge < 2 ? (bound - ax) / (bx - ax) : (bound - ay) / (by - ay);
+                out[written * 2] = edge < 2 ? bound : ax + t * (bx - ax);
+                out[written * 2 + 1] = edge < 2 ? ay + t * (by - ay) : bound;
+                written++;
+            }
+        }
+        return written;
+    }
+
+    private static boolean inside(double px, double py, int edge, double min, double max) {
+        return switch (edge) {
+            case 0 -> px >= min;
+            case 1 -> px <= max;
+            case 2 -> py >= min;
+            default -> py <= max;
+        };
+    }
+
+    /**
+     * Returns twice the signed area of a ring by the surveyor's formula in tile coordinates
+     * (y pointing down), as used by the MVT spec for winding order.
+     */
+    private static long twiceArea(int[] ring) {
+        int count = ring.length / 2;
+        long area = 0;
+        for (int i = 0; i < count; i++) {
+            int j = (i + 1) % count;
+            area += (long) ring[i * 2] * ring[j * 2 + 1] - (long) ring[j * 2] * ring[i * 2 + 1];
+        }
+        return area;
+    }
+
+    private static void reverse(int[] ring) {
+        int count = ring.length / 2;
+        for (int i = 0, j = count - 1; i < j; i++, j--) {
+            int tx = ring[i * 2];
+            int ty = ring[i * 2 + 1];
+            ring[i * 2] = ring[j * 2];
+            ring[i * 2 + 1] = ring[j * 2 + 1];
+            ring[j * 2] = tx;
+            ring[j * 2 + 1] = ty;
+        }
+    }
+
+    private double projectX(double longitude) {
+        return ((longitude + 180) / 360 * (1L << z) - x) * EXTENT;
+    }
+
+    private double projectY(double latitude) {
+        double phi = Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude)));
+        double mercator = (1 - Math.log(Math.tan(phi) + 1 / Math.cos(phi)) / Math.PI) / 2;
+        return (mercator * (1L << z) - y) * EXTENT;
+    }
+
+    /**
+     * MVT geometry command stream of one feature; positions are zigzag-encoded deltas from
+     * the previous position, carried across rings.
+     */
+    private static final class GeometryCommands {
+
+        private int[] values = new int[64];
+        private int size;
+        private int cursorX;
+        private int cursorY;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void ring(int[] ring) {
+            int count = ring.length / 2;
+            add(command(MOVE_TO, 1));
+            position(ring[0], ring[1]);
+            add(command(LINE_TO, count - 1));
+            for (int i = 1; i < count; i++) {
+                position(ring[i * 2], ring[i * 2 + 1]);
+            }
+            add(command(CLOSE_PATH, 1));
+        }
+
+        void points(int[] points, int count) {
+            add(command(MOVE_TO, count));
+            for (int i = 0; i < count; i++) {
+                position(points[i * 2], points[i * 2 + 1]);
+            }
+        }
+
+        private void position(int px, int py) {
+            add(zigzag(px - cursorX));
+            add(zigzag(py - cursorY));
+            cursorX = px;
+            cursorY = py;
+        }
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private static int command(int id, int count) {
+            return (id & 0x7) | (count << 3);
+        }
+
+        private static int zigzag(int n) {
+            return (n << 1) ^ (n >> 31);
+        }
+    }
+
+    /**
+     * Minimal protobuf writer for the field types MVT uses.
+     */
+    private static final class ProtoWriter {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        void writeUInt32(int field, int value) {
+            writeUInt64(field, value & 0xffffffffL);
+        }
+
+        void writeUInt64(int field, long value) {
+            writeVarint((long) field << 3);
+            writeVarint(value);
+        }
+
+        void writeDouble(int field, double value) {
+            writeVarint((long) field << 3 | 1);
+            long bits = Double.doubleToLongBits(value);
+            for (int i = 0; i < 8; i++) {
+                out.write((int) (bits >>> (8 * i)));
+            }
+        }
+
+        void writeString(int field, String value) {
+            writeBytes(field, value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        void writeMessage(int field, ProtoWriter message) {
+            writeBytes(field, message.toByteArray());
+        }
+
+        void writePacked(int field, int[] values, int count) {
+            if (count == 0) {
+                return;
+            }
+            ProtoWriter packed = new ProtoWriter();
+            for (int i = 0; i < count; i++) {
+                packed.writeVarint(values[i] & 0xffffffffL);
+            }
+            writeMessage(field, packed);
+        }
+
+        void writeRaw(ProtoWriter other) {
+            byte[] bytes = other.toByteArray();
+            out.write(bytes, 0, bytes.length);
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+
+        private void writeBytes(int field, byte[] bytes) {
+            writeVarint((long) field << 3 | 2);
+            writeVarint(bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+
+        private void writeVarint(long value) {
+            while ((value & ~0x7fL) != 0) {
+                out.write((int) ((value & 0x7f) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.gdmp.stac;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker guarding an upstream.
+ *
+ * While CLOSED, the outcomes of the last {@code windowSize} calls are kept; once at least
+ * {@code minimumCalls} were seen and the failed share reaches {@code failureRatio}, the
+ * breaker opens and rejects calls for {@code openDuration}. After that one probe call is
+ * let through (HALF_OPEN): its success closes the breaker with a fresh window, its failure
+ * opens it again. Calls whose outcome says nothing about upstream health (cancelled, or
+ * rejected as a bad request) are released with {@link #onIgnored()}.
+ */
+final class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final boolean[] failures;
+    private final int minimumCalls;
+    private final double failureRatio;
+    private final long openNanos;
+    private final LongSupplier nanoClock;
+
+    private State state = State.CLOSED;
+    private int calls;
+    private int failed;
+    private int next;
+    private long openedAt;
+    private boolean probing;
+
+    CircuitBreaker(int windowSize, int minimumCalls, double failureRatio, Duration openDuration) {
+        this(windowSize, minimumCalls, failureRatio, openDuration, System::nanoTime);
+    }
+
+    /**
+     * Creates a breaker timing its open period by {@code nanoClock}, a {@link System#nanoTime}-like
+     * source; lets tests step past the open duration.
+     */
+    CircuitBreaker(int windowSize, int minimumCalls, double failureRatio, Duration openDuration,
+                   LongSupplier nanoClock) {
+        this.failures = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRatio = failureRatio;
+        this.openNanos = openDuration.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Returns whether a call may be sent now. In HALF_OPEN only one probe is admitted until
+     * its outcome is reported.
+     */
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAt < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probing = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probing) {
+                return false;
+            }
+            probing = true;
+        }
+        return true;
+    }
+
+    synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            reset(State.CLOSED);
+        } else if (state == State.CLOSED) {
+            recordOutcome(false);
+        }
+    }
+
+    synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            recordOutcome(true);
+            if (calls >= minimumCalls && failed >= failureRatio * calls) {
+                open();
+            }
+        }
+    }
+
+    synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            probing = false;
+        }
+    }
+
+    synchronized State state() {
+        if (state == State.OPEN && nanoClock.getAsLong() - openedAt >= openNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    /**
+     * Returns how long the breaker stays open, or zero if calls are admitted.
+     */
+    synchronized Duration retryAfter() {
+        if (state != State.OPEN) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos(Math.max(0, openNanos - (nanoClock.getAsLong() - openedAt)));
+    }
+
+    private void recordOutcome(boolean failure) {
+        if (calls == failures.length) {
+            if (failures[next]) {
+                failed--;
+            }
+        } else {
+            calls++;
+        }
+        failures[next] = failure;
+        if (failure) {
+            failed++;
+        }
+        next = (next + 1) % failures.length;
+    }
+
+    private void open() {
+        reset(State.OPEN);
+        openedAt = nanoClock.getAsLong();
+    }
+
+    private void reset(State newState) {
+        state = newState;
+        calls = 0;
+        failed = 0;
+        next = 0;
+        probing = false;
+    }
+}
@@ -3,22 +3,45 @@ package com.gdmp.stac;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gdmp.model.dto.CatalogSearchFields;
 import com.gdmp.model.dto.CatalogSearchRequest;
 import com.gdmp.model.dto.CatalogSearchResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * STAC provider implementation for Copernicus Data Space.
@@ -26,19 +49,106 @@ import java.util.Map;
  * Sentinel-1, Sentinel-2, and other ESA satellite imagery collections.
  *
  * Uses java.net.http.HttpClient with Jackson for JSON serialization/deserialization.
+ * All upstream calls use {@link HttpClient#sendAsync}; search response bodies are parsed
+ * incrementally by {@link StacSearchResponseParser} as they arrive, so no thread waits
+ * on the upstream round trip. The synchronous methods join the async variants.
+ *
+ * A field projection on the request is sent upstream as the STAC fields extension
+ * (unless disabled with {@code copernicus.stac.fields-extension}) and is also applied
+ * by the parser, so items have the requested shape whether or not the server honours it.
+ * Results are requested newest first with the STAC sort extension, since the catalog merges
+ * the pages of several providers or grid cells as runs sorted that way.
+ *
+ * Searches are hedged: once the rolling p95 of recent search latencies is known, a search
+ * still unanswered after that long is sent a second time and whichever attempt answers
+ * first wins, the other being cancelled. Searches are returned as {@link UpstreamCall}s, so
+ * cancelling one aborts every attempt in flight. A {@link CircuitBreaker} counts transport errors
+ * and 429/5xx answers; while it is open, searches fail fast with
+ * {@link StacProviderUnavailableException} instead of waiting on an unhealthy upstream.
+ *
+ * Each search records the {@code catalog.search.stage} timer for building the request
+ * ({@code build}), waiting for the response headers ({@code upstream}), and receiving and
+ * parsing the body ({@code parse}, which overlap since the body is parsed as it arrives),
+ * plus response status counts and item count and body size distributions.
+ *
+ * Requests ask for gzip or deflate compressed responses (unless disabled with
+ * {@code copernicus.stac.compression}); compressed search bodies are decoded chunk by chunk
+ * ahead of the parser. {@link #relaySearchAsync} skips parsing altogether and hands back the
+ * response body still compressed, for relaying to the client unchanged.
  */
 @ApplicationScoped
 public class CopernicusStacProvider implements StacProvider {
 
     private static final Logger LOG = Logger.getLogger(CopernicusStacProvider.class);
     private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int MAX_ERROR_BODY_CHARS = 2048;
+    /** Search latencies the hedge percentile is computed over, and how many are needed first. */
+    private static final int LATENCY_WINDOW = 200;
+    private static final int LATENCY_MIN_SAMPLES = 20;
+    private static final String ACCEPT_ENCODING = "gzip, deflate";
+    /** STAC sort extension order asked for: newest first, the order pages are merged in. */
+    private static final List<Map<String, String>> SORT_BY =
+            List.of(Map.of("field", "properties.datetime", "direction", "desc"));
+
+    @Inject
+    MeterRegistry meterRegistry;
 
     @ConfigProperty(name = "copernicus.stac.base-url",
                     defaultValue = "https://catalogue.dataspace.copernicus.eu/stac")
     String baseUrl;
 
+    @ConfigProperty(name = "copernicus.stac.search-deadline", defaultValue = "20s")
+    Duration searchDeadline;
+
+    @ConfigProperty(name = "copernicus.stac.max-concurrent-searches", defaultValue = "16")
+    int maxConcurrentSearches;
+
+    @ConfigProperty(name = "copernicus.stac.max-queued-searches", defaultValue = "64")
+    int maxQueuedSearches;
+
+    @ConfigProperty(name = "copernicus.stac.fields-extension", defaultValue = "true")
+    boolean fieldsExtension;
+
+    @ConfigProperty(name = "copernicus.stac.compression", defaultValue = "true")
+    boolean compression;
+
+    @ConfigProperty(name = "copernicus.stac.hedge.enabled", defaultValue = "true")
+    boolean hedgeEnabled;
+
+    @ConfigProperty(name = "copernicus.stac.hedge.percentile", defaultValue = "95")
+    double hedgePercentile;
+
+    @ConfigProperty(name = "copernicus.stac.hedge.min-delay", defaultValue = "250ms")
+    Duration hedgeMinDelay;
+
+    @ConfigProperty(name = "copernicus.stac.circuit-breaker.window-size", defaultValue = "20")
+    int breakerWindowSize;
+
+    @ConfigProperty(name = "copernicus.stac.circuit-breaker.minimum-calls", defaultValue = "10")
+    int breakerMinimumCalls;
+
+    @ConfigProperty(name = "copernicus.stac.circuit-breaker.failure-ratio", defaultValue = "0.5")
+    double breakerFailureRatio;
+
+    @ConfigProperty(name = "copernicus.stac.circuit-breaker.open-duration", defaultValue = "30s")
+    Duration breakerOpenDuration;
+
     private HttpClient httpClient;
     private ObjectMapper objectMapper;
+    private StacSearchResponseParser searchResponseParser;
+    private LatencyTracker searchLatency;
+    private CircuitBreaker circuitBreaker;
+    private Timer buildTimer;
+    private Timer upstreamTimer;
+    private Timer parseTimer;
+    private DistributionSummary pageItems;
+    private DistributionSummary pageBytes;
+
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
 
     @PostConstruct
     void init() {
@@ -49,6 +159,25 @@ public class CopernicusStacProvider implements StacProvider {
 
         this.objectMapper = new ObjectMapper();
         this.objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.searchResponseParser = new StacSearchResponseParser(objectMapper);
+        this.searchLatency = new LatencyTracker(LATENCY_WINDOW, hedgePercentile, LATENCY_MIN_SAMPLES);
+        this.circuitBreaker = new CircuitBreaker(breakerWindowSize, breakerMinimumCalls,
+                breakerFailureRatio, breakerOpenDuration);
+
+        this.buildTimer = stageTimer("build");
+        this.upstreamTimer = stageTimer("upstream");
+        this.parseTimer = stageTimer("parse");
+        this.pageItems = DistributionSummary.builder("catalog.provider.page.items")
+                .tag("provider", getProviderId())
+                .description("Items per upstream search page")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.pageBytes = DistributionSummary.builder("catalog.provider.page.size")
+                .tag("provider", getProviderId())
+                .description("Upstream search response body size, after decoding")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
     @Override
@@ -56,65 +185,510 @@ public class CopernicusStacProvider implements StacProvider {
         return "Copernicus Data Space";
     }
 
+    @Override
+    public String getProviderId() {
+        return "copernicus";
+    }
+
+    @Override
+    public Duration getSearchDeadline() {
+        return searchDeadline;
+    }
+
+    @Override
+    public int getMaxConcurrentSearches() {
+        return maxConcurrentSearches;
+    }
+
+    @Override
+    public int getMaxQueuedSearches() {
+        return maxQueuedSearches;
+    }
+
+    @Override
+    public StacProviderStats getStats() {
+        long hedgeDelay = hedgeDelayNanos();
+        return new StacProviderStats(circuitBreaker.state().name(),
+                hedgeDelay >= 0 ? TimeUnit.NANOSECONDS.toMillis(hedgeDelay) : -1,
+                attempts.sum(), failures.sum(), hedges.sum(), hedgeWins.sum(), rejected.sum());
+    }
+
     @Override
     public CatalogSearchResponse search(CatalogSearchRequest params) {
         try {
+            return searchAsync(params).toCompletableFuture().join();
+        } catch (CompletionException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof IllegalArgumentException malformed) {
+                throw malformed;
+            }
+            throw cause instanceof StacProviderException providerException
+                    ? providerException
+                    : new StacProviderException("Error searching Copernicus STAC catalog", cause);
+        }
+    }
+
+    @Override
+    public CompletionStage<CatalogSearchResponse> searchAsync(CatalogSearchRequest params) {
+        PreparedSearch search;
+        try {
+            search = prepareSearch(params);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e instanceof StacProviderException || e instanceof IllegalArgumentException
+                    ? e : new StacProviderException("Error building Copernicus STAC search request", e));
+        }
+
+        if (!circuitBreaker.tryAcquire()) {
+            return CompletableFuture.failedFuture(circuitOpen());
+        }
+
+        StacFieldFilter filter = StacFieldFilter.of(params.fields());
+        HedgedSearch hedged = sendHedged(search.request(), filter);
+        CompletableFuture<CatalogSearchResponse> response = hedged.result()
+                .thenApply(page -> {
+                    CatalogSearchResponse result = page.response();
+                    LOG.infof("Copernicus STAC search returned %d items (total matched: %d)",
+                            result.numberReturned(), result.numberMatched());
+                    return page.next() != null
+                            ? result.withNextCursor(encodeCursor(page.next(), search.body()))
+                            : result;
+                })
+                .whenComplete((result, e) -> {
+                    if (e != null && !(unwrap(e) instanceof CancellationException)) {
+                        LOG.errorf(unwrap(e), "Error searching Copernicus STAC catalog");
+                    }
+                });
+        return UpstreamCall.of(hedged.result(), response, hedged.settled());
+    }
+
+    @Override
+    public boolean supportsRelay() {
+        return true;
+    }
+
+    /**
+     * Sends the search once, without hedging (a streamed body cannot be raced), and completes
+     * with the response body unread as soon as a 200 response's headers arrive. The circuit
+     * breaker and the response status and upstream latency metrics count it like any search.
+     * Cancelling the returned stage aborts the exchange.
+     */
+    @Override
+    public CompletionStage<StacSearchRelay> relaySearchAsync(CatalogSearchRequest params) {
+        PreparedSearch search;
+        try {
+            search = prepareSearch(params);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e instanceof StacProviderException || e instanceof IllegalArgumentException
+                    ? e : new StacProviderException("Error building Copernicus STAC search request", e));
+        }
+
+        if (!circuitBreaker.tryAcquire()) {
+            return CompletableFuture.failedFuture(circuitOpen());
+        }
+
+        attempts.increment();
+        long start = System.nanoTime();
+        AtomicLong headersAt = new AtomicLong();
+        CompletableFuture<HttpResponse<InputStream>> exchange = httpClient.sendAsync(search.request(), info -> {
+                    headersAt.set(System.nanoTime());
+                    upstreamTimer.record(headersAt.get() - start, TimeUnit.NANOSECONDS);
+                    countResponse(Integer.toString(info.statusCode()));
+                    return info.statusCode() == 200
+                            ? HttpResponse.BodySubscribers.ofInputStream()
+                            : errorBodySubscriber(info, "search");
+                });
+        CompletableFuture<StacSearchRelay> relay = exchange
+                .whenComplete((response, error) -> {
+                    if (error == null) {
+                        circuitBreaker.onSuccess();
+                        return;
+                    }
+                    Throwable cause = unwrap(error);
+                    if (cause instanceof CancellationException) {
+                        circuitBreaker.onIgnored();
+                        return;
+                    }
+                    if (headersAt.get() == 0) {
+                        countResponse("none");
+                    }
+                    if (isUpstreamFault(cause)) {
+                        failures.increment();
+                        circuitBreaker.onFailure();
+                    } else {
+                        circuitBreaker.onSuccess();
+                    }
+                    LOG.errorf(cause, "Error relaying Copernicus STAC search");
+                })
+                .thenApply(response -> new StacSearchRelay(
+                        response.headers().firstValue("Content-Type").orElse("application/geo+json"),
+                        response.headers().firstValue("Content-Encoding").orElse(null),
+                        response.body()));
+        return UpstreamCall.of(exchange, relay, exchange);
+    }
+
+    /**
+     * Builds the upstream request for a search: a new /search POST, or the request for the
+     * next link carried by the cursor. Records the {@code build} stage.
+     */
+    private PreparedSearch prepareSearch(CatalogSearchRequest params) throws Exception {
+        long buildStart = System.nanoTime();
+        PreparedSearch search;
+        if (params.cursor() != null) {
+            StacLink next = decodeCursor(params.cursor());
+            LOG.infof("Fetching next Copernicus STAC page: %s", next.href());
+            search = new PreparedSearch(buildPageRequest(next), next.body());
+        } else {
             Map<String, Object> requestBody = buildSearchRequestBody(params);
             String jsonBody = objectMapper.writeValueAsString(requestBody);
 
             LOG.infof("Searching Copernicus STAC: %s/search", baseUrl);
             LOG.debugf("Request body: %s", jsonBody);
 
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(baseUrl + "/search"))
+            HttpRequest request = requestBuilder(URI.create(baseUrl + "/search"))
                     .header("Content-Type", "application/json")
                     .header("Accept", "application/geo+json")
-                    .timeout(REQUEST_TIMEOUT)
+                    .timeout(searchDeadline)
                     .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
                     .build();
+            search = new PreparedSearch(request, requestBody);
+        }
+        buildTimer.record(System.nanoTime() - buildStart, TimeUnit.NANOSECONDS);
+        return search;
+    }
+
+    /**
+     * An upstream search request together with the JSON body it carries, which page cursors
+     * are resolved against.
+     */
+    private record PreparedSearch(HttpRequest request, Map<String, Object> body) {}
+
+    private StacProviderUnavailableException circuitOpen() {
+        rejected.increment();
+        Duration retryAfter = circuitBreaker.retryAfter();
+        return new StacProviderUnavailableException(String.format(
+                "Copernicus STAC circuit is open after repeated failures; retrying in %ds",
+                retryAfter.toSeconds()), retryAfter);
+    }
 
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    /**
+     * Starts a request to the given URI, asking for a compressed response if enabled.
+     */
+    private HttpRequest.Builder requestBuilder(URI uri) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder().uri(uri);
+        if (compression) {
+            builder.header("Accept-Encoding", ACCEPT_ENCODING);
+        }
+        return builder;
+    }
 
-            if (response.statusCode() != 200) {
-                LOG.errorf("Copernicus STAC search failed with status %d: %s",
-                        response.statusCode(), response.body());
-                return CatalogSearchResponse.of(List.of(), 0);
+    /**
+     * Sends a search, and a second identical one if the first is still unanswered after the
+     * hedge delay. The first successful attempt completes the result and the other is
+     * cancelled; the result fails only once every attempt sent has failed. Cancelling the
+     * result cancels all attempts. The returned {@code settled} stage completes once every
+     * attempt sent has finished and no hedge can be sent any more.
+     */
+    private HedgedSearch sendHedged(HttpRequest request, StacFieldFilter filter) {
+        CompletableFuture<StacSearchPage> result = new CompletableFuture<>();
+        CompletableFuture<Void> settled = new CompletableFuture<>();
+        List<CompletableFuture<?>> sent = new CopyOnWriteArrayList<>();
+        AtomicInteger running = new AtomicInteger(1);
+        long hedgeDelay = hedgeDelayNanos();
+        // attempts not yet finished, plus the hedge decision while it is still open
+        AtomicInteger unsettled = new AtomicInteger(hedgeDelay >= 0 ? 2 : 1);
+        AtomicBoolean hedgeDecided = new AtomicBoolean(hedgeDelay < 0);
+        Runnable finished = () -> {
+            if (unsettled.decrementAndGet() == 0) {
+                settled.complete(null);
             }
+        };
 
-            return parseSearchResponse(response.body());
+        CompletableFuture<?> first = sendAttempt(request, filter, result, running, false);
+        sent.add(first);
+        first.whenComplete((response, error) -> finished.run());
 
-        } catch (Exception e) {
-            LOG.errorf(e, "Error searching Copernicus STAC catalog");
-            return CatalogSearchResponse.of(List.of(), 0);
+        if (hedgeDelay >= 0) {
+            CompletableFuture.delayedExecutor(hedgeDelay, TimeUnit.NANOSECONDS).execute(() -> {
+                if (!hedgeDecided.compareAndSet(false, true)) {
+                    return;
+                }
+                // no hedging while the breaker is probing, nor once every attempt has failed
+                if (result.isDone() || circuitBreaker.state() != CircuitBreaker.State.CLOSED
+                        || running.getAndUpdate(n -> n == 0 ? 0 : n + 1) == 0) {
+                    finished.run();
+                    return;
+                }
+                hedges.increment();
+                LOG.debugf("Hedging Copernicus STAC search after %d ms", TimeUnit.NANOSECONDS.toMillis(hedgeDelay));
+                CompletableFuture<?> hedge = sendAttempt(request, filter, result, running, true);
+                sent.add(hedge);
+                hedge.whenComplete((response, error) -> finished.run());
+                if (result.isDone()) {
+                    hedge.cancel(true);
+                }
+            });
+        }
+        result.whenComplete((page, error) -> {
+            sent.forEach(attempt -> attempt.cancel(true));
+            if (hedgeDecided.compareAndSet(false, true)) {
+                finished.run();
+            }
+        });
+        return new HedgedSearch(result, settled);
+    }
+
+    /**
+     * The shared result of a hedged search, and a stage completing once all its attempts have finished.
+     */
+    private record HedgedSearch(CompletableFuture<StacSearchPage> result, CompletableFuture<Void> settled) {}
+
+    /**
+     * Sends one search attempt, recording its latency and outcome, and completes the shared
+     * result on success or, if it was the last attempt running, on failure.
+     */
+    private CompletableFuture<HttpResponse<StacSearchPage>> sendAttempt(HttpRequest request, StacFieldFilter filter,
+                                                                       CompletableFuture<StacSearchPage> result,
+                                                                       AtomicInteger running, boolean hedge) {
+        attempts.increment();
+        long start = System.nanoTime();
+        AtomicLong headersAt = new AtomicLong();
+        CompletableFuture<HttpResponse<StacSearchPage>> attempt = httpClient.sendAsync(request, info -> {
+            headersAt.set(System.nanoTime());
+            upstreamTimer.record(headersAt.get() - start, TimeUnit.NANOSECONDS);
+            countResponse(Integer.toString(info.statusCode()));
+            return searchBodySubscriber(info, filter);
+        });
+        attempt.whenComplete((response, error) -> {
+            long now = System.nanoTime();
+            long elapsed = now - start;
+            if (error == null) {
+                StacSearchPage page = response.body();
+                parseTimer.record(now - headersAt.get(), TimeUnit.NANOSECONDS);
+                pageItems.record(page.response().numberReturned());
+                pageBytes.record(page.bodyBytes());
+                searchLatency.record(elapsed);
+                circuitBreaker.onSuccess();
+                if (result.complete(page) && hedge) {
+                    hedgeWins.increment();
+                }
+                return;
+            }
+            Throwable cause = unwrap(error);
+            if (headersAt.get() == 0 && !(cause instanceof CancellationException)) {
+                countResponse("none");
+            }
+            if (cause instanceof CancellationException) {
+                // a cancelled attempt took at least this long, which keeps slow tails in the percentile
+                searchLatency.record(elapsed);
+                circuitBreaker.onIgnored();
+            } else if (isUpstreamFault(cause)) {
+                failures.increment();
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+            if (running.decrementAndGet() == 0) {
+                result.completeExceptionally(cause);
+            }
+        });
+        return attempt;
+    }
+
+    private Timer stageTimer(String stage) {
+        return Timer.builder("catalog.search.stage")
+                .tag("stage", stage)
+                .tag("provider", getProviderId())
+                .description("Time spent in each stage of a catalog search")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Counts an upstream search response by HTTP status; "none" if the request failed without one.
+     */
+    private void countResponse(String status) {
+        Counter.builder("catalog.provider.responses")
+                .tag("provider", getProviderId())
+                .tag("status", status)
+                .description("Upstream search responses by HTTP status")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Returns the delay after which a search is hedged, or -1 if searches are not hedged (yet).
+     */
+    private long hedgeDelayNanos() {
+        long percentile = hedgeEnabled ? searchLatency.percentileNanos() : -1;
+        return percentile >= 0 ? Math.max(percentile, hedgeMinDelay.toNanos()) : -1;
+    }
+
+    /**
+     * Transport errors, malformed bodies, 429 and 5xx answers count against upstream health;
+     * other 4xx answers mean the upstream is up and rejected this request.
+     */
+    private static boolean isUpstreamFault(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof StacProviderException e && e.getStatusCode() != 0) {
+                return e.getStatusCode() == 429 || e.getStatusCode() >= 500;
+            }
         }
+        return true;
     }
 
     @Override
     public List<String> getCollections() {
         try {
-            LOG.infof("Fetching collections from Copernicus STAC: %s/collections", baseUrl);
+            return getCollections(null, null).collections();
+        } catch (StacProviderException e) {
+            LOG.errorf(e, "Error fetching Copernicus STAC collections");
+            return List.of();
+        }
+    }
 
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(baseUrl + "/collections"))
-                    .header("Accept", "application/json")
-                    .timeout(REQUEST_TIMEOUT)
-                    .GET()
-                    .build();
+    @Override
+    public StacCollectionsResponse getCollections(String etag, String lastModified) {
+        try {
+            return getCollectionsAsync(etag, lastModified).toCompletableFuture().join();
+        } catch (CompletionException e) {
+            Throwable cause = unwrap(e);
+            throw cause instanceof StacProviderException providerException
+                    ? providerException
+                    : new StacProviderException("Error fetching Copernicus STAC collections", cause);
+        }
+    }
 
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    @Override
+    public CompletionStage<StacCollectionsResponse> getCollectionsAsync(String etag, String lastModified) {
+        LOG.infof("Fetching collections from Copernicus STAC: %s/collections", baseUrl);
+
+        HttpRequest.Builder builder = requestBuilder(URI.create(baseUrl + "/collections"))
+                .header("Accept", "application/json")
+                .timeout(REQUEST_TIMEOUT)
+                .GET();
+        if (etag != null) {
+            builder.header("If-None-Match", etag);
+        }
+        if (lastModified != null) {
+            builder.header("If-Modified-Since", lastModified);
+        }
 
-            if (response.statusCode() != 200) {
-                LOG.errorf("Copernicus STAC collections request failed with status %d: %s",
-                        response.statusCode(), response.body());
-                return List.of();
-            }
+        return httpClient.sendAsync(builder.build(), info -> DecodingSubscriber.decoding(info,
+                        HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8)))
+                .thenApply(response -> {
+                    String responseEtag = response.headers().firstValue("ETag").orElse(etag);
+                    String responseLastModified = response.headers().firstValue("Last-Modified").orElse(lastModified);
+
+                    if (response.statusCode() == 304) {
+                        LOG.debug("Copernicus STAC collections not modified");
+                        return StacCollectionsResponse.notModified(responseEtag, responseLastModified);
+                    }
+
+                    if (response.statusCode() != 200) {
+                        throw new StacProviderException(String.format(
+                                "Copernicus STAC collections request failed with status %d: %s",
+                                response.statusCode(), truncate(response.body())), response.statusCode());
+                    }
+
+                    try {
+                        return new StacCollectionsResponse(parseCollectionsResponse(response.body()),
+                                responseEtag, responseLastModified, false);
+                    } catch (Exception e) {
+                        throw new StacProviderException("Invalid Copernicus STAC collections response", e);
+                    }
+                });
+    }
 
-            return parseCollectionsResponse(response.body());
+    /**
+     * Selects the body subscriber for a /search response: successful responses are decoded
+     * and parsed incrementally as chunks arrive, anything else fails with the (truncated) error body.
+     */
+    private HttpResponse.BodySubscriber<StacSearchPage> searchBodySubscriber(HttpResponse.ResponseInfo info,
+                                                                            StacFieldFilter filter) {
+        if (info.statusCode() == 200) {
+            return DecodingSubscriber.decoding(info, searchResponseParser.subscriber(filter));
+        }
+        return errorBodySubscriber(info, "search");
+    }
+
+    /**
+     * Reads an error response body and fails with it, truncated, as a {@link StacProviderException}.
+     */
+    private static <T> HttpResponse.BodySubscriber<T> errorBodySubscriber(HttpResponse.ResponseInfo info,
+                                                                         String operation) {
+        return DecodingSubscriber.decoding(info, HttpResponse.BodySubscribers.mapping(
+                HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8),
+                body -> {
+                    throw new StacProviderException(String.format(
+                            "Copernicus STAC %s failed with status %d: %s",
+                            operation, info.statusCode(), truncate(body)), info.statusCode());
+                }));
+    }
+
+    /**
+     * Builds the request that follows an upstream {@code rel=next} link. Only links back
+     * into the configured catalog are followed, since cursors come from clients.
+     */
+    private HttpRequest buildPageRequest(StacLink next) throws Exception {
+        if (!next.href().startsWith(baseUrl + "/")) {
+            throw new IllegalArgumentException("Malformed search cursor: it does not point into " + baseUrl);
+        }
+        HttpRequest.Builder builder = requestBuilder(URI.create(next.href()))
+                .header("Accept", "application/geo+json")
+                .timeout(searchDeadline);
+        if ("POST".equalsIgnoreCase(next.method())) {
+            builder.header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(next.body())));
+        } else {
+            builder.GET();
+        }
+        return builder.build();
+    }
 
+    /**
+     * Encodes a next link as an opaque page token. A link body marked {@code merge} is
+     * merged into the request body here, so the token is self-contained.
+     */
+    private String encodeCursor(StacLink next, Map<String, Object> requestBody) {
+        Map<String, Object> body = next.body();
+        if (next.merge() && requestBody != null) {
+            body = new HashMap<>(requestBody);
+            if (next.body() != null) {
+                body.putAll(next.body());
+            }
+        }
+        try {
+            StacLink resolved = new StacLink("next", next.href(), next.method(), body, false);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(resolved));
         } catch (Exception e) {
-            LOG.errorf(e, "Error fetching Copernicus STAC collections");
-            return List.of();
+            throw new StacProviderException("Cannot encode Copernicus STAC page cursor", e);
+        }
+    }
+
+    /**
+     * Decodes a page token handed back by a client.
+     *
+     * @throws IllegalArgumentException if the token is not one this provider issued
+     */
+    private StacLink decodeCursor(String cursor) {
+        StacLink next;
+        try {
+            next = objectMapper.readValue(Base64.getUrlDecoder().decode(cursor), StacLink.class);
+        } catch (IllegalArgumentException | IOException e) {
+            throw new IllegalArgumentException("Malformed search cursor", e);
+        }
+        if (next == null || next.href() == null) {
+            throw new IllegalArgumentException("Malformed search cursor: it has no next link");
         }
+        return next;
+    }
+
+    private static String truncate(String body) {
+        return body.length() > MAX_ERROR_BODY_CHARS ? body.substring(0, MAX_ERROR_BODY_CHARS) + "..." : body;
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
     }
 
     /**
@@ -136,42 +710,34 @@ public class CopernicusStacProvider implements StacProvider {
         }
 
         body.put("limit", params.limit());
+        body.put("sortby", SORT_BY);
+
+        if (fieldsExtension && params.fields() != null && !params.fields().isEmpty()) {
+            body.put("fields", buildFieldsRequestBody(params.fields()));
+        }
 
         return body;
     }
 
     /**
-     * Parses the STAC FeatureCollection response into a CatalogSearchResponse.
+     * Builds the STAC fields extension object. Fields the catalog merge relies on are
+     * added to a non-empty include list and left out of the exclude list, matching what
+     * {@link StacFieldFilter} keeps.
      */
-    private CatalogSearchResponse parseSearchResponse(String responseBody) throws Exception {
-        JsonNode root = objectMapper.readTree(responseBody);
-
-        // Parse features array into StacItem list
-        List<StacItem> items = new ArrayList<>();
-        JsonNode features = root.get("features");
-        if (features != null && features.isArray()) {
-            for (JsonNode feature : features) {
-                StacItem item = objectMapper.treeToValue(feature, StacItem.class);
-                items.add(item);
-            }
-        }
-
-        // Extract numberMatched from context if available
-        int numberMatched = items.size();
-        JsonNode context = root.get("context");
-        if (context != null && context.has("matched")) {
-            numberMatched = context.get("matched").asInt(items.size());
+    private Map<String, Object> buildFieldsRequestBody(CatalogSearchFields fields) {
+        Map<String, Object> body = new HashMap<>();
+        if (fields.include() != null && fields.include().length > 0) {
+            Set<String> include = new LinkedHashSet<>(Arrays.asList(fields.include()));
+            include.addAll(StacFieldFilter.ALWAYS_INCLUDED);
+            body.put("include", include);
         }
-        // Some STAC APIs use numberMatched at root level
-        JsonNode matchedNode = root.get("numberMatched");
-        if (matchedNode != null) {
-            numberMatched = matchedNode.asInt(items.size());
+        if (fields.exclude() != null && fields.exclude().length > 0) {
+            List<String> exclude = Arrays.stream(fields.exclude())
+                    .filter(path -> !StacFieldFilter.ALWAYS_INCLUDED.contains(path))
+                    .toList();
+            body.put("exclude", exclude);
         }
-
-        LOG.infof("Copernicus STAC search returned %d items (total matched: %d)",
-                items.size(), numberMatched);
-
-        return CatalogSearchResponse.of(items, numberMatched);
+        return body;
     }
 
     /**
@@ -0,0 +1,260 @@
+package com.gdmp.stac;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Body subscriber that decodes a gzip or deflate {@code Content-Encoding} as chunks arrive
+ * and passes the decoded bytes on to another subscriber, so a compressed body is parsed
+ * incrementally just like an uncompressed one.
+ *
+ * Every chunk received is passed on as one (possibly empty) decoded chunk, so demand from
+ * the downstream subscriber maps one-to-one onto upstream demand. A "deflate" body may be
+ * zlib-wrapped or raw deflate; the two are told apart by the zlib header.
+ */
+final class DecodingSubscriber<T> implements HttpResponse.BodySubscriber<T> {
+
+    private static final int OUTPUT_CHUNK_SIZE = 16 * 1024;
+    private static final int GZIP_MAGIC = 0x8b1f;
+    private static final int GZIP_TRAILER_BYTES = 8;
+
+    private enum State { HEADER, BODY, TRAILER, DONE, FAILED }
+
+    private final HttpResponse.BodySubscriber<T> downstream;
+    private final boolean gzip;
+    private final CRC32 crc = new CRC32();
+    private Inflater inflater;
+    private Flow.Subscription subscription;
+    private State state = State.HEADER;
+    /** Bytes of the gzip header, zlib header, or gzip trailer read so far. */
+    private byte[] pending = new byte[0];
+
+    private DecodingSubscriber(HttpResponse.BodySubscriber<T> downstream, boolean gzip) {
+        this.downstream = downstream;
+        this.gzip = gzip;
+    }
+
+    /**
+     * Wraps {@code downstream} in a decoder for the response's {@code Content-Encoding}, if any.
+     * A body in any other encoding fails with {@link ZipException}.
+     */
+    static <T> HttpResponse.BodySubscriber<T> decoding(HttpResponse.ResponseInfo info,
+                                                      HttpResponse.BodySubscriber<T> downstream) {
+        String encoding = info.headers().firstValue("Content-Encoding")
+                .map(value -> value.trim().toLowerCase(Locale.ROOT))
+                .orElse("identity");
+        return switch (encoding) {
+            case "identity", "" -> downstream;
+            case "gzip", "x-gzip" -> new DecodingSubscriber<>(downstream, true);
+            case "deflate" -> new DecodingSubscriber<>(downstream, false);
+            default -> HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.discarding(), ignored -> {
+                throw new StacProviderException("Unsupported response Content-Encoding " + encoding);
+            });
+        };
+    }
+
+    /**
+     * Returns whether two bytes start a zlib stream (deflate method, valid header checksum)
+     * rather than raw deflate data.
+     */
+    static boolean isZlibHeader(int first, int second) {
+        return (first & 0x0f) == 8 && ((first & 0xff) << 8 | (second & 0xff)) % 31 == 0;
+    }
+
+    @Override
+    public CompletionStage<T> getBody() {
+        return downstream.getBody();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        downstream.onSubscribe(subscription);
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> buffers) {
+        if (state == State.FAILED) {
+            return;
+        }
+        List<ByteBuffer> decoded = new ArrayList<>();
+        try {
+            for (ByteBuffer buffer : buffers) {
+                decode(buffer, decoded);
+            }
+        } catch (IOException | DataFormatException e) {
+            fail(e instanceof IOException io ? io : new ZipException(e.getMessage()));
+            subscription.cancel();
+            return;
+        }
+        downstream.onNext(decoded);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        if (state != State.FAILED) {
+            state = State.FAILED;
+            end();
+            downstream.onError(throwable);
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        if (state == State.FAILED) {
+            return;
+        }
+        // an empty body (e.g. of a 304) carries a Content-Encoding header but no encoded data
+        boolean empty = state == State.HEADER && pending.length == 0;
+        if (state != State.DONE && !empty) {
+            fail(new EOFException("Compressed response body ended early"));
+            return;
+        }
+        end();
+        downstream.onComplete();
+    }
+
+    private void decode(ByteBuffer buffer, List<ByteBuffer> decoded) throws IOException, DataFormatException {
+        while (buffer.hasRemaining()) {
+            switch (state) {
+                case HEADER -> readHeader(buffer);
+                case BODY -> inflate(buffer, decoded);
+                case TRAILER -> readTrailer(buffer);
+                // bytes after the end of the compressed stream are ignored
+                case DONE, FAILED -> buffer.position(buffer.limit());
+            }
+        }
+    }
+
+    private void readHeader(ByteBuffer buffer) throws IOException {
+        while (headerLength() < 0) {
+            if (!buffer.hasRemaining()) {
+                return;
+            }
+            append(buffer, 1);
+        }
+        if (gzip) {
+            inflater = new Inflater(true);
+        } else {
+            // the zlib header is part of the stream, and raw deflate has none: feed both bytes
+            inflater = new Inflater(!isZlibHeader(pending[0], pending[1]));
+            inflater.setInput(pending);
+        }
+        pending = new byte[0];
+        state = State.BODY;
+    }
+
+    /**
+     * Returns the length of the header held in {@code pending}, or -1 if more bytes are needed.
+     */
+    private int headerLength() throws ZipException {
+        return gzip ? gzipHeaderLength() : pending.length >= 2 ? 2 : -1;
+    }
+
+    /**
+     * Returns the length of the gzip header held in {@code pending}, or -1 if more bytes are needed.
+     */
+    private int gzipHeaderLength() throws ZipException {
+        if (pending.length < 10) {
+            return -1;
+        }
+        if (((pending[1] & 0xff) << 8 | (pending[0] & 0xff)) != GZIP_MAGIC || pending[2] != 8) {
+            throw new ZipException("Not in gzip format");
+        }
+        int flags = pending[3] & 0xff;
+        int at = 10;
+        if ((flags & 4) != 0) {
+            if (pending.length < at + 2) {
+                return -1;
+            }
+            at += 2 + ((pending[at] & 0xff) | (pending[at + 1] & 0xff) << 8);
+        }
+        for (int flag : new int[] {8, 16}) {
+            if ((flags & flag) != 0) {
+                // zero-terminated file name or comment
+                do {
+                    if (at >= pending.length) {
+                        return -1;
+                    }
+                } while (pending[at++] != 0);
+            }
+        }
+        if ((flags & 2) != 0) {
+            at += 2;
+        }
+        return pending.length >= at ? at : -1;
+    }
+
+    private void inflate(ByteBuffer buffer, List<ByteBuffer> decoded) throws DataFormatException {
+        while (true) {
+            if (inflater.needsInput()) {
+                if (!buffer.hasRemaining()) {
+                    return;
+                }
+                // the inflater advances the buffer as it consumes it
+                inflater.setInput(buffer);
+            }
+            ByteBuffer out = ByteBuffer.allocate(OUTPUT_CHUNK_SIZE);
+            if (inflater.inflate(out) > 0) {
+                out.flip();
+                if (gzip) {
+                    crc.update(out.duplicate());
+                }
+                decoded.add(out);
+            }
+            if (inflater.finished()) {
+                state = gzip ? State.TRAILER : State.DONE;
+                return;
+            }
+            if (inflater.needsDictionary()) {
+                throw new DataFormatException("Preset dictionaries are not supported");
+            }
+        }
+    }
+
+    private void readTrailer(ByteBuffer buffer) throws ZipException {
+        append(buffer, GZIP_TRAILER_BYTES - pending.length);
+        if (pending.length < GZIP_TRAILER_BYTES) {
+            return;
+        }
+        long expectedCrc = (pending[0] & 0xffL) | (pending[1] & 0xffL) << 8
+                | (pending[2] & 0xffL) << 16 | (pending[3] & 0xffL) << 24;
+        long expectedSize = (pending[4] & 0xffL) | (pending[5] & 0xffL) << 8
+                | (pending[6] & 0xffL) << 16 | (pending[7] & 0xffL) << 24;
+        if (expectedCrc != crc.getValue() || expectedSize != (inflater.getBytesWritten() & 0xffffffffL)) {
+            throw new ZipException("Corrupt gzip trailer");
+        }
+        state = State.DONE;
+    }
+
+    private void append(ByteBuffer buffer, int max) {
+        int n = Math.min(max, buffer.remaining());
+        byte[] grown = new byte[pending.length + n];
+        System.arraycopy(pending, 0, grown, 0, pending.length);
+        buffer.get(grown, pending.length, n);
+        pending = grown;
+    }
+
+    private void fail(IOException error) {
+        state = State.FAILED;
+        end();
+        downstream.onError(error);
+    }
+
+    private void end() {
+        if (inflater != null) {
+            inflater.end();
+        }
+    }
+}
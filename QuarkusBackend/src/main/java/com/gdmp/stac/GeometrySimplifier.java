@@ -0,0 +1,319 @@
+package com.gdmp.stac;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Zoom-level simplification of {@link StacGeometry} footprints for display.
+ *
+ * Level {@code z} uses a tolerance of {@code 360 / (256 * 2^z)} degrees, about one screen
+ * pixel at web map zoom {@code z} at the equator. Each ring or line is reduced with
+ * Douglas-Peucker at that tolerance, then its coordinates are rounded to the fewest decimal
+ * places finer than the tolerance, which shortens the JSON as well as dropping vertices.
+ *
+ * Simplification preserves topology: a polygon ring must keep at least four positions, its
+ * orientation, and a non-zero area, and no ring or line may cross itself or another part of
+ * the geometry. A geometry failing any of that is simplified at the next finer level instead,
+ * down to the original geometry. Points are only rounded.
+ */
+public final class GeometrySimplifier {
+
+    /** Finest level; its tolerance is about 1 cm. */
+    public static final int MAX_LEVEL = 24;
+
+    private GeometrySimplifier() {
+    }
+
+    /**
+     * Returns the level a search asks for: {@code zoom} if given, otherwise the level whose
+     * tolerance is nearest {@code tolerance} (on a log scale), or -1 for no simplification.
+     *
+     * @param tolerance simplification tolerance in degrees, or null
+     * @param zoom      web map zoom level, or null
+     */
+    public static int level(Double tolerance, Integer zoom) {
+        if (zoom != null) {
+            return Math.max(0, Math.min(MAX_LEVEL, zoom));
+        }
+        if (tolerance == null || !(tolerance > 0)) {
+            return -1;
+        }
+        long level = Math.round(Math.log(tolerance(0) / tolerance) / Math.log(2));
+        return (int) Math.max(0, Math.min(MAX_LEVEL, level));
+    }
+
+    /**
+     * Returns the simplification tolerance of a level, in degrees.
+     */
+    public static double tolerance(int level) {
+        return 360.0 / (256L << level);
+    }
+
+    /**
+     * Simplifies a geometry at the given level, falling back to finer levels (through
+     * {@link StacGeometry#simplified}, so they are cached too) if the result is not valid.
+     */
+    static StacGeometry simplify(StacGeometry geometry, int level) {
+        if (level > MAX_LEVEL) {
+            return geometry;
+        }
+        if (geometry.getGeometries() != null) {
+            List<StacGeometry> members = new ArrayList<>(geometry.getGeometries().size());
+            for (StacGeometry member : geometry.getGeometries()) {
+                members.add(member.simplified(level));
+            }
+            return new StacGeometry(members);
+        }
+        double tolerance = tolerance(level);
+        double scale = Math.pow(10, Math.max(0, Math.ceil(-Math.log10(tolerance))));
+        StacGeometry simplified = switch (geometry.getDepth()) {
+            case 1 -> quantizeAll(geometry, scale);
+            case 2 -> geometry.getType().equals("MultiPoint")
+                    ? quantizeAll(geometry, scale)
+                    : simplifyParts(geometry, tolerance, scale, false);
+            case 3, 4 -> simplifyParts(geometry, tolerance, scale, geometry.getType().endsWith("Polygon"));
+            default -> geometry;
+        };
+        return simplified != null ? simplified : geometry.simplified(level + 1);
+    }
+
+    private static StacGeometry quantizeAll(StacGeometry geometry, double scale) {
+        double[] coordinates = geometry.getPackedCoordinates().clone();
+        int dimension = geometry.getDimension();
+        for (int i = 0; i < coordinates.length; i += dimension) {
+            coordinates[i] = Math.round(coordinates[i] * scale) / scale;
+            coordinates[i + 1] = Math.round(coordinates[i + 1] * scale) / scale;
+        }
+        return new StacGeometry(geometry.getType(), geometry.getDepth(), dimension, coordinates,
+                geometry.getDepth() >= 3 ? geometry.getPartOffsets() : null,
+                geometry.getDepth() == 4 ? geometry.getPolygonOffsets() : null);
+    }
+
+    /**
+     * Simplifies and rounds every part, or returns null if the result is not valid.
+     */
+    private static StacGeometry simplifyParts(StacGeometry geometry, double tolerance, double scale, boolean rings) {
+        int dimension = geometry.getDimension();
+        int parts = geometry.getPartCount();
+        double[] out = new double[geometry.getPackedCoordinates().length];
+        int[] offsets = new int[parts + 1];
+        int positions = 0;
+        for (int part = 0; part < parts; part++) {
+            int start = geometry.getPartStart(part);
+            int end = geometry.getPartEnd(part);
+            boolean[] keep = rings ? keepRing(geometry, start, end, tolerance) : keepLine(geometry, start, end, tolerance);
+            int partStart = positions;
+            for (int position = start; position < end; position++) {
+                if (!keep[position - start]) {
+                    continue;
+                }
+                double x = Math.round(geometry.getX(position) * scale) / scale;
+                double y = Math.round(geometry.getY(position) * scale) / scale;
+                int last = (positions - 1) * dimension;
+                if (positions > partStart && out[last] == x && out[last + 1] == y) {
+                    // rounding merged this position into the previous one
+                    continue;
+                }
+                int at = positions * dimension;
+                out[at] = x;
+                out[at + 1] = y;
+                if (dimension > 2) {
+                    System.arraycopy(geometry.getPackedCoordinates(), position * dimension + 2, out, at + 2, dimension - 2);
+                }
+                positions++;
+            }
+            offsets[part + 1] = positions;
+            int kept = positions - partStart;
+            if (kept < (rings ? 4 : 2)) {
+                return null;
+            }
+            if (rings && Math.signum(signedArea(out, dimension, partStart, positions))
+                    != Math.signum(signedArea(geometry.getPackedCoordinates(), dimension, start, end))) {
+                return null;
+            }
+        }
+
+        double[] coordinates = Arrays.copyOf(out, positions * dimension);
+        if (crosses(coordinates, dimension, offsets, rings)) {
+            return null;
+        }
+        int depth = geometry.getDepth();
+        return new StacGeometry(geometry.getType(), depth, dimension, coordinates,
+                depth >= 3 ? offsets : null, depth == 4 ? geometry.getPolygonOffsets() : null);
+    }
+
+    /**
+     * Marks the positions of a closed ring to keep: the ring is split at the position farthest
+     * from its first one and each half is simplified as a line, so both ends always stay.
+     */
+    private static boolean[] keepRing(StacGeometry geometry, int start, int end, double tolerance) {
+        if (end - start < 4) {
+            return keepAll(end - start);
+        }
+        int farthest = start + 1;
+        double farthestDistance = -1;
+        for (int position = start + 1; position < end - 1; position++) {
+            double dx = geometry.getX(position) - geometry.getX(start);
+            double dy = geometry.getY(position) - geometry.getY(start);
+            double distance = dx * dx + dy * dy;
+            if (distance > farthestDistance) {
+                farthestDistance = distance;
+                farthest = position;
+            }
+        }
+        boolean[] keep = new boolean[end - start];
+        douglasPeucker(geometry, start, start, farthest, tolerance, keep);
+        douglasPeucker(geometry, start, farthest, end - 1, tolerance, keep);
+        return keep;
+    }
+
+    private static boolean[] keepLine(StacGeometry geometry, int start, int end, double tolerance) {
+        if (end - start < 3) {
+            return keepAll(end - start);
+        }
+        boolean[] keep = new boolean[end - start];
+        douglasPeucker(geometry, start, start, end - 1, tolerance, keep);
+        return keep;
+    }
+
+    private static boolean[] keepAll(int count) {
+        boolean[] keep = new boolean[count];
+        Arrays.fill(keep, true);
+        return keep;
+    }
+
+    /**
+     * Marks the positions from {@code first} to {@code last} (inclusive) that Douglas-Peucker
+     * keeps at the given tolerance. Iterative, so long rings cannot overflow the stack.
+     */
+    private static void douglasPeucker(StacGeometry geometry, int base, int first, int last,
+                                       double tolerance, boolean[] keep) {
+        keep[first - base] = true;
+        keep[last - base] = true;
+        double toleranceSquared = tolerance * tolerance;
+        int[] stack = new int[Math.max(16, 2 * (last - first + 1))];
+        int top = 0;
+        stack[top++] = first;
+        stack[top++] = last;
+        while (top > 0) {
+            int to = stack[--top];
+            int from = stack[--top];
+            int farthest = -1;
+            double farthestDistance = toleranceSquared;
+            for (int position = from + 1; position < to; position++) {
+                double distance = segmentDistanceSquared(geometry.getX(position), geometry.getY(position),
+                        geometry.getX(from), geometry.getY(from), geometry.getX(to), geometry.getY(to));
+                if (distance > farthestDistance) {
+                    farthestDistance = distance;
+                    farthest = position;
+                }
+            }
+            if (farthest >= 0) {
+                keep[farthest - base] = true;
+                stack[top++] = from;
+                stack[top++] = farthest;
+                stack[top++] = farthest;
+                stack[top++] = to;
+            }
+        }
+    }
+
+    private static double segmentDistanceSquared(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared > 0 ? ((px - ax) * dx + (py - ay) * dy) / lengthSquared : 0;
+        t = Math.max(0, Math.min(1, t));
+        double ex = px - (ax + t * dx);
+        double ey = py - (ay + t * dy);
+        return ex * ex + ey * ey;
+    }
+
+    private static double signedArea(double[] coordinates, int dimension, int start, int end) {
+        double area = 0;
+        for (int i = start; i < end - 1; i++) {
+            area += coordinates[i * dimension] * coordinates[(i + 1) * dimension + 1]
+                    - coordinates[(i + 1) * dimension] * coordinates[i * dimension + 1];
+        }
+        return area / 2;
+    }
+
+    /**
+     * Checks whether any two segments of the geometry intersect, other than consecutive
+     * segments of one part meeting at their shared position (and, in a ring, the first and
+     * last segment meeting at the closing position).
+     */
+    private static boolean crosses(double[] coordinates, int dimension, int[] offsets, boolean rings) {
+        int parts = offsets.length - 1;
+        for (int a = 0; a < parts; a++) {
+            for (int b = a; b < parts; b++) {
+                for (int i = offsets[a]; i < offsets[a + 1] - 1; i++) {
+                    int firstJ = a == b ? i + 1 : offsets[b];
+                    for (int j = firstJ; j < offsets[b + 1] - 1; j++) {
+                        boolean adjacent = a == b && (j == i + 1
+                                || (rings && i == offsets[a] && j == offsets[a + 1] - 2));
+                        if (segmentsIntersect(coordinates, dimension, i, j, adjacent)) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tests segments {@code i -> i+1} and {@code j -> j+1} for intersection. Adjacent segments
+     * share an endpoint, so for them only a fold back along the shared line counts.
+     */
+    private static boolean segmentsIntersect(double[] c, int dimension, int i, int j, boolean adjacent) {
+        double ax = c[i * dimension], ay = c[i * dimension + 1];
+        double bx = c[(i + 1) * dimension], by = c[(i + 1) * dimension + 1];
+        double cx = c[j * dimension], cy = c[j * dimension + 1];
+        double dx = c[(j + 1) * dimension], dy = c[(j + 1) * dimension + 1];
+        if (Math.max(ax, bx) < Math.min(cx, dx) || Math.max(cx, dx) < Math.min(ax, bx)
+                || Math.max(ay, by) < Math.min(cy, dy) || Math.max(cy, dy) < Math.min(ay, by)) {
+            return false;
+        }
+        double d1 = orientation(cx, cy, dx, dy, ax, ay);
+        double d2 = orientation(cx, cy, dx, dy, bx, by);
+        double d3 = orientation(ax, ay, bx, by, cx, cy);
+        double d4 = orientation(ax, ay, bx, by, dx, dy);
+        if (adjacent) {
+            // the segments share one endpoint; they overlap only if they are collinear and fold back
+            if (d1 != 0 || d2 != 0) {
+                return false;
+            }
+            double[] shared = sharedEndpoint(ax, ay, bx, by, cx, cy, dx, dy);
+            double ux = (ax == shared[0] && ay == shared[1] ? bx : ax) - shared[0];
+            double uy = (ax == shared[0] && ay == shared[1] ? by : ay) - shared[1];
+            double vx = (cx == shared[0] && cy == shared[1] ? dx : cx) - shared[0];
+            double vy = (cx == shared[0] && cy == shared[1] ? dy : cy) - shared[1];
+            return ux * vx + uy * vy > 0;
+        }
+        if (((d1 > 0 && d2 < 0) || (d1 < 0 && d2 > 0)) && ((d3 > 0 && d4 < 0) || (d3 < 0 && d4 > 0))) {
+            return true;
+        }
+        return (d1 == 0 && onSegment(cx, cy, dx, dy, ax, ay))
+                || (d2 == 0 && onSegment(cx, cy, dx, dy, bx, by))
+                || (d3 == 0 && onSegment(ax, ay, bx, by, cx, cy))
+                || (d4 == 0 && onSegment(ax, ay, bx, by, dx, dy));
+    }
+
+    private static double[] sharedEndpoint(double ax, double ay, double bx, double by,
+                                           double cx, double cy, double dx, double dy) {
+        if ((ax == cx && ay == cy) || (ax == dx && ay == dy)) {
+            return new double[] {ax, ay};
+        }
+        return new double[] {bx, by};
+    }
+
+    private static double orientation(double ax, double ay, double bx, double by, double px, double py) {
+        return (bx - ax) * (py - ay) - (by - ay) * (px - ax);
+    }
+
+    private static boolean onSegment(double ax, double ay, double bx, double by, double px, double py) {
+        return Math.min(ax, bx) <= px && px <= Math.max(ax, bx) && Math.min(ay, by) <= py && py <= Math.max(ay, by);
+    }
+}
@@ -0,0 +1,63 @@
+package com.gdmp.stac;
+
+import java.util.Arrays;
+
+/**
+ * Rolling latency percentile over the most recent samples.
+ *
+ * Samples go into a fixed ring buffer; the percentile is recomputed from a sorted copy
+ * of the buffer every {@link #RECOMPUTE_EVERY} samples rather than on every read, which
+ * is precise enough for picking a hedge delay and keeps reads constant time.
+ */
+final class LatencyTracker {
+
+    private static final int RECOMPUTE_EVERY = 16;
+
+    private final long[] samples;
+    private final double percentile;
+    private final int minSamples;
+
+    private int count;
+    private int next;
+    private int sinceRecompute;
+    private long current = -1;
+
+    /**
+     * @param windowSize number of most recent samples kept
+     * @param percentile percentile to report, between 0 and 100
+     * @param minSamples samples needed before a percentile is reported
+     */
+    LatencyTracker(int windowSize, double percentile, int minSamples) {
+        this.samples = new long[windowSize];
+        this.percentile = percentile;
+        this.minSamples = Math.min(minSamples, windowSize);
+    }
+
+    synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+        if (++sinceRecompute >= RECOMPUTE_EVERY || current < 0) {
+            recompute();
+        }
+    }
+
+    /**
+     * Returns the percentile in nanoseconds, or -1 while fewer than {@code minSamples} were recorded.
+     */
+    synchronized long percentileNanos() {
+        return current;
+    }
+
+    private void recompute() {
+        sinceRecompute = 0;
+        if (count < minSamples) {
+            current = -1;
+            return;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * count) - 1;
+        current = sorted[Math.max(0, Math.min(count - 1, rank))];
+    }
+}
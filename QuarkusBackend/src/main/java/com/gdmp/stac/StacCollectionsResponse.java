@@ -0,0 +1,28 @@
+package com.gdmp.stac;
+
+import java.util.List;
+
+/**
+ * Result of a conditional /collections request against a STAC provider.
+ * Carries the upstream cache validators so the next request can be made conditional.
+ */
+public record StacCollectionsResponse(
+        /** Collection IDs; empty when {@code notModified} is true */
+        List<String> collections,
+
+        /** Upstream ETag header value, if any */
+        String etag,
+
+        /** Upstream Last-Modified header value, if any */
+        String lastModified,
+
+        /** True if the upstream answered 304 Not Modified */
+        boolean notModified
+) {
+    /**
+     * Factory method for a 304 Not Modified result.
+     */
+    public static StacCollectionsResponse notModified(String etag, String lastModified) {
+        return new StacCollectionsResponse(List.of(), etag, lastModified, true);
+    }
+}
@@ -0,0 +1,108 @@
+package com.gdmp.stac;
+
+import com.gdmp.model.dto.CatalogSearchFields;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decides which fields of a STAC item to keep for a {@link CatalogSearchFields} projection,
+ * with the semantics of the STAC API fields extension.
+ *
+ * The longest include or exclude path that equals or encloses a field decides whether it
+ * is kept (include wins if the same path is listed in both). Fields no path applies to are
+ * kept unless an include list was given. An object that has a differently-decided path below
+ * it is kept and filtered field by field. {@link #ALWAYS_INCLUDED} fields are never dropped,
+ * since catalog results are de-duplicated by ID and ordered by datetime.
+ */
+public final class StacFieldFilter {
+
+    public static final List<String> ALWAYS_INCLUDED = List.of(
+            "id", "properties.datetime", "properties.start_datetime");
+
+    /** How a field is treated. */
+    public enum Decision {
+        /** Keep the field and everything below it */
+        INCLUDE,
+        /** Drop the field */
+        EXCLUDE,
+        /** Keep the field; if it is an object, decide each of its fields separately */
+        PARTIAL
+    }
+
+    private static final int INCLUDE_BIT = 1;
+    private static final int EXCLUDE_BIT = 2;
+
+    /** Action of every listed path. */
+    private final Map<String, Decision> rules = new HashMap<>();
+    /** For each ancestor of a listed path, the actions listed below it. */
+    private final Map<String, Integer> descendantActions = new HashMap<>();
+    private final Decision unmatched;
+
+    private StacFieldFilter(String[] include, String[] exclude) {
+        boolean hasInclude = false;
+        if (exclude != null) {
+            for (String path : exclude) {
+                addRule(path, Decision.EXCLUDE);
+            }
+        }
+        if (include != null) {
+            for (String path : include) {
+                hasInclude |= addRule(path, Decision.INCLUDE);
+            }
+        }
+        for (String path : ALWAYS_INCLUDED) {
+            addRule(path, Decision.INCLUDE);
+        }
+        this.unmatched = hasInclude ? Decision.EXCLUDE : Decision.INCLUDE;
+    }
+
+    /**
+     * Compiles a projection, or returns null if it does not restrict anything.
+     */
+    public static StacFieldFilter of(CatalogSearchFields fields) {
+        if (fields == null || fields.isEmpty()) {
+            return null;
+        }
+        return new StacFieldFilter(fields.include(), fields.exclude());
+    }
+
+    /**
+     * Decides how to treat the field at the given dot-separated path.
+     */
+    public Decision decide(String path) {
+        Decision own = unmatched;
+        for (String candidate = path; candidate != null; candidate = parentOf(candidate)) {
+            Decision rule = rules.get(candidate);
+            if (rule != null) {
+                own = rule;
+                break;
+            }
+        }
+        Integer below = descendantActions.get(path);
+        if (below == null) {
+            return own;
+        }
+        int ownBit = own == Decision.INCLUDE ? INCLUDE_BIT : EXCLUDE_BIT;
+        return (below & ~ownBit) != 0 ? Decision.PARTIAL : own;
+    }
+
+    private boolean addRule(String path, Decision decision) {
+        if (path == null || path.isBlank()) {
+            return false;
+        }
+        String trimmed = path.trim();
+        rules.put(trimmed, decision);
+        int bit = decision == Decision.INCLUDE ? INCLUDE_BIT : EXCLUDE_BIT;
+        for (String parent = parentOf(trimmed); parent != null; parent = parentOf(parent)) {
+            descendantActions.merge(parent, bit, (a, b) -> a | b);
+        }
+        return true;
+    }
+
+    private static String parentOf(String path) {
+        int dot = path.lastIndexOf('.');
+        return dot < 0 ? null : path.substring(0, dot);
+    }
+}
@@ -1,38 +1,174 @@
 package com.gdmp.stac;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
 import java.util.List;
 
 /**
  * GeoJSON geometry representation for STAC items.
- * Typically a Polygon with coordinates as a list of linear rings,
- * where each ring is a list of [longitude, latitude] coordinate pairs.
+ *
+ * Coordinates are packed into one flat {@code double[]} ({@code dimension} values per
+ * position) instead of nested lists of boxed doubles. The nesting of the GeoJSON
+ * {@code coordinates} array is kept as offsets:
+ * <ul>
+ *   <li>depth 1 (Point): a single position</li>
+ *   <li>depth 2 (LineString, MultiPoint): all positions form one sequence</li>
+ *   <li>depth 3 (Polygon, MultiLineString): {@code partOffsets} gives the first position of
+ *       each ring/line, plus a trailing end offset</li>
+ *   <li>depth 4 (MultiPolygon): additionally {@code polygonOffsets} gives the first part of
+ *       each polygon, plus a trailing end offset</li>
+ * </ul>
+ * A GeometryCollection has depth 0 and holds its members in {@code geometries}.
+ * {@link StacGeometrySerializer} and {@link StacGeometryDeserializer} read and write
+ * standard GeoJSON, so the JSON shape is unchanged.
+ *
+ * Simplified versions for display (see {@link GeometrySimplifier}) are computed on first use
+ * and kept with the geometry, one per level.
  */
+@JsonSerialize(using = StacGeometrySerializer.class)
+@JsonDeserialize(using = StacGeometryDeserializer.class)
 public class StacGeometry {
 
-    private String type;
-    private List<List<List<Double>>> coordinates;
+    private static final int[] NO_OFFSETS = new int[0];
 
-    public StacGeometry() {
-    }
+    private final String type;
+    private final int depth;
+    private final int dimension;
+    private final double[] coordinates;
+    private final int[] partOffsets;
+    private final int[] polygonOffsets;
+    private final List<StacGeometry> geometries;
+    /** Simplified versions by level, created on first use; entries are filled in lazily. */
+    private volatile StacGeometry[] simplified;
 
-    public StacGeometry(String type, List<List<List<Double>>> coordinates) {
+    /**
+     * Creates a geometry from packed coordinates.
+     *
+     * @param type           GeoJSON geometry type, e.g. "Polygon"
+     * @param depth          nesting depth of the GeoJSON coordinates array (1-4), 0 if empty
+     * @param dimension      values per position, 2 or 3
+     * @param coordinates    packed position values
+     * @param partOffsets    first position of each part plus end offset; required for depth 3 and 4
+     * @param polygonOffsets first part of each polygon plus end offset; required for depth 4
+     */
+    public StacGeometry(String type, int depth, int dimension, double[] coordinates,
+                        int[] partOffsets, int[] polygonOffsets) {
         this.type = type;
+        this.depth = depth;
+        this.dimension = dimension;
         this.coordinates = coordinates;
+        this.partOffsets = partOffsets != null ? partOffsets : NO_OFFSETS;
+        this.polygonOffsets = polygonOffsets != null ? polygonOffsets : NO_OFFSETS;
+        this.geometries = null;
+    }
+
+    /**
+     * Creates a GeometryCollection.
+     */
+    public StacGeometry(List<StacGeometry> geometries) {
+        this.type = "GeometryCollection";
+        this.depth = 0;
+        this.dimension = 2;
+        this.coordinates = new double[0];
+        this.partOffsets = NO_OFFSETS;
+        this.polygonOffsets = NO_OFFSETS;
+        this.geometries = List.copyOf(geometries);
+    }
+
+    /**
+     * Creates a single-ring polygon from interleaved lon/lat values.
+     */
+    public static StacGeometry polygon(double... lonLat) {
+        return new StacGeometry("Polygon", 3, 2, lonLat, new int[] {0, lonLat.length / 2}, null);
     }
 
     public String getType() {
         return type;
     }
 
-    public void setType(String type) {
-        this.type = type;
+    /** Nesting depth of the GeoJSON coordinates array; 0 for empty geometries and collections. */
+    public int getDepth() {
+        return depth;
     }
 
-    public List<List<List<Double>>> getCoordinates() {
+    /** Number of values per position (2 for lon/lat, 3 with elevation). */
+    public int getDimension() {
+        return dimension;
+    }
+
+    /** Packed position values; not copied, callers must not modify it. */
+    public double[] getPackedCoordinates() {
         return coordinates;
     }
 
-    public void setCoordinates(List<List<List<Double>>> coordinates) {
-        this.coordinates = coordinates;
+    public int getPositionCount() {
+        return coordinates.length / dimension;
+    }
+
+    public double getX(int position) {
+        return coordinates[position * dimension];
+    }
+
+    public double getY(int position) {
+        return coordinates[position * dimension + 1];
+    }
+
+    /** Part (ring/line) start offsets plus end offset; empty below depth 3. */
+    public int[] getPartOffsets() {
+        return partOffsets;
+    }
+
+    /** Polygon start offsets (in parts) plus end offset; empty below depth 4. */
+    public int[] getPolygonOffsets() {
+        return polygonOffsets;
+    }
+
+    /** Number of rings/lines; a depth 2 geometry counts as one part. */
+    public int getPartCount() {
+        if (depth >= 3) {
+            return partOffsets.length - 1;
+        }
+        return depth == 2 ? 1 : 0;
+    }
+
+    /** First position of the given part. */
+    public int getPartStart(int part) {
+        return depth >= 3 ? partOffsets[part] : 0;
+    }
+
+    /** Position after the last one of the given part. */
+    public int getPartEnd(int part) {
+        return depth >= 3 ? partOffsets[part + 1] : getPositionCount();
+    }
+
+    /** Member geometries of a GeometryCollection, or null for any other type. */
+    public List<StacGeometry> getGeometries() {
+        return geometries;
+    }
+
+    /**
+     * Returns this geometry simplified for display at the given level, computing it on first
+     * use. Geometries are immutable, so callers racing on a level may each compute it, but
+     * all get an equal result.
+     *
+     * @param level simplification level, 0 to {@link GeometrySimplifier#MAX_LEVEL}; finer
+     *              levels return this geometry
+     */
+    public StacGeometry simplified(int level) {
+        if (level > GeometrySimplifier.MAX_LEVEL) {
+            return this;
+        }
+        StacGeometry[] cache = simplified;
+        if (cache == null) {
+            cache = new StacGeometry[GeometrySimplifier.MAX_LEVEL + 1];
+            simplified = cache;
+        }
+        StacGeometry result = cache[level];
+        if (result == null) {
+            result = GeometrySimplifier.simplify(this, level);
+            cache[level] = result;
+        }
+        return result;
     }
 }
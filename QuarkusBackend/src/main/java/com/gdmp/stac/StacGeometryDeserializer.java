@@ -0,0 +1,191 @@
+package com.gdmp.stac;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads a standard GeoJSON geometry object into a packed {@link StacGeometry}.
+ *
+ * The {@code coordinates} array is streamed straight into a flat {@code double[]};
+ * its nesting depth is detected from the data, so {@code type} may appear before or
+ * after it. Positions take the dimension of the first position; missing values in
+ * later positions read as NaN and extra values are dropped.
+ */
+public class StacGeometryDeserializer extends StdDeserializer<StacGeometry> {
+
+    private static final int MAX_DEPTH = 4;
+
+    public StacGeometryDeserializer() {
+        super(StacGeometry.class);
+    }
+
+    @Override
+    public StacGeometry deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (!p.isExpectedStartObjectToken()) {
+            return (StacGeometry) ctxt.handleUnexpectedToken(StacGeometry.class, p);
+        }
+
+        String type = null;
+        CoordinateReader coordinates = null;
+        List<StacGeometry> geometries = null;
+
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            switch (field) {
+                case "type" -> type = p.getValueAsString();
+                case "coordinates" -> {
+                    if (value == JsonToken.START_ARRAY) {
+                        coordinates = new CoordinateReader();
+                        coordinates.read(p, ctxt);
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+                case "geometries" -> {
+                    if (value == JsonToken.START_ARRAY) {
+                        geometries = new ArrayList<>();
+                        while (p.nextToken() != JsonToken.END_ARRAY) {
+                            geometries.add(deserialize(p, ctxt));
+                        }
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+                default -> p.skipChildren();
+            }
+        }
+
+        if (geometries != null) {
+            return new StacGeometry(geometries);
+        }
+        if (coordinates == null) {
+            return new StacGeometry(type, 0, 2, new double[0], null, null);
+        }
+        return coordinates.toGeometry(type);
+    }
+
+    /**
+     * Streams a nested coordinates array into packed values and per-level offsets.
+     */
+    private static final class CoordinateReader {
+
+        private double[] values = new double[64];
+        private int valueCount;
+        private int dimension;
+
+        /** Number of arrays opened at each nesting level (positions are arrays too). */
+        private final int[] counts = new int[MAX_DEPTH + 1];
+        /** For each level, the child count at the start of every array on that level. */
+        private final IntList[] starts = new IntList[MAX_DEPTH];
+        private int depth;
+
+        void read(JsonParser p, DeserializationContext ctxt) throws IOException {
+            depth = readArray(p, ctxt, 0);
+        }
+
+        /**
+         * Reads the array whose START_ARRAY is the current token.
+         *
+         * @return nesting depth of the array (1 for a position), or 0 if it holds no positions
+         */
+        private int readArray(JsonParser p, DeserializationContext ctxt, int level) throws IOException {
+            if (level >= MAX_DEPTH) {
+                ctxt.reportInputMismatch(StacGeometry.class, "GeoJSON coordinates nested deeper than %d", MAX_DEPTH);
+            }
+            counts[level]++;
+            JsonToken token = p.nextToken();
+            if (token != null && token.isNumeric()) {
+                readPosition(p, ctxt, token);
+                return 1;
+            }
+
+            if (starts[level] == null) {
+                starts[level] = new IntList();
+            }
+            starts[level].add(counts[level + 1]);
+
+            int childDepth = 0;
+            while (token != JsonToken.END_ARRAY) {
+                if (token != JsonToken.START_ARRAY) {
+                    ctxt.reportInputMismatch(StacGeometry.class, "Unexpected %s in GeoJSON coordinates", token);
+                }
+                int depthOfChild = readArray(p, ctxt, level + 1);
+                if (depthOfChild != 0) {
+                    if (childDepth != 0 && childDepth != depthOfChild) {
+                        ctxt.reportInputMismatch(StacGeometry.class, "Inconsistent nesting in GeoJSON coordinates");
+                    }
+                    childDepth = depthOfChild;
+                }
+                token = p.nextToken();
+            }
+            return childDepth == 0 ? 0 : childDepth + 1;
+        }
+
+        private void readPosition(JsonParser p, DeserializationContext ctxt, JsonToken token) throws IOException {
+            int read = 0;
+            int start = valueCount;
+            while (token != JsonToken.END_ARRAY) {
+                if (token == null || !token.isNumeric()) {
+                    ctxt.reportInputMismatch(StacGeometry.class, "Non-numeric value in GeoJSON position");
+                }
+                if (dimension == 0 || read < dimension) {
+                    append(p.getDoubleValue());
+                }
+                read++;
+                token = p.nextToken();
+            }
+            if (dimension == 0) {
+                dimension = read;
+            }
+            while (valueCount - start < dimension) {
+                append(Double.NaN);
+            }
+        }
+
+        private void append(double value) {
+            if (valueCount == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[valueCount++] = value;
+        }
+
+        StacGeometry toGeometry(String type) {
+            int[] partOffsets = null;
+            int[] polygonOffsets = null;
+            if (depth >= 3) {
+                partOffsets = starts[depth - 2].toArrayWithEnd(counts[depth - 1]);
+            }
+            if (depth == 4) {
+                polygonOffsets = starts[depth - 3].toArrayWithEnd(counts[depth - 2]);
+            }
+            return new StacGeometry(type, depth, Math.max(dimension, 2),
+                    Arrays.copyOf(values, valueCount), partOffsets, polygonOffsets);
+        }
+    }
+
+    private static final class IntList {
+        private int[] values = new int[8];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArrayWithEnd(int end) {
+            int[] result = Arrays.copyOf(values, size + 1);
+            result[size] = end;
+            return result;
+        }
+    }
+}
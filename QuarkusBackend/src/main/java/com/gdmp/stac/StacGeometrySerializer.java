@@ -0,0 +1,78 @@
+package com.gdmp.stac;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes a packed {@link StacGeometry} as a standard GeoJSON geometry object.
+ */
+public class StacGeometrySerializer extends StdSerializer<StacGeometry> {
+
+    public StacGeometrySerializer() {
+        super(StacGeometry.class);
+    }
+
+    @Override
+    public void serialize(StacGeometry geometry, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("type", geometry.getType());
+        if (geometry.getGeometries() != null) {
+            gen.writeArrayFieldStart("geometries");
+            for (StacGeometry member : geometry.getGeometries()) {
+                serialize(member, gen, provider);
+            }
+            gen.writeEndArray();
+        } else {
+            gen.writeFieldName("coordinates");
+            writeCoordinates(geometry, gen);
+        }
+        gen.writeEndObject();
+    }
+
+    private static void writeCoordinates(StacGeometry geometry, JsonGenerator gen) throws IOException {
+        switch (geometry.getDepth()) {
+            case 1 -> writePosition(geometry, 0, gen);
+            case 2 -> writePositions(geometry, 0, geometry.getPositionCount(), gen);
+            case 3 -> writeParts(geometry, 0, geometry.getPartCount(), gen);
+            case 4 -> {
+                int[] polygons = geometry.getPolygonOffsets();
+                gen.writeStartArray();
+                for (int polygon = 0; polygon < polygons.length - 1; polygon++) {
+                    writeParts(geometry, polygons[polygon], polygons[polygon + 1], gen);
+                }
+                gen.writeEndArray();
+            }
+            default -> {
+                gen.writeStartArray();
+                gen.writeEndArray();
+            }
+        }
+    }
+
+    private static void writeParts(StacGeometry geometry, int fromPart, int toPart, JsonGenerator gen)
+            throws IOException {
+        gen.writeStartArray();
+        for (int part = fromPart; part < toPart; part++) {
+            writePositions(geometry, geometry.getPartStart(part), geometry.getPartEnd(part), gen);
+        }
+        gen.writeEndArray();
+    }
+
+    private static void writePositions(StacGeometry geometry, int from, int to, JsonGenerator gen)
+            throws IOException {
+        gen.writeStartArray();
+        for (int position = from; position < to; position++) {
+            writePosition(geometry, position, gen);
+        }
+        gen.writeEndArray();
+    }
+
+    private static void writePosition(StacGeometry geometry, int position, JsonGenerator gen) throws IOException {
+        double[] coordinates = geometry.getPackedCoordinates();
+        int dimension = geometry.getDimension();
+        gen.writeArray(coordinates, position * dimension, dimension);
+    }
+}
@@ -1,6 +1,7 @@
 package com.gdmp.stac;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.List;
@@ -10,8 +11,10 @@ import java.util.Map;
  * Represents a single STAC (SpatioTemporal Asset Catalog) item.
  * Uses flexible Map types for properties and assets since STAC items
  * vary significantly by provider and collection.
+ * Fields left out by a search field projection are null and omitted from the JSON.
  */
 @JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class StacItem {
 
     private String id;
@@ -45,6 +48,17 @@ public class StacItem {
         this.links = links;
     }
 
+    /**
+     * Returns a shallow copy of this item with the given geometry; all other fields are shared.
+     */
+    public StacItem withGeometry(StacGeometry geometry) {
+        StacItem copy = new StacItem(id, type, properties, geometry, assets, collection, links);
+        copy.stacVersion = stacVersion;
+        copy.stacExtensions = stacExtensions;
+        copy.bbox = bbox;
+        return copy;
+    }
+
     public String getId() {
         return id;
     }
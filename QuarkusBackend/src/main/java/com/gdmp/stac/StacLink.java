@@ -0,0 +1,28 @@
+package com.gdmp.stac;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.Map;
+
+/**
+ * A STAC link object, as found in the {@code links} of a FeatureCollection.
+ * Pagination links ({@code rel=next}) of POST searches carry the HTTP method
+ * and the body to send, optionally to be merged into the original request body.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record StacLink(
+        /** Link relation, e.g. "next", "self" */
+        String rel,
+
+        /** Target URL */
+        String href,
+
+        /** HTTP method to follow the link with; GET when absent */
+        String method,
+
+        /** Request body for POST links */
+        Map<String, Object> body,
+
+        /** Whether {@code body} is merged into the previous request body rather than replacing it */
+        boolean merge
+) {}
@@ -3,7 +3,11 @@ package com.gdmp.stac;
 import com.gdmp.model.dto.CatalogSearchRequest;
 import com.gdmp.model.dto.CatalogSearchResponse;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 /**
  * Interface for STAC (SpatioTemporal Asset Catalog) provider integrations.
@@ -19,18 +23,134 @@ public interface StacProvider {
      */
     String getProviderName();
 
+    /**
+     * Returns a short, stable identifier for this provider, used in configuration
+     * keys and in responses. Defaults to a slug of {@link #getProviderName()}.
+     *
+     * @return provider identifier, e.g. "copernicus"
+     */
+    default String getProviderId() {
+        return getProviderName().toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "-");
+    }
+
+    /**
+     * Returns how long a catalog search waits for this provider before treating it as
+     * failed and returning the other providers' results without it.
+     *
+     * @return per-provider search deadline
+     */
+    default Duration getSearchDeadline() {
+        return Duration.ofSeconds(30);
+    }
+
+    /**
+     * Returns health and latency counters for this provider's upstream searches.
+     *
+     * @return current provider statistics, or null if the provider keeps none
+     */
+    default StacProviderStats getStats() {
+        return null;
+    }
+
+    /**
+     * Returns how many searches the catalog sends to this provider at once; further
+     * searches wait in a queue of {@link #getMaxQueuedSearches()} entries.
+     *
+     * @return maximum number of concurrent upstream searches
+     */
+    default int getMaxConcurrentSearches() {
+        return 16;
+    }
+
+    /**
+     * Returns how many searches may wait for a free slot before further searches to this
+     * provider are rejected.
+     *
+     * @return maximum number of queued upstream searches
+     */
+    default int getMaxQueuedSearches() {
+        return 64;
+    }
+
     /**
      * Searches the provider's STAC catalog using the given parameters.
      *
      * @param params search parameters including bbox, datetime, collections, and limit
      * @return response containing matched STAC items and result counts
+     * @throws StacProviderException if the upstream search fails
+     * @throws IllegalArgumentException if the cursor is not a page token this provider issued
      */
     CatalogSearchResponse search(CatalogSearchRequest params);
 
+    /**
+     * Searches the provider's STAC catalog without blocking the calling thread.
+     * The default implementation runs {@link #search} on the common pool; providers
+     * with a non-blocking client should override it, returning an {@link UpstreamCall} so
+     * that cancelling the stage aborts the upstream exchange.
+     *
+     * @param params search parameters including bbox, datetime, collections, and limit
+     * @return stage completing with the matched STAC items and result counts, or failing
+     *         if the upstream search fails, or with {@link IllegalArgumentException} if the
+     *         cursor is not a page token this provider issued
+     */
+    default CompletionStage<CatalogSearchResponse> searchAsync(CatalogSearchRequest params) {
+        return CompletableFuture.supplyAsync(() -> search(params));
+    }
+
+    /**
+     * Returns whether this provider can relay search responses unparsed with
+     * {@link #relaySearchAsync}.
+     *
+     * @return true if relaying is supported
+     */
+    default boolean supportsRelay() {
+        return false;
+    }
+
+    /**
+     * Sends a search upstream and returns the response body without parsing it, so it can be
+     * relayed to the client as-is. The stage completes once the response headers arrive; the
+     * caller must read or close the body. Only providers that {@link #supportsRelay()} implement it.
+     *
+     * @param params search parameters including bbox, datetime, collections, and limit
+     * @return stage completing with the unparsed upstream response, or failing if the upstream
+     *         search fails
+     */
+    default CompletionStage<StacSearchRelay> relaySearchAsync(CatalogSearchRequest params) {
+        return CompletableFuture.failedFuture(
+                new UnsupportedOperationException(getProviderId() + " does not relay searches"));
+    }
+
     /**
      * Returns the list of available STAC collection IDs from this provider.
      *
      * @return list of collection identifiers
      */
     List<String> getCollections();
+
+    /**
+     * Fetches the collection IDs, sending the given validators so the provider can answer
+     * "not modified". Providers without conditional request support fetch unconditionally.
+     *
+     * @param etag         ETag from the previous response, or null
+     * @param lastModified Last-Modified from the previous response, or null
+     * @return collection IDs with fresh validators, or a not-modified marker
+     * @throws StacProviderException if the upstream request fails
+     */
+    default StacCollectionsResponse getCollections(String etag, String lastModified) {
+        return new StacCollectionsResponse(getCollections(), null, null, false);
+    }
+
+    /**
+     * Non-blocking variant of {@link #getCollections(String, String)}. The default
+     * implementation runs the synchronous method on the common pool.
+     *
+     * @param etag         ETag from the previous response, or null
+     * @param lastModified Last-Modified from the previous response, or null
+     * @return stage completing with the collection IDs or a not-modified marker,
+     *         or failing with {@link StacProviderException}
+     */
+    default CompletionStage<StacCollectionsResponse> getCollectionsAsync(String etag, String lastModified) {
+        return CompletableFuture.supplyAsync(() -> getCollections(etag, lastModified));
+    }
 }
@@ -0,0 +1,35 @@
+package com.gdmp.stac;
+
+/**
+ * Thrown when a STAC provider cannot complete an upstream request,
+ * e.g. on a transport error or an unexpected HTTP status.
+ */
+public class StacProviderException extends RuntimeException {
+
+    private final int statusCode;
+
+    public StacProviderException(String message) {
+        this(message, 0);
+    }
+
+    public StacProviderException(String message, Throwable cause) {
+        super(message, cause);
+        this.statusCode = 0;
+    }
+
+    /**
+     * @param message    error description
+     * @param statusCode HTTP status the upstream answered with, or 0 if there was no response
+     */
+    public StacProviderException(String message, int statusCode) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    /**
+     * Returns the HTTP status the upstream answered with, or 0 if the request failed without one.
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
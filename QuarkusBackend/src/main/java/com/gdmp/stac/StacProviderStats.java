@@ -0,0 +1,27 @@
+package com.gdmp.stac;
+
+/**
+ * Point-in-time health and latency counters of one STAC provider's upstream searches.
+ */
+public record StacProviderStats(
+        /** Circuit breaker state: CLOSED, OPEN, or HALF_OPEN */
+        String circuitState,
+
+        /** Rolling latency percentile searches are hedged after, in milliseconds; -1 until enough samples */
+        long hedgeDelayMillis,
+
+        /** Upstream search attempts sent, hedges included */
+        long attempts,
+
+        /** Attempts that failed with a transport error or a 429/5xx status */
+        long failures,
+
+        /** Second attempts sent because the first one was slower than the hedge delay */
+        long hedges,
+
+        /** Hedged searches answered by the second attempt */
+        long hedgeWins,
+
+        /** Searches failed fast because the circuit was open */
+        long rejected
+) {}
@@ -0,0 +1,24 @@
+package com.gdmp.stac;
+
+import java.time.Duration;
+
+/**
+ * Thrown without contacting the upstream when a provider's circuit breaker is open
+ * because recent requests to it kept failing.
+ */
+public class StacProviderUnavailableException extends StacProviderException {
+
+    private final Duration retryAfter;
+
+    public StacProviderUnavailableException(String message, Duration retryAfter) {
+        super(message, 503);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Returns how long until the provider will be tried again.
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,9 @@
+package com.gdmp.stac;
+
+import com.gdmp.model.dto.CatalogSearchResponse;
+
+/**
+ * One page of an upstream STAC search: the parsed results plus the upstream
+ * {@code rel=next} link, or null on the last page, and the size of the response body.
+ */
+public record StacSearchPage(CatalogSearchResponse response, StacLink next, long bodyBytes) {}
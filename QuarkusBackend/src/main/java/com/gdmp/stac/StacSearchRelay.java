@@ -0,0 +1,51 @@
+package com.gdmp.stac;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * An upstream STAC search response to be relayed to the client unparsed: the FeatureCollection
+ * bytes exactly as the provider sent them, still in the provider's content encoding.
+ * The body must be read to the end or closed to release the upstream connection.
+ */
+public record StacSearchRelay(
+        /** Media type of the body, e.g. "application/geo+json" */
+        String contentType,
+
+        /** Content-Encoding the body is in ("gzip" or "deflate"), or null if it is not encoded */
+        String contentEncoding,
+
+        /** Upstream response body */
+        InputStream body
+) {
+
+    /**
+     * Returns the body with its content encoding removed.
+     *
+     * @throws ZipException if the body is in an encoding other than gzip or deflate
+     */
+    public InputStream decodedBody() throws IOException {
+        if (contentEncoding == null) {
+            return body;
+        }
+        switch (contentEncoding.toLowerCase(Locale.ROOT)) {
+            case "gzip", "x-gzip" -> {
+                return new GZIPInputStream(body, 16 * 1024);
+            }
+            case "deflate" -> {
+                BufferedInputStream buffered = new BufferedInputStream(body);
+                buffered.mark(2);
+                boolean zlib = DecodingSubscriber.isZlibHeader(buffered.read(), buffered.read());
+                buffered.reset();
+                return new InflaterInputStream(buffered, new Inflater(!zlib), 16 * 1024);
+            }
+            default -> throw new ZipException("Unsupported response Content-Encoding " + contentEncoding);
+        }
+    }
+}
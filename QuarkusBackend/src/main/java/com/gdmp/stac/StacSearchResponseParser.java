@@ -0,0 +1,341 @@
+package com.gdmp.stac;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.gdmp.model.dto.CatalogSearchResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * Streaming parser for STAC /search FeatureCollection responses.
+ *
+ * Bytes are pushed into Jackson's non-blocking parser as they arrive, either from an
+ * {@link InputStream} or directly from the HTTP client via {@link #subscriber()}. Each
+ * entry of {@code features} is buffered as tokens and bound to a {@link StacItem} as
+ * soon as it is complete; {@code numberMatched}/{@code context.matched} and the
+ * {@code rel=next} link are picked up in the same pass. With a {@link StacFieldFilter},
+ * item fields outside the projection are skipped at the token level, so their maps are
+ * never built. No intermediate String or
+ * JsonNode tree of the whole response is built, and no thread blocks waiting for
+ * network input.
+ */
+public class StacSearchResponseParser {
+
+    private static final int READ_CHUNK_SIZE = 16 * 1024;
+
+    private final ObjectMapper objectMapper;
+
+    public StacSearchResponseParser(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Parses a FeatureCollection from the given stream. The stream is not closed.
+     *
+     * @param body response body positioned at the start of the JSON document
+     * @return parsed items with the total match count and next-page link
+     * @throws IOException if the body is not a JSON object or cannot be read
+     */
+    public StacSearchPage parse(InputStream body) throws IOException {
+        return parse(body, null);
+    }
+
+    /**
+     * Parses a FeatureCollection from the given stream, keeping only the item fields
+     * selected by {@code filter}. The stream is not closed.
+     *
+     * @param body   response body positioned at the start of the JSON document
+     * @param filter field projection applied to each item, or null to keep every field
+     * @return parsed items with the total match count and next-page link
+     * @throws IOException if the body is not a JSON object or cannot be read
+     */
+    public StacSearchPage parse(InputStream body, StacFieldFilter filter) throws IOException {
+        FeatureCollectionReader reader = new FeatureCollectionReader(filter);
+        byte[] chunk = new byte[READ_CHUNK_SIZE];
+        int read;
+        while ((read = body.read(chunk)) != -1) {
+            reader.feed(ByteBuffer.wrap(chunk, 0, read));
+        }
+        return reader.finish();
+    }
+
+    /**
+     * Returns an HTTP body subscriber that parses the FeatureCollection incrementally
+     * as body chunks are delivered by {@link java.net.http.HttpClient}.
+     *
+     * @return a one-shot body subscriber
+     */
+    public HttpResponse.BodySubscriber<StacSearchPage> subscriber() {
+        return subscriber(null);
+    }
+
+    /**
+     * Returns an HTTP body subscriber that parses the FeatureCollection incrementally,
+     * keeping only the item fields selected by {@code filter}.
+     *
+     * @param filter field projection applied to each item, or null to keep every field
+     * @return a one-shot body subscriber
+     */
+    public HttpResponse.BodySubscriber<StacSearchPage> subscriber(StacFieldFilter filter) {
+        return new ParsingSubscriber(new FeatureCollectionReader(filter));
+    }
+
+    /**
+     * Token-level state machine over a FeatureCollection document.
+     */
+    private final class FeatureCollectionReader {
+
+        /** Nesting depth inside a features/links entry's top-level object. */
+        private static final int ELEMENT_DEPTH = 3;
+
+        private final JsonParser parser;
+        private final ByteBufferFeeder feeder;
+        private final StacFieldFilter filter;
+
+        private final List<StacItem> items = new ArrayList<>();
+        private Integer rootMatched;
+        private Integer contextMatched;
+        private StacLink next;
+        private long bodyBytes;
+
+        /** Nesting depth after the last processed token; the root object is depth 1. */
+        private int depth;
+        private boolean sawRoot;
+        private String rootField;
+        private boolean rootFieldIsArray;
+        private String contextField;
+        /** Tokens of the features/links entry currently being read, or null. */
+        private TokenBuffer element;
+        private String elementField;
+
+        /**
+         * Paths of the item objects whose fields are being filtered, outermost first; the
+         * item itself is "". They are always nested directly in one another, so the object
+         * at depth {@code ELEMENT_DEPTH + i} is filtered iff {@code i < filteredPaths.size()}.
+         */
+        private final ArrayDeque<String> filteredPaths = new ArrayDeque<>();
+        /** Path of the field just read if its object value is to be filtered too. */
+        private String partialPath;
+        /** True if the next value belongs to an excluded field. */
+        private boolean skipNext;
+        /** Nesting depth within the excluded value being skipped. */
+        private int skipDepth;
+
+        FeatureCollectionReader(StacFieldFilter filter) {
+            this.filter = filter;
+            try {
+                this.parser = objectMapper.getFactory().createNonBlockingByteBufferParser();
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot create non-blocking JSON parser", e);
+            }
+            this.feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+        }
+
+        void feed(ByteBuffer buffer) throws IOException {
+            bodyBytes += buffer.remaining();
+            feeder.feedInput(buffer);
+            drain();
+        }
+
+        StacSearchPage finish() throws IOException {
+            feeder.endOfInput();
+            drain();
+            parser.close();
+            if (!sawRoot || depth != 0) {
+                throw new JsonParseException(parser, "Incomplete STAC FeatureCollection document");
+            }
+
+            // Some STAC APIs use numberMatched at root level; it wins over context.matched
+            int numberMatched = rootMatched != null ? rootMatched
+                    : contextMatched != null ? contextMatched
+                    : items.size();
+
+            return new StacSearchPage(CatalogSearchResponse.of(items, numberMatched), next, bodyBytes);
+        }
+
+        private void drain() throws IOException {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                accept(token);
+            }
+        }
+
+        private void accept(JsonToken token) throws IOException {
+            if (element != null) {
+                acceptElementToken(token);
+                return;
+            }
+
+            switch (token) {
+                case START_OBJECT, START_ARRAY -> {
+                    if (depth == 0) {
+                        if (token != JsonToken.START_OBJECT) {
+                            throw new JsonParseException(parser, "Expected a STAC FeatureCollection object");
+                        }
+                        sawRoot = true;
+                    } else if (depth == 1) {
+                        rootFieldIsArray = token == JsonToken.START_ARRAY;
+                    } else if (depth == 2 && rootFieldIsArray && token == JsonToken.START_OBJECT
+                            && ("features".equals(rootField) || "links".equals(rootField))) {
+                        element = new TokenBuffer(objectMapper, false);
+                        elementField = rootField;
+                        element.copyCurrentEvent(parser);
+                        if (filter != null && "features".equals(rootField)) {
+                            filteredPaths.addLast("");
+                        }
+                    }
+                    depth++;
+                }
+                case END_OBJECT, END_ARRAY -> depth--;
+                case FIELD_NAME -> {
+                    if (depth == 1) {
+                        rootField = parser.currentName();
+                        contextField = null;
+                    } else if (depth == 2 && !rootFieldIsArray) {
+                        contextField = parser.currentName();
+                    }
+                }
+                case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> {
+                    if (depth == 1 && "numberMatched".equals(rootField)) {
+                        rootMatched = parser.getValueAsInt();
+                    } else if (depth == 2 && !rootFieldIsArray
+                            && "context".equals(rootField) && "matched".equals(contextField)) {
+                        contextMatched = parser.getValueAsInt();
+                    }
+                }
+                default -> {
+                    // scalar values outside of features are not needed
+                }
+            }
+        }
+
+        /**
+         * Buffers one token of the current features/links entry, dropping the fields
+         * excluded by the filter.
+         */
+        private void acceptElementToken(JsonToken token) throws IOException {
+            if (skipNext || skipDepth > 0) {
+                skipNext = false;
+                if (token.isStructStart()) {
+                    skipDepth++;
+                    depth++;
+                } else if (token.isStructEnd()) {
+                    skipDepth--;
+                    depth--;
+                }
+                return;
+            }
+
+            boolean inFilteredObject = depth - ELEMENT_DEPTH == filteredPaths.size() - 1;
+            if (token == JsonToken.FIELD_NAME && inFilteredObject) {
+                String parent = filteredPaths.peekLast();
+                String path = parent.isEmpty() ? parser.currentName() : parent + "." + parser.currentName();
+                switch (filter.decide(path)) {
+                    case EXCLUDE -> {
+                        skipNext = true;
+                        return;
+                    }
+                    case PARTIAL -> partialPath = path;
+                    case INCLUDE -> partialPath = null;
+                }
+                element.copyCurrentEvent(parser);
+                return;
+            }
+
+            element.copyCurrentEvent(parser);
+            if (token.isStructStart()) {
+                if (token == JsonToken.START_OBJECT && partialPath != null) {
+                    filteredPaths.addLast(partialPath);
+                }
+                depth++;
+            } else if (token.isStructEnd()) {
+                if (token == JsonToken.END_OBJECT && inFilteredObject) {
+                    filteredPaths.removeLast();
+                }
+                if (--depth == 2) {
+                    completeElement();
+                }
+            }
+            partialPath = null;
+        }
+
+        private void completeElement() throws IOException {
+            try (JsonParser elementParser = element.asParser(objectMapper)) {
+                if (elementField.equals("features")) {
+                    items.add(objectMapper.readValue(elementParser, StacItem.class));
+                } else {
+                    StacLink link = objectMapper.readValue(elementParser, StacLink.class);
+                    if ("next".equals(link.rel()) && link.href() != null) {
+                        next = link;
+                    }
+                }
+            }
+            element = null;
+        }
+    }
+
+    /**
+     * Feeds body chunks from the HTTP client into a {@link FeatureCollectionReader}.
+     */
+    private static final class ParsingSubscriber implements HttpResponse.BodySubscriber<StacSearchPage> {
+
+        private final FeatureCollectionReader reader;
+        private final CompletableFuture<StacSearchPage> result = new CompletableFuture<>();
+        private Flow.Subscription subscription;
+
+        ParsingSubscriber(FeatureCollectionReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public CompletionStage<StacSearchPage> getBody() {
+            return result;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            try {
+                for (ByteBuffer buffer : buffers) {
+                    reader.feed(buffer);
+                }
+                subscription.request(1);
+            } catch (IOException | RuntimeException e) {
+                subscription.cancel();
+                result.completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            result.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            try {
+                result.complete(reader.finish());
+            } catch (IOException | RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.gdmp.stac;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Future of an upstream call whose cancellation reaches the call itself.
+ *
+ * Cancelling a dependent stage (one made by {@code thenApply} and the like) completes only
+ * that stage; the stage it depends on, and the HTTP exchange behind it, keep running. This
+ * future completes with the outcome of a stage derived from the call, but {@link #cancel}
+ * first cancels the call's source future, which aborts its exchanges. {@link #settled}
+ * completes only once every exchange the call started has finished, so a caller limiting
+ * concurrent calls can hold a slot until the upstream work is really over, even when this
+ * future was cancelled long before.
+ *
+ * @param <T> result type
+ */
+public final class UpstreamCall<T> extends CompletableFuture<T> {
+
+    private final CompletableFuture<?> source;
+    private final CompletionStage<?> settled;
+
+    private UpstreamCall(CompletableFuture<?> source, CompletionStage<?> settled) {
+        this.source = source;
+        this.settled = settled;
+    }
+
+    /**
+     * Wraps a call.
+     *
+     * @param source  the call's own future; cancelled when this future is
+     * @param derived stage computing the result from the source
+     * @param settled completes once every exchange of the call has finished, also after cancellation
+     * @return future completing as {@code derived} does
+     */
+    public static <T> UpstreamCall<T> of(CompletableFuture<?> source, CompletionStage<T> derived,
+                                         CompletionStage<?> settled) {
+        UpstreamCall<T> call = new UpstreamCall<>(source, settled);
+        derived.whenComplete((value, error) -> {
+            if (error == null) {
+                call.complete(value);
+            } else {
+                call.completeExceptionally(error);
+            }
+        });
+        return call;
+    }
+
+    /**
+     * Cancels this future, then the source and with it the upstream exchanges.
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        source.cancel(mayInterruptIfRunning);
+        return cancelled;
+    }
+
+    /**
+     * Returns a stage completing once every exchange of the call has finished.
+     */
+    public CompletionStage<?> settled() {
+        return settled;
+    }
+}
@@ -0,0 +1,662 @@
+package com.gdmp.store;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import org.jboss.logging.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Durable key-value store that keeps every value in memory and logs every change ahead.
+ *
+ * Changes are appended as {@code [length][crc32c][json]} records to the current log segment
+ * ({@code wal-000001.log}, ...). Writes are group-committed: {@link #put} and {@link #remove}
+ * serialize the change on the calling thread, queue it, and return a future; a single writer
+ * thread appends everything queued since its previous commit with one write and one fsync,
+ * then applies the batch to the in-memory map and completes the futures. Reads only ever see
+ * committed values.
+ *
+ * Once a segment reaches {@code segmentSize} bytes, or holds data and {@code snapshotInterval}
+ * has passed since it was started, the writer starts segment N + 1 and a background thread
+ * writes the map to {@code snapshot-N+1.dat} (to a temporary file, forced, then atomically
+ * renamed), after which older segments and snapshots are deleted. Changes committed while
+ * the snapshot is written may or may not be in it; replaying segment N + 1 on top of it
+ * gives the same result either way.
+ *
+ * On open the latest snapshot is loaded and the segments from its number on are replayed
+ * through read-only memory mappings. The last segment is cut at its first torn or corrupt
+ * record; a crash loses nothing whose future completed. Every earlier segment was forced
+ * before the next was started, so a bad record in one of them is real corruption and the
+ * open fails rather than replay past a gap. Recovery reads one snapshot and
+ * usually one or two segments, so its time is bounded by the snapshot size plus about
+ * {@code segmentSize} of log.
+ *
+ * @param <V> value type; must round-trip through the given ObjectMapper
+ */
+public class DurableStore<V> implements Closeable {
+
+    private static final Logger LOG = Logger.getLogger(DurableStore.class);
+
+    private static final int HEADER_BYTES = 8;
+    private static final Pattern SEGMENT_FILE = Pattern.compile("wal-(\\d{6})\\.log");
+    private static final Pattern SNAPSHOT_FILE = Pattern.compile("snapshot-(\\d{6})\\.dat");
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final String name;
+    private final Path directory;
+    private final Options options;
+    private final ObjectWriter entryWriter;
+    private final ObjectReader entryReader;
+    private final UnaryOperator<FileChannel> segmentChannels;
+
+    private final ConcurrentHashMap<String, V> values = new ConcurrentHashMap<>();
+    private final BlockingQueue<PendingWrite<V>> queue;
+    private final ExecutorService snapshotWriter;
+    private final AtomicBoolean snapshotRunning = new AtomicBoolean();
+    private Thread writer;
+    private volatile boolean closed;
+    /** Set once a failed commit could not be rolled back; every later write fails with it. */
+    private volatile IOException failure;
+
+    // owned by the writer thread after open
+    private FileChannel segment;
+    private int segmentNumber;
+    private long segmentBytes;
+    private long segmentStartedAt;
+
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder snapshots = new LongAdder();
+    private final LongAdder snapshotFailures = new LongAdder();
+    private final LongAdder commitNanos = new LongAdder();
+    private Recovery recovery;
+    private volatile Listener<V> listener;
+
+    /**
+     * Receives every committed change on the writer thread, in commit order, before the
+     * future of the write completes.
+     */
+    @FunctionalInterface
+    public interface Listener<V> {
+
+        /**
+         * @param key      changed key
+         * @param previous value before the change, or null if there was none
+         * @param current  value after the change, or null if the key was removed
+         */
+        void changed(String key, V previous, V current);
+    }
+
+    /**
+     * One change in the log or a snapshot; a null value removes the key.
+     */
+    record LogEntry<V>(String key, V value) {}
+
+    private record PendingWrite<V>(String key, V value, byte[] record, CompletableFuture<V> future) {}
+
+    /**
+     * What the last open recovered.
+     */
+    public record Recovery(
+            /** Entries loaded from the snapshot; 0 without one */
+            int snapshotEntries,
+
+            /** Log records replayed on top of the snapshot */
+            long replayedRecords,
+
+            /** Bytes cut from a torn or corrupt log tail */
+            long discardedBytes,
+
+            /** Wall time of the recovery */
+            long millis
+    ) {}
+
+    /**
+     * Store tuning options.
+     */
+    public record Options(
+            /** Log size in bytes after which a new segment and a snapshot are started; also bounds one value */
+            int segmentSize,
+
+            /** Start a new segment and a snapshot after this long even if the segment is not full; zero disables */
+            Duration snapshotInterval,
+
+            /** Force each commit to disk; only disable where losing recent writes on a crash is acceptable */
+            boolean fsync,
+
+            /** Most writes committed together */
+            int maxBatch,
+
+            /** Most writes waiting for a commit; further writes fail immediately */
+            int queueCapacity
+    ) {}
+
+    private DurableStore(String name, Path directory, Class<V> type, ObjectMapper objectMapper, Options options,
+                         UnaryOperator<FileChannel> segmentChannels) {
+        this.name = name;
+        this.directory = directory;
+        this.options = options;
+        this.segmentChannels = segmentChannels;
+        JavaType entryType = objectMapper.getTypeFactory().constructParametricType(LogEntry.class, type);
+        this.entryWriter = objectMapper.writerFor(entryType);
+        this.entryReader = objectMapper.readerFor(entryType);
+        this.queue = new ArrayBlockingQueue<>(options.queueCapacity());
+        this.snapshotWriter = Executors.newSingleThreadExecutor(
+                Thread.ofPlatform().daemon().name(name + "-store-snapshot").factory());
+    }
+
+    /**
+     * Opens (or creates) the store in the given directory, recovers its contents, and starts
+     * the writer thread.
+     *
+     * @param name         store name, used in thread names and log messages
+     * @param directory    store directory; created if missing
+     * @param type         value type
+     * @param objectMapper mapper used to write and read values
+     * @param options      tuning options
+     * @return the opened store
+     * @throws IOException if the directory, a snapshot, or a segment cannot be read, or a
+     *         snapshot or a segment other than the last is corrupt
+     */
+    public static <V> DurableStore<V> open(String name, Path directory, Class<V> type, ObjectMapper objectMapper,
+                                           Options options) throws IOException {
+        return open(name, directory, type, objectMapper, options, UnaryOperator.identity());
+    }
+
+    /**
+     * Opens the store like {@link #open(String, Path, Class, ObjectMapper, Options)}, passing
+     * every segment channel opened for appending through {@code segmentChannels}; lets tests
+     * inject write failures.
+     */
+    static <V> DurableStore<V> open(String name, Path directory, Class<V> type, ObjectMapper objectMapper,
+                                    Options options, UnaryOperator<FileChannel> segmentChannels) throws IOException {
+        DurableStore<V> store = new DurableStore<>(name, directory, type, objectMapper, options, segmentChannels);
+        store.recover();
+        store.writer = Thread.ofPlatform().daemon().name(name + "-store-writer").start(store::writeLoop);
+        return store;
+    }
+
+    /**
+     * Returns the committed value for the key, or null.
+     */
+    public V get(String key) {
+        return values.get(key);
+    }
+
+    /**
+     * Returns an unmodifiable live view of the committed values, in no particular order.
+     */
+    public Collection<V> values() {
+        return Collections.unmodifiableCollection(values.values());
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * Stores a value under the key once the change is committed.
+     *
+     * @return future completing with the value once it is durable and visible, or failing with
+     *         an IOException if it cannot be serialized, the queue is full, or the commit failed
+     */
+    public CompletableFuture<V> put(String key, V value) {
+        return enqueue(key, value);
+    }
+
+    /**
+     * Removes the key once the change is committed.
+     *
+     * @return future completing with null once the removal is durable and visible
+     */
+    public CompletableFuture<V> remove(String key) {
+        return enqueue(key, null);
+    }
+
+    /**
+     * Sets the listener told about every change committed from now on; recovered values are
+     * not replayed to it, so callers building derived state read {@link #values()} first.
+     */
+    public void setListener(Listener<V> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Returns a point-in-time snapshot of the store counters.
+     */
+    public Stats stats() {
+        return new Stats(values.size(), writes.sum(), commits.sum(), rejected.sum(), commitNanos.sum(),
+                snapshots.sum(), snapshotFailures.sum(), queue.size(), recovery);
+    }
+
+    /**
+     * Commits every queued write, stops the writer, and waits for a running snapshot.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            writer.join();
+            snapshotWriter.shutdown();
+            snapshotWriter.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        PendingWrite<V> late;
+        while ((late = queue.poll()) != null) {
+            late.future().completeExceptionally(new IOException("Store " + name + " is closed"));
+        }
+        try {
+            segment.force(true);
+            segment.close();
+        } catch (IOException e) {
+            LOG.warnf(e, "Closing store %s failed", name);
+        }
+    }
+
+    private CompletableFuture<V> enqueue(String key, V value) {
+        if (closed) {
+            return CompletableFuture.failedFuture(new IOException("Store " + name + " is closed"));
+        }
+        if (failure != null) {
+            return CompletableFuture.failedFuture(failure);
+        }
+        byte[] record;
+        try {
+            record = frame(entryWriter.writeValueAsBytes(new LogEntry<>(key, value)));
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (record.length > options.segmentSize()) {
+            return CompletableFuture.failedFuture(new IOException("Value of " + key + " does not fit in a store segment"));
+        }
+        PendingWrite<V> write = new PendingWrite<>(key, value, record, new CompletableFuture<>());
+        if (!queue.offer(write)) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(new IOException("Store " + name + " write queue is full"));
+        }
+        return write.future();
+    }
+
+    private void writeLoop() {
+        List<PendingWrite<V>> batch = new ArrayList<>(options.maxBatch());
+        while (!closed || !queue.isEmpty()) {
+            try {
+                PendingWrite<V> first = queue.poll(POLL_NANOS, TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, options.maxBatch() - 1);
+                    commit(batch);
+                    batch.clear();
+                }
+                maybeStartSnapshot();
+            } catch (InterruptedException e) {
+                // closing never interrupts: an interrupt during a write would close the segment
+                Thread.currentThread().interrupt();
+                LOG.errorf("Writer of store %s interrupted", name);
+                return;
+            } catch (RuntimeException e) {
+                LOG.errorf(e, "Writer of store %s failed a batch", name);
+                batch.forEach(write -> write.future().completeExceptionally(e));
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Appends a batch with one gathering write and one force, then applies and completes it.
+     * A failed batch is cut from the segment again and its futures fail.
+     */
+    private void commit(List<PendingWrite<V>> batch) {
+        long start = System.nanoTime();
+        long position = segmentBytes;
+        try {
+            if (failure != null) {
+                throw failure;
+            }
+            ByteBuffer[] buffers = new ByteBuffer[batch.size()];
+            long total = 0;
+            for (int i = 0; i < buffers.length; i++) {
+                buffers[i] = ByteBuffer.wrap(batch.get(i).record());
+                total += buffers[i].remaining();
+            }
+            for (long written = 0; written < total; ) {
+                written += segment.write(buffers);
+            }
+            if (options.fsync()) {
+                segment.force(false);
+            }
+            segmentBytes += total;
+        } catch (IOException e) {
+            LOG.errorf(e, "Commit of %d writes to store %s failed", batch.size(), name);
+            rollBack(position, e);
+            batch.forEach(write -> write.future().completeExceptionally(e));
+            return;
+        }
+
+        Listener<V> changes = listener;
+        for (PendingWrite<V> write : batch) {
+            V previous = write.value() == null
+                    ? values.remove(write.key())
+                    : values.put(write.key(), write.value());
+            if (changes != null) {
+                try {
+                    changes.changed(write.key(), previous, write.value());
+                } catch (RuntimeException e) {
+                    LOG.errorf(e, "Listener of store %s failed on %s", name, write.key());
+                }
+            }
+        }
+        commitNanos.add(System.nanoTime() - start);
+        commits.increment();
+        writes.add(batch.size());
+        for (PendingWrite<V> write : batch) {
+            write.future().complete(write.value());
+        }
+    }
+
+    private void rollBack(long position, IOException cause) {
+        if (failure != null) {
+            return;
+        }
+        try {
+            segment.truncate(position);
+            segment.position(position);
+        } catch (IOException e) {
+            // the segment may now hold a record whose writer was told it failed
+            failure = new IOException("Store " + name + " failed and is read-only until restarted", cause);
+            LOG.errorf(e, "Cannot roll back failed commit in store %s", name);
+        }
+    }
+
+    /**
+     * Starts a new segment and a snapshot in the background once the current segment is full
+     * or old enough, unless a snapshot is still being written.
+     */
+    private void maybeStartSnapshot() {
+        if (segmentBytes == 0 || snapshotRunning.get() || failure != null) {
+            return;
+        }
+        boolean full = segmentBytes >= options.segmentSize();
+        boolean due = !options.snapshotInterval().isZero()
+                && System.nanoTime() - segmentStartedAt >= options.snapshotInterval().toNanos();
+        if (!full && !due) {
+            return;
+        }
+        try {
+            FileChannel previous = segment;
+            openSegment(segmentNumber + 1, 0);
+            previous.force(true);
+            previous.close();
+        } catch (IOException e) {
+            LOG.errorf(e, "Cannot start a new segment in store %s", name);
+            return;
+        }
+        int number = segmentNumber;
+        snapshotRunning.set(true);
+        snapshotWriter.execute(() -> {
+            try {
+                writeSnapshot(number);
+                snapshots.increment();
+            } catch (IOException | RuntimeException e) {
+                snapshotFailures.increment();
+                LOG.errorf(e, "Snapshot %d of store %s failed", number, name);
+            } finally {
+                snapshotRunning.set(false);
+            }
+        });
+    }
+
+    /**
+     * Writes every current value as snapshot {@code number}, then deletes older files.
+     */
+    private void writeSnapshot(int number) throws IOException {
+        long start = System.nanoTime();
+        Path snapshot = directory.resolve(snapshotFileName(number));
+        Path temp = directory.resolve(snapshotFileName(number) + ".tmp");
+        int entries = 0;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024);
+            for (Map.Entry<String, V> entry : values.entrySet()) {
+                out.write(frame(entryWriter.writeValueAsBytes(new LogEntry<>(entry.getKey(), entry.getValue()))));
+                entries++;
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        for (Map.Entry<Integer, Path> old : listFiles(SNAPSHOT_FILE).headMap(number).entrySet()) {
+            Files.deleteIfExists(old.getValue());
+        }
+        for (Map.Entry<Integer, Path> old : listFiles(SEGMENT_FILE).headMap(number).entrySet()) {
+            Files.deleteIfExists(old.getValue());
+        }
+        LOG.infof("Wrote snapshot %d of store %s with %d entries in %d ms",
+                number, name, entries, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void recover() throws IOException {
+        long start = System.nanoTime();
+        Files.createDirectories(directory);
+        try (Stream<Path> listing = Files.list(directory)) {
+            for (Path temp : listing.filter(path -> path.getFileName().toString().endsWith(".tmp")).toList()) {
+                Files.delete(temp);
+            }
+        }
+        TreeMap<Integer, Path> snapshotFiles = listFiles(SNAPSHOT_FILE);
+        TreeMap<Integer, Path> segmentFiles = listFiles(SEGMENT_FILE);
+
+        int base = !snapshotFiles.isEmpty() ? snapshotFiles.lastKey()
+                : !segmentFiles.isEmpty() ? segmentFiles.firstKey() : 1;
+        int snapshotEntries = 0;
+        if (!snapshotFiles.isEmpty()) {
+            Path snapshot = snapshotFiles.lastEntry().getValue();
+            int[] loaded = {0};
+            long end = readRecords(snapshot, (key, value) -> {
+                values.put(key, value);
+                loaded[0]++;
+            });
+            if (end < Files.size(snapshot)) {
+                throw new IOException("Corrupt store snapshot " + snapshot + " at offset " + end);
+            }
+            snapshotEntries = loaded[0];
+        }
+        // leftovers of a crash between writing a snapshot and deleting what it replaces
+        for (Path old : snapshotFiles.headMap(base).values()) {
+            Files.deleteIfExists(old);
+        }
+        for (Path old : segmentFiles.headMap(base).values()) {
+            Files.deleteIfExists(old);
+        }
+
+        long[] replayed = {0};
+        long discarded = 0;
+        int number = base;
+        long end = 0;
+        for (Map.Entry<Integer, Path> file : segmentFiles.tailMap(base).entrySet()) {
+            if (file.getKey() != number) {
+                throw new IOException("Missing store segment " + directory.resolve(segmentFileName(number)));
+            }
+            long size = Files.size(file.getValue());
+            end = readRecords(file.getValue(), (key, value) -> {
+                if (value == null) {
+                    values.remove(key);
+                } else {
+                    values.put(key, value);
+                }
+                replayed[0]++;
+            });
+            if (end < size) {
+                if (!file.getKey().equals(segmentFiles.lastKey())) {
+                    // only the last segment can be torn by a crash; replaying past a gap would apply later changes without it
+                    throw new IOException("Corrupt store segment " + file.getValue() + " at offset " + end);
+                }
+                discarded += size - end;
+                LOG.warnf("Discarding %d bytes after the last intact record of %s at offset %d",
+                        size - end, file.getValue(), end);
+            }
+            number++;
+        }
+        if (segmentFiles.tailMap(base).isEmpty()) {
+            end = 0;
+        } else {
+            number--;
+        }
+        openSegment(number, end);
+        recovery = new Recovery(snapshotEntries, replayed[0], discarded,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        LOG.infof("Opened store %s with %d entries (snapshot %d, %d log records replayed) in %d ms",
+                name, values.size(), snapshotEntries, replayed[0], recovery.millis());
+    }
+
+    /**
+     * Maps the file read-only and passes every intact record to the consumer.
+     *
+     * @return offset after the last intact record
+     */
+    private long readRecords(Path file, BiConsumer<String, V> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Store file " + file + " is too large to map");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int offset = 0;
+            while (offset + HEADER_BYTES <= size) {
+                int length = buffer.getInt(offset);
+                if (length <= 0 || offset + HEADER_BYTES + (long) length > size) {
+                    break;
+                }
+                ByteBuffer payload = buffer.slice(offset + HEADER_BYTES, length);
+                CRC32C crc = new CRC32C();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != buffer.getInt(offset + Integer.BYTES)) {
+                    break;
+                }
+                LogEntry<V> entry = entryReader.readValue(new ByteBufferBackedInputStream(payload));
+                consumer.accept(entry.key(), entry.value());
+                offset += HEADER_BYTES + length;
+            }
+            return offset;
+        }
+    }
+
+    /**
+     * Opens a segment for appending, cut to {@code length} bytes.
+     */
+    private void openSegment(int number, long length) throws IOException {
+        FileChannel channel = FileChannel.open(directory.resolve(segmentFileName(number)),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() > length) {
+            channel.truncate(length);
+            channel.force(true);
+        }
+        channel.position(length);
+        this.segment = segmentChannels.apply(channel);
+        this.segmentNumber = number;
+        this.segmentBytes = length;
+        this.segmentStartedAt = System.nanoTime();
+    }
+
+    private TreeMap<Integer, Path> listFiles(Pattern pattern) throws IOException {
+        TreeMap<Integer, Path> files = new TreeMap<>();
+        try (Stream<Path> listing = Files.list(directory)) {
+            listing.forEach(path -> {
+                Matcher matcher = pattern.matcher(path.getFileName().toString());
+                if (matcher.matches()) {
+                    files.put(Integer.parseInt(matcher.group(1)), path);
+                }
+            });
+        }
+        return files;
+    }
+
+    private static byte[] frame(byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        return ByteBuffer.allocate(HEADER_BYTES + payload.length)
+                .putInt(payload.length)
+                .putInt((int) crc.getValue())
+                .put(payload)
+                .array();
+    }
+
+    private static String segmentFileName(int number) {
+        return String.format("wal-%06d.log", number);
+    }
+
+    private static String snapshotFileName(int number) {
+        return String.format("snapshot-%06d.dat", number);
+    }
+
+    /**
+     * Snapshot of store counters.
+     */
+    public record Stats(
+            /** Committed entries */
+            int size,
+
+            /** Committed writes */
+            long writes,
+
+            /** Commits; writes / commits is the average group commit size */
+            long commits,
+
+            /** Writes rejected because the queue was full */
+            long rejected,
+
+            /** Total time spent writing and forcing commits */
+            long commitNanos,
+
+            /** Snapshots written */
+            long snapshots,
+
+            /** Snapshots that failed */
+            long snapshotFailures,
+
+            /** Writes waiting for a commit */
+            int queued,
+
+            /** What the last open recovered */
+            Recovery recovery
+    ) {}
+}
@@ -0,0 +1,370 @@
+package com.gdmp.store;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.gdmp.stac.StacItem;
+import org.jboss.logging.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ObjLongConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only local store of STAC items in memory-mapped segment files.
+ *
+ * Items are appended as {@code [length][crc32c][json]} records to fixed-size segments
+ * ({@code segment-000000.dat}, ...), each mapped read-write in full; a zero length marks
+ * the end of the written data. {@link #checkpoint} forces the segments to disk and then
+ * atomically replaces {@code checkpoint.json}, which records the durable write position
+ * together with caller state (e.g. how far a harvest got). On open, records after the
+ * checkpoint position are verified by checksum and the log is cut at the first torn or
+ * corrupt record, so a crash loses at most the appends since the last checkpoint.
+ *
+ * Every record has a position (segment and offset) at which {@link #read} finds it again.
+ * {@link #compact} copies the records still wanted into a fresh store in a sibling
+ * directory ({@code <dir>.compacting}), checkpoints it, and swaps it in by renaming; a crash
+ * before the swap leaves the old store in place, and one during it is finished on open.
+ * All methods are synchronized on the store.
+ */
+public class StacItemStore implements Closeable {
+
+    private static final Logger LOG = Logger.getLogger(StacItemStore.class);
+
+    private static final int HEADER_BYTES = 8;
+    private static final String CHECKPOINT_FILE = "checkpoint.json";
+    private static final String COMPACTING_SUFFIX = ".compacting";
+    private static final String RETIRED_SUFFIX = ".retired";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ObjectMapper objectMapper;
+
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private MappedByteBuffer current;
+    private Map<String, String> checkpointState;
+
+    /**
+     * Where the last checkpoint left the log, and the state saved with it.
+     */
+    record Checkpoint(int segment, int offset, Map<String, String> state) {}
+
+    private StacItemStore(Path directory, int segmentSize, ObjectMapper objectMapper) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Opens (or creates) the store in the given directory and recovers its write position.
+     *
+     * @param directory    store directory; created if missing
+     * @param segmentSize  size of each segment file in bytes; bounds the size of one item
+     * @param objectMapper mapper used to write and read items
+     * @return the opened store
+     * @throws IOException if the directory or segments cannot be read or mapped
+     */
+    public static StacItemStore open(Path directory, int segmentSize, ObjectMapper objectMapper) throws IOException {
+        StacItemStore store = new StacItemStore(directory, segmentSize, objectMapper);
+        store.recover();
+        return store;
+    }
+
+    /**
+     * Returns the state saved with the last checkpoint; empty for a new store.
+     */
+    public synchronized Map<String, String> checkpointState() {
+        return checkpointState;
+    }
+
+    /**
+     * Appends an item. It is durable only after the next {@link #checkpoint}.
+     *
+     * @return the position of the record, for {@link #read}
+     * @throws IOException if the item cannot be serialized or is larger than a segment
+     */
+    public synchronized long append(StacItem item) throws IOException {
+        byte[] payload = objectMapper.writeValueAsBytes(item);
+        if (payload.length + HEADER_BYTES > segmentSize - Integer.BYTES) {
+            throw new IOException("STAC item " + item.getId() + " does not fit in a store segment");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        return write(ByteBuffer.wrap(payload), (int) crc.getValue());
+    }
+
+    /**
+     * Reads the item stored at a position returned by {@link #append} or {@link #forEach}.
+     *
+     * @throws IOException if no intact record is stored there
+     */
+    public synchronized StacItem read(long position) throws IOException {
+        int segment = (int) (position >>> 32);
+        int offset = (int) position;
+        if (segment < 0 || segment >= segments.size() || offset < 0 || offset + HEADER_BYTES > segmentSize) {
+            throw new IOException("No STAC store record at segment " + segment + " offset " + offset);
+        }
+        MappedByteBuffer buffer = segments.get(segment);
+        int length = buffer.getInt(offset);
+        if (length <= 0 || offset + HEADER_BYTES + length > segmentSize || !checksumMatches(buffer, offset, length)) {
+            throw new IOException("No intact STAC store record at segment " + segment + " offset " + offset);
+        }
+        return objectMapper.readValue(
+                new ByteBufferBackedInputStream(buffer.slice(offset + HEADER_BYTES, length)), StacItem.class);
+    }
+
+    /**
+     * Forces all appended items to disk, then atomically records the write position
+     * together with the given state.
+     *
+     * @param state caller state to restore on the next open
+     * @throws IOException if the segments or the checkpoint file cannot be written
+     */
+    public synchronized void checkpoint(Map<String, String> state) throws IOException {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+        Checkpoint checkpoint = new Checkpoint(segments.size() - 1, current.position(), Map.copyOf(state));
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(objectMapper.writeValueAsBytes(checkpoint)));
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(CHECKPOINT_FILE),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        this.checkpointState = checkpoint.state();
+    }
+
+    /**
+     * Reads every stored item in append order. Later records for the same item ID
+     * supersede earlier ones; callers replaying into a map get the latest version.
+     * Records whose checksum does not match are skipped.
+     *
+     * @param consumer receives each item with its position
+     * @return number of records read
+     * @throws IOException if a record cannot be parsed
+     */
+    public synchronized int forEach(ObjLongConsumer<StacItem> consumer) throws IOException {
+        int count = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            MappedByteBuffer segment = segments.get(i);
+            int end = segment == current ? current.position() : segmentSize;
+            int offset = 0;
+            while (offset + HEADER_BYTES <= end) {
+                int length = segment.getInt(offset);
+                if (length <= 0 || offset + HEADER_BYTES + length > end) {
+                    break;
+                }
+                if (checksumMatches(segment, offset, length)) {
+                    ByteBuffer payload = segment.slice(offset + HEADER_BYTES, length);
+                    consumer.accept(objectMapper.readValue(new ByteBufferBackedInputStream(payload), StacItem.class),
+                            position(i, offset));
+                    count++;
+                } else {
+                    LOG.warnf("Skipping corrupt STAC store record in segment %d at offset %d", i, offset);
+                }
+                offset += HEADER_BYTES + length;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Rewrites the store to hold only the records at the given positions, in that order, and
+     * checkpoints it with the state of the last checkpoint. Positions returned earlier become
+     * invalid.
+     *
+     * @param positions positions of the records to keep
+     * @return the new position of each kept record, in the same order
+     * @throws IOException if the compacted store cannot be written or swapped in; the store
+     *         is left as it was unless the swap itself failed
+     */
+    public synchronized long[] compact(long[] positions) throws IOException {
+        Path compacting = sibling(directory, COMPACTING_SUFFIX);
+        Path retired = sibling(directory, RETIRED_SUFFIX);
+        deleteDirectory(compacting);
+        StacItemStore target = new StacItemStore(compacting, segmentSize, objectMapper);
+        target.recover();
+        long[] moved = new long[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            MappedByteBuffer buffer = segments.get((int) (positions[i] >>> 32));
+            int offset = (int) positions[i];
+            int length = buffer.getInt(offset);
+            moved[i] = target.write(buffer.slice(offset + HEADER_BYTES, length), buffer.getInt(offset + Integer.BYTES));
+        }
+        target.checkpoint(checkpointState);
+
+        deleteDirectory(retired);
+        Files.move(directory, retired, StandardCopyOption.ATOMIC_MOVE);
+        Files.move(compacting, directory, StandardCopyOption.ATOMIC_MOVE);
+        segments.clear();
+        segments.addAll(target.segments);
+        current = target.current;
+        deleteDirectory(retired);
+        LOG.infof("Compacted STAC item store %s to %d records", directory, positions.length);
+        return moved;
+    }
+
+    @Override
+    public synchronized void close() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    private void recover() throws IOException {
+        Path compacting = sibling(directory, COMPACTING_SUFFIX);
+        if (!Files.exists(directory) && Files.exists(compacting.resolve(CHECKPOINT_FILE))) {
+            // a crash between the two renames of a compaction; the compacted store is complete
+            Files.move(compacting, directory, StandardCopyOption.ATOMIC_MOVE);
+        }
+        deleteDirectory(compacting);
+        deleteDirectory(sibling(directory, RETIRED_SUFFIX));
+        Files.createDirectories(directory);
+        Checkpoint checkpoint = readCheckpoint();
+        this.checkpointState = checkpoint.state();
+
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> path.getFileName().toString().matches("segment-\\d{6}\\.dat"))
+                    .sorted()
+                    .toList();
+        }
+        for (int i = 0; i < files.size(); i++) {
+            if (!files.get(i).equals(segmentPath(i))) {
+                throw new IOException("Missing STAC store segment " + segmentPath(i));
+            }
+            segments.add(mapSegment(i));
+        }
+        if (segments.isEmpty()) {
+            segments.add(mapSegment(0));
+        }
+
+        // trust everything before the checkpoint; verify and cut the tail after it
+        int segment = Math.min(checkpoint.segment(), segments.size() - 1);
+        int offset = checkpoint.segment() < segments.size() ? checkpoint.offset() : 0;
+        while (true) {
+            MappedByteBuffer buffer = segments.get(segment);
+            offset = validRecordsEnd(buffer, offset);
+            // continue into the next segment only if this one ended cleanly
+            boolean endedCleanly = offset + Integer.BYTES <= segmentSize && buffer.getInt(offset) == 0;
+            if (!endedCleanly || segment + 1 == segments.size() || validRecordsEnd(segments.get(segment + 1), 0) == 0) {
+                break;
+            }
+            segment++;
+            offset = 0;
+        }
+        truncateAfter(segment, offset);
+        current = segments.get(segment);
+        current.position(offset);
+        LOG.infof("Opened STAC item store %s at segment %d offset %d", directory, segment, offset);
+    }
+
+    /**
+     * Appends one record with its checksum, moving to a fresh segment if it does not fit.
+     */
+    private long write(ByteBuffer payload, int crc) throws IOException {
+        int length = payload.remaining();
+        if (current.remaining() < length + HEADER_BYTES + Integer.BYTES) {
+            // leave room for a zero length terminator, then move to a fresh segment
+            current = mapSegment(segments.size());
+            segments.add(current);
+        }
+        long position = position(segments.size() - 1, current.position());
+        current.putInt(length);
+        current.putInt(crc);
+        current.put(payload);
+        return position;
+    }
+
+    private static long position(int segment, int offset) {
+        return (long) segment << 32 | offset;
+    }
+
+    /**
+     * Returns the offset after the last intact record starting at {@code offset}.
+     */
+    private int validRecordsEnd(MappedByteBuffer buffer, int offset) {
+        while (offset + HEADER_BYTES <= segmentSize) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || offset + HEADER_BYTES + length > segmentSize) {
+                break;
+            }
+            if (!checksumMatches(buffer, offset, length)) {
+                LOG.warnf("Discarding corrupt STAC store record at segment offset %d", offset);
+                break;
+            }
+            offset += HEADER_BYTES + length;
+        }
+        return offset;
+    }
+
+    private static boolean checksumMatches(MappedByteBuffer buffer, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset + HEADER_BYTES, length));
+        return (int) crc.getValue() == buffer.getInt(offset + Integer.BYTES);
+    }
+
+    /**
+     * Zeroes the rest of the given segment and deletes every later segment.
+     */
+    private void truncateAfter(int segment, int offset) throws IOException {
+        MappedByteBuffer buffer = segments.get(segment);
+        byte[] zeros = new byte[64 * 1024];
+        for (int at = offset; at < segmentSize; at += zeros.length) {
+            buffer.put(at, zeros, 0, Math.min(zeros.length, segmentSize - at));
+        }
+        while (segments.size() > segment + 1) {
+            segments.remove(segments.size() - 1);
+            Files.deleteIfExists(segmentPath(segments.size()));
+        }
+    }
+
+    private Checkpoint readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return new Checkpoint(0, 0, Map.of());
+        }
+        Checkpoint checkpoint = objectMapper.readValue(file.toFile(), Checkpoint.class);
+        return checkpoint.state() != null ? checkpoint : new Checkpoint(checkpoint.segment(), checkpoint.offset(), Map.of());
+    }
+
+    private MappedByteBuffer mapSegment(int index) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(index),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+
+    private Path segmentPath(int index) {
+        return directory.resolve(String.format("segment-%06d.dat", index));
+    }
+
+    private static Path sibling(Path directory, String suffix) {
+        return directory.resolveSibling(directory.getFileName() + suffix);
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
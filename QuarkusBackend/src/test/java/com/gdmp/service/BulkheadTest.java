@@ -0,0 +1,86 @@
+package com.gdmp.service;
+
+import com.gdmp.stac.UpstreamCall;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkheadTest {
+
+    @Test
+    void queuesBeyondTheLimitAndRejectsWhenTheQueueIsFull() {
+        Bulkhead bulkhead = new Bulkhead("test", 1, 1);
+        CompletableFuture<String> first = new CompletableFuture<>();
+
+        CompletableFuture<String> running = bulkhead.execute(() -> first);
+        CompletableFuture<String> queued = bulkhead.execute(() -> CompletableFuture.completedFuture("second"));
+        CompletableFuture<String> rejected = bulkhead.execute(() -> CompletableFuture.completedFuture("third"));
+
+        assertEquals(1, bulkhead.running());
+        assertEquals(1, bulkhead.queued());
+        CompletionException error = assertThrows(CompletionException.class, rejected::join);
+        assertTrue(error.getCause() instanceof Bulkhead.BulkheadFullException);
+        assertEquals(1, bulkhead.rejected());
+
+        first.complete("first");
+        assertEquals("first", running.join());
+        assertEquals("second", queued.join());
+        assertEquals(0, bulkhead.running());
+    }
+
+    @Test
+    void cancellingARunningCallCancelsItsExchange() {
+        Bulkhead bulkhead = new Bulkhead("test", 1, 1);
+        CompletableFuture<String> exchange = new CompletableFuture<>();
+        UpstreamCall<String> call = UpstreamCall.of(exchange, exchange.thenApply(String::trim), exchange);
+
+        bulkhead.execute(() -> call).cancel(true);
+
+        assertTrue(exchange.isCancelled());
+        assertTrue(call.isCancelled());
+        assertEquals(0, bulkhead.running());
+    }
+
+    @Test
+    void cancelledCallKeepsItsSlotUntilItsExchangesHaveFinished() {
+        Bulkhead bulkhead = new Bulkhead("test", 1, 1);
+        CompletableFuture<String> exchange = new CompletableFuture<>();
+        CompletableFuture<Void> settled = new CompletableFuture<>();
+        UpstreamCall<String> call = UpstreamCall.of(exchange, exchange.thenApply(String::trim), settled);
+
+        bulkhead.execute(() -> call).cancel(true);
+        CompletableFuture<String> next = bulkhead.execute(() -> CompletableFuture.completedFuture("next"));
+
+        assertEquals(1, bulkhead.running());
+        assertEquals(1, bulkhead.queued());
+        assertFalse(next.isDone());
+
+        settled.complete(null);
+        assertEquals("next", next.join());
+        assertEquals(0, bulkhead.running());
+    }
+
+    @Test
+    void cancellingAQueuedCallFreesItsQueueEntry() {
+        Bulkhead bulkhead = new Bulkhead("test", 1, 1);
+        CompletableFuture<String> first = new CompletableFuture<>();
+        bulkhead.execute(() -> first);
+        boolean[] started = new boolean[1];
+
+        bulkhead.execute(() -> {
+            started[0] = true;
+            return CompletableFuture.completedFuture("queued");
+        }).cancel(true);
+
+        assertEquals(0, bulkhead.queued());
+        first.complete("first");
+        assertFalse(started[0]);
+        assertEquals(0, bulkhead.running());
+    }
+}
@@ -0,0 +1,99 @@
+package com.gdmp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GridCellTest {
+
+    @Test
+    void numbersQuadrantsFromTheNorthWest() {
+        assertEquals("0", new GridCell(1, 0, 0).quadkey());
+        assertEquals("1", new GridCell(1, 1, 0).quadkey());
+        assertEquals("2", new GridCell(1, 0, 1).quadkey());
+        assertEquals("3", new GridCell(1, 1, 1).quadkey());
+        assertEquals(new GridCell(2, 1, 2), GridCell.fromQuadkey("21"));
+        assertEquals(List.of(-90.0, -45.0, 0.0, 0.0), boxed(GridCell.fromQuadkey("21").bbox()));
+    }
+
+    @Test
+    void roundTripsQuadkeysAtEveryLevel() {
+        Random random = new Random(3);
+        for (int level = 1; level <= GridCell.MAX_LEVEL; level++) {
+            for (int i = 0; i < 50; i++) {
+                GridCell cell = new GridCell(level, random.nextInt(1 << level), random.nextInt(1 << level));
+                String quadkey = cell.quadkey();
+                assertEquals(level, quadkey.length());
+                assertEquals(cell, GridCell.fromQuadkey(quadkey));
+            }
+        }
+    }
+
+    @Test
+    void rejectsMalformedQuadkeys() {
+        assertThrows(IllegalArgumentException.class, () -> GridCell.fromQuadkey(""));
+        assertThrows(IllegalArgumentException.class, () -> GridCell.fromQuadkey("0124"));
+        assertThrows(IllegalArgumentException.class, () -> GridCell.fromQuadkey("0".repeat(GridCell.MAX_LEVEL + 1)));
+    }
+
+    @Test
+    void coversACellBboxWithThatCellOnly() {
+        Random random = new Random(5);
+        for (int level = 1; level <= 16; level++) {
+            GridCell cell = new GridCell(level, random.nextInt(1 << level), random.nextInt(1 << level));
+            assertEquals(List.of(cell), GridCell.covering(cell.bbox(), 1, 24), cell.quadkey());
+        }
+        // the world's outer edges stay inside the grid
+        assertEquals(List.of(new GridCell(2, 0, 0), new GridCell(2, 1, 0)),
+                GridCell.covering(new double[] {-180, 45, -90 + 1e-9, 90}, 2, 2));
+    }
+
+    @Test
+    void coversABboxStraddlingCellBoundariesWithAtMostFourCells() {
+        Random random = new Random(11);
+        for (int i = 0; i < 1000; i++) {
+            double west = random.nextDouble() * 350 - 180;
+            double south = random.nextDouble() * 170 - 90;
+            double[] bbox = {west, south, Math.min(180, west + random.nextDouble() * 40),
+                             Math.min(90, south + random.nextDouble() * 20)};
+            List<GridCell> cells = GridCell.covering(bbox, 1, 14);
+
+            assertTrue(cells.size() <= 4, "cells " + cells.size());
+            double[] union = {180, 90, -180, -90};
+            for (GridCell cell : cells) {
+                double[] bounds = cell.bbox();
+                assertTrue(bounds[0] < bbox[2] && bounds[2] > bbox[0] && bounds[1] < bbox[3] && bounds[3] > bbox[1]
+                        || bbox[0] == bbox[2] || bbox[1] == bbox[3], "cell outside bbox");
+                union[0] = Math.min(union[0], bounds[0]);
+                union[1] = Math.min(union[1], bounds[1]);
+                union[2] = Math.max(union[2], bounds[2]);
+                union[3] = Math.max(union[3], bounds[3]);
+            }
+            assertTrue(union[0] <= bbox[0] && union[1] <= bbox[1] && union[2] >= bbox[2] && union[3] >= bbox[3],
+                    "bbox not covered");
+        }
+    }
+
+    @Test
+    void picksTheFinestLevelWithCellsAtLeastAsLargeAsTheBbox() {
+        // 10 degrees wide: level 5 cells are 11.25 degrees wide, level 6 only 5.625
+        assertEquals(5, GridCell.levelFor(new double[] {0, 0, 10, 1}, 1, 24));
+        // 10 degrees high counts as 20 wide, since cells are twice as wide as high
+        assertEquals(4, GridCell.levelFor(new double[] {0, 0, 1, 10}, 1, 24));
+        // exactly one level 3 cell
+        assertEquals(3, GridCell.levelFor(new double[] {0, 0, 45, 22.5}, 1, 24));
+        assertEquals(2, GridCell.levelFor(new double[] {-180, -90, 180, 90}, 2, 14));
+        assertEquals(14, GridCell.levelFor(new double[] {10, 10, 10, 10}, 2, 14));
+        assertEquals(14, GridCell.levelFor(new double[] {10, 10, 10.0001, 10.0001}, 2, 14));
+    }
+
+    private static List<Double> boxed(double[] values) {
+        return Arrays.stream(values).boxed().toList();
+    }
+}
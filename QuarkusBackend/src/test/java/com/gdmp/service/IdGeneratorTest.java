@@ -0,0 +1,126 @@
+package com.gdmp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdGeneratorTest {
+
+    private static final long NOW = Instant.parse("2025-03-01T12:00:00Z").toEpochMilli();
+
+    @Test
+    void issuesUniqueIncreasingIdsAcrossThreads() throws InterruptedException {
+        IdGenerator ids = new IdGenerator();
+        ids.init();
+        int threads = 8;
+        int perThread = 20_000;
+        List<List<String>> issued = new ArrayList<>();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            List<String> own = new ArrayList<>(perThread);
+            issued.add(own);
+            workers.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    own.add(ids.next("ORD-"));
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        Set<String> all = new HashSet<>();
+        for (List<String> own : issued) {
+            for (int i = 1; i < own.size(); i++) {
+                assertTrue(own.get(i - 1).compareTo(own.get(i)) < 0, own.get(i - 1) + " !< " + own.get(i));
+            }
+            all.addAll(own);
+        }
+        assertEquals(threads * perThread, all.size());
+    }
+
+    @Test
+    void carriesIntoTheNextMillisecondWhenTheSequenceRunsOut() {
+        IdGenerator ids = generator(() -> NOW);
+        String previous = null;
+        for (int i = 0; i < 4096; i++) {
+            String id = ids.next("ORD-");
+            assertEquals(Instant.ofEpochMilli(NOW), IdGenerator.timestampOf(id));
+            assertTrue(previous == null || previous.compareTo(id) < 0);
+            previous = id;
+        }
+        String carried = ids.next("ORD-");
+        assertEquals(Instant.ofEpochMilli(NOW + 1), IdGenerator.timestampOf(carried));
+        assertTrue(previous.compareTo(carried) < 0);
+    }
+
+    @Test
+    void keepsIncreasingWhenTheClockStepsBack() {
+        AtomicLong clock = new AtomicLong(NOW);
+        IdGenerator ids = generator(clock::get);
+        String before = ids.next("ORD-");
+
+        clock.set(NOW - 5_000);
+        String after = ids.next("ORD-");
+        assertTrue(before.compareTo(after) < 0);
+        assertEquals(Instant.ofEpochMilli(NOW), IdGenerator.timestampOf(after));
+
+        clock.set(NOW + 10);
+        assertEquals(Instant.ofEpochMilli(NOW + 10), IdGenerator.timestampOf(ids.next("ORD-")));
+    }
+
+    @Test
+    void encodesTimeOrderAsLexicalOrder() {
+        AtomicLong clock = new AtomicLong();
+        IdGenerator ids = generator(clock::get);
+        long[] times = {
+                IdGenerator.EPOCH_MILLIS,
+                IdGenerator.EPOCH_MILLIS + 1,
+                IdGenerator.EPOCH_MILLIS + 31,
+                IdGenerator.EPOCH_MILLIS + 32,
+                NOW,
+                Instant.parse("2099-12-31T23:59:59.999Z").toEpochMilli(),
+                Instant.parse("2163-01-01T00:00:00Z").toEpochMilli()
+        };
+        String previous = null;
+        for (long time : times) {
+            clock.set(time);
+            String id = ids.next("TPL-");
+            assertTrue(id.startsWith("TPL-"));
+            assertEquals(17, id.length());
+            assertTrue(id.substring(4).chars().allMatch(c -> "0123456789ABCDEFGHJKMNPQRSTVWXYZ".indexOf(c) >= 0), id);
+            assertEquals(Instant.ofEpochMilli(time), IdGenerator.timestampOf(id));
+            assertTrue(previous == null || previous.compareTo(id) < 0, previous + " !< " + id);
+            previous = id;
+        }
+    }
+
+    @Test
+    void rejectsIdsItDidNotGenerate() {
+        assertThrows(IllegalArgumentException.class, () -> IdGenerator.timestampOf("ORD-A1B2C3D4"));
+        assertThrows(IllegalArgumentException.class, () -> IdGenerator.timestampOf("ORD-0A8HJSHW80WU0"));
+    }
+
+    @Test
+    void rejectsNodeIdsOutOfRange() {
+        IdGenerator ids = new IdGenerator(() -> NOW);
+        ids.nodeId = IdGenerator.MAX_NODE_ID + 1;
+        assertThrows(IllegalArgumentException.class, ids::init);
+    }
+
+    private static IdGenerator generator(LongSupplier clock) {
+        IdGenerator ids = new IdGenerator(clock);
+        ids.init();
+        return ids;
+    }
+}
@@ -0,0 +1,183 @@
+package com.gdmp.service;
+
+import com.gdmp.model.dto.OrderPage;
+import com.gdmp.model.dto.OrderResponse;
+import com.gdmp.model.dto.OrderStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderIndexTest {
+
+    private static final String[] STATUSES = {"Submitted", "Processing", "Completed"};
+    private static final String[] FAMILIES = {"imagery", "elevation"};
+    private static final String[] TIERS = {"tactical", "strategic", "archive"};
+    private static final Instant START = Instant.parse("2025-01-01T00:00:00Z");
+
+    private final OrderIndex index = new OrderIndex();
+    private final Map<String, OrderResponse> orders = new HashMap<>();
+
+    @BeforeEach
+    void fill() {
+        Random random = new Random(7);
+        AtomicLong clock = new AtomicLong(START.toEpochMilli());
+        IdGenerator ids = new IdGenerator(clock::get);
+        ids.init();
+        for (int i = 0; i < 500; i++) {
+            // a third of the orders share their millisecond with the one before
+            clock.addAndGet(random.nextInt(3) == 0 ? 0 : random.nextInt(60_000));
+            put(order(ids.next("ORD-"), STATUSES[random.nextInt(STATUSES.length)],
+                    FAMILIES[random.nextInt(FAMILIES.length)], TIERS[random.nextInt(TIERS.length)]));
+        }
+    }
+
+    @Test
+    void pagesThroughEveryFilterCombinationLikeABruteForceScan() {
+        List<OrderResponse> all = newestFirst(orders.values());
+        Instant from = Instant.parse(all.get(400).createdAt());
+        Instant to = Instant.parse(all.get(100).createdAt());
+        for (String status : withNull(STATUSES)) {
+            for (String family : withNull(FAMILIES)) {
+                for (String tier : withNull(TIERS)) {
+                    for (Instant[] range : new Instant[][] {{null, null}, {from, null}, {null, to}, {from, to}}) {
+                        OrderQuery query = new OrderQuery(status, family, tier, range[0], range[1], null, 7);
+                        List<OrderResponse> expected = all.stream().filter(order -> matches(order, query)).toList();
+                        assertEquals(ids(expected), ids(listAll(query)), query.toString());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void includesCreatedFromAndExcludesCreatedTo() {
+        List<OrderResponse> all = newestFirst(orders.values());
+        Instant boundary = Instant.parse(all.get(250).createdAt());
+
+        List<OrderResponse> before = listAll(new OrderQuery(null, null, null, null, boundary, null, 50));
+        assertTrue(before.stream().allMatch(order -> Instant.parse(order.createdAt()).isBefore(boundary)));
+        List<OrderResponse> after = listAll(new OrderQuery(null, null, null, boundary, null, null, 50));
+        assertTrue(after.stream().allMatch(order -> !Instant.parse(order.createdAt()).isBefore(boundary)));
+        assertTrue(after.stream().anyMatch(order -> Instant.parse(order.createdAt()).equals(boundary)));
+        assertEquals(all.size(), before.size() + after.size());
+    }
+
+    @Test
+    void continuesFromTheCursorAndEndsWithoutOne() {
+        OrderQuery first = new OrderQuery(null, null, null, null, null, null, 200);
+        OrderPage page1 = index.list(first, orders::get);
+        OrderPage page2 = index.list(withCursor(first, page1.nextCursor()), orders::get);
+        OrderPage page3 = index.list(withCursor(first, page2.nextCursor()), orders::get);
+
+        assertEquals(200, page1.orders().size());
+        assertEquals(200, page2.orders().size());
+        assertEquals(100, page3.orders().size());
+        assertNull(page3.nextCursor());
+        List<OrderResponse> joined = new ArrayList<>(page1.orders());
+        joined.addAll(page2.orders());
+        joined.addAll(page3.orders());
+        assertEquals(ids(newestFirst(orders.values())), ids(joined));
+
+        // an order created after the first page does not shift the later ones
+        put(order(new IdGenerator().next("ORD-"), "Submitted", "imagery", "tactical"));
+        assertEquals(ids(page2.orders()),
+                ids(index.list(withCursor(first, page1.nextCursor()), orders::get).orders()));
+    }
+
+    @Test
+    void movesAnOrderBetweenStatusIndexesWhenItsStatusChanges() {
+        OrderResponse submitted = orders.values().stream()
+                .filter(order -> order.status().equals("Submitted"))
+                .findFirst().orElseThrow();
+        OrderResponse completed = submitted.withStatus(OrderStatus.COMPLETED, Instant.now().toString());
+        put(completed);
+
+        OrderQuery bySubmitted = new OrderQuery("Submitted", null, null, null, null, null, 1000);
+        OrderQuery byCompleted = new OrderQuery("Completed", null, null, null, null, null, 1000);
+        assertTrue(listAll(bySubmitted).stream().noneMatch(order -> order.orderId().equals(submitted.orderId())));
+        assertTrue(listAll(byCompleted).stream().anyMatch(order -> order.orderId().equals(submitted.orderId())));
+
+        index.update(completed, null);
+        orders.remove(completed.orderId());
+        assertTrue(listAll(byCompleted).stream().noneMatch(order -> order.orderId().equals(submitted.orderId())));
+        assertEquals(orders.size(), listAll(new OrderQuery(null, null, null, null, null, null, 1000)).size());
+    }
+
+    @Test
+    void returnsNothingForUnknownValuesAndRejectsMalformedCursors() {
+        OrderPage page = index.list(new OrderQuery("Unknown", null, null, null, null, null, 10), orders::get);
+        assertTrue(page.orders().isEmpty());
+        assertNull(page.nextCursor());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> index.list(new OrderQuery(null, null, null, null, null, "not a cursor", 10), orders::get));
+    }
+
+    private void put(OrderResponse order) {
+        index.update(orders.put(order.orderId(), order), order);
+    }
+
+    private List<OrderResponse> listAll(OrderQuery query) {
+        List<OrderResponse> listed = new ArrayList<>();
+        String cursor = null;
+        do {
+            OrderPage page = index.list(withCursor(query, cursor), orders::get);
+            assertTrue(page.orders().size() <= query.limit());
+            listed.addAll(page.orders());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return listed;
+    }
+
+    private static OrderQuery withCursor(OrderQuery query, String cursor) {
+        return new OrderQuery(query.status(), query.familyId(), query.tierId(), query.createdFrom(),
+                query.createdTo(), cursor, query.limit());
+    }
+
+    private static boolean matches(OrderResponse order, OrderQuery query) {
+        Instant createdAt = Instant.parse(order.createdAt());
+        return (query.status() == null || query.status().equals(order.status()))
+                && (query.familyId() == null || query.familyId().equals(order.familyId()))
+                && (query.tierId() == null || query.tierId().equals(order.tierId()))
+                && (query.createdFrom() == null || !createdAt.isBefore(query.createdFrom()))
+                && (query.createdTo() == null || createdAt.isBefore(query.createdTo()));
+    }
+
+    private static List<OrderResponse> newestFirst(Iterable<OrderResponse> orders) {
+        List<OrderResponse> sorted = new ArrayList<>();
+        orders.forEach(sorted::add);
+        sorted.sort(Comparator.comparing((OrderResponse order) -> Instant.parse(order.createdAt()))
+                .thenComparing(OrderResponse::orderId)
+                .reversed());
+        return sorted;
+    }
+
+    private static List<String> ids(List<OrderResponse> orders) {
+        return orders.stream().map(OrderResponse::orderId).toList();
+    }
+
+    private static String[] withNull(String[] values) {
+        String[] all = new String[values.length + 1];
+        System.arraycopy(values, 0, all, 1, values.length);
+        return all;
+    }
+
+    private static OrderResponse order(String orderId, String status, String familyId, String tierId) {
+        String createdAt = IdGenerator.timestampOf(orderId).toString();
+        return new OrderResponse(orderId, status, familyId, "electro-optical", tierId, null, null,
+                createdAt, createdAt, null);
+    }
+}
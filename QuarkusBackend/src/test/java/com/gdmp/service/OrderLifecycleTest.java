@@ -0,0 +1,202 @@
+package com.gdmp.service;
+
+import com.gdmp.model.dto.OrderResponse;
+import com.gdmp.model.dto.OrderSchedule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderLifecycleTest {
+
+    private static final Instant START = Instant.parse("2025-06-01T00:00:00Z");
+
+    private final MutableClock clock = new MutableClock(START);
+    private final TimingWheel wheel = new TimingWheel(Duration.ofSeconds(1), clock);
+    private final FakeOrderStore store = new FakeOrderStore();
+    private final OrderLifecycle lifecycle = new OrderLifecycle();
+
+    @BeforeEach
+    void setUp() {
+        FamilyService familyService = new FamilyService();
+        familyService.init();
+        lifecycle.orderStore = store;
+        lifecycle.familyService = familyService;
+        lifecycle.meterRegistry = new SimpleMeterRegistry();
+        lifecycle.tick = Duration.ofSeconds(1);
+        lifecycle.catchUpPerTick = 2;
+    }
+
+    @Test
+    void startsProcessingAtTheStartDateAndCompletesAfterTheDeliveryTime() {
+        lifecycle.init(wheel);
+        // the tactical tier delivers in "6-12 hours"
+        lifecycle.submit(order("ORD-1", START.plus(Duration.ofHours(1)), null)).toCompletableFuture().join();
+
+        advance(Duration.ofMinutes(59));
+        assertEquals(List.of("Submitted"), store.history("ORD-1"));
+        advance(Duration.ofMinutes(1));
+        assertEquals(List.of("Submitted", "Processing"), store.history("ORD-1"));
+        assertEquals(START.plus(Duration.ofHours(1)).toString(), store.get("ORD-1").updatedAt());
+
+        advance(Duration.ofHours(12).minusSeconds(1));
+        assertEquals("Processing", store.get("ORD-1").status());
+        advance(Duration.ofSeconds(1));
+        assertEquals(List.of("Submitted", "Processing", "Completed"), store.history("ORD-1"));
+        assertEquals(0, wheel.pending());
+    }
+
+    @Test
+    void expiresAtTheEndOfTheExpirationDate() {
+        lifecycle.init(wheel);
+        lifecycle.submit(order("ORD-1", START.plus(Duration.ofDays(3)), "2025-06-01")).toCompletableFuture().join();
+
+        advance(Duration.ofHours(24).minusSeconds(1));
+        assertEquals("Submitted", store.get("ORD-1").status());
+        advance(Duration.ofSeconds(1));
+        assertEquals(List.of("Submitted", "Expired"), store.history("ORD-1"));
+        assertEquals(0, wheel.pending());
+    }
+
+    @Test
+    void cancelsPendingOrdersOnly() {
+        lifecycle.init(wheel);
+        lifecycle.submit(order("ORD-1", START.plus(Duration.ofHours(1)), null)).toCompletableFuture().join();
+
+        assertEquals("Cancelled", lifecycle.cancel("ORD-1").toCompletableFuture().join().status());
+        assertThrows(IllegalStateException.class, () -> lifecycle.cancel("ORD-1"));
+        assertNull(lifecycle.cancel("ORD-2"));
+
+        advance(Duration.ofHours(2));
+        assertEquals(List.of("Submitted", "Cancelled"), store.history("ORD-1"));
+    }
+
+    @Test
+    void restoresAnOrderWhoseTransitionCannotBeStoredAndRetriesAMinuteLater() {
+        lifecycle.init(wheel);
+        lifecycle.submit(order("ORD-1", START.plusSeconds(10), null)).toCompletableFuture().join();
+
+        store.failing = true;
+        advance(Duration.ofSeconds(10));
+        assertEquals(1, store.failures);
+        assertEquals("Submitted", store.get("ORD-1").status());
+
+        // the restored order can still be cancelled, and a failed cancel leaves it pending too
+        CompletionException error = assertThrows(CompletionException.class,
+                () -> lifecycle.cancel("ORD-1").toCompletableFuture().join());
+        assertTrue(error.getCause() instanceof IOException);
+
+        store.failing = false;
+        advance(Duration.ofSeconds(59));
+        assertEquals(List.of("Submitted"), store.history("ORD-1"));
+        advance(Duration.ofSeconds(1));
+        assertEquals(List.of("Submitted", "Processing"), store.history("ORD-1"));
+    }
+
+    @Test
+    void tracksNothingWhenASubmittedOrderCannotBeStored() {
+        lifecycle.init(wheel);
+        store.failing = true;
+        CompletionException error = assertThrows(CompletionException.class,
+                () -> lifecycle.submit(order("ORD-1", START, null)).toCompletableFuture().join());
+        assertTrue(error.getCause() instanceof IOException);
+        store.failing = false;
+
+        advance(Duration.ofMinutes(5));
+        assertEquals(List.of(), store.history("ORD-1"));
+        assertEquals(0, wheel.pending());
+        assertNull(lifecycle.cancel("ORD-1"));
+    }
+
+    @Test
+    void spreadsDeadlinesMissedWhileDownOverTicks() {
+        for (int i = 1; i <= 5; i++) {
+            store.put(order("ORD-" + i, START.minus(Duration.ofDays(1)), null));
+        }
+        lifecycle.init(wheel);
+
+        int[] processingAfterTick = {2, 4, 5};
+        for (int expected : processingAfterTick) {
+            advance(Duration.ofSeconds(1));
+            assertEquals(expected, store.count("Processing"));
+        }
+    }
+
+    private void advance(Duration duration) {
+        // one tick at a time, as the ticker thread would
+        Instant target = clock.instant().plus(duration);
+        while (clock.instant().isBefore(target)) {
+            Duration step = Duration.between(clock.instant(), target);
+            clock.advance(step.compareTo(Duration.ofMinutes(1)) > 0 ? Duration.ofMinutes(1) : step);
+            wheel.advance();
+        }
+    }
+
+    private static OrderResponse order(String orderId, Instant start, String expirationDate) {
+        OrderSchedule schedule = new OrderSchedule("Test order", start.toString(), null, expirationDate,
+                "standard", false, null, null, null);
+        String createdAt = START.toString();
+        return new OrderResponse(orderId, "Submitted", "imagery", "electro-optical", "tactical", null, schedule,
+                createdAt, createdAt, null);
+    }
+
+    /**
+     * Keeps orders in memory, records every stored status, and fails saves on demand.
+     */
+    private static final class FakeOrderStore extends OrderStore {
+
+        private final Map<String, OrderResponse> orders = new ConcurrentHashMap<>();
+        private final Map<String, List<String>> histories = new ConcurrentHashMap<>();
+        volatile boolean failing;
+        volatile int failures;
+
+        @Override
+        public CompletionStage<OrderResponse> save(OrderResponse order) {
+            if (failing) {
+                failures++;
+                return CompletableFuture.failedFuture(new IOException("Store failed"));
+            }
+            put(order);
+            return CompletableFuture.completedFuture(order);
+        }
+
+        void put(OrderResponse order) {
+            orders.put(order.orderId(), order);
+            histories.computeIfAbsent(order.orderId(), id -> new ArrayList<>()).add(order.status());
+        }
+
+        @Override
+        public OrderResponse get(String id) {
+            return orders.get(id);
+        }
+
+        @Override
+        public void forEach(Consumer<OrderResponse> consumer) {
+            orders.values().forEach(consumer);
+        }
+
+        List<String> history(String orderId) {
+            return histories.getOrDefault(orderId, List.of());
+        }
+
+        long count(String status) {
+            return orders.values().stream().filter(order -> order.status().equals(status)).count();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.gdmp.service;
+
+import com.gdmp.model.dto.OrderSchedule;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecurrenceTest {
+
+    @Test
+    void readsDeliveryWindowsIncludingOvernightAndEndOfDay() {
+        Recurrence daytime = Recurrence.of(schedule("daily", "0600-1800 UTC"), Instant.EPOCH);
+        assertEquals(LocalTime.of(6, 0), daytime.windowStart());
+        assertEquals(Duration.ofHours(12), daytime.window());
+
+        Recurrence overnight = Recurrence.of(schedule("daily", "22:30-02:00"), Instant.EPOCH);
+        assertEquals(LocalTime.of(22, 30), overnight.windowStart());
+        assertEquals(Duration.ofMinutes(210), overnight.window());
+
+        Recurrence evening = Recurrence.of(schedule("daily", "1800-2400"), Instant.EPOCH);
+        assertEquals(Duration.ofHours(6), evening.window());
+        assertEquals(Instant.parse("2024-06-02T00:00:00Z"), evening.end(LocalDate.parse("2024-06-01")));
+    }
+
+    @Test
+    void rejectsDeliveryWindowsOutsideTheDay() {
+        for (String window : new String[] {"0960-1000", "2500-0100", "0600-2460", "2400-0600", "0600-2401"}) {
+            IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                    () -> Recurrence.of(schedule("daily", window), Instant.EPOCH));
+            assertEquals("Invalid delivery window: " + window, error.getMessage());
+        }
+    }
+
+    @Test
+    void rejectsUnknownFrequencies() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> Recurrence.of(schedule("yearly", null), Instant.EPOCH));
+        assertTrue(error.getMessage().contains("yearly"));
+    }
+
+    @Test
+    void clampsMonthlyOccurrencesAndStopsAfterTheEndDate() {
+        OrderSchedule schedule = new OrderSchedule("Monthly", "2024-01-31", "2024-04-30", null, "standard",
+                true, "monthly", null, null);
+        Recurrence recurrence = Recurrence.of(schedule, Instant.EPOCH);
+        assertEquals(LocalDate.parse("2024-02-29"), recurrence.date(1));
+        assertEquals(LocalDate.parse("2024-04-30"), recurrence.date(3));
+        assertNull(recurrence.date(4));
+    }
+
+    private static OrderSchedule schedule(String frequency, String deliveryWindow) {
+        return new OrderSchedule("Recurring", "2024-06-01", null, null, "standard", true, frequency, null,
+                deliveryWindow);
+    }
+}
@@ -0,0 +1,137 @@
+package com.gdmp.service;
+
+import com.gdmp.model.dto.CatalogSearchResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SearchCacheTest {
+
+    private static final Duration TTL = Duration.ofMinutes(2);
+    private static final Duration MAX_STALE = Duration.ofMinutes(10);
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private final SearchCache cache = new SearchCache(2, TTL, MAX_STALE, now::get);
+
+    @Test
+    void servesAnEntryFromTheCacheUntilItsTtl() {
+        Loader loader = new Loader();
+        assertEquals(Integer.valueOf(1), matched(cache.get(key("a"), loader)));
+        now.addAndGet(TTL.toNanos());
+        assertEquals(Integer.valueOf(1), matched(cache.get(key("a"), loader)));
+
+        assertEquals(1, loader.calls.get());
+        SearchCache.Stats stats = cache.stats();
+        assertEquals(1L, stats.misses());
+        assertEquals(1L, stats.hits());
+    }
+
+    @Test
+    void servesAStaleEntryWhileOneRefreshReplacesIt() {
+        cache.get(key("a"), new Loader());
+        now.addAndGet(TTL.toNanos() + 1);
+
+        CompletableFuture<CatalogSearchResponse> refresh = new CompletableFuture<>();
+        AtomicInteger refreshes = new AtomicInteger();
+        Supplier<CompletionStage<CatalogSearchResponse>> refresher = () -> {
+            refreshes.incrementAndGet();
+            return refresh;
+        };
+        assertEquals(Integer.valueOf(1), matched(cache.get(key("a"), refresher)));
+        assertEquals(Integer.valueOf(1), matched(cache.get(key("a"), refresher)));
+        assertEquals(1, refreshes.get());
+
+        refresh.complete(CatalogSearchResponse.of(List.of(), 2));
+        assertEquals(Integer.valueOf(2), matched(cache.get(key("a"), refresher)));
+        SearchCache.Stats stats = cache.stats();
+        assertEquals(2L, stats.staleHits());
+        assertEquals(1L, stats.refreshes());
+        assertEquals(1L, stats.hits());
+    }
+
+    @Test
+    void keepsServingAStaleEntryIfItsRefreshFails() {
+        cache.get(key("a"), new Loader());
+        now.addAndGet(TTL.toNanos() + 1);
+
+        Supplier<CompletionStage<CatalogSearchResponse>> failing =
+                () -> CompletableFuture.failedFuture(new IllegalStateException("upstream down"));
+        assertEquals(Integer.valueOf(1), matched(cache.get(key("a"), failing)));
+        Supplier<CompletionStage<CatalogSearchResponse>> partial =
+                () -> CompletableFuture.completedFuture(CatalogSearchResponse.of(List.of(), 2)
+                        .withFailedProviders(List.of("earth-search")));
+        assertEquals(Integer.valueOf(1), matched(cache.get(key("a"), partial)));
+
+        assertEquals(2L, cache.stats().refreshFailures());
+        assertEquals(0L, cache.stats().refreshes());
+    }
+
+    @Test
+    void reloadsAnEntryPastItsMaximumStaleness() {
+        Loader loader = new Loader();
+        cache.get(key("a"), loader);
+        now.addAndGet(TTL.plus(MAX_STALE).toNanos() + 1);
+
+        assertEquals(Integer.valueOf(2), matched(cache.get(key("a"), loader)));
+        assertEquals(2L, cache.stats().misses());
+        assertEquals(0L, cache.stats().staleHits());
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntry() {
+        Loader loader = new Loader();
+        cache.get(key("a"), loader);
+        cache.get(key("b"), loader);
+        // touch "a", so "b" is the least recently used
+        cache.get(key("a"), loader);
+        cache.get(key("c"), loader);
+
+        assertEquals(3, loader.calls.get());
+        assertEquals(1L, cache.stats().evictions());
+        assertEquals(2, cache.stats().size());
+        assertEquals(Integer.valueOf(1), matched(cache.get(key("a"), loader)));
+        assertEquals(Integer.valueOf(4), matched(cache.get(key("b"), loader)));
+    }
+
+    @Test
+    void doesNotCachePartialResponses() {
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<CompletionStage<CatalogSearchResponse>> partial = () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture(CatalogSearchResponse.of(List.of(), 1)
+                    .withFailedProviders(List.of("earth-search")));
+        };
+        cache.get(key("a"), partial);
+        cache.get(key("a"), partial);
+
+        assertEquals(2, calls.get());
+        assertEquals(0, cache.stats().size());
+    }
+
+    private static SearchKey key(String collection) {
+        return new SearchKey(List.of(), null, List.of(collection), 10, null, List.of(), List.of());
+    }
+
+    private static Integer matched(CompletionStage<CatalogSearchResponse> response) {
+        return response.toCompletableFuture().join().numberMatched();
+    }
+
+    /** Loads responses whose numberMatched counts the loads. */
+    private static final class Loader implements Supplier<CompletionStage<CatalogSearchResponse>> {
+
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public CompletionStage<CatalogSearchResponse> get() {
+            return CompletableFuture.completedFuture(CatalogSearchResponse.of(List.of(), calls.incrementAndGet()));
+        }
+    }
+}
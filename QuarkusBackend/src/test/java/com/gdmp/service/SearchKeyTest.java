@@ -0,0 +1,55 @@
+package com.gdmp.service;
+
+import com.gdmp.model.dto.CatalogSearchFields;
+import com.gdmp.model.dto.CatalogSearchRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SearchKeyTest {
+
+    @Test
+    void normalizesDatetimeOffsetsToUtc() {
+        assertEquals("2024-01-01T00:00:00Z", SearchKey.normalizeDatetime("2024-01-01T02:00:00+02:00"));
+        assertEquals("2024-01-01T00:00:00Z/..", SearchKey.normalizeDatetime(" 2024-01-01t00:00:00z/ "));
+        assertEquals("../2024-01-31T22:00:00Z", SearchKey.normalizeDatetime("../2024-02-01T00:00:00+02:00"));
+        assertEquals("2024-01-01/2024-01-31", SearchKey.normalizeDatetime("2024-01-01/2024-01-31"));
+        assertNull(SearchKey.normalizeDatetime(" "));
+    }
+
+    @Test
+    void mapsEquivalentRequestsToTheSameKey() {
+        SearchKey key = SearchKey.of(new CatalogSearchRequest(new double[] {10.00041, 50.0, 11.0, 51.0},
+                "2024-01-01T01:00:00+01:00/..", new String[] {"sentinel-2-l2a", " landsat-c2-l2 ", "sentinel-2-l2a"}), 3);
+        SearchKey equivalent = SearchKey.of(new CatalogSearchRequest(new double[] {10.0, 49.99951, 11.0, 51.0},
+                "2024-01-01T00:00:00Z/..", new String[] {"landsat-c2-l2", "sentinel-2-l2a", ""}), 3);
+
+        assertEquals(equivalent, key);
+        assertEquals(List.of(10.0, 50.0, 11.0, 51.0), key.bbox());
+        assertEquals(List.of("landsat-c2-l2", "sentinel-2-l2a"), key.collections());
+    }
+
+    @Test
+    void keepsRequestsApartThatDifferAbovePrecisionOrInFields() {
+        CatalogSearchRequest request = new CatalogSearchRequest(new double[] {10.0, 50.0, 11.0, 51.0}, null, null);
+        SearchKey key = SearchKey.of(request, 3);
+
+        assertFalse(key.equals(SearchKey.of(new CatalogSearchRequest(new double[] {10.001, 50.0, 11.0, 51.0}, null, null), 3)));
+        assertFalse(key.equals(SearchKey.of(new CatalogSearchRequest(request.bbox(), null, null, 20), 3)));
+        assertFalse(key.equals(SearchKey.of(request.withCursor("abc"), 3)));
+
+        SearchKey projected = SearchKey.of(new CatalogSearchRequest(request.bbox(), null, null, 10, null,
+                new CatalogSearchFields(new String[] {"properties", "id", "id"}, null), false, null, null), 3);
+        assertEquals(List.of("id", "properties"), projected.include());
+        assertFalse(key.equals(projected));
+    }
+
+    @Test
+    void leavesAnAbsentBboxEmpty() {
+        assertEquals(List.of(), SearchKey.of(new CatalogSearchRequest(null, null, null), 3).bbox());
+    }
+}
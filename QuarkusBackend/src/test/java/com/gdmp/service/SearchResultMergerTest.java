@@ -0,0 +1,178 @@
+package com.gdmp.service;
+
+import com.gdmp.model.dto.CatalogSearchResponse;
+import com.gdmp.service.SearchResultMerger.ProviderResult;
+import com.gdmp.stac.StacItem;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SearchResultMergerTest {
+
+    @Test
+    void trimsTheMergedPageToTheLimitNewestFirst() {
+        CatalogSearchResponse merged = SearchResultMerger.merge(List.of(
+                result("a", CatalogCursor.Resume.FIRST_PAGE, "a2", page(item("a1", 9), item("a2", 6), item("a3", 3))),
+                result("b", CatalogCursor.Resume.FIRST_PAGE, null, page(item("b1", 8), item("b2", 7), item("b3", 1)))),
+                null, 3, item -> true);
+
+        assertEquals(List.of("a1", "b1", "b2"), ids(merged));
+        assertEquals(Integer.valueOf(6), merged.numberMatched());
+        Map<String, String> tokens = CatalogCursor.decode(merged.nextCursor());
+        assertEquals(new CatalogCursor.Resume(null, 1), CatalogCursor.Resume.decode(tokens.get("a")));
+        assertEquals(new CatalogCursor.Resume(null, 2), CatalogCursor.Resume.decode(tokens.get("b")));
+    }
+
+    @Test
+    void resumesPastTheItemsAlreadyReturned() {
+        List<StacItem> pageA = page(item("a1", 9), item("a2", 6), item("a3", 3));
+        List<StacItem> pageB = page(item("b1", 8), item("b2", 7), item("b3", 1));
+        List<String> seen = new ArrayList<>();
+        CatalogCursor.Resume resumeA = CatalogCursor.Resume.FIRST_PAGE;
+        CatalogCursor.Resume resumeB = CatalogCursor.Resume.FIRST_PAGE;
+        CatalogCursor.LastReturned lastReturned = null;
+        String cursor;
+        do {
+            List<ProviderResult> results = new ArrayList<>();
+            if (resumeA != null) {
+                results.add(result("a", resumeA, null, pageA));
+            }
+            if (resumeB != null) {
+                results.add(result("b", resumeB, null, pageB));
+            }
+            CatalogSearchResponse merged = SearchResultMerger.merge(results, lastReturned, 4, item -> true);
+            seen.addAll(ids(merged));
+            cursor = merged.nextCursor();
+            Map<String, String> tokens = cursor != null ? CatalogCursor.decode(cursor) : Map.of();
+            resumeA = tokens.containsKey("a") ? CatalogCursor.Resume.decode(tokens.get("a")) : null;
+            resumeB = tokens.containsKey("b") ? CatalogCursor.Resume.decode(tokens.get("b")) : null;
+            lastReturned = tokens.containsKey(CatalogCursor.LAST_RETURNED_KEY)
+                    ? CatalogCursor.LastReturned.decode(tokens.get(CatalogCursor.LAST_RETURNED_KEY)) : null;
+        } while (cursor != null);
+
+        assertEquals(List.of("a1", "b1", "b2", "a2", "a3", "b3"), seen);
+    }
+
+    @Test
+    void doesNotReturnAnItemAgainOnALaterPage() {
+        // both sources hold x and y at the same datetime, in different order
+        List<StacItem> pageA = page(item("x", 9), item("y", 9), item("a1", 5));
+        List<StacItem> pageB = page(item("y", 9), item("x", 9), item("b1", 4));
+        List<String> seen = new ArrayList<>();
+        CatalogCursor.Resume resumeA = CatalogCursor.Resume.FIRST_PAGE;
+        CatalogCursor.Resume resumeB = CatalogCursor.Resume.FIRST_PAGE;
+        CatalogCursor.LastReturned lastReturned = null;
+        String cursor;
+        do {
+            List<ProviderResult> results = new ArrayList<>();
+            if (resumeA != null) {
+                results.add(result("a", resumeA, null, pageA));
+            }
+            if (resumeB != null) {
+                results.add(result("b", resumeB, null, pageB));
+            }
+            CatalogSearchResponse merged = SearchResultMerger.merge(results, lastReturned, 1, item -> true);
+            seen.addAll(ids(merged));
+            cursor = merged.nextCursor();
+            Map<String, String> tokens = cursor != null ? CatalogCursor.decode(cursor) : Map.of();
+            resumeA = tokens.containsKey("a") ? CatalogCursor.Resume.decode(tokens.get("a")) : null;
+            resumeB = tokens.containsKey("b") ? CatalogCursor.Resume.decode(tokens.get("b")) : null;
+            lastReturned = tokens.containsKey(CatalogCursor.LAST_RETURNED_KEY)
+                    ? CatalogCursor.LastReturned.decode(tokens.get(CatalogCursor.LAST_RETURNED_KEY)) : null;
+        } while (cursor != null);
+
+        assertEquals(List.of("x", "y", "a1", "b1"), seen);
+    }
+
+    @Test
+    void roundTripsTheLastReturnedPosition() {
+        CatalogCursor.LastReturned last = new CatalogCursor.LastReturned(Instant.parse("2024-01-09T00:00:00Z"),
+                new LinkedHashSet<>(List.of("S2A_MSIL2A_1", "id,with:separators")));
+        assertEquals(last, CatalogCursor.LastReturned.decode(last.encode()));
+        CatalogCursor.LastReturned undated = new CatalogCursor.LastReturned(null, Set.of("x"));
+        assertEquals(undated, CatalogCursor.LastReturned.decode(undated.encode()));
+        assertThrows(IllegalArgumentException.class, () -> CatalogCursor.LastReturned.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> CatalogCursor.LastReturned.decode("eWVzdGVyZGF5"));
+    }
+
+    @Test
+    void carriesTheNextPageTokenOfAFullyTakenPage() {
+        CatalogSearchResponse merged = SearchResultMerger.merge(List.of(
+                result("a", new CatalogCursor.Resume("p1", 1), "p2", page(item("a1", 9), item("a2", 6)))),
+                null, 10, item -> true);
+
+        assertEquals(List.of("a2"), ids(merged));
+        assertEquals(new CatalogCursor.Resume("p2", 0),
+                CatalogCursor.Resume.decode(CatalogCursor.decode(merged.nextCursor()).get("a")));
+    }
+
+    @Test
+    void dropsDuplicatesAndFilteredItems() {
+        CatalogSearchResponse merged = SearchResultMerger.merge(List.of(
+                result("a", CatalogCursor.Resume.FIRST_PAGE, null, page(item("x", 9), item("y", 5))),
+                result("b", CatalogCursor.Resume.FIRST_PAGE, null, page(item("x", 9), item("z", 4)))),
+                null, 10, item -> !item.getId().equals("y"));
+
+        assertEquals(List.of("x", "z"), ids(merged));
+        assertNull(merged.nextCursor());
+    }
+
+    @Test
+    void doesNotStartTheNextPageWithADuplicate() {
+        CatalogSearchResponse merged = SearchResultMerger.merge(List.of(
+                result("a", CatalogCursor.Resume.FIRST_PAGE, null, page(item("x", 9), item("y", 5))),
+                result("b", CatalogCursor.Resume.FIRST_PAGE, null, page(item("x", 9), item("z", 4)))),
+                null, 1, item -> true);
+
+        assertEquals(List.of("x"), ids(merged));
+        Map<String, String> tokens = CatalogCursor.decode(merged.nextCursor());
+        assertEquals(new CatalogCursor.Resume(null, 1), CatalogCursor.Resume.decode(tokens.get("a")));
+        assertEquals(new CatalogCursor.Resume(null, 1), CatalogCursor.Resume.decode(tokens.get("b")));
+    }
+
+    @Test
+    void leavesTheMatchCountUnknownIfASourceDoesNotKnowIt() {
+        CatalogSearchResponse merged = SearchResultMerger.merge(List.of(
+                result("a", CatalogCursor.Resume.FIRST_PAGE, null, page(item("a1", 9))),
+                ProviderResult.success("b", CatalogSearchResponse.of(page(item("b1", 8)), null),
+                        CatalogCursor.Resume.FIRST_PAGE)),
+                null, 10, item -> true);
+
+        assertNull(merged.numberMatched());
+    }
+
+    @Test
+    void rejectsMalformedResumePositions() {
+        assertThrows(IllegalArgumentException.class, () -> CatalogCursor.Resume.decode("token"));
+        assertThrows(IllegalArgumentException.class, () -> CatalogCursor.Resume.decode("x.token"));
+        assertThrows(IllegalArgumentException.class, () -> CatalogCursor.Resume.decode("-1.token"));
+    }
+
+    private static ProviderResult result(String providerId, CatalogCursor.Resume resumedFrom, String next,
+                                         List<StacItem> items) {
+        return ProviderResult.success(providerId,
+                CatalogSearchResponse.of(items, items.size()).withNextCursor(next), resumedFrom);
+    }
+
+    private static List<StacItem> page(StacItem... items) {
+        return List.of(items);
+    }
+
+    private static StacItem item(String id, int day) {
+        return new StacItem(id, "Feature", Map.of("datetime", String.format("2024-01-%02dT00:00:00Z", day)),
+                null, null, null, null);
+    }
+
+    private static List<String> ids(CatalogSearchResponse response) {
+        return response.features().stream().map(StacItem::getId).toList();
+    }
+}
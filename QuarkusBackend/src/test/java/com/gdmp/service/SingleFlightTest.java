@@ -0,0 +1,88 @@
+package com.gdmp.service;
+
+import com.gdmp.stac.UpstreamCall;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    @Test
+    void concurrentCallersShareOneCall() {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        CompletableFuture<String> exchange = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> leader = singleFlight.execute("key", () -> {
+            calls.incrementAndGet();
+            return exchange;
+        });
+        CompletableFuture<String> follower = singleFlight.execute("key", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        exchange.complete("result");
+
+        assertEquals("result", leader.join());
+        assertEquals("result", follower.join());
+        assertEquals(1, calls.get());
+        assertEquals(1, singleFlight.stats().leaders());
+        assertEquals(1, singleFlight.stats().coalesced());
+        assertEquals(0, singleFlight.stats().inFlight());
+    }
+
+    @Test
+    void leavingCancelsTheExchangeOnlyOnceEveryCallerHasGivenUp() {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        CompletableFuture<String> exchange = new CompletableFuture<>();
+        UpstreamCall<String> call = UpstreamCall.of(exchange, exchange.thenApply(String::trim), exchange);
+
+        CompletableFuture<String> leader = singleFlight.execute("key", () -> call);
+        CompletableFuture<String> follower = singleFlight.execute("key", () -> call);
+
+        leader.cancel(true);
+        assertFalse(exchange.isDone(), "a caller is still waiting");
+
+        // what orTimeout does to a caller's future
+        follower.completeExceptionally(new TimeoutException());
+        assertTrue(exchange.isCancelled());
+        assertEquals(1, singleFlight.stats().abandoned());
+        assertEquals(0, singleFlight.stats().inFlight());
+    }
+
+    @Test
+    void leavingCancelsTheExchangeThroughTheBulkhead() {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        Bulkhead bulkhead = new Bulkhead("test", 1, 1);
+        CompletableFuture<String> exchange = new CompletableFuture<>();
+        CompletableFuture<Void> settled = new CompletableFuture<>();
+        UpstreamCall<String> call = UpstreamCall.of(exchange, exchange.thenApply(String::trim), settled);
+
+        CompletableFuture<String> caller = singleFlight.execute("key", () -> bulkhead.execute(() -> call));
+        caller.completeExceptionally(new TimeoutException());
+
+        assertTrue(exchange.isCancelled());
+        assertEquals(1, bulkhead.running(), "slot is held until the exchange has finished");
+        settled.complete(null);
+        assertEquals(0, bulkhead.running());
+    }
+
+    @Test
+    void aCallerArrivingAfterEveryoneLeftStartsANewCall() {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        CompletableFuture<String> first = new CompletableFuture<>();
+        singleFlight.execute("key", () -> first).cancel(true);
+
+        CompletableFuture<String> second = singleFlight.execute("key", () -> CompletableFuture.completedFuture("new"));
+
+        assertTrue(first.isCancelled());
+        assertEquals("new", second.join());
+        assertEquals(2, singleFlight.stats().leaders());
+    }
+}
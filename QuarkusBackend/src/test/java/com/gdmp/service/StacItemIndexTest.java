@@ -0,0 +1,175 @@
+package com.gdmp.service;
+
+import com.gdmp.model.dto.CatalogSearchRequest;
+import com.gdmp.stac.StacItem;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StacItemIndexTest {
+
+    private static final Instant START = Instant.parse("2024-06-01T00:00:00Z");
+
+    @Test
+    void matchesABruteForceFilter() {
+        Random random = new Random(7);
+        List<StacItem> items = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            double x = random.nextDouble() * 360 - 180;
+            double y = random.nextDouble() * 170 - 85;
+            double width = random.nextDouble() * 4;
+            // some footprints cross the antimeridian and are indexed as full-width bands
+            double maxX = x + width > 180 ? x + width - 360 : x + width;
+            items.add(item("item-" + i, random.nextBoolean() ? "s1" : "s2",
+                    START.plusSeconds(random.nextInt(10 * 86400)), x, y, maxX, y + random.nextDouble() * 4));
+        }
+        StacItemIndex index = new StacItemIndex(10_000, Duration.ofDays(1), Duration.ofMinutes(5));
+        index.addAll(items, null);
+
+        for (int q = 0; q < 300; q++) {
+            double minX = random.nextDouble() * 300 - 180;
+            double minY = random.nextDouble() * 170 - 85;
+            double maxX = Math.min(180, minX + random.nextDouble() * 60);
+            if (q % 5 == 0) {
+                // every fifth query crosses the antimeridian
+                minX = 180 - random.nextDouble() * 30;
+                maxX = -180 + random.nextDouble() * 30;
+            }
+            double[] bbox = {minX, minY, maxX, Math.min(90, minY + random.nextDouble() * 40)};
+            Instant from = START.plusSeconds(random.nextInt(10 * 86400));
+            String datetime = q % 7 == 0 ? "../" + from
+                    : from + "/" + from.plusSeconds(random.nextInt(3 * 86400));
+            String[] collections = q % 3 == 0 ? new String[] {"s2"} : null;
+            StacItemIndex.Query query = StacItemIndex.Query.of(new CatalogSearchRequest(bbox, datetime, collections));
+
+            StacItemIndex.Result result = index.query(query);
+
+            assertEquals(bruteForce(items, query), ids(result.items()), "query " + q);
+            assertFalse(result.complete());
+        }
+    }
+
+    @Test
+    void answersQueriesInsideACoveredSearchCompletely() {
+        StacItemIndex index = new StacItemIndex(100, Duration.ofDays(1), Duration.ofMinutes(5));
+        StacItemIndex.Query covered = query(new double[] {0, 0, 20, 20}, "2024-06-01T00:00:00Z/2024-06-03T00:00:00Z");
+        assertTrue(index.addAll(List.of(
+                item("a", "s1", START.plusSeconds(3600), 1, 1, 2, 2),
+                item("b", "s1", START.plusSeconds(90000), 5, 5, 6, 6)), covered));
+
+        StacItemIndex.Result inside = index.query(query(new double[] {0, 0, 10, 10}, "2024-06-01T12:00:00Z/2024-06-02T12:00:00Z"));
+        assertTrue(inside.complete());
+        assertEquals(List.of("b"), ids(inside.items()));
+
+        assertFalse(index.query(query(new double[] {0, 0, 30, 10}, "2024-06-01T00:00:00Z/2024-06-02T00:00:00Z"))
+                .complete());
+        assertFalse(index.query(query(new double[] {0, 0, 10, 10}, null)).complete());
+    }
+
+    @Test
+    void doesNotRecordCoverageIfAnItemCannotBeIndexed() {
+        StacItemIndex index = new StacItemIndex(100, Duration.ofDays(1), Duration.ofMinutes(5));
+        StacItem undated = item("undated", "s1", START, 1, 1, 2, 2);
+        undated.setProperties(Map.of());
+
+        StacItemIndex.Query covered = query(new double[] {0, 0, 20, 20}, null);
+        assertFalse(index.addAll(List.of(item("a", "s1", START, 1, 1, 2, 2), undated), covered));
+        assertFalse(index.query(covered).complete());
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedBucketAndTheCoverageOverlappingIt() {
+        StacItemIndex index = new StacItemIndex(4, Duration.ofDays(1), Duration.ofMinutes(5));
+        StacItemIndex.Query firstDay = query(new double[] {0, 0, 20, 20}, "2024-06-01T00:00:00Z/2024-06-01T23:59:59Z");
+        StacItemIndex.Query secondDay = query(new double[] {0, 0, 20, 20}, "2024-06-02T00:00:00Z/2024-06-02T23:59:59Z");
+        assertTrue(index.addAll(List.of(
+                item("a1", "s1", START.plusSeconds(100), 1, 1, 2, 2),
+                item("a2", "s1", START.plusSeconds(200), 3, 3, 4, 4)), firstDay));
+        assertTrue(index.addAll(List.of(
+                item("b1", "s1", START.plusSeconds(86400 + 100), 1, 1, 2, 2),
+                item("b2", "s1", START.plusSeconds(86400 + 200), 3, 3, 4, 4)), secondDay));
+        // touch the first day, so the second is the least recently used
+        assertEquals(List.of("a2", "a1"), ids(index.query(firstDay).items()));
+
+        index.addAll(List.of(item("c1", "s1", START.plusSeconds(2 * 86400 + 100), 1, 1, 2, 2)), null);
+
+        StacItemIndex.Stats stats = index.stats();
+        assertEquals(3, stats.size());
+        assertEquals(2L, stats.evictions());
+        assertEquals(1, stats.coverageRegions());
+        assertTrue(index.query(firstDay).complete());
+        StacItemIndex.Result evicted = index.query(secondDay);
+        // CatalogService rejects a cursor into an answer that is no longer complete
+        assertFalse(evicted.complete());
+        assertEquals(List.of(), ids(evicted.items()));
+    }
+
+    @Test
+    void expiresCoverageAfterItsTtl() throws InterruptedException {
+        StacItemIndex index = new StacItemIndex(100, Duration.ofDays(1), Duration.ofMinutes(5));
+        StacItemIndex.Query covered = query(new double[] {0, 0, 20, 20}, null);
+        assertTrue(index.addAll(List.of(item("a", "s1", START, 1, 1, 2, 2)), covered, Duration.ZERO));
+        Thread.sleep(2);
+
+        StacItemIndex.Result result = index.query(covered);
+        assertFalse(result.complete());
+        assertEquals(List.of("a"), ids(result.items()));
+        assertEquals(0, index.stats().coverageRegions());
+    }
+
+    @Test
+    void movesAReplacedItemToItsNewBucket() {
+        StacItemIndex index = new StacItemIndex(100, Duration.ofDays(1), Duration.ofMinutes(5));
+        index.addAll(List.of(item("a", "s1", START, 1, 1, 2, 2)), null);
+        index.addAll(List.of(item("a", "s1", START.plusSeconds(3 * 86400), 1, 1, 2, 2)), null);
+
+        assertEquals(List.of(), ids(index.query(query(null, "2024-06-01T00:00:00Z/2024-06-01T23:59:59Z")).items()));
+        assertEquals(List.of("a"), ids(index.query(query(null, "2024-06-04T00:00:00Z/..")).items()));
+        assertEquals(1, index.stats().buckets());
+    }
+
+    @Test
+    void rejectsUnparseableDatetimes() {
+        assertNull(StacItemIndex.Query.of(new CatalogSearchRequest(null, "yesterday", null)));
+        assertNull(StacItemIndex.Query.of(new CatalogSearchRequest(null, "a/b/c", null)));
+    }
+
+    private static List<String> bruteForce(List<StacItem> items, StacItemIndex.Query query) {
+        return items.stream()
+                .filter(item -> query.matches(StacItemIndex.datetimeOf(item), item.getCollection()))
+                .filter(item -> query.rectangles().stream().anyMatch(rect -> ItemBounds.intersects(item, rect)))
+                .sorted(Comparator.comparing(StacItemIndex::datetimeOf, Comparator.reverseOrder())
+                        .thenComparing(StacItem::getId))
+                .map(StacItem::getId)
+                .toList();
+    }
+
+    private static StacItemIndex.Query query(double[] bbox, String datetime) {
+        return StacItemIndex.Query.of(new CatalogSearchRequest(bbox, datetime, null));
+    }
+
+    private static StacItem item(String id, String collection, Instant datetime,
+                                 double minX, double minY, double maxX, double maxY) {
+        StacItem item = new StacItem();
+        item.setId(id);
+        item.setCollection(collection);
+        item.setProperties(Map.of("datetime", datetime.toString()));
+        item.setBbox(new double[] {minX, minY, maxX, maxY});
+        return item;
+    }
+
+    private static List<String> ids(List<StacItem> items) {
+        return items.stream().map(StacItem::getId).toList();
+    }
+}
@@ -0,0 +1,75 @@
+package com.gdmp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StrTreeTest {
+
+    @Test
+    void findsTheSameEntriesAsAScanAcrossSeveralLevels() {
+        Random random = new Random(42);
+        // more than NODE_CAPACITY squared entries, so the tree has three levels
+        int count = StrTree.NODE_CAPACITY * StrTree.NODE_CAPACITY * 3 + 7;
+        double[] bounds = randomRectangles(random, count);
+        StrTree tree = new StrTree(bounds);
+        assertEquals(count, tree.size());
+
+        for (int q = 0; q < 200; q++) {
+            double[] query = randomRectangles(random, 1);
+            List<Integer> found = new ArrayList<>();
+            tree.search(query[0], query[1], query[2], query[3], found::add);
+            found.sort(null);
+            assertEquals(scan(bounds, query), found, "query " + q);
+        }
+    }
+
+    @Test
+    void findsTouchingAndDegenerateRectangles() {
+        StrTree tree = new StrTree(new double[] {0, 0, 1, 1, 5, 5, 5, 5, 2, 0, 3, 1});
+        List<Integer> found = new ArrayList<>();
+        tree.search(1, 1, 2, 2, found::add);
+        found.sort(null);
+        assertEquals(List.of(0, 2), found);
+
+        found.clear();
+        tree.search(5, 5, 5, 5, found::add);
+        assertEquals(List.of(1), found);
+    }
+
+    @Test
+    void findsNothingInAnEmptyTree() {
+        StrTree tree = new StrTree(new double[0]);
+        List<Integer> found = new ArrayList<>();
+        tree.search(-180, -90, 180, 90, found::add);
+        assertEquals(List.of(), found);
+    }
+
+    private static double[] randomRectangles(Random random, int count) {
+        double[] bounds = new double[count * 4];
+        for (int i = 0; i < count; i++) {
+            double x = random.nextDouble() * 340 - 170;
+            double y = random.nextDouble() * 160 - 80;
+            bounds[i * 4] = x;
+            bounds[i * 4 + 1] = y;
+            bounds[i * 4 + 2] = x + random.nextDouble() * 10;
+            bounds[i * 4 + 3] = y + random.nextDouble() * 10;
+        }
+        return bounds;
+    }
+
+    private static List<Integer> scan(double[] bounds, double[] query) {
+        List<Integer> found = new ArrayList<>();
+        for (int i = 0; i < bounds.length / 4; i++) {
+            if (bounds[i * 4] <= query[2] && bounds[i * 4 + 2] >= query[0]
+                    && bounds[i * 4 + 1] <= query[3] && bounds[i * 4 + 3] >= query[1]) {
+                found.add(i);
+            }
+        }
+        return found;
+    }
+}
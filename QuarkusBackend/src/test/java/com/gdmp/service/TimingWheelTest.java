@@ -0,0 +1,73 @@
+package com.gdmp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    private static final Instant START = Instant.parse("2025-06-01T00:00:00Z");
+
+    private final MutableClock clock = new MutableClock(START);
+    private final TimingWheel wheel = new TimingWheel(Duration.ofSeconds(1), clock);
+
+    @Test
+    void firesEveryTimeoutAtItsTickAfterCascadingDownTheWheels() {
+        List<String> fired = new ArrayList<>();
+        // one deadline per wheel: 64, 64^2 and 64^3 ticks are the level boundaries
+        long[] seconds = {3, 100, 5_000, 300_000};
+        for (long delay : seconds) {
+            wheel.schedule(START.plusSeconds(delay), () -> fired.add(Long.toString(delay)));
+        }
+        assertEquals(4, wheel.pending());
+
+        for (long delay : seconds) {
+            advanceTo(delay - 1);
+            assertFalse(fired.contains(Long.toString(delay)), "fired before " + delay + "s");
+            advanceTo(delay);
+            assertTrue(fired.contains(Long.toString(delay)), "not fired at " + delay + "s");
+        }
+        assertEquals(List.of("3", "100", "5000", "300000"), fired);
+        assertEquals(0, wheel.pending());
+    }
+
+    @Test
+    void cancelsATimeoutAfterItCascaded() {
+        List<String> fired = new ArrayList<>();
+        TimingWheel.Timeout timeout = wheel.schedule(START.plusSeconds(5_000), () -> fired.add("cancelled"));
+        wheel.schedule(START.plusSeconds(5_001), () -> fired.add("kept"));
+
+        // past the level-2 slot boundary, so both have moved to a finer wheel
+        advanceTo(4_950);
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+        advanceTo(5_001);
+
+        assertEquals(List.of("kept"), fired);
+        assertEquals(0, wheel.pending());
+    }
+
+    @Test
+    void runsPastDeadlinesAtTheNextTick() {
+        List<String> fired = new ArrayList<>();
+        advanceTo(10);
+        wheel.schedule(START.minusSeconds(20), () -> fired.add("late"));
+
+        advanceTo(10);
+        assertEquals(List.of(), fired);
+        advanceTo(11);
+        assertEquals(List.of("late"), fired);
+    }
+
+    private void advanceTo(long second) {
+        clock.set(START.plusSeconds(second));
+        wheel.advance();
+    }
+}
@@ -0,0 +1,273 @@
+package com.gdmp.service;
+
+import com.gdmp.stac.StacGeometry;
+import com.gdmp.stac.StacItem;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VectorTileEncoderTest {
+
+    @Test
+    void writesOneLayerWithTaggedFeatures() {
+        VectorTileEncoder encoder = new VectorTileEncoder(0, 0, 0);
+        assertTrue(encoder.add(item("S2A_1", Map.of("datetime", "2024-06-01T10:00:00Z", "eo:cloud_cover", 12.5)),
+                StacGeometry.polygon(-10, -10, 10, -10, 10, 10, -10, 10, -10, -10)));
+        assertTrue(encoder.add(item("S2A_2", Map.of("start_datetime", "2024-06-02T10:00:00Z")),
+                StacGeometry.polygon(20, 20, 30, 20, 30, 30, 20, 20)));
+
+        Layer layer = decode(encoder.encode());
+
+        assertEquals(2, layer.version());
+        assertEquals(VectorTileEncoder.LAYER, layer.name());
+        assertEquals(VectorTileEncoder.EXTENT, layer.extent());
+        // keys are shared between features rather than repeated
+        assertEquals(List.of("id", "collection", "datetime", "cloud_cover"), layer.keys());
+        assertEquals(2, layer.features().size());
+        Feature first = layer.features().get(0);
+        assertEquals(1L, first.id());
+        assertEquals(3, first.type());
+        assertEquals(Map.of("id", "S2A_1", "collection", "sentinel-2-l2a",
+                "datetime", "2024-06-01T10:00:00Z", "cloud_cover", 12.5), first.tags());
+        assertEquals(Map.of("id", "S2A_2", "collection", "sentinel-2-l2a",
+                "datetime", "2024-06-02T10:00:00Z"), layer.features().get(1).tags());
+    }
+
+    @Test
+    void windsExteriorRingsPositiveAndHolesNegative() {
+        double[] counterClockwise = {-10, -10, 10, -10, 10, 10, -10, 10, -10, -10,
+                                     -5, -5, 5, -5, 5, 5, -5, 5, -5, -5};
+        double[] clockwise = {-10, -10, -10, 10, 10, 10, 10, -10, -10, -10,
+                              -5, -5, -5, 5, 5, 5, 5, -5, -5, -5};
+        for (double[] coordinates : List.of(counterClockwise, clockwise)) {
+            VectorTileEncoder encoder = new VectorTileEncoder(0, 0, 0);
+            encoder.add(item("a", Map.of()), new StacGeometry("Polygon", 3, 2, coordinates, new int[] {0, 5, 10}, null));
+
+            List<int[]> rings = decode(encoder.encode()).features().get(0).rings();
+
+            assertEquals(2, rings.size());
+            // the closing vertex is implied by ClosePath
+            assertEquals(8, rings.get(0).length);
+            assertTrue(twiceArea(rings.get(0)) > 0, "exterior ring");
+            assertTrue(twiceArea(rings.get(1)) < 0, "hole");
+        }
+    }
+
+    @Test
+    void clipsPolygonsToTheBufferedTile() {
+        // the north-west tile of level 1 ends at longitude 0
+        VectorTileEncoder encoder = new VectorTileEncoder(1, 0, 0);
+        assertTrue(encoder.add(item("a", Map.of()), StacGeometry.polygon(-10, 10, 10, 10, 10, 20, -10, 20, -10, 10)));
+        assertFalse(encoder.add(item("b", Map.of()), StacGeometry.polygon(20, 10, 30, 10, 30, 20, 20, 10)));
+        assertEquals(1, encoder.featureCount());
+
+        int[] ring = decode(encoder.encode()).features().get(0).rings().get(0);
+
+        assertEquals(8, ring.length);
+        int minX = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        for (int i = 0; i < ring.length; i += 2) {
+            minX = Math.min(minX, ring[i]);
+            maxX = Math.max(maxX, ring[i]);
+            assertTrue(ring[i + 1] > 0 && ring[i + 1] < VectorTileEncoder.EXTENT, "y inside the tile");
+        }
+        assertEquals(Math.round((170.0 / 360 * 2) * VectorTileEncoder.EXTENT), minX);
+        assertEquals(VectorTileEncoder.EXTENT + VectorTileEncoder.BUFFER, maxX);
+        assertTrue(twiceArea(ring) > 0);
+    }
+
+    @Test
+    void addsOneFeaturePerCollectionMember() {
+        VectorTileEncoder encoder = new VectorTileEncoder(0, 0, 0);
+        StacGeometry point = new StacGeometry("Point", 1, 2, new double[] {0, 0}, null, null);
+        assertTrue(encoder.add(item("a", Map.of()), new StacGeometry(List.of(point,
+                StacGeometry.polygon(-10, -10, 10, -10, 10, 10, -10, -10),
+                new StacGeometry("LineString", 2, 2, new double[] {0, 0, 10, 10}, null, null)))));
+
+        List<Feature> features = decode(encoder.encode()).features();
+
+        assertEquals(List.of(1, 3), features.stream().map(Feature::type).toList());
+        assertEquals(List.of(VectorTileEncoder.EXTENT / 2, VectorTileEncoder.EXTENT / 2),
+                Arrays.stream(features.get(0).rings().get(0)).boxed().toList());
+    }
+
+    @Test
+    void encodesAnEmptyTileAsNoBytes() {
+        assertEquals(0, new VectorTileEncoder(3, 1, 1).encode().length);
+    }
+
+    private static StacItem item(String id, Map<String, Object> properties) {
+        StacItem item = new StacItem();
+        item.setId(id);
+        item.setCollection("sentinel-2-l2a");
+        item.setProperties(properties);
+        return item;
+    }
+
+    private static long twiceArea(int[] ring) {
+        long area = 0;
+        for (int i = 0; i < ring.length; i += 2) {
+            int j = (i + 2) % ring.length;
+            area += (long) ring[i] * ring[j + 1] - (long) ring[j] * ring[i + 1];
+        }
+        return area;
+    }
+
+    private record Layer(int version, String name, int extent, List<String> keys, List<Feature> features) {}
+
+    /** A decoded feature; each ring (or the points of a point feature) as absolute x, y pairs. */
+    private record Feature(long id, Map<String, Object> tags, int type, List<int[]> rings) {}
+
+    private static Layer decode(byte[] tile) {
+        ProtoReader reader = new ProtoReader(tile, 0, tile.length);
+        assertEquals(3, reader.field());
+        ProtoReader layer = reader.message();
+        assertFalse(reader.hasMore(), "one layer");
+
+        int version = 0;
+        String name = null;
+        int extent = 0;
+        List<String> keys = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        List<ProtoReader> features = new ArrayList<>();
+        while (layer.hasMore()) {
+            switch (layer.field()) {
+                case 15 -> version = (int) layer.varint();
+                case 1 -> name = layer.string();
+                case 2 -> features.add(layer.message());
+                case 3 -> keys.add(layer.string());
+                case 4 -> {
+                    ProtoReader value = layer.message();
+                    int field = value.field();
+                    values.add(field == 1 ? value.string() : value.fixed64());
+                }
+                case 5 -> extent = (int) layer.varint();
+                default -> throw new AssertionError("unexpected layer field");
+            }
+        }
+
+        List<Feature> decoded = new ArrayList<>();
+        for (ProtoReader feature : features) {
+            long id = 0;
+            Map<String, Object> tags = new LinkedHashMap<>();
+            int type = 0;
+            List<int[]> rings = List.of();
+            while (feature.hasMore()) {
+                switch (feature.field()) {
+                    case 1 -> id = feature.varint();
+                    case 2 -> {
+                        ProtoReader packed = feature.message();
+                        while (packed.hasMore()) {
+                            tags.put(keys.get((int) packed.varint()), values.get((int) packed.varint()));
+                        }
+                    }
+                    case 3 -> type = (int) feature.varint();
+                    case 4 -> rings = geometry(feature.message());
+                    default -> throw new AssertionError("unexpected feature field");
+                }
+            }
+            decoded.add(new Feature(id, tags, type, rings));
+        }
+        return new Layer(version, name, extent, keys, decoded);
+    }
+
+    private static List<int[]> geometry(ProtoReader packed) {
+        List<int[]> rings = new ArrayList<>();
+        List<Integer> ring = new ArrayList<>();
+        int x = 0;
+        int y = 0;
+        while (packed.hasMore()) {
+            int command = (int) packed.varint();
+            int id = command & 0x7;
+            if (id == 1 && !ring.isEmpty()) {
+                rings.add(ring.stream().mapToInt(Integer::intValue).toArray());
+                ring = new ArrayList<>();
+            }
+            if (id == 7) {
+                continue;
+            }
+            for (int i = 0; i < command >>> 3; i++) {
+                x += unzigzag((int) packed.varint());
+                y += unzigzag((int) packed.varint());
+                ring.add(x);
+                ring.add(y);
+            }
+        }
+        rings.add(ring.stream().mapToInt(Integer::intValue).toArray());
+        return rings;
+    }
+
+    private static int unzigzag(int n) {
+        return (n >>> 1) ^ -(n & 1);
+    }
+
+    /** Reads the protobuf wire format, just enough of it for MVT. */
+    private static final class ProtoReader {
+
+        private final byte[] data;
+        private final int end;
+        private int position;
+        private int wireType;
+
+        ProtoReader(byte[] data, int from, int to) {
+            this.data = data;
+            this.position = from;
+            this.end = to;
+        }
+
+        boolean hasMore() {
+            return position < end;
+        }
+
+        int field() {
+            long key = varint();
+            wireType = (int) (key & 0x7);
+            return (int) (key >>> 3);
+        }
+
+        long varint() {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = data[position++];
+                value |= (long) (b & 0x7f) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+
+        double fixed64() {
+            assertEquals(1, wireType);
+            long bits = 0;
+            for (int i = 0; i < 8; i++) {
+                bits |= (data[position++] & 0xffL) << (8 * i);
+            }
+            return Double.longBitsToDouble(bits);
+        }
+
+        ProtoReader message() {
+            assertEquals(2, wireType);
+            int length = (int) varint();
+            ProtoReader message = new ProtoReader(data, position, position + length);
+            position += length;
+            return message;
+        }
+
+        String string() {
+            assertEquals(2, wireType);
+            int length = (int) varint();
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
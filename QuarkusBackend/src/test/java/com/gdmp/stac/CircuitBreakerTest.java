@@ -0,0 +1,112 @@
+package com.gdmp.stac;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    private static final Duration OPEN = Duration.ofSeconds(30);
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private final CircuitBreaker breaker = new CircuitBreaker(10, 4, 0.5, OPEN, now::get);
+
+    @Test
+    void opensOnceEnoughCallsFailed() {
+        call(false);
+        call(true);
+        call(true);
+        // three calls are below the minimum, even with two thirds failed
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        call(true);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(OPEN, breaker.retryAfter());
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertEquals(Duration.ofSeconds(20), breaker.retryAfter());
+    }
+
+    @Test
+    void forgetsOutcomesThatLeftTheWindow() {
+        boolean[] outcomes = {true, false, false, false, false, false, false, true, false, true};
+        for (boolean fails : outcomes) {
+            call(fails);
+        }
+        for (int i = 0; i < 10; i++) {
+            call(false);
+        }
+        // the three earlier failures have left the ten call window
+        for (int i = 0; i < 4; i++) {
+            call(true);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        call(true);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void letsOneProbeThroughAfterTheOpenDuration() {
+        trip();
+        now.addAndGet(OPEN.toNanos());
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(Duration.ZERO, breaker.retryAfter());
+
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        // the window starts over, so three failures do not reopen it
+        call(true);
+        call(true);
+        call(true);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void reopensIfTheProbeFails() {
+        trip();
+        now.addAndGet(OPEN.toNanos());
+        assertTrue(breaker.tryAcquire());
+
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertEquals(OPEN, breaker.retryAfter());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void admitsAnotherProbeIfTheFirstSaysNothingAboutUpstreamHealth() {
+        trip();
+        now.addAndGet(OPEN.toNanos());
+        assertTrue(breaker.tryAcquire());
+
+        breaker.onIgnored();
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    private void trip() {
+        for (int i = 0; i < 4; i++) {
+            call(true);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    private void call(boolean fails) {
+        assertTrue(breaker.tryAcquire());
+        if (fails) {
+            breaker.onFailure();
+        } else {
+            breaker.onSuccess();
+        }
+    }
+}
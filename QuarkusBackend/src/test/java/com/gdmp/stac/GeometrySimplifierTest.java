@@ -0,0 +1,143 @@
+package com.gdmp.stac;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeometrySimplifierTest {
+
+    @Test
+    void halvesTheToleranceWithEveryLevel() {
+        assertEquals(360.0 / 256, GeometrySimplifier.tolerance(0), 0);
+        for (int level = 1; level <= GeometrySimplifier.MAX_LEVEL; level++) {
+            assertEquals(GeometrySimplifier.tolerance(level - 1) / 2, GeometrySimplifier.tolerance(level), 0);
+        }
+        // the finest level is about a centimetre at the equator
+        assertTrue(GeometrySimplifier.tolerance(GeometrySimplifier.MAX_LEVEL) * 111_320 < 0.01);
+    }
+
+    @Test
+    void picksTheLevelFromTheZoomOrTheNearestTolerance() {
+        assertEquals(5, GeometrySimplifier.level(1.0, 5));
+        assertEquals(0, GeometrySimplifier.level(null, -3));
+        assertEquals(GeometrySimplifier.MAX_LEVEL, GeometrySimplifier.level(null, 30));
+        assertEquals(7, GeometrySimplifier.level(GeometrySimplifier.tolerance(7), null));
+        assertEquals(7, GeometrySimplifier.level(GeometrySimplifier.tolerance(7) * 1.3, null));
+        assertEquals(6, GeometrySimplifier.level(GeometrySimplifier.tolerance(7) * 1.5, null));
+        assertEquals(0, GeometrySimplifier.level(45.0, null));
+        assertEquals(GeometrySimplifier.MAX_LEVEL, GeometrySimplifier.level(1e-12, null));
+        assertEquals(-1, GeometrySimplifier.level(0.0, null));
+        assertEquals(-1, GeometrySimplifier.level(null, null));
+    }
+
+    @Test
+    void dropsVerticesWithinTheToleranceAndRoundsToItsPrecision() {
+        // a one degree square with a vertex every 0.1 degrees, each off the edge by 0.001
+        double[] square = new double[41 * 2];
+        for (int i = 0; i < 40; i++) {
+            int side = i / 10;
+            double along = (i % 10) / 10.0;
+            double jitter = i % 10 == 0 ? 0 : (i % 2 == 0 ? 0.001 : -0.001);
+            double[] xy = switch (side) {
+                case 0 -> new double[] {along, jitter};
+                case 1 -> new double[] {1 + jitter, along};
+                case 2 -> new double[] {1 - along, 1 + jitter};
+                default -> new double[] {jitter, 1 - along};
+            };
+            square[i * 2] = xy[0] + 10.00004;
+            square[i * 2 + 1] = xy[1] + 20.00004;
+        }
+        square[80] = square[0];
+        square[81] = square[1];
+        StacGeometry geometry = StacGeometry.polygon(square);
+
+        // 0.0055 degrees, three decimal places
+        StacGeometry simplified = geometry.simplified(8);
+
+        assertEquals("[10.0, 20.0, 11.0, 20.0, 11.0, 21.0, 10.0, 21.0, 10.0, 20.0]",
+                Arrays.toString(simplified.getPackedCoordinates()));
+        // 0.00069 degrees keeps the jitter
+        assertEquals(41, geometry.simplified(11).getPositionCount());
+    }
+
+    @Test
+    void keepsEveryVertexWithinTheToleranceOfTheSimplifiedLine() {
+        double[] wave = new double[200 * 2];
+        for (int i = 0; i < 200; i++) {
+            wave[i * 2] = i * 0.05;
+            wave[i * 2 + 1] = Math.sin(i * 0.05) * 2;
+        }
+        StacGeometry line = new StacGeometry("LineString", 2, 2, wave, null, null);
+
+        int previous = 0;
+        for (int level = 0; level <= 12; level++) {
+            StacGeometry simplified = line.simplified(level);
+            assertTrue(simplified.getPositionCount() >= previous, "level " + level);
+            previous = simplified.getPositionCount();
+            double tolerance = GeometrySimplifier.tolerance(level);
+            // rounding may move each kept vertex by up to half a unit of the last kept decimal place
+            double rounding = 0.5 * Math.sqrt(2) / Math.pow(10, Math.max(0, Math.ceil(-Math.log10(tolerance))));
+            for (int i = 0; i < 200; i++) {
+                assertTrue(distanceToLine(simplified, wave[i * 2], wave[i * 2 + 1]) <= tolerance + rounding,
+                        "level " + level + " vertex " + i);
+            }
+        }
+        assertEquals(200, line.simplified(GeometrySimplifier.MAX_LEVEL).getPositionCount());
+    }
+
+    @Test
+    void fallsBackToAFinerLevelRatherThanCollapseARing() {
+        StacGeometry small = StacGeometry.polygon(10.0001, 20.0001, 10.0021, 20.0001, 10.0011, 20.0021, 10.0001, 20.0001);
+
+        StacGeometry simplified = small.simplified(0);
+
+        assertEquals(4, simplified.getPositionCount());
+        assertTrue(area(simplified) > 0);
+    }
+
+    @Test
+    void fallsBackToAFinerLevelRatherThanCrossAHole() {
+        double[] exterior = {0, 0, 5, -0.3, 10, 0, 10, 10, 0, 10, 0, 0};
+        double[] hole = {4, -0.2, 4, 0.2, 6, 0.2, 6, -0.2, 4, -0.2};
+        double[] coordinates = new double[exterior.length + hole.length];
+        System.arraycopy(exterior, 0, coordinates, 0, exterior.length);
+        System.arraycopy(hole, 0, coordinates, exterior.length, hole.length);
+        StacGeometry withHole = new StacGeometry("Polygon", 3, 2, coordinates, new int[] {0, 6, 11}, null);
+
+        // at level 2 (0.35 degrees) the dent at (5, -0.3) would go and the bottom edge would cut the hole
+        assertEquals(5, StacGeometry.polygon(exterior).simplified(2).getPositionCount());
+        assertSame(withHole.simplified(3), withHole.simplified(2));
+        assertEquals(6, withHole.simplified(2).getPartEnd(0));
+    }
+
+    @Test
+    void onlyRoundsPoints() {
+        StacGeometry point = new StacGeometry("MultiPoint", 2, 2, new double[] {10.12345, 20.12345, 10.12349, 20.12349}, null, null);
+
+        // 0.022 degrees, two decimal places; coinciding points are kept
+        assertEquals("[10.12, 20.12, 10.12, 20.12]", Arrays.toString(point.simplified(6).getPackedCoordinates()));
+    }
+
+    private static double distanceToLine(StacGeometry line, double px, double py) {
+        double best = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < line.getPositionCount() - 1; i++) {
+            double ax = line.getX(i), ay = line.getY(i);
+            double dx = line.getX(i + 1) - ax, dy = line.getY(i + 1) - ay;
+            double t = Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / (dx * dx + dy * dy)));
+            best = Math.min(best, Math.hypot(px - ax - t * dx, py - ay - t * dy));
+        }
+        return best;
+    }
+
+    private static double area(StacGeometry ring) {
+        double area = 0;
+        for (int i = 0; i < ring.getPositionCount() - 1; i++) {
+            area += ring.getX(i) * ring.getY(i + 1) - ring.getX(i + 1) * ring.getY(i);
+        }
+        return area / 2;
+    }
+}
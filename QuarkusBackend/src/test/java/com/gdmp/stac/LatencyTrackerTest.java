@@ -0,0 +1,55 @@
+package com.gdmp.stac;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LatencyTrackerTest {
+
+    @Test
+    void reportsNothingUntilEnoughSamples() {
+        LatencyTracker tracker = new LatencyTracker(200, 95, 20);
+        for (int i = 1; i < 20; i++) {
+            tracker.record(i);
+            assertEquals(-1L, tracker.percentileNanos());
+        }
+        tracker.record(20);
+        assertEquals(19L, tracker.percentileNanos());
+    }
+
+    @Test
+    void reportsTheNearestRankPercentile() {
+        // recomputed on the first sample and every sixteenth after it, so 81 samples are all counted
+        LatencyTracker tracker = new LatencyTracker(100, 95, 1);
+        // in shuffled order, so the ranking is not just the arrival order
+        for (int i = 0; i < 81; i++) {
+            tracker.record((i * 37 % 81 + 1) * 1_000_000L);
+        }
+        assertEquals(77_000_000L, tracker.percentileNanos());
+
+        LatencyTracker median = new LatencyTracker(100, 50, 1);
+        for (int i = 0; i < 81; i++) {
+            median.record(i % 2 == 0 ? 10 : 30);
+        }
+        assertEquals(10L, median.percentileNanos());
+    }
+
+    @Test
+    void lagsTheWindowByAtMostSixteenSamples() {
+        LatencyTracker tracker = new LatencyTracker(32, 95, 1);
+        for (int i = 0; i < 32; i++) {
+            tracker.record(100);
+        }
+        assertEquals(100L, tracker.percentileNanos());
+
+        // a window full of slow samples, then up to sixteen more until the next recompute
+        for (int i = 0; i < 32 + 16; i++) {
+            tracker.record(500);
+        }
+        assertEquals(500L, tracker.percentileNanos());
+        for (int i = 0; i < 32 + 16; i++) {
+            tracker.record(200);
+        }
+        assertEquals(200L, tracker.percentileNanos());
+    }
+}
@@ -0,0 +1,93 @@
+package com.gdmp.stac;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StacGeometrySerializationTest {
+
+    private static final List<String> GEOMETRIES = List.of(
+            "{\"type\": \"Point\", \"coordinates\": [10.5, 50.25]}",
+            "{\"type\": \"Point\", \"coordinates\": [10.5, 50.25, 120.0]}",
+            "{\"type\": \"MultiPoint\", \"coordinates\": [[10.5, 50.25], [11.0, 51.0]]}",
+            "{\"type\": \"LineString\", \"coordinates\": [[10.5, 50.25], [11.0, 51.0], [12.0, 50.0]]}",
+            "{\"type\": \"MultiLineString\", \"coordinates\": [[[0.0, 0.0], [1.0, 1.0]], [[2.0, 2.0], [3.0, 3.0], [4.0, 2.0]]]}",
+            "{\"type\": \"Polygon\", \"coordinates\": [[[0.0, 0.0], [10.0, 0.0], [10.0, 10.0], [0.0, 0.0]],"
+                    + " [[2.0, 2.0], [4.0, 2.0], [4.0, 4.0], [2.0, 2.0]]]}",
+            "{\"type\": \"MultiPolygon\", \"coordinates\": ["
+                    + "[[[0.0, 0.0], [10.0, 0.0], [10.0, 10.0], [0.0, 0.0]], [[2.0, 2.0], [4.0, 2.0], [4.0, 4.0], [2.0, 2.0]],"
+                    + " [[6.0, 2.0], [8.0, 2.0], [8.0, 4.0], [6.0, 2.0]]],"
+                    + " [[[20.0, 0.0], [30.0, 0.0], [30.0, 10.0], [20.0, 0.0]]]]}",
+            "{\"type\": \"GeometryCollection\", \"geometries\": ["
+                    + "{\"type\": \"Point\", \"coordinates\": [1.0, 2.0]},"
+                    + " {\"type\": \"GeometryCollection\", \"geometries\": ["
+                    + "{\"type\": \"LineString\", \"coordinates\": [[0.0, 0.0], [1.0, 1.0]]}]},"
+                    + " {\"type\": \"Polygon\", \"coordinates\": [[[0.0, 0.0], [1.0, 0.0], [1.0, 1.0], [0.0, 0.0]]]}]}",
+            "{\"type\": \"Polygon\", \"coordinates\": []}");
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void roundTripsEveryGeometryType() throws IOException {
+        for (String json : GEOMETRIES) {
+            StacGeometry geometry = mapper.readValue(json, StacGeometry.class);
+            JsonNode written = mapper.readTree(mapper.writeValueAsString(geometry));
+            assertEquals(mapper.readTree(json), written, json);
+        }
+    }
+
+    @Test
+    void packsMultiPolygonRingsAndPolygons() throws IOException {
+        StacGeometry geometry = mapper.readValue(GEOMETRIES.get(6), StacGeometry.class);
+
+        assertEquals(4, geometry.getDepth());
+        assertEquals(2, geometry.getDimension());
+        assertEquals(16, geometry.getPositionCount());
+        assertEquals("[0, 4, 8, 12, 16]", Arrays.toString(geometry.getPartOffsets()));
+        assertEquals("[0, 3, 4]", Arrays.toString(geometry.getPolygonOffsets()));
+        assertEquals(4, geometry.getPartCount());
+        assertEquals(6.0, geometry.getX(geometry.getPartStart(2)), 0);
+    }
+
+    @Test
+    void readsTypeAfterCoordinatesAndSkipsUnknownFields() throws IOException {
+        StacGeometry geometry = mapper.readValue("{\"coordinates\": [[[0.0, 0.0], [1.0, 0.0], [1.0, 1.0], [0.0, 0.0]]],"
+                + " \"bbox\": [0.0, 0.0, 1.0, 1.0], \"crs\": {\"type\": \"name\", \"properties\": {\"name\": \"x\"}},"
+                + " \"type\": \"Polygon\"}", StacGeometry.class);
+
+        assertEquals("Polygon", geometry.getType());
+        assertEquals(3, geometry.getDepth());
+        assertEquals(4, geometry.getPositionCount());
+        assertEquals(mapper.readTree("{\"type\": \"Polygon\","
+                        + " \"coordinates\": [[[0.0, 0.0], [1.0, 0.0], [1.0, 1.0], [0.0, 0.0]]]}"),
+                mapper.readTree(mapper.writeValueAsString(geometry)));
+    }
+
+    @Test
+    void keepsTheDimensionOfTheFirstPosition() throws IOException {
+        StacGeometry geometry = mapper.readValue(
+                "{\"type\": \"LineString\", \"coordinates\": [[0.0, 1.0, 2.0], [3.0, 4.0, 5.0, 6.0], [7.0, 8.0]]}",
+                StacGeometry.class);
+
+        assertEquals(3, geometry.getDimension());
+        assertEquals("[0.0, 1.0, 2.0, 3.0, 4.0, 5.0, 7.0, 8.0, NaN]", Arrays.toString(geometry.getPackedCoordinates()));
+    }
+
+    @Test
+    void rejectsMalformedCoordinates() {
+        assertThrows(MismatchedInputException.class, () -> mapper.readValue(
+                "{\"type\": \"Polygon\", \"coordinates\": [[[[[0.0, 0.0]]]]]}", StacGeometry.class));
+        assertThrows(MismatchedInputException.class, () -> mapper.readValue(
+                "{\"type\": \"Point\", \"coordinates\": [\"a\", 1.0]}", StacGeometry.class));
+        assertThrows(MismatchedInputException.class, () -> mapper.readValue(
+                "{\"type\": \"MultiPoint\", \"coordinates\": [[0.0, 0.0], [[1.0, 1.0]]]}", StacGeometry.class));
+    }
+}
@@ -0,0 +1,136 @@
+package com.gdmp.stac;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StacSearchResponseParserTest {
+
+    private static final String PAGE = """
+            {
+              "type": "FeatureCollection",
+              "stac_version": "1.0.0",
+              "extensions": {"features": [{"id": "not-an-item"}], "links": [{"rel": "next", "href": "x"}]},
+              "context": {"returned": 2, "limit": 2, "matched": 7},
+              "features": [
+                {
+                  "type": "Feature",
+                  "id": "S2A_1",
+                  "collection": "sentinel-2-l2a",
+                  "bbox": [10.0, 50.0, 11.0, 51.0],
+                  "geometry": {"type": "Point", "coordinates": [10.5, 50.5]},
+                  "properties": {"datetime": "2024-06-01T10:00:00Z", "eo:cloud_cover": 12.5,
+                                 "proj:shape": [10980, 10980]},
+                  "assets": {"B04": {"href": "https://example.com/B04.tif", "roles": ["data"]}},
+                  "vendor:unknown": {"nested": [1, {"deeper": true}]}
+                },
+                {"type": "Feature", "id": "S2A_2", "geometry": null, "properties": {}, "unknown": [[1], [2]]}
+              ],
+              "links": [
+                {"rel": "self", "href": "https://example.com/search"},
+                {"rel": "next", "href": "https://example.com/search", "method": "POST",
+                 "body": {"token": "abc"}, "merge": true, "title": "Next page"}
+              ],
+              "numberMatched": 9,
+              "trailing": {"numberMatched": 100}
+            }
+            """;
+
+    private final StacSearchResponseParser parser = new StacSearchResponseParser(new ObjectMapper());
+
+    @Test
+    void readsItemsMatchCountAndNextLinkSkippingUnknownFields() throws IOException {
+        StacSearchPage page = parser.parse(stream(PAGE));
+
+        assertEquals(List.of("S2A_1", "S2A_2"), page.response().features().stream().map(StacItem::getId).toList());
+        StacItem first = page.response().features().get(0);
+        assertEquals("sentinel-2-l2a", first.getCollection());
+        assertEquals(12.5, first.getProperties().get("eo:cloud_cover"));
+        assertEquals("Point", first.getGeometry().getType());
+        assertNull(page.response().features().get(1).getGeometry());
+        // the root numberMatched wins over context.matched; fields of the same name deeper down are ignored
+        assertEquals(Integer.valueOf(9), page.response().numberMatched());
+        assertEquals(new StacLink("next", "https://example.com/search", "POST", Map.of("token", "abc"), true), page.next());
+        assertEquals(PAGE.getBytes(StandardCharsets.UTF_8).length, page.bodyBytes());
+    }
+
+    @Test
+    void fallsBackToTheContextMatchCountAndThenTheItemCount() throws IOException {
+        assertEquals(Integer.valueOf(7), parser.parse(stream("""
+                {"context": {"matched": 7}, "features": [{"id": "a"}]}""")).response().numberMatched());
+        StacSearchPage page = parser.parse(stream("""
+                {"features": [{"id": "a"}], "links": [{"rel": "next"}]}"""));
+        assertEquals(Integer.valueOf(1), page.response().numberMatched());
+        // a next link without href cannot be followed
+        assertNull(page.next());
+    }
+
+    @Test
+    void parsesTheSameWhenFedOneByteAtATime() {
+        var subscriber = parser.subscriber();
+        AtomicLong requested = new AtomicLong();
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                requested.addAndGet(n);
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+        byte[] bytes = PAGE.getBytes(StandardCharsets.UTF_8);
+        for (byte b : bytes) {
+            subscriber.onNext(List.of(ByteBuffer.wrap(new byte[] {b})));
+        }
+        subscriber.onComplete();
+
+        StacSearchPage page = subscriber.getBody().toCompletableFuture().join();
+        assertEquals(2, page.response().features().size());
+        assertEquals(Integer.valueOf(9), page.response().numberMatched());
+        assertEquals("https://example.com/search", page.next().href());
+        assertEquals(bytes.length + 1, requested.get());
+    }
+
+    @Test
+    void rejectsDocumentsThatAreNotACompleteObject() {
+        assertThrows(JsonParseException.class, () -> parser.parse(stream("[{\"id\": \"a\"}]")));
+        assertThrows(JsonParseException.class, () -> parser.parse(stream("{\"features\": [{\"id\": \"a\"}")));
+        assertThrows(JsonParseException.class, () -> parser.parse(stream("")));
+    }
+
+    @Test
+    void failsTheSubscriberBodyOnMalformedInput() {
+        var subscriber = parser.subscriber();
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+        subscriber.onNext(List.of(ByteBuffer.wrap("{\"features\": [}".getBytes(StandardCharsets.UTF_8))));
+
+        assertTrue(subscriber.getBody().toCompletableFuture().isCompletedExceptionally());
+    }
+
+    private static ByteArrayInputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,258 @@
+package com.gdmp.store;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DurableStoreTest {
+
+    private static final DurableStore.Options OPTIONS = new DurableStore.Options(1 << 20, Duration.ZERO, true, 64, 1024);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    record Value(String name, int count) {}
+
+    @Test
+    void recoversCommittedChangesAfterReopening() throws IOException {
+        try (DurableStore<Value> store = open()) {
+            store.put("a", new Value("a", 1)).join();
+            store.put("b", new Value("b", 1)).join();
+            store.put("a", new Value("a", 2)).join();
+            store.remove("b").join();
+        }
+        try (DurableStore<Value> store = open()) {
+            assertEquals(new Value("a", 2), store.get("a"));
+            assertNull(store.get("b"));
+            assertEquals(1, store.size());
+            assertEquals(4L, store.stats().recovery().replayedRecords());
+        }
+    }
+
+    @Test
+    void cutsATornTailOfTheLastSegment() throws IOException {
+        try (DurableStore<Value> store = open()) {
+            store.put("a", new Value("a", 1)).join();
+        }
+        Path segment = directory.resolve("wal-000001.log");
+        long intact = Files.size(segment);
+        // a record header promising more bytes than were written before the crash
+        Files.write(segment, ByteBuffer.allocate(12).putInt(100).putInt(0).array(), StandardOpenOption.APPEND);
+
+        try (DurableStore<Value> store = open()) {
+            assertEquals(new Value("a", 1), store.get("a"));
+            assertEquals(12L, store.stats().recovery().discardedBytes());
+            store.put("b", new Value("b", 1)).join();
+        }
+        try (DurableStore<Value> store = open()) {
+            assertEquals(new Value("b", 1), store.get("b"));
+            assertTrue(Files.size(segment) > intact);
+        }
+    }
+
+    @Test
+    void refusesToOpenWithACorruptSegmentBeforeTheLast() throws IOException {
+        try (DurableStore<Value> store = open()) {
+            store.put("a", new Value("a", 1)).join();
+            store.put("b", new Value("b", 1)).join();
+        }
+        Path first = directory.resolve("wal-000001.log");
+        Files.copy(first, directory.resolve("wal-000002.log"), StandardCopyOption.REPLACE_EXISTING);
+        flipLastByte(first);
+
+        IOException error = assertThrows(IOException.class, this::open);
+        assertTrue(error.getMessage().contains("wal-000001.log"), error.getMessage());
+    }
+
+    @Test
+    void rollsBackAFailedCommitAndKeepsWriting() throws IOException {
+        FailingChannels channels = new FailingChannels();
+        try (DurableStore<Value> store = DurableStore.open("test", directory, Value.class, objectMapper, OPTIONS,
+                channels)) {
+            store.put("a", new Value("a", 1)).join();
+            channels.failWrites = true;
+            CompletionException error = assertThrows(CompletionException.class,
+                    () -> store.put("b", new Value("b", 1)).join());
+            assertTrue(error.getCause() instanceof IOException);
+            assertNull(store.get("b"));
+
+            channels.failWrites = false;
+            store.put("c", new Value("c", 1)).join();
+        }
+        try (DurableStore<Value> store = open()) {
+            assertEquals(new Value("a", 1), store.get("a"));
+            assertNull(store.get("b"));
+            assertEquals(new Value("c", 1), store.get("c"));
+            assertEquals(0L, store.stats().recovery().discardedBytes());
+        }
+    }
+
+    @Test
+    void turnsReadOnlyWhenAFailedCommitCannotBeRolledBack() throws IOException {
+        FailingChannels channels = new FailingChannels();
+        try (DurableStore<Value> store = DurableStore.open("test", directory, Value.class, objectMapper, OPTIONS,
+                channels)) {
+            channels.failWrites = true;
+            channels.failTruncate = true;
+            assertThrows(CompletionException.class, () -> store.put("a", new Value("a", 1)).join());
+
+            channels.failWrites = false;
+            channels.failTruncate = false;
+            CompletionException error = assertThrows(CompletionException.class,
+                    () -> store.put("b", new Value("b", 1)).join());
+            assertTrue(error.getCause().getMessage().contains("read-only"), error.getCause().getMessage());
+        }
+    }
+
+    private DurableStore<Value> open() throws IOException {
+        return DurableStore.open("test", directory, Value.class, objectMapper, OPTIONS);
+    }
+
+    private static void flipLastByte(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 0x5a;
+        Files.write(file, bytes);
+    }
+
+    /**
+     * Wraps segment channels so that writes fail halfway through, and truncation too, on demand.
+     */
+    private static final class FailingChannels implements UnaryOperator<FileChannel> {
+        volatile boolean failWrites;
+        volatile boolean failTruncate;
+
+        @Override
+        public FileChannel apply(FileChannel channel) {
+            return new FailingChannel(channel, this);
+        }
+    }
+
+    private static final class FailingChannel extends FileChannel {
+        private final FileChannel delegate;
+        private final FailingChannels faults;
+
+        FailingChannel(FileChannel delegate, FailingChannels faults) {
+            this.delegate = delegate;
+            this.faults = faults;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            if (faults.failWrites) {
+                // leave half a record behind, as a full disk would
+                ByteBuffer first = srcs[offset].duplicate();
+                first.limit(first.position() + first.remaining() / 2);
+                delegate.write(first);
+                throw new IOException("No space left on device");
+            }
+            return delegate.write(srcs, offset, length);
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            if (faults.failTruncate) {
+                throw new IOException("Input/output error");
+            }
+            delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return delegate.write(src);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return delegate.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return delegate.read(dsts, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return delegate.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            delegate.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return delegate.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return delegate.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return delegate.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return delegate.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return delegate.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return delegate.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return delegate.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            delegate.close();
+        }
+    }
+}
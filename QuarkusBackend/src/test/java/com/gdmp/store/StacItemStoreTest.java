@@ -0,0 +1,97 @@
+package com.gdmp.store;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gdmp.stac.StacItem;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StacItemStoreTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void readsItemsBackByPosition() throws IOException {
+        Path directory = tempDir.resolve("store");
+        try (StacItemStore store = StacItemStore.open(directory, SEGMENT_SIZE, objectMapper)) {
+            List<Long> positions = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                positions.add(store.append(item("item-" + i)));
+            }
+            assertEquals("item-0", store.read(positions.get(0)).getId());
+            assertEquals("item-49", store.read(positions.get(49)).getId());
+            assertThrows(IOException.class, () -> store.read(positions.get(49) + 1));
+        }
+    }
+
+    @Test
+    void compactionKeepsOnlyTheGivenRecordsAcrossReopening() throws IOException {
+        Path directory = tempDir.resolve("store");
+        long[] kept;
+        try (StacItemStore store = StacItemStore.open(directory, SEGMENT_SIZE, objectMapper)) {
+            List<Long> positions = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                positions.add(store.append(item("item-" + i)));
+            }
+            store.checkpoint(Map.of("through", "2024-01-01T00:00:00Z"));
+
+            kept = store.compact(new long[] {positions.get(10), positions.get(90)});
+            assertEquals("item-10", store.read(kept[0]).getId());
+            assertEquals("item-90", store.read(kept[1]).getId());
+            store.append(item("item-100"));
+            store.checkpoint(Map.of("through", "2024-01-02T00:00:00Z"));
+        }
+        assertFalse(Files.exists(tempDir.resolve("store.compacting")));
+        assertFalse(Files.exists(tempDir.resolve("store.retired")));
+
+        try (StacItemStore store = StacItemStore.open(directory, SEGMENT_SIZE, objectMapper)) {
+            List<String> ids = new ArrayList<>();
+            store.forEach((item, position) -> ids.add(item.getId()));
+            assertEquals(List.of("item-10", "item-90", "item-100"), ids);
+            assertEquals("item-90", store.read(kept[1]).getId());
+            assertEquals(Map.of("through", "2024-01-02T00:00:00Z"), store.checkpointState());
+        }
+    }
+
+    @Test
+    void finishesACompactionInterruptedBetweenTheRenames() throws IOException {
+        Path directory = tempDir.resolve("store");
+        try (StacItemStore store = StacItemStore.open(directory, SEGMENT_SIZE, objectMapper)) {
+            store.append(item("old"));
+            store.checkpoint(Map.of());
+        }
+        try (StacItemStore compacted = StacItemStore.open(tempDir.resolve("store.compacting"), SEGMENT_SIZE,
+                objectMapper)) {
+            compacted.append(item("new"));
+            compacted.checkpoint(Map.of());
+        }
+        Files.move(directory, tempDir.resolve("store.retired"));
+
+        try (StacItemStore store = StacItemStore.open(directory, SEGMENT_SIZE, objectMapper)) {
+            List<String> ids = new ArrayList<>();
+            store.forEach((item, position) -> ids.add(item.getId()));
+            assertEquals(List.of("new"), ids);
+        }
+        assertFalse(Files.exists(tempDir.resolve("store.retired")));
+    }
+
+    private static StacItem item(String id) {
+        return new StacItem(id, "Feature", Map.of("datetime", "2024-01-01T00:00:00Z"), null, null,
+                "sentinel-2-l2a", null);
+    }
+}
@@ -0,0 +1,104 @@
+package com.gdmp.benchmarks;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.gdmp.stac.StacItem;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds benchmark inputs from a recorded Copernicus Sentinel-2 L2A item.
+ * Copies get their own ID, acquisition time, and a shifted footprint, so no two items
+ * in a collection are identical.
+ */
+final class FeatureCollections {
+
+    private static final String ITEM_FIXTURE = "/fixtures/sentinel-2-l2a-item.json";
+
+    private FeatureCollections() {
+    }
+
+    /**
+     * Returns the object mapper the provider parses with.
+     */
+    static ObjectMapper objectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        return objectMapper;
+    }
+
+    /**
+     * Returns an upstream /search response body with the given number of items, a
+     * {@code numberMatched} count, and a POST {@code rel=next} link.
+     */
+    static byte[] searchResponse(ObjectMapper objectMapper, int count) throws IOException {
+        ObjectNode collection = objectMapper.createObjectNode();
+        collection.put("type", "FeatureCollection");
+        ArrayNode features = collection.putArray("features");
+        for (JsonNode item : itemNodes(objectMapper, count)) {
+            features.add(item);
+        }
+        collection.put("numberMatched", count * 10);
+        collection.put("numberReturned", count);
+        ObjectNode next = collection.putArray("links").addObject();
+        next.put("rel", "next");
+        next.put("href", "https://stac.dataspace.copernicus.eu/v1/search");
+        next.put("method", "POST");
+        next.put("merge", true);
+        next.putObject("body").put("token", "next:" + count);
+        return objectMapper.writeValueAsBytes(collection);
+    }
+
+    /**
+     * Returns the given number of parsed items.
+     */
+    static List<StacItem> items(ObjectMapper objectMapper, int count) throws IOException {
+        List<StacItem> items = new ArrayList<>(count);
+        for (JsonNode node : itemNodes(objectMapper, count)) {
+            items.add(objectMapper.treeToValue(node, StacItem.class));
+        }
+        return items;
+    }
+
+    private static List<ObjectNode> itemNodes(ObjectMapper objectMapper, int count) throws IOException {
+        ObjectNode template;
+        try (InputStream in = FeatureCollections.class.getResourceAsStream(ITEM_FIXTURE)) {
+            if (in == null) {
+                throw new IOException("Missing benchmark fixture " + ITEM_FIXTURE);
+            }
+            template = (ObjectNode) objectMapper.readTree(in);
+        }
+        String id = template.get("id").asText();
+        List<ObjectNode> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ObjectNode item = template.deepCopy();
+            item.put("id", id + "_" + i);
+            ObjectNode properties = (ObjectNode) item.get("properties");
+            String datetime = String.format("2024-06-%02dT10:%02d:%02d.024000Z", 1 + i % 28, i / 60 % 60, i % 60);
+            properties.put("datetime", datetime);
+            properties.put("start_datetime", datetime);
+            properties.put("end_datetime", datetime);
+            double shift = (i % 100) * 0.05;
+            for (JsonNode ring : item.get("geometry").get("coordinates")) {
+                for (JsonNode position : ring) {
+                    ArrayNode lonLat = (ArrayNode) position;
+                    lonLat.set(0, lonLat.get(0).asDouble() + shift);
+                    lonLat.set(1, lonLat.get(1).asDouble() - shift);
+                }
+            }
+            ArrayNode bbox = (ArrayNode) item.get("bbox");
+            bbox.set(0, bbox.get(0).asDouble() + shift);
+            bbox.set(1, bbox.get(1).asDouble() - shift);
+            bbox.set(2, bbox.get(2).asDouble() + shift);
+            bbox.set(3, bbox.get(3).asDouble() - shift);
+            items.add(item);
+        }
+        return items;
+    }
+}
@@ -0,0 +1,66 @@
+package com.gdmp.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gdmp.model.dto.CatalogSearchResponse;
+import com.gdmp.stac.StacItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of catalog search responses as the search endpoint writes them,
+ * and of single STAC items as the export endpoint and the item store write them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int items;
+
+    private ObjectMapper objectMapper;
+    private CatalogSearchResponse response;
+    private StacItem item;
+    private byte[] itemJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = FeatureCollections.objectMapper();
+        List<StacItem> features = FeatureCollections.items(objectMapper, items);
+        response = CatalogSearchResponse.of(features, items * 10).withNextCursor("Y29wZXJuaWN1czpuZXh0");
+        item = features.get(0);
+        itemJson = objectMapper.writeValueAsBytes(item);
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] serializeItem() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(item);
+    }
+
+    @Benchmark
+    public StacItem deserializeItem() throws IOException {
+        return objectMapper.readValue(itemJson, StacItem.class);
+    }
+}
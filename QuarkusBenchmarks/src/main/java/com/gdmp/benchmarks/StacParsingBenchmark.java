@@ -0,0 +1,90 @@
+package com.gdmp.benchmarks;
+
+import com.gdmp.model.dto.CatalogSearchFields;
+import com.gdmp.stac.StacFieldFilter;
+import com.gdmp.stac.StacSearchPage;
+import com.gdmp.stac.StacSearchResponseParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of upstream /search FeatureCollections the way {@code CopernicusStacProvider} does it:
+ * from a stream, from body chunks as the HTTP client delivers them, and with a field projection.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StacParsingBenchmark {
+
+    /** Size of the buffers the JDK HTTP client hands to body subscribers. */
+    private static final int CHUNK_BYTES = 16 * 1024;
+
+    private static final Flow.Subscription NO_OP_SUBSCRIPTION = new Flow.Subscription() {
+        @Override
+        public void request(long n) {
+        }
+
+        @Override
+        public void cancel() {
+        }
+    };
+
+    @Param({"10", "100", "1000"})
+    int items;
+
+    private StacSearchResponseParser parser;
+    private StacFieldFilter projection;
+    private byte[] body;
+
+    @Setup
+    public void setUp() throws IOException {
+        parser = new StacSearchResponseParser(FeatureCollections.objectMapper());
+        projection = StacFieldFilter.of(new CatalogSearchFields(
+                new String[] {"id", "collection", "bbox", "geometry", "properties.eo:cloud_cover"}, null));
+        body = FeatureCollections.searchResponse(FeatureCollections.objectMapper(), items);
+    }
+
+    @Benchmark
+    public StacSearchPage parseStream() throws IOException {
+        return parser.parse(new ByteArrayInputStream(body));
+    }
+
+    @Benchmark
+    public StacSearchPage parseChunks() {
+        return feedChunks(parser.subscriber());
+    }
+
+    @Benchmark
+    public StacSearchPage parseProjected() {
+        return feedChunks(parser.subscriber(projection));
+    }
+
+    private StacSearchPage feedChunks(HttpResponse.BodySubscriber<StacSearchPage> subscriber) {
+        subscriber.onSubscribe(NO_OP_SUBSCRIPTION);
+        for (int offset = 0; offset < body.length; offset += CHUNK_BYTES) {
+            subscriber.onNext(List.of(ByteBuffer.wrap(body, offset, Math.min(CHUNK_BYTES, body.length - offset))));
+        }
+        subscriber.onComplete();
+        return subscriber.getBody().toCompletableFuture().join();
+    }
+}
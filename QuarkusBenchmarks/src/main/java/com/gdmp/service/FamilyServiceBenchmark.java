@@ -0,0 +1,59 @@
+package com.gdmp.service;
+
+import com.gdmp.model.dto.ProductFamily;
+import com.gdmp.model.dto.ProductType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Product family lookups as served by {@code FamilyResource}. Lives in the service package
+ * so it can run the service's package-private initialization without a CDI container.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FamilyServiceBenchmark {
+
+    private FamilyService familyService;
+
+    @Setup
+    public void setUp() {
+        familyService = new FamilyService();
+        familyService.init();
+    }
+
+    @Benchmark
+    public List<ProductFamily> allFamilies() {
+        return familyService.getAllFamilies();
+    }
+
+    @Benchmark
+    public Optional<ProductFamily> familyById() {
+        return familyService.getFamilyById("imagery");
+    }
+
+    @Benchmark
+    public Optional<ProductFamily> unknownFamily() {
+        return familyService.getFamilyById("unknown");
+    }
+
+    @Benchmark
+    public List<ProductType> productTypes() {
+        return familyService.getProductTypes("imagery");
+    }
+}
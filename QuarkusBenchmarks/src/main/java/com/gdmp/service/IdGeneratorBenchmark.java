@@ -0,0 +1,47 @@
+package com.gdmp.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order ID generation on one thread and on four threads contending for the generator's
+ * compare-and-set. Lives in the service package so it can initialize the generator without a
+ * CDI container.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdGeneratorBenchmark {
+
+    private final IdGenerator ids = new IdGenerator();
+
+    @Setup
+    public void setUp() {
+        ids.init();
+    }
+
+    @Benchmark
+    public String next() {
+        return ids.next("ORD-");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String nextContended() {
+        return ids.next("ORD-");
+    }
+}
@@ -0,0 +1,92 @@
+package com.gdmp.service;
+
+import com.gdmp.model.dto.OrderConfiguration;
+import com.gdmp.model.dto.OrderPage;
+import com.gdmp.model.dto.OrderRequest;
+import com.gdmp.model.dto.OrderResponse;
+import com.gdmp.model.dto.OrderSchedule;
+import com.gdmp.model.dto.OrderStatus;
+import com.gdmp.model.dto.PointOfInterest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paged order listings as served by {@code OrderResource}: one page of an {@link OrderIndex}
+ * from the start, from a cursor half way down, and filtered by status. Lives in the service
+ * package because the index is package-private.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderIndexBenchmark {
+
+    private static final OrderRequest REQUEST = new OrderRequest("imagery", "electro-optical", "tactical",
+            new OrderConfiguration(new PointOfInterest(50.04, 9.76, 5.0), 20.0, List.of("B02", "B03", "B04"),
+                    "GeoTIFF", "L2A", null),
+            new OrderSchedule("Benchmark order", "2024-06-01", "2024-06-30", "2024-07-31", "standard",
+                    false, null, null, "anytime"));
+
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"10000", "100000"})
+    int orders;
+
+    private final OrderIndex index = new OrderIndex();
+    private final Map<String, OrderResponse> byId = new HashMap<>();
+    private String middleCursor;
+
+    @Setup
+    public void setUp() {
+        IdGenerator ids = new IdGenerator();
+        ids.init();
+        OrderStatus[] statuses = OrderStatus.values();
+        for (int i = 0; i < orders; i++) {
+            String orderId = ids.next("ORD-");
+            String createdAt = IdGenerator.timestampOf(orderId).toString();
+            OrderResponse order = new OrderResponse(orderId, statuses[i % statuses.length].label(),
+                    REQUEST.familyId(), REQUEST.productTypeId(), REQUEST.tierId(), REQUEST.configuration(),
+                    REQUEST.schedule(), createdAt, createdAt, null);
+            byId.put(orderId, order);
+            index.update(null, order);
+        }
+        for (int i = 0; i < orders / 2 / PAGE_SIZE; i++) {
+            middleCursor = index.list(page(null, middleCursor), byId::get).nextCursor();
+        }
+    }
+
+    @Benchmark
+    public OrderPage firstPage() {
+        return index.list(page(null, null), byId::get);
+    }
+
+    @Benchmark
+    public OrderPage middlePage() {
+        return index.list(page(null, middleCursor), byId::get);
+    }
+
+    @Benchmark
+    public OrderPage statusPage() {
+        return index.list(page(OrderStatus.COMPLETED.label(), null), byId::get);
+    }
+
+    private static OrderQuery page(String status, String cursor) {
+        return new OrderQuery(status, null, null, null, null, cursor, PAGE_SIZE);
+    }
+}
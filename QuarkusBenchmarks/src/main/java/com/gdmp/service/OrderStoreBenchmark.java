@@ -0,0 +1,163 @@
+package com.gdmp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gdmp.model.dto.OrderConfiguration;
+import com.gdmp.model.dto.OrderRequest;
+import com.gdmp.model.dto.OrderResponse;
+import com.gdmp.model.dto.OrderSchedule;
+import com.gdmp.model.dto.OrderStatus;
+import com.gdmp.model.dto.PointOfInterest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Durable order saves as made by {@code OrderResource}: three threads save orders to an
+ * {@link OrderStore} in a temporary directory, with and without fsync, while one reads the
+ * latest saved order back. Lives in the service package so it can open the store without a
+ * CDI container.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderStoreBenchmark {
+
+    private static final OrderRequest REQUEST = new OrderRequest("imagery", "electro-optical", "tactical",
+            new OrderConfiguration(new PointOfInterest(50.04, 9.76, 5.0), 20.0, List.of("B02", "B03", "B04"),
+                    "GeoTIFF", "L2A", null),
+            new OrderSchedule("Benchmark order", "2024-06-01", "2024-06-30", "2024-07-31", "standard",
+                    false, null, null, "anytime"));
+
+    @State(Scope.Group)
+    public static class Store {
+
+        @Param({"true", "false"})
+        boolean fsync;
+
+        @Param({"0", "10000"})
+        int preloaded;
+
+        final IdGenerator ids = new IdGenerator();
+        Path directory;
+        OrderStore orders;
+        volatile String lastSaved;
+
+        @Setup(Level.Trial)
+        public void open() throws IOException {
+            ids.init();
+            directory = Files.createTempDirectory("order-store-benchmark");
+            BenchmarkStoreConfig config = new BenchmarkStoreConfig(directory.toString(), fsync);
+            DurableStores stores = new DurableStores();
+            stores.objectMapper = new ObjectMapper();
+            stores.meterRegistry = new SimpleMeterRegistry();
+            stores.config = config;
+            orders = new OrderStore();
+            orders.stores = stores;
+            orders.config = config;
+            orders.init();
+
+            List<CompletableFuture<OrderResponse>> saves = new ArrayList<>(preloaded + 1);
+            for (int i = 0; i <= preloaded; i++) {
+                saves.add(orders.save(create(ids)).toCompletableFuture());
+            }
+            lastSaved = saves.getLast().join().orderId();
+            saves.forEach(CompletableFuture::join);
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws IOException {
+            orders.close();
+            try (Stream<Path> paths = Files.walk(directory)) {
+                for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    @Group("saveAndGet")
+    @GroupThreads(3)
+    public OrderResponse save(Store store) {
+        OrderResponse saved = store.orders.save(create(store.ids)).toCompletableFuture().join();
+        store.lastSaved = saved.orderId();
+        return saved;
+    }
+
+    @Benchmark
+    @Group("saveAndGet")
+    @GroupThreads(1)
+    public OrderResponse get(Store store) {
+        return store.orders.get(store.lastSaved);
+    }
+
+    private static OrderResponse create(IdGenerator ids) {
+        String orderId = ids.next("ORD-");
+        String createdAt = IdGenerator.timestampOf(orderId).toString();
+        return new OrderResponse(orderId, OrderStatus.SUBMITTED.label(), REQUEST.familyId(),
+                REQUEST.productTypeId(), REQUEST.tierId(), REQUEST.configuration(), REQUEST.schedule(),
+                createdAt, createdAt, null);
+    }
+
+    /**
+     * The production store defaults with one directory for both stores and a choice of fsync.
+     */
+    private record BenchmarkStoreConfig(String dir, boolean fsync) implements StoreConfig {
+
+        @Override
+        public int segmentSize() {
+            return 64 << 20;
+        }
+
+        @Override
+        public Duration snapshotInterval() {
+            return Duration.ofMinutes(10);
+        }
+
+        @Override
+        public int maxBatch() {
+            return 1024;
+        }
+
+        @Override
+        public int queueCapacity() {
+            return 65536;
+        }
+
+        @Override
+        public Orders orders() {
+            return () -> dir;
+        }
+
+        @Override
+        public Templates templates() {
+            return () -> dir;
+        }
+    }
+}
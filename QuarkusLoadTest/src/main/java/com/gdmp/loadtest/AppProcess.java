@@ -0,0 +1,110 @@
+package com.gdmp.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The packaged Quarkus app, started as a child JVM with its STAC provider pointed at the
+ * stub. Output goes to {@code app.log} in the working directory; orders and templates are
+ * stored in a fresh temporary directory, so every run starts empty.
+ */
+final class AppProcess implements AutoCloseable {
+
+    private static final Duration START_TIMEOUT = Duration.ofSeconds(60);
+
+    private final Process process;
+    private final URI url;
+
+    private AppProcess(Process process, URI url) {
+        this.process = process;
+        this.url = url;
+    }
+
+    /**
+     * Starts the app and waits until it answers requests.
+     *
+     * @param jar     the app's {@code quarkus-run.jar}
+     * @param port    HTTP port for the app
+     * @param stacUrl STAC API root for {@code copernicus.stac.base-url}
+     * @param options extra system properties as name=value; they override the defaults
+     */
+    static AppProcess start(Path jar, int port, URI stacUrl, List<String> options)
+            throws IOException, InterruptedException {
+        if (!Files.isRegularFile(jar)) {
+            throw new IOException(jar + " not found; package the backend first (./mvnw package in QuarkusBackend)");
+        }
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-Dquarkus.http.port=" + port);
+        command.add("-Dcopernicus.stac.base-url=" + stacUrl);
+        command.add("-Dcatalog.harvester.enabled=false");
+        Path storeDir = Files.createTempDirectory("loadtest-store");
+        command.add("-Dstore.orders.dir=" + storeDir.resolve("orders"));
+        command.add("-Dstore.templates.dir=" + storeDir.resolve("templates"));
+        command.add("-Dquarkus.log.category.\"com.gdmp\".level=INFO");
+        for (String option : options) {
+            command.add("-D" + option);
+        }
+        command.add("-jar");
+        command.add(jar.toString());
+
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(Path.of("app.log").toFile())
+                .start();
+        AppProcess app = new AppProcess(process, URI.create("http://localhost:" + port));
+        try {
+            app.awaitReady();
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            app.close();
+            throw e;
+        }
+        return app;
+    }
+
+    URI url() {
+        return url;
+    }
+
+    @Override
+    public void close() {
+        process.destroy();
+        try {
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitReady() throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest probe = HttpRequest.newBuilder(url.resolve("/api/families")).timeout(Duration.ofSeconds(2)).build();
+        long deadline = System.nanoTime() + START_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IOException("App exited with status " + process.exitValue() + "; see app.log");
+            }
+            try {
+                if (client.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            TimeUnit.MILLISECONDS.sleep(200);
+        }
+        throw new IOException("App did not answer within " + START_TIMEOUT + "; see app.log");
+    }
+}
@@ -0,0 +1,91 @@
+package com.gdmp.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator: each scenario's requests are started on a fixed schedule,
+ * whether or not earlier ones have completed, as independent users would send them.
+ *
+ * One pacing thread per scenario starts requests asynchronously at their scheduled
+ * times. Requests scheduled during the warmup are sent but not recorded. When the
+ * measured period is over, requests still in flight get the drain timeout to finish;
+ * whatever is left then is reported as unfinished.
+ */
+final class ArrivalRateDriver {
+
+    private final HttpClient httpClient;
+    private final Duration warmup;
+    private final Duration duration;
+    private final Duration drainTimeout;
+
+    ArrivalRateDriver(HttpClient httpClient, Duration warmup, Duration duration, Duration drainTimeout) {
+        this.httpClient = httpClient;
+        this.warmup = warmup;
+        this.duration = duration;
+        this.drainTimeout = drainTimeout;
+    }
+
+    List<ScenarioResult> run(List<Scenario> scenarios) throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        List<ScenarioResult> results = new ArrayList<>();
+        List<Thread> pacers = new ArrayList<>();
+        for (Scenario scenario : scenarios) {
+            ScenarioResult result = new ScenarioResult(scenario);
+            results.add(result);
+            pacers.add(Thread.ofPlatform().name("pacer-" + scenario.name())
+                    .start(() -> pace(scenario, result, start, measureFrom, end)));
+        }
+        for (Thread pacer : pacers) {
+            pacer.join();
+        }
+
+        long drainUntil = System.nanoTime() + drainTimeout.toNanos();
+        while (results.stream().anyMatch(result -> result.inFlight() > 0) && System.nanoTime() < drainUntil) {
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+        results.forEach(ScenarioResult::close);
+        return results;
+    }
+
+    private void pace(Scenario scenario, ScenarioResult result, long start, long measureFrom, long end) {
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / scenario.ratePerSecond());
+        for (long i = 0; ; i++) {
+            long scheduled = start + i * interval;
+            if (scheduled >= end) {
+                return;
+            }
+            for (long wait = scheduled - System.nanoTime(); wait > 0; wait = scheduled - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean measured = scheduled >= measureFrom;
+            if (measured) {
+                result.started();
+            }
+            httpClient.sendAsync(scenario.requests().get(), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        if (!measured) {
+                            return;
+                        }
+                        long latency = System.nanoTime() - scheduled;
+                        if (error == null) {
+                            int status = response.statusCode();
+                            result.record(latency, Integer.toString(status), status >= 200 && status < 300);
+                        } else {
+                            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                    ? error.getCause() : error;
+                            result.record(latency, cause.getClass().getSimpleName(), false);
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.gdmp.loadtest;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Log-normal response latency with a given median and 99th percentile, the usual shape of
+ * upstream service latency: most responses near the median and a long tail.
+ */
+record LatencyModel(Duration median, Duration p99) {
+
+    /** z-score of the 99th percentile of the standard normal distribution. */
+    private static final double Z_99 = 2.3263;
+
+    Duration sample() {
+        double medianNanos = median.toNanos();
+        if (p99.compareTo(median) <= 0 || medianNanos <= 0) {
+            return median;
+        }
+        double sigma = Math.log(p99.toNanos() / medianNanos) / Z_99;
+        double nanos = medianNanos * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian());
+        return Duration.ofNanos((long) nanos);
+    }
+}
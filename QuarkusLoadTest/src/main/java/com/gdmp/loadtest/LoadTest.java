@@ -0,0 +1,169 @@
+package com.gdmp.loadtest;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * End-to-end load test of the imagery provider API against a stub STAC server.
+ *
+ * Starts a {@link StubStacServer}, starts the packaged app pointed at it (or uses
+ * {@code --app-url}), drives catalog search, order, and family endpoints at fixed arrival
+ * rates with an {@link ArrivalRateDriver}, and prints throughput and latency percentiles
+ * per scenario. Runs without network access.
+ */
+public final class LoadTest {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 100};
+
+    private static final String ORDER_BODY = """
+            {"familyId":"imagery","productTypeId":"electro-optical","tierId":"tactical",\
+            "configuration":{"poi":{"latitude":50.04,"longitude":9.76,"radiusKm":5.0},"cloudCoverMax":20.0,\
+            "spectralBands":["B02","B03","B04"],"deliveryFormat":"GeoTIFF","processingLevel":"L2A","notes":null},\
+            "schedule":{"orderName":"Load test order","startDate":"2024-06-01","endDate":"2024-06-30",\
+            "expirationDate":"2024-07-31","priority":"standard","recurring":false,"frequency":null,\
+            "dayOfWeek":null,"deliveryWindow":"anytime"}}""";
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (List.of(args).contains("--help")) {
+            System.out.print(LoadTestOptions.USAGE);
+            return;
+        }
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadTestOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        LatencyModel latency = new LatencyModel(options.stubLatency(), options.stubLatencyP99());
+        try (StubStacServer stub = StubStacServer.start(options.stubPort(), latency,
+                options.stubErrorRate(), options.stubErrorStatus())) {
+            System.out.printf("Stub STAC server at %s (latency p50 %s, p99 %s, errors %.1f%% as %d)%n",
+                    stub.baseUrl(), options.stubLatency(), options.stubLatencyP99(),
+                    options.stubErrorRate() * 100, options.stubErrorStatus());
+
+            AppProcess app = null;
+            URI appUrl = options.appUrl();
+            if (appUrl == null) {
+                app = AppProcess.start(options.appJar(), options.appPort(), stub.baseUrl(), options.appOptions());
+                appUrl = app.url();
+            }
+            try {
+                System.out.printf("Driving %s for %s after %s warmup%n", appUrl, options.duration(), options.warmup());
+                HttpClient client = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .connectTimeout(Duration.ofSeconds(5))
+                        .build();
+                List<ScenarioResult> results = new ArrivalRateDriver(client, options.warmup(), options.duration(),
+                        options.drainTimeout()).run(scenarios(options, appUrl));
+                report(System.out, results, options.duration());
+                System.out.printf("Stub served %d searches (%d injected errors) and %d collection requests%n",
+                        stub.searches(), stub.injectedErrors(), stub.collectionRequests());
+            } finally {
+                if (app != null) {
+                    app.close();
+                }
+            }
+        }
+    }
+
+    private static List<Scenario> scenarios(LoadTestOptions options, URI appUrl) {
+        List<Scenario> scenarios = new ArrayList<>();
+        if (options.searchRate() > 0) {
+            List<String> bodies = searchBodies(options.searchAreas());
+            scenarios.add(new Scenario("catalog-search", options.searchRate(), () ->
+                    post(appUrl, "/api/catalog/search",
+                            bodies.get(ThreadLocalRandom.current().nextInt(bodies.size())), options)));
+        }
+        if (options.orderRate() > 0) {
+            scenarios.add(new Scenario("order-create", options.orderRate(),
+                    () -> post(appUrl, "/api/orders", ORDER_BODY, options)));
+        }
+        if (options.orderListRate() > 0) {
+            scenarios.add(new Scenario("order-list", options.orderListRate(), get(appUrl, "/api/orders", options)));
+        }
+        if (options.familiesRate() > 0) {
+            scenarios.add(new Scenario("families", options.familiesRate(), get(appUrl, "/api/families", options)));
+        }
+        return scenarios;
+    }
+
+    /**
+     * Builds search bodies over a fixed, seeded set of areas, so runs are repeatable.
+     */
+    private static List<String> searchBodies(int areas) {
+        Random random = new Random(42);
+        List<String> bodies = new ArrayList<>(areas);
+        for (int i = 0; i < areas; i++) {
+            double size = 0.2 + random.nextDouble() * 2;
+            double west = -170 + random.nextDouble() * 335;
+            double south = -55 + random.nextDouble() * 120;
+            bodies.add(String.format(Locale.ROOT,
+                    "{\"bbox\":[%.4f,%.4f,%.4f,%.4f],\"datetime\":\"2024-06-01T00:00:00Z/2024-06-30T23:59:59Z\","
+                            + "\"collections\":[\"sentinel-2-l2a\"],\"limit\":20}",
+                    west, south, west + size, south + size / 2));
+        }
+        return bodies;
+    }
+
+    private static HttpRequest post(URI appUrl, String path, String body, LoadTestOptions options) {
+        return HttpRequest.newBuilder(appUrl.resolve(path))
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .timeout(options.requestTimeout())
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static Supplier<HttpRequest> get(URI appUrl, String path, LoadTestOptions options) {
+        HttpRequest request = HttpRequest.newBuilder(appUrl.resolve(path))
+                .header("Accept", "application/json")
+                .timeout(options.requestTimeout())
+                .GET()
+                .build();
+        return () -> request;
+    }
+
+    private static void report(PrintStream out, List<ScenarioResult> results, Duration duration) {
+        double seconds = duration.toNanos() / 1e9;
+        out.println();
+        out.printf("%-16s %8s %8s %8s %8s %10s %9s %9s %9s %9s %9s%n", "scenario", "rate/s", "sent", "ok",
+                "failed", "ok/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (ScenarioResult result : results) {
+            long[] latencies = result.percentiles(PERCENTILES);
+            out.printf(Locale.ROOT, "%-16s %8.1f %8d %8d %8d %10.1f %9s %9s %9s %9s %9s%n",
+                    result.scenario().name(), result.scenario().ratePerSecond(), result.sent(), result.successes(),
+                    result.sent() - result.successes(), result.successes() / seconds,
+                    millis(latencies[0]), millis(latencies[1]), millis(latencies[2]),
+                    millis(latencies[3]), millis(latencies[4]));
+        }
+        out.println();
+        for (ScenarioResult result : results) {
+            StringBuilder outcomes = new StringBuilder();
+            for (Map.Entry<String, Long> outcome : result.outcomes().entrySet()) {
+                outcomes.append(outcomes.isEmpty() ? "" : ", ").append(outcome.getKey()).append('=').append(outcome.getValue());
+            }
+            out.printf("%-16s %s%n", result.scenario().name(), outcomes);
+        }
+    }
+
+    private static String millis(long nanos) {
+        return nanos < 0 ? "-" : String.format(Locale.ROOT, "%.1f", nanos / 1e6);
+    }
+}
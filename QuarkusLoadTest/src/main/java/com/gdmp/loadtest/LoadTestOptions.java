@@ -0,0 +1,161 @@
+package com.gdmp.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Command line options of the load test, given as {@code --name=value}.
+ */
+record LoadTestOptions(
+        /** Measured run length, after the warmup */
+        Duration duration,
+
+        /** Initial run time whose requests are sent but not reported */
+        Duration warmup,
+
+        /** Catalog searches per second */
+        double searchRate,
+
+        /** Order creations per second */
+        double orderRate,
+
+        /** Order list requests per second */
+        double orderListRate,
+
+        /** Product family list requests per second */
+        double familiesRate,
+
+        /** Number of distinct search areas to pick from; fewer means more cache hits */
+        int searchAreas,
+
+        /** Median latency of stub STAC responses */
+        Duration stubLatency,
+
+        /** 99th percentile latency of stub STAC responses; log-normal in between */
+        Duration stubLatencyP99,
+
+        /** Share of stub /search requests answered with stubErrorStatus */
+        double stubErrorRate,
+
+        /** HTTP status injected errors are answered with */
+        int stubErrorStatus,
+
+        /** Stub server port; 0 picks a free one */
+        int stubPort,
+
+        /** URL of an already running app to test; null starts appJar */
+        URI appUrl,
+
+        /** Quarkus app to start, pointed at the stub */
+        Path appJar,
+
+        /** HTTP port of the started app */
+        int appPort,
+
+        /** Extra system properties for the started app, as name=value */
+        List<String> appOptions,
+
+        /** Per-request timeout of the load generator */
+        Duration requestTimeout,
+
+        /** How long to wait for requests still in flight when the run ends */
+        Duration drainTimeout
+) {
+
+    static final String USAGE = """
+            Usage: java -jar loadtest.jar [--name=value ...]
+              --duration=60s          measured run length
+              --warmup=10s            unreported warmup before it
+              --search-rate=20        POST /api/catalog/search per second (0 disables)
+              --order-rate=5          POST /api/orders per second
+              --order-list-rate=2     GET /api/orders per second
+              --families-rate=50      GET /api/families per second
+              --search-areas=500      distinct search bboxes
+              --stub-latency=300ms    median stub STAC latency
+              --stub-latency-p99=2s   p99 stub STAC latency
+              --stub-error-rate=0.01  share of stub searches that fail
+              --stub-error-status=503 status of injected failures
+              --stub-port=0           stub server port
+              --app-url=URL           test a running app instead of starting one
+              --app-jar=PATH          app to start (../QuarkusBackend/target/quarkus-app/quarkus-run.jar)
+              --app-port=8081         port of the started app
+              --app-opt=name=value    system property for the started app (repeatable)
+              --request-timeout=30s   load generator request timeout
+              --drain-timeout=30s     wait for in-flight requests at the end
+            """;
+
+    static LoadTestOptions parse(String[] args) {
+        Duration duration = Duration.ofSeconds(60);
+        Duration warmup = Duration.ofSeconds(10);
+        double searchRate = 20;
+        double orderRate = 5;
+        double orderListRate = 2;
+        double familiesRate = 50;
+        int searchAreas = 500;
+        Duration stubLatency = Duration.ofMillis(300);
+        Duration stubLatencyP99 = Duration.ofSeconds(2);
+        double stubErrorRate = 0.01;
+        int stubErrorStatus = 503;
+        int stubPort = 0;
+        URI appUrl = null;
+        Path appJar = Path.of("../QuarkusBackend/target/quarkus-app/quarkus-run.jar");
+        int appPort = 8081;
+        List<String> appOptions = new ArrayList<>();
+        Duration requestTimeout = Duration.ofSeconds(30);
+        Duration drainTimeout = Duration.ofSeconds(30);
+
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            String name = arg.substring(2, eq);
+            String value = arg.substring(eq + 1);
+            switch (name) {
+                case "duration" -> duration = duration(value);
+                case "warmup" -> warmup = duration(value);
+                case "search-rate" -> searchRate = Double.parseDouble(value);
+                case "order-rate" -> orderRate = Double.parseDouble(value);
+                case "order-list-rate" -> orderListRate = Double.parseDouble(value);
+                case "families-rate" -> familiesRate = Double.parseDouble(value);
+                case "search-areas" -> searchAreas = Integer.parseInt(value);
+                case "stub-latency" -> stubLatency = duration(value);
+                case "stub-latency-p99" -> stubLatencyP99 = duration(value);
+                case "stub-error-rate" -> stubErrorRate = Double.parseDouble(value);
+                case "stub-error-status" -> stubErrorStatus = Integer.parseInt(value);
+                case "stub-port" -> stubPort = Integer.parseInt(value);
+                case "app-url" -> appUrl = URI.create(value.endsWith("/") ? value.substring(0, value.length() - 1) : value);
+                case "app-jar" -> appJar = Path.of(value);
+                case "app-port" -> appPort = Integer.parseInt(value);
+                case "app-opt" -> appOptions.add(value);
+                case "request-timeout" -> requestTimeout = duration(value);
+                case "drain-timeout" -> drainTimeout = duration(value);
+                default -> throw new IllegalArgumentException("Unknown option --" + name);
+            }
+        }
+        return new LoadTestOptions(duration, warmup, searchRate, orderRate, orderListRate, familiesRate,
+                searchAreas, stubLatency, stubLatencyP99, stubErrorRate, stubErrorStatus, stubPort,
+                appUrl, appJar, appPort, List.copyOf(appOptions), requestTimeout, drainTimeout);
+    }
+
+    /**
+     * Parses durations written like the app's configuration: 500ms, 30s, 2m, 1h.
+     */
+    static Duration duration(String value) {
+        String text = value.trim().toLowerCase(Locale.ROOT);
+        if (text.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(text.substring(0, text.length() - 2)));
+        }
+        long amount = Long.parseLong(text.substring(0, text.length() - 1));
+        return switch (text.charAt(text.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException("Malformed duration " + value);
+        };
+    }
+}
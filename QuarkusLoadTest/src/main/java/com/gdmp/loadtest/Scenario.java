@@ -0,0 +1,13 @@
+package com.gdmp.loadtest;
+
+import java.net.http.HttpRequest;
+import java.util.function.Supplier;
+
+/**
+ * One stream of requests sent at a fixed arrival rate.
+ *
+ * @param name          name shown in the report
+ * @param ratePerSecond requests started per second, regardless of how many are still in flight
+ * @param requests      builds each request
+ */
+record Scenario(String name, double ratePerSecond, Supplier<HttpRequest> requests) {}
@@ -0,0 +1,107 @@
+package com.gdmp.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Collects the outcomes of one scenario's measured requests.
+ *
+ * Latencies are kept in full (a run of minutes at hundreds of requests per second is a
+ * few megabytes) and sorted once for the report. Latency runs from the moment the request
+ * was due to be sent, not from when it actually was, so a saturated load generator or app
+ * shows up as latency instead of silently lowering the rate.
+ */
+final class ScenarioResult {
+
+    private final Scenario scenario;
+    private long[] latencies = new long[1024];
+    private int count;
+    private long successes;
+    private long inFlight;
+    private long unfinished;
+    private boolean closed;
+    private final Map<String, Long> outcomes = new TreeMap<>();
+
+    ScenarioResult(Scenario scenario) {
+        this.scenario = scenario;
+    }
+
+    Scenario scenario() {
+        return scenario;
+    }
+
+    /**
+     * Counts a measured request as sent.
+     */
+    synchronized void started() {
+        inFlight++;
+    }
+
+    synchronized long inFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Records a finished request; ignored once the result is closed.
+     *
+     * @param latencyNanos time from the scheduled send to the complete response
+     * @param outcome      HTTP status, or the failure's exception name
+     * @param success      true for a 2xx status
+     */
+    synchronized void record(long latencyNanos, String outcome, boolean success) {
+        if (closed) {
+            return;
+        }
+        inFlight--;
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+        if (success) {
+            successes++;
+        }
+        outcomes.merge(outcome, 1L, Long::sum);
+    }
+
+    /**
+     * Stops recording and counts the requests still in flight as unfinished.
+     */
+    synchronized void close() {
+        closed = true;
+        unfinished = inFlight;
+        if (unfinished > 0) {
+            outcomes.put("unfinished", unfinished);
+        }
+    }
+
+    synchronized long completed() {
+        return count;
+    }
+
+    synchronized long successes() {
+        return successes;
+    }
+
+    synchronized long sent() {
+        return count + unfinished;
+    }
+
+    synchronized Map<String, Long> outcomes() {
+        return new TreeMap<>(outcomes);
+    }
+
+    /**
+     * Returns latency percentiles in nanoseconds, each between 0 and 100; -1 without samples.
+     */
+    synchronized long[] percentiles(double... percentiles) {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        long[] values = new long[percentiles.length];
+        for (int i = 0; i < percentiles.length; i++) {
+            int rank = (int) Math.ceil(percentiles[i] / 100 * count) - 1;
+            values[i] = count == 0 ? -1 : sorted[Math.max(0, Math.min(count - 1, rank))];
+        }
+        return values;
+    }
+}
@@ -0,0 +1,215 @@
+package com.gdmp.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stand-in for the Copernicus STAC API, serving {@code /stac/search} and
+ * {@code /stac/collections} from recorded responses.
+ *
+ * Every /search response is delayed by a {@link LatencyModel} sample, and a configurable
+ * share of them fail with an injected status. Search pages hold {@code limit} Sentinel-2
+ * items whose footprints are the requested bbox, five pages per search, linked by POST
+ * {@code rel=next} links with a merge body like the real API. /collections honours
+ * If-None-Match. Requests are handled on virtual threads, so slow responses do not limit
+ * how many are served at once.
+ */
+final class StubStacServer implements AutoCloseable {
+
+    private static final String CONTEXT = "/stac";
+    private static final int PAGES = 5;
+    private static final int MAX_LIMIT = 100;
+    private static final String COLLECTIONS_ETAG = "\"stub-collections-1\"";
+
+    private static final Pattern LIMIT = Pattern.compile("\"limit\"\\s*:\\s*(\\d+)");
+    private static final Pattern PAGE_TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"page-(\\d+)\"");
+    private static final Pattern BBOX = Pattern.compile("\"bbox\"\\s*:\\s*\\[([^\\]]*)]");
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final LatencyModel latency;
+    private final double errorRate;
+    private final int errorStatus;
+    private final String itemTemplate;
+    private final String collections;
+
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder injectedErrors = new LongAdder();
+    private final LongAdder collectionRequests = new LongAdder();
+
+    private StubStacServer(HttpServer server, LatencyModel latency, double errorRate, int errorStatus) {
+        this.server = server;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.latency = latency;
+        this.errorRate = errorRate;
+        this.errorStatus = errorStatus;
+        String base = "http://localhost:" + server.getAddress().getPort() + CONTEXT;
+        this.itemTemplate = resource("/stub/search-item.json").replace("{{base}}", base);
+        this.collections = resource("/stub/collections.json").replace("{{base}}", base);
+    }
+
+    /**
+     * Starts the stub on the given port (0 for any free port).
+     */
+    static StubStacServer start(int port, LatencyModel latency, double errorRate, int errorStatus) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", port), 1024);
+        StubStacServer stub = new StubStacServer(server, latency, errorRate, errorStatus);
+        server.setExecutor(stub.executor);
+        server.createContext(CONTEXT + "/search", stub::handleSearch);
+        server.createContext(CONTEXT + "/collections", stub::handleCollections);
+        server.start();
+        return stub;
+    }
+
+    /**
+     * Returns the STAC API root to configure as {@code copernicus.stac.base-url}.
+     */
+    URI baseUrl() {
+        return URI.create("http://localhost:" + server.getAddress().getPort() + CONTEXT);
+    }
+
+    long searches() {
+        return searches.sum();
+    }
+
+    long injectedErrors() {
+        return injectedErrors.sum();
+    }
+
+    long collectionRequests() {
+        return collectionRequests.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handleSearch(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                send(exchange, 405, "{\"code\":\"MethodNotAllowed\"}");
+                return;
+            }
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            searches.increment();
+            sleep(latency.sample());
+            if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+                injectedErrors.increment();
+                send(exchange, errorStatus, "{\"code\":\"ServiceUnavailable\",\"description\":\"Injected failure\"}");
+                return;
+            }
+            int limit = Math.min(MAX_LIMIT, intMatch(LIMIT, body, 10));
+            int page = intMatch(PAGE_TOKEN, body, 0);
+            send(exchange, 200, searchPage(limit, page, bbox(body)));
+        }
+    }
+
+    private void handleCollections(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            collectionRequests.increment();
+            exchange.getResponseHeaders().set("ETag", COLLECTIONS_ETAG);
+            if (COLLECTIONS_ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+            send(exchange, 200, collections);
+        }
+    }
+
+    private String searchPage(int limit, int page, double[] bbox) {
+        StringBuilder json = new StringBuilder(limit * itemTemplate.length() + 512);
+        json.append("{\"type\":\"FeatureCollection\",\"features\":[");
+        long seed = ThreadLocalRandom.current().nextLong(1L << 40);
+        for (int i = 0; i < limit; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            String datetime = String.format(Locale.ROOT, "2024-06-%02dT10:%02d:%02d.024000Z",
+                    28 - (page * limit + i) % 28, i % 60, (page * 7 + i) % 60);
+            json.append(itemTemplate
+                    .replace("{{id}}", "S2B_MSIL2A_STUB_" + Long.toHexString(seed) + "_" + page + "_" + i)
+                    .replace("{{datetime}}", datetime)
+                    .replace("{{west}}", Double.toString(bbox[0]))
+                    .replace("{{south}}", Double.toString(bbox[1]))
+                    .replace("{{east}}", Double.toString(bbox[2]))
+                    .replace("{{north}}", Double.toString(bbox[3])));
+        }
+        json.append("],\"numberMatched\":").append(limit * PAGES)
+                .append(",\"numberReturned\":").append(limit)
+                .append(",\"links\":[");
+        if (page + 1 < PAGES) {
+            json.append("{\"rel\":\"next\",\"type\":\"application/geo+json\",\"method\":\"POST\",\"merge\":true,")
+                    .append("\"href\":\"").append(baseUrl()).append("/search\",")
+                    .append("\"body\":{\"token\":\"page-").append(page + 1).append("\"}}");
+        }
+        return json.append("]}").toString();
+    }
+
+    private static double[] bbox(String body) {
+        Matcher matcher = BBOX.matcher(body);
+        if (matcher.find()) {
+            String[] parts = matcher.group(1).split(",");
+            if (parts.length == 4) {
+                double[] bbox = new double[4];
+                for (int i = 0; i < 4; i++) {
+                    bbox[i] = Double.parseDouble(parts[i].trim());
+                }
+                return bbox;
+            }
+        }
+        return new double[] {9.0, 49.5, 10.5, 50.5};
+    }
+
+    private static int intMatch(Pattern pattern, String body, int fallback) {
+        Matcher matcher = pattern.matcher(body);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : fallback;
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type",
+                status == 200 && exchange.getRequestURI().getPath().endsWith("/search")
+                        ? "application/geo+json" : "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String resource(String name) {
+        try (InputStream in = StubStacServer.class.getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing stub resource " + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).trim();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}